@@ -0,0 +1,188 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * The graph of the edges of the <a
+ * href="http://en.wikipedia.org/wiki/Delaunay_triangulation">Delaunay
+ * triangulation</a> of the nodes of a two-dimensional, coordinate-based
+ * problem instance. It is a sparse graph with less than {@code 3n} edges,
+ * i.e., on average less than six neighbors per node, which contains a
+ * minimum spanning tree and almost all edges of good tours, so it is a
+ * much cheaper replacement for the complete graph in tour construction
+ * heuristics and local searches. It is obtained via
+ * {@link SpatialIndex#getDelaunayGraph()}, which builds it in
+ * {@code O(n log n)} time, see
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._DelaunayTriangulator}
+ * .
+ * </p>
+ * <p>
+ * Nodes at the same location are triangulated only once: the node with
+ * the smallest index takes part in the triangulation and each other node
+ * at its location is connected only to it. Hence, the graph is always
+ * connected. The neighbors of each node are stored sorted by their index.
+ * The graph is immutable and can be used by several threads at once.
+ * </p>
+ */
+public final class DelaunayGraph {
+
+  /** the number of nodes */
+  private final int m_n;
+
+  /**
+   * the neighbors of node {@code i} are stored at the indices
+   * {@code m_offsets[i-1]} to {@code m_offsets[i]-1} in
+   * {@link #m_neighbors}
+   */
+  private final int[] m_offsets;
+
+  /** the neighbors of all nodes */
+  private final int[] m_neighbors;
+
+  /**
+   * create
+   *
+   * @param offsets
+   *          the offsets of the neighbor lists
+   * @param neighbors
+   *          the neighbors
+   */
+  private DelaunayGraph(final int[] offsets, final int[] neighbors) {
+    super();
+    this.m_n = (offsets.length - 1);
+    this.m_offsets = offsets;
+    this.m_neighbors = neighbors;
+  }
+
+  /**
+   * Build the Delaunay graph of a set of points.
+   *
+   * @param x
+   *          the first coordinates of the nodes, ordered by node index
+   * @param y
+   *          the second coordinates of the nodes, ordered by node index
+   * @return the graph
+   */
+  static final DelaunayGraph _build(final double[] x, final double[] y) {
+    final int n;
+    final int[] rep, edges, offsets, neighbors, fill;
+    int i, a, b;
+
+    n = x.length;
+    rep = new int[n];
+    edges = _DelaunayTriangulator.triangulate(x, y, rep);
+
+    offsets = new int[n + 1];
+    for (i = edges.length; (--i) >= 0;) {
+      offsets[edges[i] + 1]++;
+    }
+    for (i = n; (--i) >= 0;) {
+      if (rep[i] != i) {
+        offsets[i + 1]++;
+        offsets[rep[i] + 1]++;
+      }
+    }
+    for (i = 0; i < n; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+
+    neighbors = new int[offsets[n]];
+    fill = Arrays.copyOf(offsets, n);
+    for (i = 0; i < edges.length; i += 2) {
+      a = edges[i];
+      b = edges[i + 1];
+      neighbors[fill[a]++] = (b + 1);
+      neighbors[fill[b]++] = (a + 1);
+    }
+    for (i = 0; i < n; i++) {
+      a = rep[i];
+      if (a != i) {
+        neighbors[fill[a]++] = (i + 1);
+        neighbors[fill[i]++] = (a + 1);
+      }
+    }
+    for (i = 0; i < n; i++) {
+      Arrays.sort(neighbors, offsets[i], offsets[i + 1]);
+    }
+
+    return new DelaunayGraph(offsets, neighbors);
+  }
+
+  /**
+   * Get the number of nodes
+   *
+   * @return the number of nodes
+   */
+  public final int n() {
+    return this.m_n;
+  }
+
+  /**
+   * Get the number of (undirected) edges
+   *
+   * @return the number of edges
+   */
+  public final int edgeCount() {
+    return (this.m_neighbors.length >>> 1);
+  }
+
+  /**
+   * Get the number of neighbors of a node
+   *
+   * @param node
+   *          the node (1-based)
+   * @return the number of neighbors of {@code node}
+   */
+  public final int degree(final int node) {
+    return (this.m_offsets[node] - this.m_offsets[node - 1]);
+  }
+
+  /**
+   * Get a neighbor of a node. The neighbors are sorted by their index.
+   *
+   * @param node
+   *          the node (1-based)
+   * @param index
+   *          the index of the neighbor, a value in
+   *          <code>0..{@link #degree(int) degree}(node)-1</code>
+   * @return the neighbor
+   */
+  public final int neighbor(final int node, final int index) {
+    return this.m_neighbors[this.m_offsets[node - 1] + index];
+  }
+
+  /**
+   * Copy the neighbors of a node into an array.
+   *
+   * @param node
+   *          the node (1-based)
+   * @param dest
+   *          the destination array, of length at least
+   *          <code>{@link #degree(int) degree}(node)</code>
+   * @return the number of neighbors
+   */
+  public final int neighbors(final int node, final int[] dest) {
+    final int start, count;
+
+    start = this.m_offsets[node - 1];
+    count = (this.m_offsets[node] - start);
+    System.arraycopy(this.m_neighbors, start, dest, 0, count);
+    return count;
+  }
+
+  /**
+   * Check whether two nodes are connected by an edge, in
+   * {@code O(log degree)} steps
+   *
+   * @param a
+   *          the first node (1-based)
+   * @param b
+   *          the second node (1-based)
+   * @return {@code true} if {@code a} and {@code b} are neighbors
+   */
+  public final boolean isEdge(final int a, final int b) {
+    return (Arrays.binarySearch(this.m_neighbors, this.m_offsets[a - 1],
+        this.m_offsets[a], b) >= 0);
+  }
+}
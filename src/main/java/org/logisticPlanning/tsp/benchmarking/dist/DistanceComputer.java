@@ -412,6 +412,12 @@ import java.util.ArrayList;
  */
 public abstract class DistanceComputer extends _Constants {
 
+  /** the suggested file name suffix for memory-mapped matrix files */
+  public static final String MATRIX_FILE_SUFFIX = ".dmat"; //$NON-NLS-1$
+
+  /** the suggested file name suffix for binary instance files */
+  public static final String BINARY_FILE_SUFFIX = ".tspb"; //$NON-NLS-1$
+
   /** the number of nodes */
   protected final int m_n;
 
@@ -442,6 +448,57 @@ public abstract class DistanceComputer extends _Constants {
    */
   public abstract int distance(final int i, final int j);
 
+  /**
+   * Compute the distances from one node to a list of other nodes at once,
+   * i.e., set {@code dest[k]=distance(i, nodes[k])} for all
+   * <code>k&isin;0..count-1</code>. Algorithms which scan the neighborhood
+   * of a node should prefer this method over calling
+   * {@link #distance(int, int)} {@code count} times, since implementations
+   * may load the data of node {@code i} only once and avoid the virtual
+   * call per distance.
+   *
+   * @param i
+   *          the node (1-based) from which the distances are computed
+   * @param nodes
+   *          the nodes (1-based) to which the distances are computed
+   * @param count
+   *          the number of nodes to use from the beginning of
+   *          {@code nodes}
+   * @param dest
+   *          the array receiving the {@code count} distances
+   */
+  public void distances(final int i, final int[] nodes, final int count,
+      final int[] dest) {
+    int k;
+
+    for (k = 0; k < count; k++) {
+      dest[k] = this.distance(i, nodes[k]);
+    }
+  }
+
+  /**
+   * Compute the lengths of {@code count} edges at once. The edges are
+   * stored as consecutive pairs of nodes in {@code edges}, i.e., set
+   * {@code dest[k]=distance(edges[2*k], edges[2*k+1])} for all
+   * <code>k&isin;0..count-1</code>.
+   *
+   * @param edges
+   *          the array with {@code 2*count} node indices (1-based)
+   * @param count
+   *          the number of edges
+   * @param dest
+   *          the array receiving the {@code count} distances
+   */
+  public void edgeDistances(final int[] edges, final int count,
+      final int[] dest) {
+    int k, a;
+
+    a = 0;
+    for (k = 0; k < count; k++) {
+      dest[k] = this.distance(edges[a++], edges[a++]);
+    }
+  }
+
   /**
    * <p>
    * Compute the total round-trip distance of a complete candidate solution
@@ -531,6 +588,21 @@ public abstract class DistanceComputer extends _Constants {
     return this.m_n;
   }
 
+  /**
+   * Get the {@link SpatialIndex spatial index} of the coordinates of the
+   * nodes, which answers nearest-neighbor and fixed-radius queries in
+   * about {@code O(log n)} time. The index is only available if the
+   * distances are computed from coordinates in a way which allows the
+   * index to bound them, i.e., for Euclidean, ceiled Euclidean,
+   * pseudo-Euclidean, Manhattan, and maximum distances.
+   *
+   * @return the spatial index, or {@code null} if this distance computer
+   *         has no suitable coordinates
+   */
+  public SpatialIndex getSpatialIndex() {
+    return null;
+  }
+
   /**
    * Print the contents of this distance measuring object.
    *
@@ -674,11 +746,101 @@ public abstract class DistanceComputer extends _Constants {
   public static final DistanceComputer read(final BufferedReader br,
       final int matrixLimitDim, final boolean intHint,
       final boolean symmetricHint) throws IOException {
+    return DistanceComputer.read(br,
+        DistanceComputer.matrixLimitBytes(matrixLimitDim), intHint,
+        symmetricHint, null);
+  }
+
+  /**
+   * Translate a limit for the dimension of automatically created distance
+   * matrices into a limit for the memory they may occupy: The returned
+   * value is the number of bytes which a symmetric matrix of {@code int}
+   * values with {@code matrixLimitDim} nodes would occupy. Since distance
+   * matrices are stored with the narrowest possible data type, matrices of
+   * instances with more nodes may fit into this limit if their distances
+   * are small enough.
+   *
+   * @param matrixLimitDim
+   *          the highest dimension for which coordinate lists should
+   *          automatically be transformed to {@code int} matrices
+   * @return the corresponding limit in bytes
+   */
+  public static final long matrixLimitBytes(final int matrixLimitDim) {
+    final long entries;
+
+    if (matrixLimitDim <= 1) {
+      return 0l;
+    }
+    entries = ((((long) matrixLimitDim) * (matrixLimitDim - 1l)) >>> 1l);
+    if (entries >= (Long.MAX_VALUE >>> 2l)) {
+      return Long.MAX_VALUE;
+    }
+    return (entries << 2l);
+  }
+
+  /**
+   * <p>
+   * Load a distance computer from a buffered reader, possibly using a
+   * memory-mapped distance matrix file. This method works like
+   * {@link #read(BufferedReader, int, boolean, boolean)}, but the decision
+   * whether a coordinate list is transformed to a distance matrix is based
+   * on the memory the matrix would occupy: Each matrix is stored with the
+   * narrowest data type that can hold all of its distances, i.e., with 8,
+   * 16, or 32 bits per entry. To find this type, the largest distance is
+   * determined first. The coordinate list is transformed if the resulting
+   * matrix needs at most {@code matrixLimitBytes} bytes. Explicitly
+   * specified matrices are always loaded and then stored in the narrowest
+   * possible type as well.
+   * </p>
+   * <p>
+   * If the data is a coordinate list whose matrix would fit into
+   * {@code matrixLimitBytes} and {@code mappedMatrix} is not
+   * {@code null}, then a distance matrix that does not fit on the Java
+   * heap is not silently replaced by the coordinate list anymore. Instead,
+   * if the matrix would exceed the maximum dimension of 46'342 nodes of
+   * the heap-based matrix or if its allocation causes an
+   * {@link java.lang.OutOfMemoryError}, the lower triangle of the matrix
+   * is stored in the file {@code mappedMatrix} which is then mapped into
+   * memory.
+   * </p>
+   * <p>
+   * The matrix file survives the current process: If {@code mappedMatrix}
+   * already holds a complete matrix of the right dimension, it is mapped
+   * directly instead of computing the distances again. The coordinates
+   * are still parsed, since the matrix needs them to provide its
+   * {@link #getSpatialIndex() spatial index}. It is the responsibility of
+   * the caller to use one file per problem instance.
+   * </p>
+   *
+   * @param br
+   *          the buffered reader
+   * @param intHint
+   *          if this parameter is {@code true} and the input defines a
+   *          list of coordinates, the coordinates are assumed to be
+   *          integer valued. This can speed up loading and distance
+   *          computations and saves memory. It will crash when the
+   *          coordinates are actually floating point numbers. This is only
+   *          available for internal purposes.
+   * @param matrixLimitBytes
+   *          the maximum number of bytes that a distance matrix
+   *          automatically created from a coordinate list may occupy
+   * @param symmetricHint
+   *          Is the problem definitely symmetric?
+   * @param mappedMatrix
+   *          the file to hold the memory-mapped distance matrix, or
+   *          {@code null} if only heap-based matrices should be used
+   * @return the distance computer
+   * @throws IOException
+   *           if i/o fails or the stream is not correctly formatted
+   */
+  public static final DistanceComputer read(final BufferedReader br,
+      final long matrixLimitBytes, final boolean intHint,
+      final boolean symmetricHint, final File mappedMatrix)
+      throws IOException {
     String s, t, ewt, ewf;
     ArrayList<String> pb;
     int dimension, have, i;
     DistanceComputer chosen;
-    _DistanceMatrixSymmetric chosen2;
 
     dimension = -1;
     pb = null;
@@ -833,9 +995,9 @@ public abstract class DistanceComputer extends _Constants {
 
         if (_Constants.FULL_MATRIX_STR.equalsIgnoreCase(ewf)) {
           if (symmetricHint) {
-            chosen = new _DistanceMatrixSymmetric(dimension);
+            chosen = new _DistanceMatrixSymmetricInt(dimension);
           } else {
-            chosen = new _DistanceMatrixAsymmetric(dimension);
+            chosen = new _DistanceMatrixAsymmetricInt(dimension);
           }
           break choose;
         }
@@ -848,31 +1010,117 @@ public abstract class DistanceComputer extends _Constants {
             _Constants.UPPER_COL_STR.equalsIgnoreCase(ewf) || //
             _Constants.LOWER_DIAG_COL_STR.equalsIgnoreCase(ewf) || //
             _Constants.UPPER_DIAG_COL_STR.equalsIgnoreCase(ewf)) {
-          chosen = new _DistanceMatrixSymmetric(dimension);
+          chosen = new _DistanceMatrixSymmetricInt(dimension);
           break choose;
         }
       }
 
       if (chosen != null) {
+        // a matrix file created in an earlier run is reused by toMatrix,
+        // which attaches the coordinates to it
         chosen.load(_PushBackReader.wrap(pb, br));
-        if (!(chosen instanceof _DistanceMatrix)) {
-          if (dimension <= matrixLimitDim) {
-            try {
-              chosen2 = new _DistanceMatrixSymmetric(dimension);
-              chosen2.fillFrom(chosen);
-              chosen = chosen2;
-            } catch (final OutOfMemoryError ome) {
-              //
-            }
-          }
-        }
-        return chosen;
+        return DistanceComputer.toMatrix(chosen, matrixLimitBytes,
+            mappedMatrix);
       }
     }
 
     throw new IOException("Error loading distance computer."); //$NON-NLS-1$
   }
 
+  /**
+   * <p>
+   * Translate a distance computer loaded from a problem instance into the
+   * most efficient representation that fits into the given memory limit.
+   * Distance matrices are stored with the narrowest possible data type. A
+   * coordinate list is transformed into a matrix with the narrowest
+   * possible data type if this matrix occupies at most
+   * {@code matrixLimitBytes} bytes. If it does not fit onto the Java heap
+   * and {@code mappedMatrix} is not {@code null}, a memory-mapped matrix
+   * is created in (or loaded from) that file. Otherwise, the coordinate
+   * list is returned. Geographical coordinate lists are first wrapped
+   * into a distance computer which pre-computes the trigonometric
+   * functions of all coordinates, as this speeds up both the creation of
+   * the matrix and the distance computations without it. A matrix created
+   * from a coordinate list keeps a reference to it in order to provide its
+   * {@link #getSpatialIndex() spatial index}.
+   * </p>
+   * <p>
+   * This method is used by
+   * {@link #read(BufferedReader, long, boolean, boolean, File)} after
+   * parsing an instance and can be applied to instances loaded with
+   * {@link #readBinary(File)}.
+   * </p>
+   *
+   * @param src
+   *          the distance computer
+   * @param matrixLimitBytes
+   *          the maximum number of bytes that a distance matrix
+   *          automatically created from a coordinate list may occupy
+   * @param mappedMatrix
+   *          the file to hold the memory-mapped distance matrix, or
+   *          {@code null} if only heap-based matrices should be used
+   * @return the distance computer to use
+   * @throws IOException
+   *           if i/o fails
+   */
+  public static final DistanceComputer toMatrix(final DistanceComputer src,
+      final long matrixLimitBytes, final File mappedMatrix)
+      throws IOException {
+    final DistanceComputer raw;
+    final int dimension;
+    final int maxDist;
+    final _DistanceMatrix matrix;
+    _DistanceMatrixMapped mapped;
+
+    if (src instanceof _DistanceMatrix) {
+      return ((_DistanceMatrix) src).compact();
+    }
+    if (src instanceof _DistanceMatrixMapped) {
+      return src;
+    }
+    raw = _2DGeoDistancePrecomputed.wrap(src);
+
+    // even a byte-based matrix would be too big: don't scan
+    dimension = raw.m_n;
+    if (_DistanceMatrixMapped.entries(dimension) > matrixLimitBytes) {
+      return raw;
+    }
+
+    if (mappedMatrix != null) {
+      // a matrix file created in an earlier run can be used directly
+      mapped = _DistanceMatrixMapped.open(mappedMatrix, dimension);
+      if ((mapped != null) && (mapped.bytes() <= matrixLimitBytes)) {
+        mapped.m_coordinates = raw;
+        return mapped;
+      }
+    }
+
+    maxDist = _DistanceMatrix.maxDistance(raw, true);
+    if (_DistanceMatrix.bytes(dimension, true, maxDist) > matrixLimitBytes) {
+      return raw;
+    }
+
+    if (dimension <= _DistanceMatrixSymmetric.MAX_DIMENSION) {
+      try {
+        matrix = _DistanceMatrix.allocate(dimension, true, maxDist);
+        matrix.fillFrom(raw);
+        matrix.m_coordinates = raw;
+        return matrix;
+      } catch (final OutOfMemoryError ome) {
+        if (mappedMatrix == null) {
+          return raw;
+        }
+      }
+    }
+    if (mappedMatrix != null) {
+      mapped = _DistanceMatrixMapped.openOrCreate(mappedMatrix, raw,
+          maxDist);
+      mapped.m_coordinates = raw;
+      return mapped;
+    }
+    return raw;
+  }
+
   /**
    * <p>
    * Load a distance computer from a {@link java.io.Reader}. The procedure
@@ -953,6 +1201,137 @@ public abstract class DistanceComputer extends _Constants {
     }
   }
 
+  /**
+   * Load a distance computer from an {@link java.io.InputStream}, possibly
+   * using a memory-mapped distance matrix file. Please read the
+   * documentation of
+   * {@link #read(BufferedReader, long, boolean, boolean, File)} for a
+   * detailed explanation of the parameters.
+   *
+   * @param is
+   *          the input stream
+   * @param intHint
+   *          if this parameter is {@code true} and the input defines a
+   *          list of coordinates, the coordinates are assumed to be
+   *          integer valued.
+   * @param matrixLimitBytes
+   *          the maximum number of bytes that a distance matrix
+   *          automatically created from a coordinate list may occupy
+   * @param symmetricHint
+   *          Is the problem definitely symmetric?
+   * @param mappedMatrix
+   *          the file to hold the memory-mapped distance matrix, or
+   *          {@code null} if only heap-based matrices should be used
+   * @return the distance computer
+   * @throws IOException
+   *           if i/o fails or the stream is not correctly formatted
+   */
+  public static final DistanceComputer read(final InputStream is,
+      final long matrixLimitBytes, final boolean intHint,
+      final boolean symmetricHint, final File mappedMatrix)
+      throws IOException {
+    try (InputStreamReader r = new InputStreamReader(is)) {
+      try (BufferedReader br = new BufferedReader(r)) {
+        return DistanceComputer.read(br, matrixLimitBytes, intHint,
+            symmetricHint, mappedMatrix);
+      }
+    }
+  }
+
+  /**
+   * Write a distance computer to a pre-parsed binary instance file which
+   * can be loaded much faster than a TSPLib text file via
+   * {@link #readBinary(File)}. The file holds a small header, the
+   * coordinates or matrix data in their internal representation, and a
+   * checksum. It is written to a temporary file first which is then
+   * atomically renamed. Only coordinate-based distance computers and
+   * heap-based distance matrices can be stored.
+   *
+   * @param dc
+   *          the distance computer
+   * @param file
+   *          the destination file
+   * @throws IOException
+   *           if i/o fails
+   */
+  public static final void writeBinary(final DistanceComputer dc,
+      final File file) throws IOException {
+    _BinaryFormat.write(dc, file);
+  }
+
+  /**
+   * Load a distance computer from a binary instance file written by
+   * {@link #writeBinary(DistanceComputer, File)}. The distance computer is
+   * returned exactly as it was stored, i.e., no transformation to a matrix
+   * takes place. This can be done with
+   * {@link #toMatrix(DistanceComputer, long, File)}.
+   *
+   * @param file
+   *          the binary instance file
+   * @return the distance computer, or {@code null} if the file does not
+   *         exist, is damaged, or has an unknown format
+   * @throws IOException
+   *           if i/o fails
+   */
+  public static final DistanceComputer readBinary(final File file)
+      throws IOException {
+    return _BinaryFormat.read(file);
+  }
+
+  /**
+   * Estimate the number of bytes a distance computer occupies on the Java
+   * heap. For coordinate-based distance computers and heap-based distance
+   * matrices, this is the size of their backing array. Memory-mapped
+   * matrices live outside of the heap and are counted with {@code 0}
+   * bytes.
+   *
+   * @param dc
+   *          the distance computer
+   * @return the estimated number of heap bytes occupied by {@code dc}
+   */
+  public static final long heapBytes(final DistanceComputer dc) {
+    final Object data;
+
+    if (dc instanceof _DistanceMatrixMapped) {
+      return 0l;
+    }
+    if (dc instanceof _2DGeoDistancePrecomputed) {
+      return (((_2DGeoDistancePrecomputed) dc)._bytes() + //
+      DistanceComputer.heapBytes(((_2DGeoDistancePrecomputed) dc).m_src));
+    }
+    data = _BinaryFormat._data(dc);
+    if (data != null) {
+      return _BinaryFormat._bytes(data);
+    }
+    return (((long) (dc.m_n)) << 4l);
+  }
+
+  /**
+   * Store the distances of a symmetric distance computer in a
+   * memory-mapped matrix file (or open the file, if it already contains
+   * a matrix of the right dimension). The lower triangle of the matrix is
+   * stored with 8, 16, or 32 bits per entry, depending on the largest
+   * distance. Since the matrix is not located on the Java heap and indexed
+   * with {@code long} values, this works also for instances with more than
+   * 46'342 nodes.
+   *
+   * @param src
+   *          the symmetric distance computer
+   * @param file
+   *          the matrix file
+   * @return the memory-mapped distance computer
+   * @throws IOException
+   *           if i/o fails
+   */
+  public static final DistanceComputer mapToFile(
+      final DistanceComputer src, final File file) throws IOException {
+    if (src instanceof _DistanceMatrixAsymmetric) {
+      throw new IllegalArgumentException(//
+          "Only symmetric distances can be stored in a matrix file."); //$NON-NLS-1$
+    }
+    return _DistanceMatrixMapped.openOrCreate(file, src, -1);
+  }
+
   /**
    * <p>
    * Load a distance computer from a {@link java.io.File}. The procedure
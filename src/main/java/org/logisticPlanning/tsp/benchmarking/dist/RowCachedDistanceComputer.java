@@ -0,0 +1,353 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>
+ * A distance computer which caches rows of the distance matrix of a
+ * coordinate-based distance computer. It fills the gap between instances
+ * small enough for a full
+ * {@link org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer#toMatrix(DistanceComputer, long, java.io.File)
+ * distance matrix} and those for which every distance must be computed
+ * from the coordinates: Local searches tend to query the neighborhoods of
+ * the same nodes over and over again, so the rows of these nodes are kept
+ * in memory, up to a fixed budget.
+ * </p>
+ * <p>
+ * Computing a row costs {@code n} distance computations. Therefore, the
+ * row of a node is only computed and cached once the distances of the
+ * node have been requested without a cached row about
+ * {@code n/}2<sup>{@value #ADMIT_SHIFT}</sup> times. A
+ * {@link #distances(int, int[], int, int[]) row-based query} for many
+ * nodes thus leads to caching the row immediately, whereas single,
+ * scattered queries do not pollute the cache. Since all coordinate-based
+ * distances are symmetric, the distance between {@code i} and {@code j}
+ * can be taken from the row of either node.
+ * </p>
+ * <p>
+ * The cache is divided into stripes and the rows of node {@code i} are
+ * managed by stripe {@code i mod stripes}. When a stripe is full, the
+ * least recently used row in it is evicted. Looking up a cached row
+ * requires no lock, only inserting a row locks its stripe. Hence, the
+ * cache can be shared by the objective functions of several threads. The
+ * number of hits and misses is counted per stripe and can be obtained via
+ * {@link #getHits()}, {@link #getMisses()}, and {@link #getHitRate()}.
+ * </p>
+ * <p>
+ * The cache only pays off if computing a distance is more expensive than
+ * looking it up, e.g., for geographical or pseudo-Euclidean distances,
+ * and if the algorithm revisits the same neighborhoods. It is therefore
+ * not used by default.
+ * </p>
+ */
+public final class RowCachedDistanceComputer extends DistanceComputer {
+
+  /**
+   * the admission shift: a row is cached after
+   * {@code n>>>}{@value} queries for the distances of its node have missed
+   * the cache
+   */
+  public static final int ADMIT_SHIFT = 3;
+
+  /** the maximum number of stripes: {@value} */
+  public static final int MAX_STRIPES = 16;
+
+  /** the wrapped distance computer */
+  private final DistanceComputer m_src;
+
+  /** the cached rows, {@code null} for nodes without cached row */
+  private final AtomicReferenceArray<int[]> m_rows;
+
+  /** the time of the last use of each cached row, relative to its stripe */
+  private final long[] m_stamps;
+
+  /** the number of missed queries of each node since its last admission */
+  private final int[] m_touches;
+
+  /** the number of missed queries after which a row is cached */
+  private final int m_admit;
+
+  /** the nodes {@code 1..n}, used to compute complete rows */
+  private final int[] m_all;
+
+  /** the stripes */
+  private final _RowCacheStripe[] m_stripes;
+
+  /** the mask to compute the stripe of a node */
+  private final int m_mask;
+
+  /**
+   * create the row cache
+   *
+   * @param src
+   *          the wrapped distance computer
+   * @param rows
+   *          the maximum number of cached rows
+   */
+  private RowCachedDistanceComputer(final DistanceComputer src,
+      final int rows) {
+    super(src.m_n);
+
+    final int n;
+    int stripes, i;
+
+    n = src.m_n;
+    this.m_src = src;
+    this.m_rows = new AtomicReferenceArray<>(n);
+    this.m_stamps = new long[n];
+    this.m_touches = new int[n];
+    this.m_admit = Math.max(1,
+        (n >>> RowCachedDistanceComputer.ADMIT_SHIFT));
+    this.m_all = new int[n];
+    for (i = n; i > 0; i--) {
+      this.m_all[i - 1] = i;
+    }
+
+    stripes = RowCachedDistanceComputer.MAX_STRIPES;
+    while ((stripes > 1) && (stripes > rows)) {
+      stripes >>>= 1;
+    }
+    this.m_mask = (stripes - 1);
+    this.m_stripes = new _RowCacheStripe[stripes];
+    for (i = stripes; (--i) >= 0;) {
+      this.m_stripes[i] = new _RowCacheStripe(rows / stripes);
+    }
+  }
+
+  /**
+   * Wrap a distance computer into a row cache, if this is useful. Distance
+   * matrices are returned as they are, as well as distance computers for
+   * which not even a single row would fit into the memory budget.
+   *
+   * @param src
+   *          the distance computer
+   * @param bytes
+   *          the number of bytes that the cached rows may occupy
+   * @return the cached distance computer, or {@code src} if caching is not
+   *         useful
+   */
+  public static final DistanceComputer wrap(final DistanceComputer src,
+      final long bytes) {
+    final long rows;
+
+    if ((src instanceof _DistanceMatrix)
+        || (src instanceof _DistanceMatrixMapped)
+        || (src instanceof RowCachedDistanceComputer)) {
+      return src;
+    }
+
+    rows = Math.min(src.m_n, (bytes / (((long) (src.m_n)) << 2l)));
+    if (rows <= 0l) {
+      return src;
+    }
+    return new RowCachedDistanceComputer(src, ((int) rows));
+  }
+
+  /**
+   * Get the stripe responsible for a node
+   *
+   * @param i
+   *          the node
+   * @return the stripe
+   */
+  private final _RowCacheStripe __stripe(final int i) {
+    return this.m_stripes[i & this.m_mask];
+  }
+
+  /**
+   * Compute the row of a node and put it into the cache
+   *
+   * @param i
+   *          the node
+   * @return the row
+   */
+  private final int[] __load(final int i) {
+    final _RowCacheStripe stripe;
+    final int[] row, nodes;
+    int victim, k;
+    long stamp;
+
+    row = new int[this.m_n];
+    this.m_src.distances(i, this.m_all, this.m_n, row);
+
+    stripe = this.__stripe(i);
+    synchronized (stripe) {
+      if (this.m_rows.get(i - 1) != null) {
+        return row;
+      }
+
+      nodes = stripe.m_nodes;
+      if (stripe.m_size < nodes.length) {
+        nodes[stripe.m_size++] = i;
+      } else {
+        victim = 0;
+        stamp = Long.MAX_VALUE;
+        for (k = nodes.length; (--k) >= 0;) {
+          if (this.m_stamps[nodes[k] - 1] < stamp) {
+            stamp = this.m_stamps[nodes[k] - 1];
+            victim = k;
+          }
+        }
+        this.m_rows.set((nodes[victim] - 1), null);
+        nodes[victim] = i;
+        stripe.m_evictions++;
+      }
+
+      this.m_stamps[i - 1] = stripe.m_hits.get();
+      this.m_rows.set((i - 1), row);
+    }
+
+    return row;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int distance(final int i, final int j) {
+    int[] row;
+
+    if (i == j) {
+      return 0;
+    }
+
+    row = this.m_rows.get(i - 1);
+    if (row != null) {
+      this.m_stamps[i - 1] = this.__stripe(i).m_hits.incrementAndGet();
+      return row[j - 1];
+    }
+
+    row = this.m_rows.get(j - 1);
+    if (row != null) {
+      this.m_stamps[j - 1] = this.__stripe(j).m_hits.incrementAndGet();
+      return row[i - 1];
+    }
+
+    this.__stripe(i).m_misses.incrementAndGet();
+    if ((++this.m_touches[i - 1]) >= this.m_admit) {
+      this.m_touches[i - 1] = 0;
+      return this.__load(i)[j - 1];
+    }
+    return this.m_src.distance(i, j);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void distances(final int i, final int[] nodes,
+      final int count, final int[] dest) {
+    final _RowCacheStripe stripe;
+    int[] row;
+    int k;
+
+    stripe = this.__stripe(i);
+    row = this.m_rows.get(i - 1);
+    if (row != null) {
+      this.m_stamps[i - 1] = stripe.m_hits.addAndGet(count);
+    } else {
+      stripe.m_misses.addAndGet(count);
+      if ((this.m_touches[i - 1] += count) < this.m_admit) {
+        this.m_src.distances(i, nodes, count, dest);
+        return;
+      }
+      this.m_touches[i - 1] = 0;
+      row = this.__load(i);
+    }
+
+    for (k = 0; k < count; k++) {
+      dest[k] = row[nodes[k] - 1];
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final long evaluate(final int[] nodes) {
+    return this.m_src.evaluate(nodes);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final long evaluateAdj(final int[] adjacencyList) {
+    return this.m_src.evaluateAdj(adjacencyList);
+  }
+
+  /**
+   * Get the number of distance queries answered from a cached row
+   *
+   * @return the number of cache hits
+   */
+  public final long getHits() {
+    long sum;
+
+    sum = 0l;
+    for (final _RowCacheStripe s : this.m_stripes) {
+      sum += s.m_hits.get();
+    }
+    return sum;
+  }
+
+  /**
+   * Get the number of distance queries which could not be answered from a
+   * cached row
+   *
+   * @return the number of cache misses
+   */
+  public final long getMisses() {
+    long sum;
+
+    sum = 0l;
+    for (final _RowCacheStripe s : this.m_stripes) {
+      sum += s.m_misses.get();
+    }
+    return sum;
+  }
+
+  /**
+   * Get the fraction of distance queries answered from a cached row
+   *
+   * @return the hit rate, a value in {@code [0,1]}
+   */
+  public final double getHitRate() {
+    final long hits, total;
+
+    hits = this.getHits();
+    total = (hits + this.getMisses());
+    return ((total > 0l) ? (((double) hits) / total) : 0d);
+  }
+
+  /**
+   * Get the number of rows evicted from the cache
+   *
+   * @return the number of evicted rows
+   */
+  public final long getEvictions() {
+    long sum;
+
+    sum = 0l;
+    for (final _RowCacheStripe s : this.m_stripes) {
+      synchronized (s) {
+        sum += s.m_evictions;
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Get the maximum number of cached rows
+   *
+   * @return the maximum number of cached rows
+   */
+  public final int getCapacity() {
+    return (this.m_stripes.length * this.m_stripes[0].m_nodes.length);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final SpatialIndex getSpatialIndex() {
+    return this.m_src.getSpatialIndex();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void print(final PrintWriter out) {
+    this.m_src.print(out);
+  }
+}
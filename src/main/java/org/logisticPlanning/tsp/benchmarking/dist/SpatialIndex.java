@@ -0,0 +1,736 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A <a href="http://en.wikipedia.org/wiki/K-d_tree">k-d tree</a> over the
+ * coordinates of the nodes of a coordinate-based problem instance, which
+ * answers nearest-neighbor queries, optionally restricted to one
+ * {@link #nearestInQuadrant(DistanceComputer, int, int, int, int[], int[])
+ * quadrant} around the query node, and fixed-radius queries in about
+ * {@code O(log n)} time instead of the {@code O(n)} scan over all nodes.
+ * It is obtained via {@link DistanceComputer#getSpatialIndex()}, which
+ * returns {@code null} for instances without (suitable) coordinates, such
+ * as explicit distance matrices or geographical coordinates.
+ * </p>
+ * <p>
+ * The tree is balanced and implicit: The nodes are stored in one array,
+ * the root of the subtree holding positions {@code lo..hi-1} is the
+ * median at position {@code (lo+hi)/2}, and the subtree is split along
+ * the coordinate axis with the largest spread. Building it takes
+ * {@code O(n log n)} time.
+ * </p>
+ * <p>
+ * The TSPLIB distances are rounded to integers, so the nodes nearest to a
+ * node in the plane are not necessarily the nodes nearest to it according
+ * to the integer distance. Therefore, the tree only uses the coordinates
+ * to compute a lower bound of the <em>rounded</em> distance of each
+ * subtree and node, in exactly the way the distance type rounds its
+ * distances, and the distance of every node that may become part of the
+ * result is checked with a distance computer. The results are thus
+ * exactly the same as those of a scan over all nodes, where nodes with the
+ * same distance are ordered by their index. Since the distance computer is
+ * passed to each query, the distance evaluations of a query can be
+ * counted by passing an
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction
+ * objective function}. The distance computer must compute the same
+ * distances as the one the index was obtained from.
+ * </p>
+ * <p>
+ * The index is immutable and can be used by several threads at once. A
+ * set of nodes from which nodes can be deleted, e.g., the unvisited nodes
+ * of a nearest-neighbor heuristic, is provided by {@link SpatialNodeSet}.
+ * </p>
+ */
+public final class SpatialIndex {
+
+  /** the distance type cannot be indexed */
+  static final int METRIC_NONE = 0;
+
+  /** Euclidean distance rounded to the nearest integer */
+  static final int METRIC_EUCLIDEAN = 1;
+
+  /** Euclidean distance rounded up */
+  static final int METRIC_CEILED = 2;
+
+  /** pseudo-Euclidean distance */
+  static final int METRIC_PSEUDO = 3;
+
+  /** Manhattan distance rounded to the nearest integer */
+  static final int METRIC_MANHATTAN = 4;
+
+  /** maximum distance rounded to the nearest integer */
+  static final int METRIC_MAXIMUM = 5;
+
+  /**
+   * the largest coordinate difference for which the squared Euclidean
+   * distance of integer coordinates cannot overflow in two dimensions:
+   * {@value}
+   */
+  private static final int MAX_INT_SQUARE_DIFF_2D = 32767;
+
+  /**
+   * the largest coordinate difference for which the squared Euclidean
+   * distance of integer coordinates cannot overflow in three dimensions:
+   * {@value}
+   */
+  private static final int MAX_INT_SQUARE_DIFF_3D = 26754;
+
+  /** the number of nodes */
+  private final int m_n;
+
+  /** the number of dimensions */
+  private final int m_dim;
+
+  /** the distance type */
+  private final int m_metric;
+
+  /** the node at each position */
+  final int[] m_nodes;
+
+  /** the position of each node */
+  final int[] m_positions;
+
+  /** the coordinates of the node at each position */
+  private final double[] m_coords;
+
+  /** the split axis of the subtree rooted at each position */
+  private final byte[] m_axes;
+
+  /** the Delaunay graph, built on demand */
+  private DelaunayGraph m_delaunay;
+
+  /** has the Delaunay graph been built? */
+  private volatile boolean m_triangulated;
+
+  /**
+   * create
+   *
+   * @param coords
+   *          the coordinates, {@code dim} values per node, ordered by node
+   *          index
+   * @param dim
+   *          the number of dimensions
+   * @param metric
+   *          the distance type
+   */
+  private SpatialIndex(final double[] coords, final int dim,
+      final int metric) {
+    super();
+    final int n;
+    final int[] nodes, positions;
+    final double[] sorted;
+    int i, a, b;
+
+    this.m_n = n = (coords.length / dim);
+    this.m_dim = dim;
+    this.m_metric = metric;
+
+    this.m_nodes = nodes = new int[n];
+    for (i = n; (--i) >= 0;) {
+      nodes[i] = (i + 1);
+    }
+    this.m_axes = new byte[n];
+    this.__build(coords, 0, n);
+
+    this.m_positions = positions = new int[n];
+    this.m_coords = sorted = new double[n * dim];
+    for (i = 0, b = 0; i < n; i++) {
+      positions[nodes[i] - 1] = i;
+      a = ((nodes[i] - 1) * dim);
+      System.arraycopy(coords, a, sorted, b, dim);
+      b += dim;
+    }
+  }
+
+  /**
+   * Build the spatial index of a list of floating point coordinates
+   *
+   * @param coords
+   *          the coordinates, {@code dim} values per node, ordered by node
+   *          index
+   * @param dim
+   *          the number of dimensions
+   * @param metric
+   *          the distance type
+   * @return the spatial index, or {@code null} if the distance type
+   *         cannot be indexed
+   */
+  static final SpatialIndex _build(final double[] coords, final int dim,
+      final int metric) {
+    if (metric == SpatialIndex.METRIC_NONE) {
+      return null;
+    }
+    return new SpatialIndex(coords, dim, metric);
+  }
+
+  /**
+   * Build the spatial index of a list of integer coordinates. The integer
+   * distance computers compute squared distances with {@code int}
+   * arithmetic, so if the coordinates are so far apart that this may
+   * overflow, the rounded distances no longer follow the coordinates and
+   * no index is built.
+   *
+   * @param coords
+   *          the coordinates, {@code dim} values per node, ordered by node
+   *          index
+   * @param dim
+   *          the number of dimensions
+   * @param metric
+   *          the distance type
+   * @return the spatial index, or {@code null} if the distance type
+   *         cannot be indexed
+   */
+  static final SpatialIndex _build(final int[] coords, final int dim,
+      final int metric) {
+    final double[] d;
+    int i, a, min, max;
+
+    if (metric == SpatialIndex.METRIC_NONE) {
+      return null;
+    }
+
+    if ((metric != SpatialIndex.METRIC_MANHATTAN)
+        && (metric != SpatialIndex.METRIC_MAXIMUM)) {
+      for (a = 0; a < dim; a++) {
+        min = max = coords[a];
+        for (i = (a + dim); i < coords.length; i += dim) {
+          if (coords[i] < min) {
+            min = coords[i];
+          } else {
+            if (coords[i] > max) {
+              max = coords[i];
+            }
+          }
+        }
+        if ((((long) max) - min) > ((dim > 2) ? SpatialIndex.MAX_INT_SQUARE_DIFF_3D
+            : SpatialIndex.MAX_INT_SQUARE_DIFF_2D)) {
+          return null;
+        }
+      }
+    }
+
+    d = new double[coords.length];
+    for (i = d.length; (--i) >= 0;) {
+      d[i] = coords[i];
+    }
+    return new SpatialIndex(d, dim, metric);
+  }
+
+  /**
+   * Build the subtree of the positions {@code lo..hi-1}
+   *
+   * @param coords
+   *          the coordinates, ordered by node index
+   * @param lo
+   *          the first position
+   * @param hi
+   *          the position after the last one
+   */
+  private final void __build(final double[] coords, final int lo,
+      final int hi) {
+    final int[] nodes;
+    final int dim, mid;
+    int axis, bestAxis, i, l, r, ll, rr, t;
+    double min, max, v, best, pivot;
+
+    if ((hi - lo) <= 1) {
+      return;
+    }
+
+    nodes = this.m_nodes;
+    dim = this.m_dim;
+
+    // split along the axis with the largest spread
+    bestAxis = 0;
+    best = (-1d);
+    for (axis = 0; axis < dim; axis++) {
+      min = max = coords[((nodes[lo] - 1) * dim) + axis];
+      for (i = (lo + 1); i < hi; i++) {
+        v = coords[((nodes[i] - 1) * dim) + axis];
+        if (v < min) {
+          min = v;
+        } else {
+          if (v > max) {
+            max = v;
+          }
+        }
+      }
+      if ((max - min) > best) {
+        best = (max - min);
+        bestAxis = axis;
+      }
+    }
+
+    // select the median (Wirth's algorithm), so that all nodes before
+    // the median have smaller or equal coordinates and all nodes after
+    // it have larger or equal coordinates
+    mid = ((lo + hi) >>> 1);
+    l = lo;
+    r = (hi - 1);
+    while (l < r) {
+      pivot = coords[((nodes[mid] - 1) * dim) + bestAxis];
+      ll = l;
+      rr = r;
+      do {
+        while (coords[((nodes[ll] - 1) * dim) + bestAxis] < pivot) {
+          ll++;
+        }
+        while (pivot < coords[((nodes[rr] - 1) * dim) + bestAxis]) {
+          rr--;
+        }
+        if (ll <= rr) {
+          t = nodes[ll];
+          nodes[ll] = nodes[rr];
+          nodes[rr] = t;
+          ll++;
+          rr--;
+        }
+      } while (ll <= rr);
+      if (rr < mid) {
+        l = ll;
+      }
+      if (mid < ll) {
+        r = rr;
+      }
+    }
+
+    this.m_axes[mid] = ((byte) bestAxis);
+    this.__build(coords, lo, mid);
+    this.__build(coords, (mid + 1), hi);
+  }
+
+  /**
+   * Get the number of nodes
+   *
+   * @return the number of nodes
+   */
+  public final int n() {
+    return this.m_n;
+  }
+
+  /**
+   * Get the number of dimensions of the coordinates
+   *
+   * @return the number of dimensions of the coordinates
+   */
+  public final int dimensions() {
+    return this.m_dim;
+  }
+
+  /**
+   * Get the {@link DelaunayGraph Delaunay graph} of the nodes. It is only
+   * available for two-dimensional coordinates whose distance is a
+   * monotonous function of the Euclidean distance, i.e., for Euclidean,
+   * ceiled Euclidean, and pseudo-Euclidean distances, since only then it
+   * is guaranteed to contain a minimum spanning tree. The graph is built
+   * when it is requested for the first time.
+   *
+   * @return the Delaunay graph, or {@code null} if it is not available
+   */
+  public final DelaunayGraph getDelaunayGraph() {
+    final int n;
+    final double[] x, y;
+    int i, p;
+
+    if ((this.m_dim != 2)
+        || ((this.m_metric != SpatialIndex.METRIC_EUCLIDEAN)
+            && (this.m_metric != SpatialIndex.METRIC_CEILED) && (this.m_metric != SpatialIndex.METRIC_PSEUDO))) {
+      return null;
+    }
+
+    if (!(this.m_triangulated)) {
+      synchronized (this) {
+        if (!(this.m_triangulated)) {
+          n = this.m_n;
+          x = new double[n];
+          y = new double[n];
+          for (i = n; (--i) >= 0;) {
+            p = (this.m_positions[i] << 1);
+            x[i] = this.m_coords[p];
+            y[i] = this.m_coords[p + 1];
+          }
+          this.m_delaunay = DelaunayGraph._build(x, y);
+          this.m_triangulated = true;
+        }
+      }
+    }
+    return this.m_delaunay;
+  }
+
+  /**
+   * <p>
+   * Find the {@code k} nodes nearest to {@code node}, i.e., the nodes
+   * {@code j!=node} with the smallest distances
+   * {@code dist.distance(node, j)}, where nodes with the same distance are
+   * ordered by their index. The nodes are stored in {@code nodes} and
+   * their distances in {@code dists}, both sorted by increasing distance.
+   * </p>
+   *
+   * @param dist
+   *          the distance computer providing the exact distances
+   * @param node
+   *          the node (1-based)
+   * @param k
+   *          the number of nodes to find
+   * @param nodes
+   *          the array receiving the nodes, of length at least {@code k}
+   * @param dists
+   *          the array receiving the distances, of length at least
+   *          {@code k}
+   * @return the number of nodes found, i.e., {@code min(k, n-1)}
+   */
+  public final int nearest(final DistanceComputer dist, final int node,
+      final int k, final int[] nodes, final int[] dists) {
+    return this._nearest(new _SpatialQuery(this.m_dim), dist, node, k,
+        nodes, dists, null, null, (-1));
+  }
+
+  /**
+   * <p>
+   * Find the {@code k} nodes nearest to {@code node}, as in
+   * {@link #nearest(DistanceComputer, int, int, int[], int[])}, but only
+   * among the nodes in one quadrant around {@code node}. The quadrants
+   * are defined by the first two coordinates, i.e., the differences
+   * {@code dx} and {@code dy} between the coordinates of a node and those
+   * of {@code node}:
+   * </p>
+   * <ol start="0">
+   * <li>{@code dx>0} and {@code dy>=0}</li>
+   * <li>{@code dx<=0} and {@code dy>0}</li>
+   * <li>{@code dx<0} and {@code dy<=0}</li>
+   * <li>{@code dx>=0} and {@code dy<0}</li>
+   * </ol>
+   * <p>
+   * Every node belongs to exactly one quadrant of {@code node}, except for
+   * the nodes at the same location as {@code node}, which belong to none.
+   * In three dimensions, the third coordinate is not used for deciding
+   * the quadrant, but the distances are computed as usual.
+   * </p>
+   *
+   * @param dist
+   *          the distance computer providing the exact distances
+   * @param node
+   *          the node (1-based)
+   * @param quadrant
+   *          the quadrant, a value in {@code 0..3}
+   * @param k
+   *          the number of nodes to find
+   * @param nodes
+   *          the array receiving the nodes, of length at least {@code k}
+   * @param dists
+   *          the array receiving the distances, of length at least
+   *          {@code k}
+   * @return the number of nodes found, which may be less than {@code k}
+   *         if the quadrant contains less nodes
+   */
+  public final int nearestInQuadrant(final DistanceComputer dist,
+      final int node, final int quadrant, final int k, final int[] nodes,
+      final int[] dists) {
+    if ((quadrant < 0) || (quadrant > 3)) {
+      throw new IllegalArgumentException(//
+          "Invalid quadrant: " + quadrant); //$NON-NLS-1$
+    }
+    return this._nearest(new _SpatialQuery(this.m_dim), dist, node, k,
+        nodes, dists, null, null, quadrant);
+  }
+
+  /**
+   * Find the nearest nodes, as in
+   * {@link #nearest(DistanceComputer, int, int, int[], int[])}, but only
+   * among the nodes alive in a {@link SpatialNodeSet}.
+   *
+   * @param query
+   *          the query state
+   * @param dist
+   *          the distance computer providing the exact distances
+   * @param node
+   *          the node (1-based)
+   * @param k
+   *          the number of nodes to find
+   * @param nodes
+   *          the array receiving the nodes
+   * @param dists
+   *          the array receiving the distances
+   * @param alive
+   *          the number of nodes alive in each subtree, or {@code null}
+   * @param removed
+   *          which positions have been removed, or {@code null}
+   * @param quadrant
+   *          the quadrant to which the search is restricted, or
+   *          {@code -1} for no restriction
+   * @return the number of nodes found
+   */
+  final int _nearest(final _SpatialQuery query,
+      final DistanceComputer dist, final int node, final int k,
+      final int[] nodes, final int[] dists, final int[] alive,
+      final boolean[] removed, final int quadrant) {
+    if (k <= 0) {
+      return 0;
+    }
+    this.__begin(query, dist, node, alive, removed);
+    query.m_quadrant = quadrant;
+    query.m_k = k;
+    query.m_nodes = nodes;
+    query.m_dists = dists;
+    this.__search(query, 0, this.m_n);
+    query._sort();
+    query.m_nodes = null;
+    query.m_dists = null;
+    query.m_dist = null;
+    return query.m_count;
+  }
+
+  /**
+   * Find all nodes {@code j!=node} whose distance
+   * {@code dist.distance(node, j)} is at most {@code radius}. If
+   * {@code nodes} is too small to hold all of them, only the first
+   * {@code nodes.length} nodes found are stored, but the returned count
+   * still includes all of them. The order of the nodes is not specified.
+   *
+   * @param dist
+   *          the distance computer providing the exact distances
+   * @param node
+   *          the node (1-based)
+   * @param radius
+   *          the radius
+   * @param nodes
+   *          the array receiving the nodes
+   * @return the number of nodes within the radius
+   */
+  public final int withinRadius(final DistanceComputer dist,
+      final int node, final int radius, final int[] nodes) {
+    final _SpatialQuery query;
+
+    query = new _SpatialQuery(this.m_dim);
+    this.__begin(query, dist, node, null, null);
+    query.m_k = (-1);
+    query.m_radius = radius;
+    query.m_nodes = nodes;
+    if (radius >= 0) {
+      this.__search(query, 0, this.m_n);
+    }
+    return query.m_count;
+  }
+
+  /**
+   * Prepare a query
+   *
+   * @param query
+   *          the query state
+   * @param dist
+   *          the distance computer
+   * @param node
+   *          the query node
+   * @param alive
+   *          the number of nodes alive in each subtree, or {@code null}
+   * @param removed
+   *          which positions have been removed, or {@code null}
+   */
+  private final void __begin(final _SpatialQuery query,
+      final DistanceComputer dist, final int node, final int[] alive,
+      final boolean[] removed) {
+    final int dim;
+
+    if ((node <= 0) || (node > this.m_n)) {
+      throw new IllegalArgumentException("Invalid node: " + node); //$NON-NLS-1$
+    }
+
+    dim = this.m_dim;
+    query.m_dist = dist;
+    query.m_node = node;
+    query.m_count = 0;
+    query.m_alive = alive;
+    query.m_removed = removed;
+    query.m_quadrant = (-1);
+    System.arraycopy(this.m_coords, (this.m_positions[node - 1] * dim),
+        query.m_x, 0, dim);
+    Arrays.fill(query.m_off, 0d);
+  }
+
+  /**
+   * Search the subtree of the positions {@code lo..hi-1}
+   *
+   * @param query
+   *          the query
+   * @param lo
+   *          the first position
+   * @param hi
+   *          the position after the last one
+   */
+  private final void __search(final _SpatialQuery query, final int lo,
+      final int hi) {
+    final double[] coords, x, off, diff;
+    final int mid, axis, dim, node;
+    final double split, old, far;
+    int a, b;
+
+    if (lo >= hi) {
+      return;
+    }
+    mid = ((lo + hi) >>> 1);
+    if ((query.m_alive != null) && (query.m_alive[mid] <= 0)) {
+      return;
+    }
+
+    coords = this.m_coords;
+    x = query.m_x;
+    dim = this.m_dim;
+    axis = this.m_axes[mid];
+    b = (mid * dim);
+    split = (x[axis] - coords[b + axis]);
+
+    // first visit the side of the split on which the query node lies
+    if (split <= 0d) {
+      if (!(SpatialIndex.__outside(query.m_quadrant, axis, split, false))) {
+        this.__search(query, lo, mid);
+      }
+    } else {
+      if (!(SpatialIndex.__outside(query.m_quadrant, axis, split, true))) {
+        this.__search(query, (mid + 1), hi);
+      }
+    }
+
+    // then the node at the split, whose exact distance is only computed
+    // if its lower bound does not exclude it
+    node = this.m_nodes[mid];
+    if ((node != query.m_node)
+        && ((query.m_removed == null) || (!(query.m_removed[mid])))
+        && ((query.m_quadrant < 0) || SpatialIndex.__inQuadrant(
+            query.m_quadrant, (coords[b] - x[0]), (coords[b + 1] - x[1])))) {
+      diff = query.m_diff;
+      for (a = 0; a < dim; a++) {
+        diff[a] = Math.abs(x[a] - coords[b + a]);
+      }
+      if (this.__bound(diff) <= query._limit()) {
+        a = query.m_dist.distance(query.m_node, node);
+        if (a <= query._limit()) {
+          query._offer(node, a);
+        }
+      }
+    }
+
+    // and finally the other side, if it may contain a better node
+    off = query.m_off;
+    old = off[axis];
+    far = Math.abs(split);
+    if (far > old) {
+      off[axis] = far;
+    }
+    if (this.__bound(off) <= query._limit()) {
+      if (split <= 0d) {
+        if (!(SpatialIndex.__outside(query.m_quadrant, axis, split, true))) {
+          this.__search(query, (mid + 1), hi);
+        }
+      } else {
+        if (!(SpatialIndex.__outside(query.m_quadrant, axis, split, false))) {
+          this.__search(query, lo, mid);
+        }
+      }
+    }
+    off[axis] = old;
+  }
+
+  /**
+   * Is one side of a split entirely outside of a quadrant? The positions
+   * before the split have coordinates less than or equal to the split
+   * value on the split axis, the positions after it have coordinates
+   * greater than or equal to it.
+   *
+   * @param quadrant
+   *          the quadrant, or {@code -1} for no restriction
+   * @param axis
+   *          the split axis
+   * @param split
+   *          the coordinate of the query node minus the split value
+   * @param high
+   *          {@code true} for the positions after the split,
+   *          {@code false} for those before it
+   * @return {@code true} if the side contains no node of the quadrant
+   */
+  private static final boolean __outside(final int quadrant,
+      final int axis, final double split, final boolean high) {
+    final boolean positive;
+
+    if ((quadrant < 0) || (axis > 1)) {
+      return false;
+    }
+    positive = ((axis == 0) ? ((quadrant == 0) || (quadrant == 3))
+        : (quadrant <= 1));
+    return (high ? ((!positive) && (split < 0d))
+        : (positive && (split > 0d)));
+  }
+
+  /**
+   * Does a point lie in a given quadrant of the query node?
+   *
+   * @param quadrant
+   *          the quadrant
+   * @param dx
+   *          the difference of the first coordinates of the point and the
+   *          query node
+   * @param dy
+   *          the difference of the second coordinates of the point and
+   *          the query node
+   * @return {@code true} if the point is in the quadrant
+   */
+  private static final boolean __inQuadrant(final int quadrant,
+      final double dx, final double dy) {
+    switch (quadrant) {
+      case 0: {
+        return ((dx > 0d) && (dy >= 0d));
+      }
+      case 1: {
+        return ((dx <= 0d) && (dy > 0d));
+      }
+      case 2: {
+        return ((dx < 0d) && (dy <= 0d));
+      }
+      default: {
+        return ((dx >= 0d) && (dy < 0d));
+      }
+    }
+  }
+
+  /**
+   * Compute a lower bound of the rounded distance between the query node
+   * and any point whose coordinates differ from it by at least the given
+   * amounts. The bound is computed with the same floating point operations
+   * as the distance itself, so it is exact if the differences are the
+   * actual differences to a node.
+   *
+   * @param d
+   *          the absolute coordinate differences
+   * @return the lower bound
+   */
+  private final int __bound(final double[] d) {
+    final double x, y, z, r;
+    final int t;
+
+    x = d[0];
+    y = d[1];
+    z = ((this.m_dim > 2) ? d[2] : 0d);
+
+    switch (this.m_metric) {
+      case METRIC_EUCLIDEAN: {
+        return ((int) (0.5d + (Math.sqrt((x * x) + (y * y) + (z * z)))));
+      }
+      case METRIC_CEILED: {
+        return ((int) (0.5d + Math.ceil(Math.sqrt((x * x) + (y * y)
+            + (z * z)))));
+      }
+      case METRIC_PSEUDO: {
+        r = Math.sqrt(((x * x) + (y * y) + (z * z)) * 0.1d);
+        t = ((int) (0.5d + r));
+        return ((t < r) ? (t + 1) : t);
+      }
+      case METRIC_MANHATTAN: {
+        return ((int) (0.5d + (x + y + z)));
+      }
+      default: {
+        return ((int) (0.5d + Math.max(x, Math.max(y, z))));
+      }
+    }
+  }
+}
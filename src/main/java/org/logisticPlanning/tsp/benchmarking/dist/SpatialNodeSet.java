@@ -0,0 +1,196 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A set of nodes of a {@link SpatialIndex spatial index} from which nodes
+ * can be deleted, e.g., the nodes not yet visited by a nearest-neighbor
+ * heuristic. Initially, the set contains all nodes. The set stores the
+ * number of nodes still alive in each subtree of the index, so deleting a
+ * node only updates the subtrees on the path from the root to the node,
+ * which takes {@code O(log n)} time, and {@link #nearest(DistanceComputer, int)
+ * nearest-neighbor queries} skip the subtrees whose nodes have all been
+ * deleted.
+ * </p>
+ * <p>
+ * Different from the index itself, a node set must only be used by one
+ * thread at a time.
+ * </p>
+ */
+public final class SpatialNodeSet {
+
+  /** the index */
+  private final SpatialIndex m_index;
+
+  /** the number of nodes alive in the subtree rooted at each position */
+  private final int[] m_alive;
+
+  /** which positions have been removed */
+  private final boolean[] m_removed;
+
+  /** the query state */
+  private final _SpatialQuery m_query;
+
+  /** the node found by a single nearest-neighbor query */
+  private final int[] m_node;
+
+  /** the distance found by a single nearest-neighbor query */
+  private final int[] m_dist;
+
+  /** the number of nodes in the set */
+  private int m_size;
+
+  /**
+   * Create a set containing all nodes of an index
+   *
+   * @param index
+   *          the index
+   */
+  public SpatialNodeSet(final SpatialIndex index) {
+    super();
+    final int n;
+
+    this.m_index = index;
+    n = index.n();
+    this.m_alive = new int[n];
+    this.m_removed = new boolean[n];
+    this.m_query = new _SpatialQuery(index.dimensions());
+    this.m_node = new int[1];
+    this.m_dist = new int[1];
+    this.reset();
+  }
+
+  /** Put all nodes back into the set */
+  public final void reset() {
+    Arrays.fill(this.m_removed, false);
+    this.m_size = this.m_alive.length;
+    SpatialNodeSet.__count(this.m_alive, 0, this.m_size);
+  }
+
+  /**
+   * Set the number of nodes in the subtree of the positions
+   * {@code lo..hi-1}
+   *
+   * @param alive
+   *          the number of alive nodes per subtree
+   * @param lo
+   *          the first position
+   * @param hi
+   *          the position after the last one
+   */
+  private static final void __count(final int[] alive, final int lo,
+      final int hi) {
+    final int mid;
+
+    if (lo < hi) {
+      mid = ((lo + hi) >>> 1);
+      alive[mid] = (hi - lo);
+      SpatialNodeSet.__count(alive, lo, mid);
+      SpatialNodeSet.__count(alive, (mid + 1), hi);
+    }
+  }
+
+  /**
+   * Get the number of nodes in the set
+   *
+   * @return the number of nodes in the set
+   */
+  public final int size() {
+    return this.m_size;
+  }
+
+  /**
+   * Is the given node in the set?
+   *
+   * @param node
+   *          the node (1-based)
+   * @return {@code true} if the node is in the set, {@code false} if it
+   *         has been deleted
+   */
+  public final boolean contains(final int node) {
+    return (!(this.m_removed[this.m_index.m_positions[node - 1]]));
+  }
+
+  /**
+   * Delete a node from the set in {@code O(log n)} time
+   *
+   * @param node
+   *          the node (1-based)
+   * @return {@code true} if the node was in the set, {@code false} if it
+   *         had already been deleted
+   */
+  public final boolean delete(final int node) {
+    final int pos;
+    final int[] alive;
+    int lo, hi, mid;
+
+    pos = this.m_index.m_positions[node - 1];
+    if (this.m_removed[pos]) {
+      return false;
+    }
+    this.m_removed[pos] = true;
+    this.m_size--;
+
+    alive = this.m_alive;
+    lo = 0;
+    hi = alive.length;
+    for (;;) {
+      mid = ((lo + hi) >>> 1);
+      alive[mid]--;
+      if (mid == pos) {
+        return true;
+      }
+      if (pos < mid) {
+        hi = mid;
+      } else {
+        lo = (mid + 1);
+      }
+    }
+  }
+
+  /**
+   * Find the node in the set which is nearest to {@code node}. The node
+   * itself is never returned, regardless whether it is in the set or not.
+   * Nodes with the same distance are ordered by their index.
+   *
+   * @param dist
+   *          the distance computer providing the exact distances
+   * @param node
+   *          the node (1-based)
+   * @return the nearest node in the set, or {@code -1} if the set
+   *         contains no other node
+   */
+  public final int nearest(final DistanceComputer dist, final int node) {
+    if (this.m_index._nearest(this.m_query, dist, node, 1, this.m_node,
+        this.m_dist, this.m_alive, this.m_removed, (-1)) <= 0) {
+      return (-1);
+    }
+    return this.m_node[0];
+  }
+
+  /**
+   * Find the {@code k} nodes in the set which are nearest to {@code node},
+   * as in
+   * {@link SpatialIndex#nearest(DistanceComputer, int, int, int[], int[])}
+   * .
+   *
+   * @param dist
+   *          the distance computer providing the exact distances
+   * @param node
+   *          the node (1-based)
+   * @param k
+   *          the number of nodes to find
+   * @param nodes
+   *          the array receiving the nodes, of length at least {@code k}
+   * @param dists
+   *          the array receiving the distances, of length at least
+   *          {@code k}
+   * @return the number of nodes found
+   */
+  public final int nearest(final DistanceComputer dist, final int node,
+      final int k, final int[] nodes, final int[] dists) {
+    return this.m_index._nearest(this.m_query, dist, node, k, nodes,
+        dists, this.m_alive, this.m_removed, (-1));
+  }
+}
@@ -542,6 +542,77 @@ final class _2DCeiledEuclideanDistanceInt extends _2DIntCoords {
     }
   }
 
+  /**
+   * Compute the distances from one node to a list of other nodes. The
+   * coordinates of node {@code i} are loaded only once and the distances
+   * are computed in a tight loop without a virtual call per distance.
+   *
+   * @param i
+   *          the node (1-based) from which the distances are computed
+   * @param nodes
+   *          the nodes (1-based) to which the distances are computed
+   * @param count
+   *          the number of nodes to use from the beginning of
+   *          {@code nodes}
+   * @param dest
+   *          the array receiving the {@code count} distances
+   */
+  @Override
+  public final void distances(final int i, final int[] nodes,
+      final int count, final int[] dest) {
+    final int[] m;
+    final int x1, y1;
+    int a, k;
+    int xd, yd;
+
+    m = this.m_coords;
+    a = ((i - 1) << 1);
+    x1 = m[a++];
+    y1 = m[a];
+
+    for (k = 0; k < count; k++) {
+      a = ((nodes[k] - 1) << 1);
+      xd = (x1 - m[a++]);
+      yd = (y1 - m[a]);
+      dest[k] = ((int) (0.5d + Math.ceil(Math.sqrt((xd * xd) + (yd * yd)))));
+    }
+  }
+
+  /**
+   * Compute the lengths of a list of edges in a tight loop without a
+   * virtual call per distance.
+   *
+   * @param edges
+   *          the array with {@code 2*count} node indices (1-based)
+   * @param count
+   *          the number of edges
+   * @param dest
+   *          the array receiving the {@code count} distances
+   */
+  @Override
+  public final void edgeDistances(final int[] edges, final int count,
+      final int[] dest) {
+    final int[] m;
+    int a, b, k, e;
+    int xd, yd;
+
+    m = this.m_coords;
+    e = 0;
+    for (k = 0; k < count; k++) {
+      a = ((edges[e++] - 1) << 1);
+      b = ((edges[e++] - 1) << 1);
+      xd = (m[a++] - m[b++]);
+      yd = (m[a] - m[b]);
+      dest[k] = ((int) (0.5d + Math.ceil(Math.sqrt((xd * xd) + (yd * yd)))));
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final int _metric() {
+    return SpatialIndex.METRIC_CEILED;
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void print(final PrintWriter out) {
@@ -0,0 +1,308 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+import java.io.PrintWriter;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * A distance computer for geographical coordinates which produces exactly
+ * the same distances as
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._2DGeoDistanceDouble}
+ * and {@link org.logisticPlanning.tsp.benchmarking.dist._2DGeoDistanceInt}
+ * , but much faster. The original classes convert the coordinates of both
+ * nodes to radians and invoke {@link java.lang.Math#cos(double)} three
+ * times and {@link java.lang.Math#acos(double)} once per distance. Here,
+ * the latitude and longitude of each node are converted to radians only
+ * once, when the instance is loaded, and their sines and cosines are
+ * stored as well. With the addition theorems, the argument of the
+ * {@link java.lang.Math#acos(double) arc cosine} can then be computed with
+ * a few multiplications.
+ * </p>
+ * <p>
+ * Mathematically, both ways yield the same value, but they may differ in
+ * the last bits due to rounding. This difference only matters if it
+ * changes the result of the final truncation to an integer, i.e., if the
+ * real-valued distance is very close to an integer, or if the argument of
+ * the arc cosine is very close to {@code 1} or {@code -1}, where the arc
+ * cosine amplifies errors. In these (rare) cases, the distance is computed
+ * with exactly the original formula from the pre-computed radians, which
+ * are bit-identical to the values used by the original classes. Hence,
+ * the TSPLIB rounding is reproduced exactly.
+ * </p>
+ * <p>
+ * The computer holds no mutable state, so it can be shared by several
+ * threads like all other distance computers. Instead of caching the last
+ * row of distances, the
+ * {@link #distances(int, int[], int, int[]) row-based distance computation}
+ * loads the data of the source node only once.
+ * </p>
+ */
+final class _2DGeoDistancePrecomputed extends DistanceComputer {
+
+  /**
+   * the tolerance around integers and around {@code -1} and {@code 1}
+   * within which the exact formula is used: {@value}
+   */
+  private static final double EPS = 1e-6d;
+
+  /**
+   * the tolerance for the arc cosine argument: {@value}
+   */
+  private static final double ARG_EPS = 1e-9d;
+
+  /** the original distance computer, used for printing and storing */
+  final DistanceComputer m_src;
+
+  /** the latitudes and longitudes in radians, interleaved */
+  private final double[] m_rad;
+
+  /**
+   * the sine and cosine of the latitude and the sine and cosine of the
+   * longitude of each node, interleaved
+   */
+  private final double[] m_trig;
+
+  /**
+   * create the pre-computed geographical distance computer
+   *
+   * @param src
+   *          the original distance computer, an instance of
+   *          {@link org.logisticPlanning.tsp.benchmarking.dist._2DGeoDistanceDouble}
+   *          or
+   *          {@link org.logisticPlanning.tsp.benchmarking.dist._2DGeoDistanceInt}
+   * @param coords
+   *          the coordinates (in degrees and minutes) of the nodes,
+   *          interleaved
+   */
+  private _2DGeoDistancePrecomputed(final DistanceComputer src,
+      final double[] coords) {
+    super(src.m_n);
+
+    final double[] rad, trig;
+    final int n;
+    int i, a, b, deg;
+    double x;
+
+    n = src.m_n;
+    this.m_src = src;
+    this.m_rad = rad = new double[n << 1];
+    this.m_trig = trig = new double[n << 2];
+
+    b = 0;
+    for (i = 0, a = 0; i < n; i++) {
+      // the same formula as in _2DGeoDistanceDouble: for integer
+      // coordinates, it yields the same values as _2DGeoDistanceInt
+      x = coords[a];
+      deg = ((int) x);
+      x = ((3.141592d * (deg + ((5.0d * (x - deg)) / 3d))) / 180d);
+      rad[a++] = x;
+      trig[b++] = Math.sin(x);
+      trig[b++] = Math.cos(x);
+
+      x = coords[a];
+      deg = ((int) x);
+      x = ((3.141592d * (deg + ((5.0d * (x - deg)) / 3d))) / 180d);
+      rad[a++] = x;
+      trig[b++] = Math.sin(x);
+      trig[b++] = Math.cos(x);
+    }
+  }
+
+  /**
+   * Wrap a geographical distance computer into a pre-computed one
+   *
+   * @param src
+   *          the distance computer
+   * @return the pre-computed distance computer, if {@code src} is a
+   *         geographical distance computer, {@code src} otherwise
+   */
+  static final DistanceComputer wrap(final DistanceComputer src) {
+    final int[] ic;
+    final double[] dc;
+    int i;
+
+    if (src instanceof _2DGeoDistanceDouble) {
+      return new _2DGeoDistancePrecomputed(src,
+          ((_2DGeoDistanceDouble) src).m_coords);
+    }
+    if (src instanceof _2DGeoDistanceInt) {
+      ic = ((_2DGeoDistanceInt) src).m_coords;
+      dc = new double[ic.length];
+      for (i = ic.length; (--i) >= 0;) {
+        dc[i] = ic[i];
+      }
+      return new _2DGeoDistancePrecomputed(src, dc);
+    }
+    return src;
+  }
+
+  /**
+   * Get the number of bytes occupied by the pre-computed data
+   *
+   * @return the number of bytes occupied by the pre-computed data
+   */
+  final long _bytes() {
+    return ((((long) (this.m_rad.length)) + this.m_trig.length) << 3l);
+  }
+
+  /**
+   * Compute the distance exactly as done in
+   * {@link org.logisticPlanning.tsp.benchmarking.dist._2DGeoDistanceDouble}
+   *
+   * @param a
+   *          the index of the latitude of the first node in
+   *          {@link #m_rad}
+   * @param b
+   *          the index of the latitude of the second node in
+   *          {@link #m_rad}
+   * @return the distance
+   */
+  private final int __exact(final int a, final int b) {
+    final double[] rad;
+    final double q1, q2, q3;
+
+    rad = this.m_rad;
+    q1 = Math.cos(rad[a + 1] - rad[b + 1]);
+    q2 = Math.cos(rad[a] - rad[b]);
+    q3 = Math.cos(rad[a] + rad[b]);
+
+    return ((int) ((6378.388d * Math
+        .acos(0.5d * (((1d + q1) * q2) - ((1d - q1) * q3)))) + 1d));
+  }
+
+  /**
+   * Compute the distance between two nodes without checking whether they
+   * are the same (like the tour evaluation methods of the original
+   * classes)
+   *
+   * @param ia
+   *          the zero-based index of the first node
+   * @param ib
+   *          the zero-based index of the second node
+   * @return the distance
+   */
+  private final int __distance(final int ia, final int ib) {
+    final double[] trig;
+    final double arg, dist;
+    final int res;
+    int a, b;
+
+    trig = this.m_trig;
+    a = (ia << 2);
+    b = (ib << 2);
+
+    // sin(latA)sin(latB) + cos(latA)cos(latB)cos(longA-longB)
+    arg = ((trig[a] * trig[b]) + //
+    ((trig[a + 1] * trig[b + 1]) * //
+    ((trig[a + 3] * trig[b + 3]) + (trig[a + 2] * trig[b + 2]))));
+
+    if ((arg < (1d - _2DGeoDistancePrecomputed.ARG_EPS))
+        && (arg > (_2DGeoDistancePrecomputed.ARG_EPS - 1d))) {
+      dist = ((6378.388d * Math.acos(arg)) + 1d);
+      res = ((int) dist);
+      if (((dist - res) > _2DGeoDistancePrecomputed.EPS)
+          && (((res + 1) - dist) > _2DGeoDistancePrecomputed.EPS)) {
+        return res;
+      }
+    }
+
+    return this.__exact((ia << 1), (ib << 1));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int distance(final int i, final int j) {
+    if (i == j) {
+      return 0;
+    }
+    return this.__distance((i - 1), (j - 1));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void distances(final int i, final int[] nodes,
+      final int count, final int[] dest) {
+    final double[] trig;
+    final double sinLat, cosLat, sinLong, cosLong;
+    final int ia;
+    double arg, dist;
+    int k, j, b, res;
+
+    trig = this.m_trig;
+    ia = (i - 1);
+    b = (ia << 2);
+    sinLat = trig[b];
+    cosLat = trig[b + 1];
+    sinLong = trig[b + 2];
+    cosLong = trig[b + 3];
+
+    for (k = 0; k < count; k++) {
+      j = nodes[k];
+      if (j == i) {
+        dest[k] = 0;
+        continue;
+      }
+
+      b = ((j - 1) << 2);
+      arg = ((sinLat * trig[b]) + //
+      ((cosLat * trig[b + 1]) * //
+      ((cosLong * trig[b + 3]) + (sinLong * trig[b + 2]))));
+
+      if ((arg < (1d - _2DGeoDistancePrecomputed.ARG_EPS))
+          && (arg > (_2DGeoDistancePrecomputed.ARG_EPS - 1d))) {
+        dist = ((6378.388d * Math.acos(arg)) + 1d);
+        res = ((int) dist);
+        if (((dist - res) > _2DGeoDistancePrecomputed.EPS)
+            && (((res + 1) - dist) > _2DGeoDistancePrecomputed.EPS)) {
+          dest[k] = res;
+          continue;
+        }
+      }
+
+      dest[k] = this.__exact((ia << 1), ((j - 1) << 1));
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final long evaluate(final int[] nodes) {
+    long totalDist;
+    int last;
+
+    totalDist = 0l;
+    last = nodes[nodes.length - 1];
+    for (final int cur : nodes) {
+      totalDist += this.__distance((last - 1), (cur - 1));
+      last = cur;
+    }
+
+    return totalDist;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final long evaluateAdj(final int[] adj) {
+    long totalDist;
+    int last, cur;
+
+    totalDist = 0l;
+    last = 1;
+    for (;;) {
+      cur = adj[last - 1];
+      totalDist += this.__distance((last - 1), (cur - 1));
+      if (cur == 1) {
+        return totalDist;
+      }
+      last = cur;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void print(final PrintWriter out) {
+    this.m_src.print(out);
+  }
+}
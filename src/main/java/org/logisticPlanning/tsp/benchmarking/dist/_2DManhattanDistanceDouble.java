@@ -512,6 +512,12 @@ final class _2DManhattanDistanceDouble extends _2DDoubleCoords {
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  final int _metric() {
+    return SpatialIndex.METRIC_MANHATTAN;
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void print(final PrintWriter out) {
@@ -512,6 +512,12 @@ final class _2DManhattanDistanceInt extends _2DIntCoords {
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  final int _metric() {
+    return SpatialIndex.METRIC_MANHATTAN;
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void print(final PrintWriter out) {
@@ -609,6 +609,12 @@ final class _2DMaximumDistanceDouble extends _2DDoubleCoords {
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  final int _metric() {
+    return SpatialIndex.METRIC_MAXIMUM;
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void print(final PrintWriter out) {
@@ -606,6 +606,12 @@ final class _2DMaximumDistanceInt extends _2DIntCoords {
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  final int _metric() {
+    return SpatialIndex.METRIC_MAXIMUM;
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void print(final PrintWriter out) {
@@ -566,6 +566,12 @@ final class _2DPseudoEuclideanDistanceDouble extends _2DDoubleCoords {
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  final int _metric() {
+    return SpatialIndex.METRIC_PSEUDO;
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void print(final PrintWriter out) {
@@ -566,6 +566,12 @@ final class _2DPseudoEuclideanDistanceInt extends _2DIntCoords {
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  final int _metric() {
+    return SpatialIndex.METRIC_PSEUDO;
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void print(final PrintWriter out) {
@@ -377,6 +377,12 @@ abstract class _3DDoubleCoords extends DistanceComputer {
   /** the coordinates */
   transient double[] m_coords;
 
+  /** the spatial index of the coordinates, or {@code null} if none */
+  private transient SpatialIndex m_index;
+
+  /** has the spatial index been built? */
+  private transient volatile boolean m_indexed;
+
   /**
    * create
    *
@@ -531,4 +537,34 @@ abstract class _3DDoubleCoords extends DistanceComputer {
       }
     }
   }
+
+  /**
+   * Get the distance type of this distance computer, which determines how
+   * the {@link SpatialIndex spatial index} bounds the rounded distances.
+   * Distance types which cannot be indexed return
+   * {@link SpatialIndex#METRIC_NONE}.
+   *
+   * @return the distance type
+   */
+  int _metric() {
+    return SpatialIndex.METRIC_NONE;
+  }
+
+  /**
+   * {@inheritDoc} The index is built when it is requested for the first
+   * time.
+   */
+  @Override
+  public final SpatialIndex getSpatialIndex() {
+    if (!(this.m_indexed)) {
+      synchronized (this) {
+        if (!(this.m_indexed)) {
+          this.m_index = SpatialIndex._build(this.m_coords, 3,
+              this._metric());
+          this.m_indexed = true;
+        }
+      }
+    }
+    return this.m_index;
+  }
 }
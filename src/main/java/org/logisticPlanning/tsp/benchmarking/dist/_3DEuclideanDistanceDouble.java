@@ -551,6 +551,12 @@ final class _3DEuclideanDistanceDouble extends _3DDoubleCoords {
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  final int _metric() {
+    return SpatialIndex.METRIC_EUCLIDEAN;
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void print(final PrintWriter out) {
@@ -551,6 +551,12 @@ final class _3DEuclideanDistanceInt extends _3DIntCoords {
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  final int _metric() {
+    return SpatialIndex.METRIC_EUCLIDEAN;
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void print(final PrintWriter out) {
@@ -522,6 +522,12 @@ final class _3DManhattanDistanceDouble extends _3DDoubleCoords {
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  final int _metric() {
+    return SpatialIndex.METRIC_MANHATTAN;
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void print(final PrintWriter out) {
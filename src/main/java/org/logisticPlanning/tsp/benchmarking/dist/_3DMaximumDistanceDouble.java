@@ -617,6 +617,12 @@ final class _3DMaximumDistanceDouble extends _3DDoubleCoords {
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  final int _metric() {
+    return SpatialIndex.METRIC_MAXIMUM;
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void print(final PrintWriter out) {
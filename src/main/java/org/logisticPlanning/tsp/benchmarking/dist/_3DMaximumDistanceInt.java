@@ -617,6 +617,12 @@ final class _3DMaximumDistanceInt extends _3DIntCoords {
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  final int _metric() {
+    return SpatialIndex.METRIC_MAXIMUM;
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void print(final PrintWriter out) {
@@ -0,0 +1,351 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * The binary format for pre-parsed problem instances. Parsing a TSPLib
+ * text file with thousands of nodes via a
+ * {@link java.io.BufferedReader}, a
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._PushBackReader} and
+ * a {@link org.logisticPlanning.utils.NumberReader} is slow and creates
+ * lots of garbage. A binary instance file, in contrast, just holds the
+ * internal backing array of a distance computer, i.e., the coordinate
+ * array of a coordinate-based distance computer or the data array of a
+ * distance matrix. Loading it means to map the file into memory and to
+ * copy its data section in bulk into the array of a newly created
+ * distance computer.
+ * </p>
+ * <p>
+ * A binary instance file consists of
+ * </p>
+ * <ol>
+ * <li>a header of {@value #HEADER_SIZE} bytes with a magic number, the
+ * format version, the index of the distance computer class in
+ * {@link #KINDS}, the number of nodes, and the number of bytes in the data
+ * section,</li>
+ * <li>the data section with the contents of the backing array, and</li>
+ * <li>the {@link java.util.zip.CRC32 CRC32} checksum of the data section,
+ * stored as {@code long}.</li>
+ * </ol>
+ * <p>
+ * All numbers are stored in little endian byte order. Files are written
+ * to a temporary file first, which is then atomically renamed. A file with
+ * a wrong header, size, or checksum is ignored.
+ * </p>
+ */
+final class _BinaryFormat {
+
+  /** the magic number at the beginning of each binary instance file */
+  private static final int MAGIC = 0x42505354;
+
+  /** the version of the binary instance format */
+  private static final int VERSION = 1;
+
+  /** the size of the file header in bytes: {@value} */
+  static final int HEADER_SIZE = 24;
+
+  /** the size of the checksum in bytes: {@value} */
+  private static final int CHECKSUM_SIZE = 8;
+
+  /** the byte order used in binary instance files */
+  private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+  /** the size of the chunks used for computing the checksum */
+  private static final int CHUNK = 65536;
+
+  /**
+   * the distance computer classes that can be stored, the index in this
+   * array identifies the class in a file, so new classes must only be
+   * appended
+   */
+  private static final Class<?>[] KINDS = {//
+  _2DCeiledEuclideanDistanceDouble.class,//
+      _2DCeiledEuclideanDistanceInt.class,//
+      _2DEuclideanDistanceDouble.class,//
+      _2DEuclideanDistanceInt.class,//
+      _2DGeoDistanceDouble.class,//
+      _2DGeoDistanceInt.class,//
+      _2DManhattanDistanceDouble.class,//
+      _2DManhattanDistanceInt.class,//
+      _2DMaximumDistanceDouble.class,//
+      _2DMaximumDistanceInt.class,//
+      _2DPseudoEuclideanDistanceDouble.class,//
+      _2DPseudoEuclideanDistanceInt.class,//
+      _3DEuclideanDistanceDouble.class,//
+      _3DEuclideanDistanceInt.class,//
+      _3DManhattanDistanceDouble.class,//
+      _3DManhattanDistanceInt.class,//
+      _3DMaximumDistanceDouble.class,//
+      _3DMaximumDistanceInt.class,//
+      _3DXRay1DistanceDouble.class,//
+      _3DXRay1DistanceInt.class,//
+      _DistanceMatrixSymmetricInt.class,//
+      _DistanceMatrixSymmetricShort.class,//
+      _DistanceMatrixSymmetricByte.class,//
+      _DistanceMatrixAsymmetricInt.class,//
+      _DistanceMatrixAsymmetricShort.class,//
+      _DistanceMatrixAsymmetricByte.class,//
+  };
+
+  /** you cannot instantiate this class */
+  private _BinaryFormat() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Get the backing array of a distance computer
+   *
+   * @param dc
+   *          the distance computer
+   * @return the backing array, or {@code null} if the distance computer
+   *         cannot be stored in the binary format
+   */
+  static final Object _data(final DistanceComputer dc) {
+    if (dc instanceof _2DDoubleCoords) {
+      return ((_2DDoubleCoords) dc).m_coords;
+    }
+    if (dc instanceof _2DIntCoords) {
+      return ((_2DIntCoords) dc).m_coords;
+    }
+    if (dc instanceof _3DDoubleCoords) {
+      return ((_3DDoubleCoords) dc).m_coords;
+    }
+    if (dc instanceof _3DIntCoords) {
+      return ((_3DIntCoords) dc).m_coords;
+    }
+    if (dc instanceof _DistanceMatrixSymmetricInt) {
+      return ((_DistanceMatrixSymmetricInt) dc).m_data;
+    }
+    if (dc instanceof _DistanceMatrixSymmetricShort) {
+      return ((_DistanceMatrixSymmetricShort) dc).m_data;
+    }
+    if (dc instanceof _DistanceMatrixSymmetricByte) {
+      return ((_DistanceMatrixSymmetricByte) dc).m_data;
+    }
+    if (dc instanceof _DistanceMatrixAsymmetricInt) {
+      return ((_DistanceMatrixAsymmetricInt) dc).m_data;
+    }
+    if (dc instanceof _DistanceMatrixAsymmetricShort) {
+      return ((_DistanceMatrixAsymmetricShort) dc).m_data;
+    }
+    if (dc instanceof _DistanceMatrixAsymmetricByte) {
+      return ((_DistanceMatrixAsymmetricByte) dc).m_data;
+    }
+    return null;
+  }
+
+  /**
+   * Get the number of bytes needed to store a backing array
+   *
+   * @param data
+   *          the backing array
+   * @return the number of bytes
+   */
+  static final long _bytes(final Object data) {
+    if (data instanceof double[]) {
+      return (((long) (((double[]) data).length)) << 3l);
+    }
+    if (data instanceof int[]) {
+      return (((long) (((int[]) data).length)) << 2l);
+    }
+    if (data instanceof short[]) {
+      return (((long) (((short[]) data).length)) << 1l);
+    }
+    return ((byte[]) data).length;
+  }
+
+  /**
+   * Write a distance computer to a binary instance file.
+   *
+   * @param src
+   *          the distance computer
+   * @param file
+   *          the file
+   * @throws IOException
+   *           if i/o fails
+   */
+  static final void write(final DistanceComputer src, final File file)
+      throws IOException {
+    final DistanceComputer dc;
+    final Object data;
+    final long bytes;
+    final ByteBuffer buffer;
+    final CRC32 crc;
+    final File dir, temp;
+    int kind;
+
+    // pre-computed data is not stored, only the original coordinates
+    dc = ((src instanceof _2DGeoDistancePrecomputed) ? ((_2DGeoDistancePrecomputed) src).m_src
+        : src);
+    for (kind = _BinaryFormat.KINDS.length; (--kind) >= 0;) {
+      if (_BinaryFormat.KINDS[kind] == dc.getClass()) {
+        break;
+      }
+    }
+    data = _BinaryFormat._data(dc);
+    if ((kind < 0) || (data == null)) {
+      throw new IllegalArgumentException(//
+          "Distance computer cannot be stored in binary format: " + //$NON-NLS-1$
+              dc.getClass());
+    }
+    bytes = _BinaryFormat._bytes(data);
+    if (bytes > (Integer.MAX_VALUE - _BinaryFormat.HEADER_SIZE - _BinaryFormat.CHECKSUM_SIZE)) {
+      throw new IllegalArgumentException(//
+          "Distance computer is too large for the binary format."); //$NON-NLS-1$
+    }
+
+    buffer = ByteBuffer.allocate(
+        (int) (_BinaryFormat.HEADER_SIZE + bytes + _BinaryFormat.CHECKSUM_SIZE))
+        .order(_BinaryFormat.ORDER);
+    buffer.putInt(_BinaryFormat.MAGIC);
+    buffer.putInt(_BinaryFormat.VERSION);
+    buffer.putInt(kind);
+    buffer.putInt(dc.m_n);
+    buffer.putLong(bytes);
+
+    if (data instanceof double[]) {
+      buffer.asDoubleBuffer().put((double[]) data);
+    } else {
+      if (data instanceof int[]) {
+        buffer.asIntBuffer().put((int[]) data);
+      } else {
+        if (data instanceof short[]) {
+          buffer.asShortBuffer().put((short[]) data);
+        } else {
+          buffer.put((byte[]) data);
+        }
+      }
+    }
+
+    crc = new CRC32();
+    crc.update(buffer.array(), _BinaryFormat.HEADER_SIZE, ((int) bytes));
+    buffer.putLong((int) (_BinaryFormat.HEADER_SIZE + bytes), crc.getValue());
+    buffer.position(0);
+
+    dir = file.getAbsoluteFile().getParentFile();
+    if (dir != null) {
+      dir.mkdirs();
+    }
+    temp = File.createTempFile(file.getName(), ".tmp", dir); //$NON-NLS-1$
+    try {
+      try (RandomAccessFile raf = new RandomAccessFile(temp, "rw")) { //$NON-NLS-1$
+        try (FileChannel channel = raf.getChannel()) {
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+          channel.force(true);
+        }
+      }
+      Files.move(temp.toPath(), file.toPath(),
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      temp.delete();
+    }
+  }
+
+  /**
+   * Read a distance computer from a binary instance file.
+   *
+   * @param file
+   *          the file
+   * @return the distance computer, or {@code null} if the file does not
+   *         exist or is invalid
+   * @throws IOException
+   *           if i/o fails
+   */
+  static final DistanceComputer read(final File file) throws IOException {
+    final ByteBuffer buffer;
+    final int kind, n;
+    final long bytes;
+    final CRC32 crc;
+    final byte[] chunk;
+    final DistanceComputer dc;
+    final Object data;
+    final Constructor<?> constructor;
+    int pos, end, len;
+
+    if ((file == null) || (!(file.isFile()))) {
+      return null;
+    }
+
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) { //$NON-NLS-1$
+      try (FileChannel channel = raf.getChannel()) {
+        if ((channel.size() < (_BinaryFormat.HEADER_SIZE + _BinaryFormat.CHECKSUM_SIZE))
+            || (channel.size() > Integer.MAX_VALUE)) {
+          return null;
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0l,
+            channel.size()).order(_BinaryFormat.ORDER);
+      }
+    }
+
+    if ((buffer.getInt() != _BinaryFormat.MAGIC) || //
+        (buffer.getInt() != _BinaryFormat.VERSION)) {
+      return null;
+    }
+    kind = buffer.getInt();
+    n = buffer.getInt();
+    bytes = buffer.getLong();
+    if ((kind < 0) || (kind >= _BinaryFormat.KINDS.length) || (n <= 1) || //
+        (bytes != (buffer.capacity() - _BinaryFormat.HEADER_SIZE - _BinaryFormat.CHECKSUM_SIZE))) {
+      return null;
+    }
+
+    crc = new CRC32();
+    chunk = new byte[_BinaryFormat.CHUNK];
+    end = ((int) (_BinaryFormat.HEADER_SIZE + bytes));
+    for (pos = _BinaryFormat.HEADER_SIZE; pos < end; pos += len) {
+      len = Math.min(chunk.length, (end - pos));
+      buffer.get(chunk, 0, len);
+      crc.update(chunk, 0, len);
+    }
+    if (crc.getValue() != buffer.getLong(end)) {
+      return null;
+    }
+
+    try {
+      constructor = _BinaryFormat.KINDS[kind].getDeclaredConstructor(//
+          int.class);
+      dc = ((DistanceComputer) (constructor.newInstance(Integer
+          .valueOf(n))));
+    } catch (final Throwable t) {
+      throw new IOException(t);
+    }
+
+    data = _BinaryFormat._data(dc);
+    if (_BinaryFormat._bytes(data) != bytes) {
+      return null;
+    }
+
+    buffer.position(_BinaryFormat.HEADER_SIZE);
+    if (data instanceof double[]) {
+      buffer.asDoubleBuffer().get((double[]) data);
+    } else {
+      if (data instanceof int[]) {
+        buffer.asIntBuffer().get((int[]) data);
+      } else {
+        if (data instanceof short[]) {
+          buffer.asShortBuffer().get((short[]) data);
+        } else {
+          buffer.get((byte[]) data);
+        }
+      }
+    }
+
+    return dc;
+  }
+}
@@ -0,0 +1,743 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * The divide-and-conquer algorithm of Guibas and Stolfi for computing the
+ * <a href="http://en.wikipedia.org/wiki/Delaunay_triangulation">Delaunay
+ * triangulation</a> of a set of points in the plane in
+ * {@code O(n log n)} time, which is used to build a {@link DelaunayGraph}.
+ * The points are sorted by their coordinates, split in half recursively,
+ * and the triangulations of the halves are merged by walking up the seam
+ * between them. Points at the same location are only triangulated once.
+ * </p>
+ * <p>
+ * The triangulation is stored in a quad-edge structure held in two
+ * {@code int} arrays: The four directed edges of quad-edge {@code q} are
+ * {@code 4q} and {@code 4q+2} (the edge and its reverse) and
+ * {@code 4q+1} and {@code 4q+3} (the two directions of its dual edge).
+ * {@link #m_next} holds the next edge counter-clockwise around the origin
+ * of each edge and {@link #m_org} the origin point of each primal edge.
+ * Deleted quad-edges are recycled.
+ * </p>
+ * <p>
+ * The orientation and in-circle tests decide the topology, so they must
+ * never err. They are first computed with {@code double} arithmetic and
+ * the error bounds of Shewchuk's adaptive predicates. Only if the result
+ * is too close to zero to be trusted, which mainly happens for collinear
+ * or co-circular points, the test is repeated with exact
+ * {@link java.math.BigDecimal} arithmetic.
+ * </p>
+ */
+final class _DelaunayTriangulator {
+
+  /** half of the machine epsilon of {@code double}: {@value} */
+  private static final double EPSILON = (1d / (1l << 53l));
+
+  /** the relative error bound of the orientation test */
+  private static final double CCW_ERROR_BOUND = ((3d + (16d * _DelaunayTriangulator.EPSILON)) * _DelaunayTriangulator.EPSILON);
+
+  /** the relative error bound of the in-circle test */
+  private static final double IN_CIRCLE_ERROR_BOUND = ((10d + (96d * _DelaunayTriangulator.EPSILON)) * _DelaunayTriangulator.EPSILON);
+
+  /** the first coordinates of the points */
+  private final double[] m_x;
+
+  /** the second coordinates of the points */
+  private final double[] m_y;
+
+  /** the next edge counter-clockwise around the origin of each edge */
+  private int[] m_next;
+
+  /**
+   * the origin of each primal edge, or {@code -1} if the quad-edge has
+   * been deleted
+   */
+  private int[] m_org;
+
+  /** the number of quad-edges allocated so far */
+  private int m_count;
+
+  /** the deleted quad-edges that can be recycled */
+  private int[] m_free;
+
+  /** the number of deleted quad-edges */
+  private int m_freeCount;
+
+  /**
+   * create
+   *
+   * @param x
+   *          the first coordinates of the points
+   * @param y
+   *          the second coordinates of the points
+   */
+  private _DelaunayTriangulator(final double[] x, final double[] y) {
+    super();
+    final int capacity;
+
+    this.m_x = x;
+    this.m_y = y;
+    capacity = ((3 * x.length) + 3);
+    this.m_next = new int[capacity << 2];
+    this.m_org = new int[capacity << 2];
+    this.m_free = new int[16];
+  }
+
+  /**
+   * Compute the Delaunay triangulation of a set of points.
+   *
+   * @param x
+   *          the first coordinates of the points
+   * @param y
+   *          the second coordinates of the points
+   * @param rep
+   *          an array receiving, for each point, the index of the first
+   *          point at the same location, which is the point itself for all
+   *          points that have been triangulated
+   * @return the edges of the triangulation: the end points of edge
+   *         {@code i} are at the indices {@code 2i} and {@code 2i+1}
+   */
+  static final int[] triangulate(final double[] x, final double[] y,
+      final int[] rep) {
+    final _DelaunayTriangulator t;
+    final int[] order, unique, edges;
+    final int n;
+    int i, count, q, e;
+
+    n = x.length;
+    t = new _DelaunayTriangulator(x, y);
+
+    // sort the points lexicographically and drop the duplicates
+    order = new int[n];
+    for (i = n; (--i) >= 0;) {
+      order[i] = i;
+    }
+    t.__sort(order, new int[n], 0, n);
+    unique = new int[n];
+    count = 0;
+    for (i = 0; i < n; i++) {
+      e = order[i];
+      if ((count > 0) && t.__same(unique[count - 1], e)) {
+        rep[e] = unique[count - 1];
+      } else {
+        rep[e] = e;
+        unique[count++] = e;
+      }
+    }
+
+    if (count >= 2) {
+      t.__triangulate(unique, 0, count, new int[2]);
+    }
+
+    // collect the edges
+    count = 0;
+    for (q = t.m_count; (--q) >= 0;) {
+      if (t.m_org[q << 2] >= 0) {
+        count++;
+      }
+    }
+    edges = new int[count << 1];
+    i = 0;
+    for (q = 0; q < t.m_count; q++) {
+      e = (q << 2);
+      if (t.m_org[e] >= 0) {
+        edges[i++] = t.m_org[e];
+        edges[i++] = t.m_org[e + 2];
+      }
+    }
+    return edges;
+  }
+
+  /**
+   * Sort the indices {@code lo..hi-1} of {@code a} lexicographically by
+   * the coordinates of the points and then by index with a merge sort.
+   *
+   * @param a
+   *          the array of indices
+   * @param temp
+   *          a temporary array of the same length
+   * @param lo
+   *          the first index
+   * @param hi
+   *          the index after the last one
+   */
+  private final void __sort(final int[] a, final int[] temp, final int lo,
+      final int hi) {
+    final int mid;
+    int i, j, k;
+
+    if ((hi - lo) <= 1) {
+      return;
+    }
+    mid = ((lo + hi) >>> 1);
+    this.__sort(a, temp, lo, mid);
+    this.__sort(a, temp, mid, hi);
+    if (this.__compare(a[mid - 1], a[mid]) <= 0) {
+      return;
+    }
+
+    System.arraycopy(a, lo, temp, lo, (hi - lo));
+    i = lo;
+    j = mid;
+    for (k = lo; k < hi; k++) {
+      if ((j >= hi)
+          || ((i < mid) && (this.__compare(temp[i], temp[j]) <= 0))) {
+        a[k] = temp[i++];
+      } else {
+        a[k] = temp[j++];
+      }
+    }
+  }
+
+  /**
+   * Compare two points lexicographically by their coordinates and then by
+   * their index
+   *
+   * @param a
+   *          the first point
+   * @param b
+   *          the second point
+   * @return a negative value if {@code a} comes first, a positive value if
+   *         {@code b} comes first, {@code 0} if {@code a==b}
+   */
+  private final int __compare(final int a, final int b) {
+    final double[] x, y;
+
+    x = this.m_x;
+    y = this.m_y;
+    if (x[a] < x[b]) {
+      return (-1);
+    }
+    if (x[a] > x[b]) {
+      return 1;
+    }
+    if (y[a] < y[b]) {
+      return (-1);
+    }
+    if (y[a] > y[b]) {
+      return 1;
+    }
+    return Integer.compare(a, b);
+  }
+
+  /**
+   * Are two points at the same location?
+   *
+   * @param a
+   *          the first point
+   * @param b
+   *          the second point
+   * @return {@code true} if they have the same coordinates
+   */
+  private final boolean __same(final int a, final int b) {
+    return ((this.m_x[a] == this.m_x[b]) && (this.m_y[a] == this.m_y[b]));
+  }
+
+  /**
+   * Triangulate the sorted, distinct points {@code s[lo..hi-1]}, where
+   * {@code hi-lo>=2}.
+   *
+   * @param s
+   *          the sorted points
+   * @param lo
+   *          the first index
+   * @param hi
+   *          the index after the last one
+   * @param res
+   *          receives the counter-clockwise convex hull edge leaving the
+   *          leftmost point at index {@code 0} and the clockwise convex
+   *          hull edge leaving the rightmost point at index {@code 1}
+   */
+  private final void __triangulate(final int[] s, final int lo,
+      final int hi, final int[] res) {
+    final int mid;
+    int a, b, c, ldo, ldi, rdi, rdo, basel, lcand, rcand, t;
+    boolean lvalid, rvalid;
+
+    if ((hi - lo) == 2) {
+      a = this.__makeEdge(s[lo], s[lo + 1]);
+      res[0] = a;
+      res[1] = _DelaunayTriangulator.__sym(a);
+      return;
+    }
+
+    if ((hi - lo) == 3) {
+      a = this.__makeEdge(s[lo], s[lo + 1]);
+      b = this.__makeEdge(s[lo + 1], s[lo + 2]);
+      this.__splice(_DelaunayTriangulator.__sym(a), b);
+      if (this.__ccw(s[lo], s[lo + 1], s[lo + 2])) {
+        this.__connect(b, a);
+        res[0] = a;
+        res[1] = _DelaunayTriangulator.__sym(b);
+      } else {
+        if (this.__ccw(s[lo], s[lo + 2], s[lo + 1])) {
+          c = this.__connect(b, a);
+          res[0] = _DelaunayTriangulator.__sym(c);
+          res[1] = c;
+        } else {
+          // the three points are collinear
+          res[0] = a;
+          res[1] = _DelaunayTriangulator.__sym(b);
+        }
+      }
+      return;
+    }
+
+    mid = ((lo + hi) >>> 1);
+    this.__triangulate(s, lo, mid, res);
+    ldo = res[0];
+    ldi = res[1];
+    this.__triangulate(s, mid, hi, res);
+    rdi = res[0];
+    rdo = res[1];
+
+    // find the lower common tangent of the two halves
+    for (;;) {
+      if (this.__leftOf(this.m_org[rdi], ldi)) {
+        ldi = this.__lnext(ldi);
+      } else {
+        if (this.__rightOf(this.m_org[ldi], rdi)) {
+          rdi = this.__rprev(rdi);
+        } else {
+          break;
+        }
+      }
+    }
+
+    basel = this.__connect(_DelaunayTriangulator.__sym(rdi), ldi);
+    if (this.m_org[ldi] == this.m_org[ldo]) {
+      ldo = _DelaunayTriangulator.__sym(basel);
+    }
+    if (this.m_org[rdi] == this.m_org[rdo]) {
+      rdo = basel;
+    }
+
+    // merge the two halves by walking up the seam
+    for (;;) {
+      lcand = this.m_next[_DelaunayTriangulator.__sym(basel)];
+      lvalid = this.__valid(lcand, basel);
+      if (lvalid) {
+        while (this.__inCircle(this.__dest(basel), this.m_org[basel],
+            this.__dest(lcand), this.__dest(this.m_next[lcand]))) {
+          t = this.m_next[lcand];
+          this.__deleteEdge(lcand);
+          lcand = t;
+        }
+      }
+
+      rcand = this.__oprev(basel);
+      rvalid = this.__valid(rcand, basel);
+      if (rvalid) {
+        while (this.__inCircle(this.__dest(basel), this.m_org[basel],
+            this.__dest(rcand), this.__dest(this.__oprev(rcand)))) {
+          t = this.__oprev(rcand);
+          this.__deleteEdge(rcand);
+          rcand = t;
+        }
+      }
+
+      if ((!lvalid) && (!rvalid)) {
+        break;
+      }
+
+      if ((!lvalid)
+          || (rvalid && this.__inCircle(this.__dest(lcand),
+              this.m_org[lcand], this.m_org[rcand], this.__dest(rcand)))) {
+        basel = this.__connect(rcand, _DelaunayTriangulator.__sym(basel));
+      } else {
+        basel = this.__connect(_DelaunayTriangulator.__sym(basel),
+            _DelaunayTriangulator.__sym(lcand));
+      }
+    }
+
+    res[0] = ldo;
+    res[1] = rdo;
+  }
+
+  /**
+   * Get the reverse of an edge
+   *
+   * @param e
+   *          the edge
+   * @return the edge with origin and destination swapped
+   */
+  private static final int __sym(final int e) {
+    return (e ^ 2);
+  }
+
+  /**
+   * Rotate an edge counter-clockwise, i.e., get its dual edge directed
+   * from its right to its left face
+   *
+   * @param e
+   *          the edge
+   * @return the rotated edge
+   */
+  private static final int __rot(final int e) {
+    return ((e & (~3)) | ((e + 1) & 3));
+  }
+
+  /**
+   * Rotate an edge clockwise
+   *
+   * @param e
+   *          the edge
+   * @return the rotated edge
+   */
+  private static final int __rotInv(final int e) {
+    return ((e & (~3)) | ((e + 3) & 3));
+  }
+
+  /**
+   * Get the destination of an edge
+   *
+   * @param e
+   *          the edge
+   * @return its destination point
+   */
+  private final int __dest(final int e) {
+    return this.m_org[e ^ 2];
+  }
+
+  /**
+   * Get the next edge clockwise around the origin of an edge
+   *
+   * @param e
+   *          the edge
+   * @return the previous edge with the same origin
+   */
+  private final int __oprev(final int e) {
+    return _DelaunayTriangulator.__rot(this.m_next[_DelaunayTriangulator
+        .__rot(e)]);
+  }
+
+  /**
+   * Get the next edge counter-clockwise around the left face of an edge
+   *
+   * @param e
+   *          the edge
+   * @return the next edge around the left face
+   */
+  private final int __lnext(final int e) {
+    return _DelaunayTriangulator.__rot(this.m_next[_DelaunayTriangulator
+        .__rotInv(e)]);
+  }
+
+  /**
+   * Get the previous edge counter-clockwise around the right face of an
+   * edge
+   *
+   * @param e
+   *          the edge
+   * @return the previous edge around the right face
+   */
+  private final int __rprev(final int e) {
+    return this.m_next[e ^ 2];
+  }
+
+  /**
+   * Create a new edge between two points which is not connected to any
+   * other edge
+   *
+   * @param a
+   *          the origin
+   * @param b
+   *          the destination
+   * @return the new edge
+   */
+  private final int __makeEdge(final int a, final int b) {
+    final int q, e;
+
+    if (this.m_freeCount > 0) {
+      q = this.m_free[--this.m_freeCount];
+    } else {
+      q = this.m_count++;
+      if ((q << 2) >= this.m_next.length) {
+        this.m_next = Arrays.copyOf(this.m_next, (this.m_next.length << 1));
+        this.m_org = Arrays.copyOf(this.m_org, (this.m_org.length << 1));
+      }
+    }
+
+    e = (q << 2);
+    this.m_next[e] = e;
+    this.m_next[e + 1] = (e + 3);
+    this.m_next[e + 2] = (e + 2);
+    this.m_next[e + 3] = (e + 1);
+    this.m_org[e] = a;
+    this.m_org[e + 2] = b;
+    return e;
+  }
+
+  /**
+   * The splice operation of the quad-edge structure: if the origin rings
+   * of the two edges are different, they are joined, otherwise they are
+   * separated.
+   *
+   * @param a
+   *          the first edge
+   * @param b
+   *          the second edge
+   */
+  private final void __splice(final int a, final int b) {
+    final int[] next;
+    final int alpha, beta;
+    int t;
+
+    next = this.m_next;
+    alpha = _DelaunayTriangulator.__rot(next[a]);
+    beta = _DelaunayTriangulator.__rot(next[b]);
+
+    t = next[a];
+    next[a] = next[b];
+    next[b] = t;
+    t = next[alpha];
+    next[alpha] = next[beta];
+    next[beta] = t;
+  }
+
+  /**
+   * Add a new edge from the destination of {@code a} to the origin of
+   * {@code b} such that all three edges share the same left face
+   *
+   * @param a
+   *          the first edge
+   * @param b
+   *          the second edge
+   * @return the new edge
+   */
+  private final int __connect(final int a, final int b) {
+    final int e;
+
+    e = this.__makeEdge(this.__dest(a), this.m_org[b]);
+    this.__splice(e, this.__lnext(a));
+    this.__splice(_DelaunayTriangulator.__sym(e), b);
+    return e;
+  }
+
+  /**
+   * Remove an edge from the triangulation and recycle its quad-edge
+   *
+   * @param e
+   *          the edge
+   */
+  private final void __deleteEdge(final int e) {
+    final int s, q;
+
+    s = _DelaunayTriangulator.__sym(e);
+    this.__splice(e, this.__oprev(e));
+    this.__splice(s, this.__oprev(s));
+
+    q = (e & (~3));
+    this.m_org[q] = (-1);
+    this.m_org[q + 2] = (-1);
+    if (this.m_freeCount >= this.m_free.length) {
+      this.m_free = Arrays.copyOf(this.m_free, (this.m_free.length << 1));
+    }
+    this.m_free[this.m_freeCount++] = (q >>> 2);
+  }
+
+  /**
+   * Is point {@code p} strictly left of edge {@code e}?
+   *
+   * @param p
+   *          the point
+   * @param e
+   *          the edge
+   * @return {@code true} if it is, {@code false} otherwise
+   */
+  private final boolean __leftOf(final int p, final int e) {
+    return this.__ccw(p, this.m_org[e], this.__dest(e));
+  }
+
+  /**
+   * Is point {@code p} strictly right of edge {@code e}?
+   *
+   * @param p
+   *          the point
+   * @param e
+   *          the edge
+   * @return {@code true} if it is, {@code false} otherwise
+   */
+  private final boolean __rightOf(final int p, final int e) {
+    return this.__ccw(p, this.__dest(e), this.m_org[e]);
+  }
+
+  /**
+   * Is a candidate edge of the merge step above the base edge?
+   *
+   * @param e
+   *          the candidate edge
+   * @param basel
+   *          the base edge
+   * @return {@code true} if the destination of {@code e} is strictly
+   *         right of {@code basel}
+   */
+  private final boolean __valid(final int e, final int basel) {
+    return this.__rightOf(this.__dest(e), basel);
+  }
+
+  /**
+   * Are the three points in counter-clockwise order? The result is exact.
+   *
+   * @param a
+   *          the first point
+   * @param b
+   *          the second point
+   * @param c
+   *          the third point
+   * @return {@code true} if they are in strictly counter-clockwise order,
+   *         {@code false} if they are collinear or in clockwise order
+   */
+  private final boolean __ccw(final int a, final int b, final int c) {
+    final double[] x, y;
+    final double left, right, det, sum;
+
+    x = this.m_x;
+    y = this.m_y;
+    left = ((x[a] - x[c]) * (y[b] - y[c]));
+    right = ((y[a] - y[c]) * (x[b] - x[c]));
+    det = (left - right);
+
+    if (left > 0d) {
+      if (right <= 0d) {
+        return (det > 0d);
+      }
+      sum = (left + right);
+    } else {
+      if (left < 0d) {
+        if (right >= 0d) {
+          return (det > 0d);
+        }
+        sum = (-(left + right));
+      } else {
+        return (det > 0d);
+      }
+    }
+
+    if (Math.abs(det) > (_DelaunayTriangulator.CCW_ERROR_BOUND * sum)) {
+      return (det > 0d);
+    }
+    return (this.__ccwExact(a, b, c) > 0);
+  }
+
+  /**
+   * Compute the sign of the orientation determinant exactly
+   *
+   * @param a
+   *          the first point
+   * @param b
+   *          the second point
+   * @param c
+   *          the third point
+   * @return the sign
+   */
+  private final int __ccwExact(final int a, final int b, final int c) {
+    final BigDecimal ax, ay, bx, by, cx, cy;
+
+    ax = new BigDecimal(this.m_x[a]);
+    ay = new BigDecimal(this.m_y[a]);
+    bx = new BigDecimal(this.m_x[b]);
+    by = new BigDecimal(this.m_y[b]);
+    cx = new BigDecimal(this.m_x[c]);
+    cy = new BigDecimal(this.m_y[c]);
+
+    return ax.subtract(cx).multiply(by.subtract(cy))
+        .subtract(ay.subtract(cy).multiply(bx.subtract(cx))).signum();
+  }
+
+  /**
+   * Is point {@code d} strictly inside the circle through {@code a},
+   * {@code b}, and {@code c}, which are in counter-clockwise order? The
+   * result is exact.
+   *
+   * @param a
+   *          the first point on the circle
+   * @param b
+   *          the second point on the circle
+   * @param c
+   *          the third point on the circle
+   * @param d
+   *          the point to test
+   * @return {@code true} if {@code d} is strictly inside the circle
+   */
+  private final boolean __inCircle(final int a, final int b, final int c,
+      final int d) {
+    final double[] x, y;
+    final double adx, ady, bdx, bdy, cdx, cdy, bdxcdy, cdxbdy, cdxady, adxcdy, adxbdy, bdxady, alift, blift, clift, det, permanent;
+
+    x = this.m_x;
+    y = this.m_y;
+    adx = (x[a] - x[d]);
+    ady = (y[a] - y[d]);
+    bdx = (x[b] - x[d]);
+    bdy = (y[b] - y[d]);
+    cdx = (x[c] - x[d]);
+    cdy = (y[c] - y[d]);
+
+    bdxcdy = (bdx * cdy);
+    cdxbdy = (cdx * bdy);
+    alift = ((adx * adx) + (ady * ady));
+
+    cdxady = (cdx * ady);
+    adxcdy = (adx * cdy);
+    blift = ((bdx * bdx) + (bdy * bdy));
+
+    adxbdy = (adx * bdy);
+    bdxady = (bdx * ady);
+    clift = ((cdx * cdx) + (cdy * cdy));
+
+    det = ((alift * (bdxcdy - cdxbdy)) + (blift * (cdxady - adxcdy)) + (clift * (adxbdy - bdxady)));
+    permanent = (((Math.abs(bdxcdy) + Math.abs(cdxbdy)) * alift)
+        + ((Math.abs(cdxady) + Math.abs(adxcdy)) * blift) + ((Math
+        .abs(adxbdy) + Math.abs(bdxady)) * clift));
+
+    if (Math.abs(det) > (_DelaunayTriangulator.IN_CIRCLE_ERROR_BOUND * permanent)) {
+      return (det > 0d);
+    }
+    return (this.__inCircleExact(a, b, c, d) > 0);
+  }
+
+  /**
+   * Compute the sign of the in-circle determinant exactly
+   *
+   * @param a
+   *          the first point on the circle
+   * @param b
+   *          the second point on the circle
+   * @param c
+   *          the third point on the circle
+   * @param d
+   *          the point to test
+   * @return the sign
+   */
+  private final int __inCircleExact(final int a, final int b, final int c,
+      final int d) {
+    final BigDecimal dx, dy, adx, ady, bdx, bdy, cdx, cdy, alift, blift, clift;
+
+    dx = new BigDecimal(this.m_x[d]);
+    dy = new BigDecimal(this.m_y[d]);
+    adx = new BigDecimal(this.m_x[a]).subtract(dx);
+    ady = new BigDecimal(this.m_y[a]).subtract(dy);
+    bdx = new BigDecimal(this.m_x[b]).subtract(dx);
+    bdy = new BigDecimal(this.m_y[b]).subtract(dy);
+    cdx = new BigDecimal(this.m_x[c]).subtract(dx);
+    cdy = new BigDecimal(this.m_y[c]).subtract(dy);
+
+    alift = adx.multiply(adx).add(ady.multiply(ady));
+    blift = bdx.multiply(bdx).add(bdy.multiply(bdy));
+    clift = cdx.multiply(cdx).add(cdy.multiply(cdy));
+
+    return alift
+        .multiply(bdx.multiply(cdy).subtract(cdx.multiply(bdy)))
+        .add(blift.multiply(cdx.multiply(ady).subtract(adx.multiply(cdy))))
+        .add(clift.multiply(adx.multiply(bdy).subtract(bdx.multiply(ady))))
+        .signum();
+  }
+}
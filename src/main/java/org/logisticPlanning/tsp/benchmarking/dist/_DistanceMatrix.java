@@ -30,8 +30,18 @@ abstract class _DistanceMatrix extends DistanceComputer implements
   /** the maximum numbers per line */
   static final int MAX_NUMBERS_PER_LINE = 16;
 
-  /** the data */
-  int[] m_data;
+  /** the largest distance that can be stored in a byte-based matrix */
+  static final int MAX_BYTE = 0xff;
+
+  /** the largest distance that can be stored in a short-based matrix */
+  static final int MAX_SHORT = 0xffff;
+
+  /**
+   * the coordinate-based distance computer from which this matrix was
+   * created, which provides the {@link #getSpatialIndex() spatial index},
+   * or {@code null}
+   */
+  transient DistanceComputer m_coordinates;
 
   /**
    * create
@@ -56,15 +66,36 @@ abstract class _DistanceMatrix extends DistanceComputer implements
   abstract void setDistance(final int a, final int b, final int dist);
 
   /**
-   * fill this matrix from the given source
+   * Fill this matrix from the given source. For large matrices, blocks of
+   * rows are filled in parallel by a fork-join pool, see
+   * {@link org.logisticPlanning.tsp.benchmarking.dist._DistanceMatrixRowTask}
+   * .
    *
    * @param src
    *          the source
    */
-  void fillFrom(final DistanceComputer src) {
+  final void fillFrom(final DistanceComputer src) {
+    _DistanceMatrixRowTask.process(src, this,
+        (this instanceof _DistanceMatrixSymmetric));
+  }
+
+  /**
+   * Fill the rows {@code from} (inclusive) to {@code to} (exclusive) of
+   * this matrix from the given source. For symmetric matrices, a row
+   * {@code i} consists of the entries {@code (i, j)} with {@code j<i}.
+   * This method may be called concurrently for disjoint blocks of rows.
+   *
+   * @param src
+   *          the source
+   * @param from
+   *          the first row (inclusive)
+   * @param to
+   *          the last row (exclusive)
+   */
+  void fillRows(final DistanceComputer src, final int from, final int to) {
     int i, j;
 
-    for (i = this.m_n; i > 0; i--) {
+    for (i = from; i < to; i++) {
       for (j = this.m_n; j > 0; j--) {
         if (i != j) {
           this.setDistance(i, j, src.distance(i, j));
@@ -73,4 +104,119 @@ abstract class _DistanceMatrix extends DistanceComputer implements
     }
   }
 
+  /**
+   * Get the {@link SpatialIndex spatial index} of the coordinate-based
+   * distance computer this matrix was created from, if any. The matrix
+   * holds the same distances, so the index remains valid.
+   *
+   * @return the spatial index, or {@code null} if this matrix was not
+   *         created from suitable coordinates
+   */
+  @Override
+  public final SpatialIndex getSpatialIndex() {
+    return ((this.m_coordinates != null) ? this.m_coordinates
+        .getSpatialIndex() : null);
+  }
+
+  /**
+   * Get a matrix holding the same distances as this one, but with the
+   * narrowest possible data type. This is used after a matrix has been
+   * loaded from a file, where the largest distance is not known before.
+   *
+   * @return the compact matrix, or {@code this} if no narrower matrix
+   *         type can hold all the distances
+   */
+  _DistanceMatrix compact() {
+    return this;
+  }
+
+  /**
+   * Get the largest distance between any two nodes. For large matrices,
+   * blocks of rows are inspected in parallel.
+   *
+   * @param src
+   *          the source distance computer
+   * @param symmetric
+   *          is the source symmetric? If so, only the lower triangle is
+   *          inspected
+   * @return the largest distance, or {@link java.lang.Integer#MAX_VALUE}
+   *         if any distance is negative and thus cannot be stored in an
+   *         unsigned narrow matrix
+   */
+  static final int maxDistance(final DistanceComputer src,
+      final boolean symmetric) {
+    return _DistanceMatrixRowTask.process(src, null, symmetric);
+  }
+
+  /**
+   * Get the number of bytes needed by each entry of a matrix whose largest
+   * distance is {@code maxDist}
+   *
+   * @param maxDist
+   *          the largest distance
+   * @return the number of bytes per entry
+   */
+  static final int entryBytes(final int maxDist) {
+    if (maxDist <= _DistanceMatrix.MAX_BYTE) {
+      return 1;
+    }
+    if (maxDist <= _DistanceMatrix.MAX_SHORT) {
+      return 2;
+    }
+    return 4;
+  }
+
+  /**
+   * Get the number of bytes that the data of the most compact distance
+   * matrix for the given setting would occupy
+   *
+   * @param n
+   *          the number of nodes
+   * @param symmetric
+   *          is the matrix symmetric?
+   * @param maxDist
+   *          the largest distance
+   * @return the number of bytes needed
+   */
+  static final long bytes(final int n, final boolean symmetric,
+      final int maxDist) {
+    long entries;
+
+    entries = (((long) n) * (n - 1l));
+    if (symmetric) {
+      entries >>>= 1l;
+    }
+    return (entries * _DistanceMatrix.entryBytes(maxDist));
+  }
+
+  /**
+   * Allocate the most compact distance matrix that can hold all distances
+   * in {@code 0..maxDist}.
+   *
+   * @param n
+   *          the number of nodes
+   * @param symmetric
+   *          is the matrix symmetric?
+   * @param maxDist
+   *          the largest distance
+   * @return the new (empty) matrix
+   */
+  static final _DistanceMatrix allocate(final int n,
+      final boolean symmetric, final int maxDist) {
+    switch (_DistanceMatrix.entryBytes(maxDist)) {
+      case 1: {
+        return (symmetric ? new _DistanceMatrixSymmetricByte(n)
+            : new _DistanceMatrixAsymmetricByte(n));
+      }
+      case 2: {
+        return (symmetric ? new _DistanceMatrixSymmetricShort(n)
+            : new _DistanceMatrixAsymmetricShort(n));
+      }
+      default: {
+        return (symmetric ? new _DistanceMatrixSymmetricInt(n)
+            : new _DistanceMatrixAsymmetricInt(n));
+      }
+    }
+  }
+
 }
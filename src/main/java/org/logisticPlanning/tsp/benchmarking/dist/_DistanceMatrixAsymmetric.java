@@ -7,16 +7,24 @@ import java.io.PrintWriter;
 import org.logisticPlanning.utils.NumberReader;
 
 /**
- * An asymmetric distance matrix. All unnecessary data elements are
- * omitted. The matrix is as compact as possible and uses a 1-dimensional
- * array of {@code int} as backing store. For an {@code n}-city TSP, it
- * will hold {@code ((n) * ((n) - 1))} integer values.
+ * The base class for asymmetric distance matrices. All unnecessary data
+ * elements are omitted. The matrix is as compact as possible and uses a
+ * 1-dimensional array as backing store. For an {@code n}-city TSP, it
+ * will hold {@code ((n) * ((n) - 1))} values. The sub-classes
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._DistanceMatrixAsymmetricInt}
+ * ,
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._DistanceMatrixAsymmetricShort}
+ * , and
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._DistanceMatrixAsymmetricByte}
+ * store these values as {@code int}, unsigned 16 bit, and unsigned 8 bit
+ * numbers, respectively.
  * <p>
- * The backing store of this matrix is a one-dimensional array of 32 bit
- * signed integer (int) ({@code int}). Arrays are indexed with 32 bit
- * signed integer (int) ({@code int}s). Thus, the highest possible value of
- * the matrix dimension {@code n} is 46'341. Be aware that such a matrix
- * may have a high memory consumption for high values of {@code n}:
+ * Arrays are indexed with 32 bit signed integer (int) ({@code int}s).
+ * Thus, the highest possible value of the matrix dimension {@code n} is
+ * 46'341. Be aware that such a matrix may have a high memory consumption
+ * for high values of {@code n}, the table below lists the memory
+ * consumption of the {@code int}-based variant (the {@code short}-based
+ * one needs half and the {@code byte}-based one a quarter of it):
  * </p>
  * <table border="1">
  * <tr>
@@ -45,10 +53,13 @@ import org.logisticPlanning.utils.NumberReader;
  * </p>
  * </p>
  */
-class _DistanceMatrixAsymmetric extends _DistanceMatrix {
+abstract class _DistanceMatrixAsymmetric extends _DistanceMatrix {
   /** the serial version uid */
   private static final long serialVersionUID = 1L;
 
+  /** the maximum dimension of an asymmetric distance matrix: {@value} */
+  static final int MAX_DIMENSION = 46341;
+
   /**
    * create the _DistanceMatrixAsymmetric
    *
@@ -57,67 +68,19 @@ class _DistanceMatrixAsymmetric extends _DistanceMatrix {
    */
   _DistanceMatrixAsymmetric(final int n) {
     super(n);
-    if (n > 46341) {
+    if (n > _DistanceMatrixAsymmetric.MAX_DIMENSION) {
       // The maximum size is calculated such that 32-bit integer index
       // computations
       // cannot overflow.
       throw new IllegalArgumentException( //
           "Matrix dimension cannot be higher than 46'341."); //$NON-NLS-1$
     }
-    this.m_data = new int[((n) * ((n) - 1))];
-  }
-
-  /** {@inheritDoc} */
-  @Override
-  final void setDistance(final int a, final int b, final int dist) {
-
-    if (a == b) {
-      if (dist == 0) {
-        return;
-      }
-      throw new IllegalArgumentException("Invalid index"); //$NON-NLS-1$
-    }
-
-    this.m_data[((((a) - 1) * ((this.m_n) - 1)) + (((b) > (a)) ? ((b) - 2)
-        : ((b) - 1)))] = dist;
-  }
-
-  /** {@inheritDoc} */
-  @Override
-  public final int distance(final int a, final int b) {
-
-    if (a == b) {
-      return 0;
-    }
-
-    return this.m_data[((((a) - 1) * ((this.m_n) - 1)) + (((b) > (a)) ? ((b) - 2)
-        : ((b) - 1)))];
-  }
-
-  /** {@inheritDoc} */
-  @Override
-  final void fillFrom(final DistanceComputer src) {
-    final int[] m;
-    int i, j, k;
-
-    m = this.m_data;
-    k = 0;
-
-    for (i = 1; i <= this.m_n; i++) {
-      for (j = 1; j <= this.m_n; j++) {
-        if (i == j) {
-          continue;
-        }
-        m[k++] = src.distance(i, j);
-      }
-    }
   }
 
   /** {@inheritDoc} */
   @Override
   public final void print(final PrintWriter out) {
-    final int[] m;
-    int i, j, k, f;
+    int i, j, f;
 
     super.print(out);
     _Constants.putTuple(_Constants.TYPE_STR, _Constants.TSP_STR, out);
@@ -125,17 +88,12 @@ class _DistanceMatrixAsymmetric extends _DistanceMatrix {
         _Constants.FULL_MATRIX_STR, out);
     out.println(_Constants.EDGE_WEIGHT_SECTION_STR);
 
-    f = k = 0;
-    m = this.m_data;
+    f = 0;
     for (i = 1; i <= this.m_n; i++) {
       for (j = 1; j <= this.m_n; j++) {
         f++;
         out.print('\t');
-        if (i == j) {
-          out.print('0');
-        } else {
-          out.print(m[k++]);
-        }
+        out.print(this.distance(i, j));
         if ((f % _DistanceMatrix.MAX_NUMBERS_PER_LINE) == 0) {
           out.println();
         }
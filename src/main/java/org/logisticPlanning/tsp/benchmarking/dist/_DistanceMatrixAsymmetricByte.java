@@ -0,0 +1,74 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+/**
+ * <p>
+ * An asymmetric distance matrix which stores the distances as unsigned 8 bit integers (stored in a {@code byte} array), i.e., it can hold distances from {@code 0} to {@code 255}.
+ * See
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._DistanceMatrixAsymmetric}
+ * for a discussion of the layout and memory consumption.
+ * </p>
+ */
+final class _DistanceMatrixAsymmetricByte extends _DistanceMatrixAsymmetric {
+  /** the serial version uid */
+  private static final long serialVersionUID = 1L;
+
+  /** the data */
+  final byte[] m_data;
+
+  /**
+   * create the _DistanceMatrixAsymmetricByte
+   *
+   * @param n
+   *          the number of nodes
+   */
+  _DistanceMatrixAsymmetricByte(final int n) {
+    super(n);
+    this.m_data = new byte[((n) * ((n) - 1))];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void setDistance(final int a, final int b, final int dist) {
+
+    if (a == b) {
+      if (dist == 0) {
+        return;
+      }
+      throw new IllegalArgumentException("Invalid index"); //$NON-NLS-1$
+    }
+
+    this.m_data[((((a) - 1) * ((this.m_n) - 1)) + (((b) > (a)) ? ((b) - 2)
+        : ((b) - 1)))] = (byte) dist;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int distance(final int a, final int b) {
+
+    if (a == b) {
+      return 0;
+    }
+
+    return (this.m_data[((((a) - 1) * ((this.m_n) - 1)) + (((b) > (a)) ? ((b) - 2)
+        : ((b) - 1)))] & 0xff);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void fillRows(final DistanceComputer src, final int from,
+      final int to) {
+    final byte[] m;
+    int i, j, k;
+
+    m = this.m_data;
+    k = ((from - 1) * (this.m_n - 1));
+    for (i = from; i < to; i++) {
+      for (j = 1; j <= this.m_n; j++) {
+        if (i == j) {
+          continue;
+        }
+        m[k++] = (byte) src.distance(i, j);
+      }
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+/**
+ * <p>
+ * An asymmetric distance matrix which stores the distances as 32 bit signed integers ({@code int}).
+ * See
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._DistanceMatrixAsymmetric}
+ * for a discussion of the layout and memory consumption.
+ * </p>
+ */
+final class _DistanceMatrixAsymmetricInt extends _DistanceMatrixAsymmetric {
+  /** the serial version uid */
+  private static final long serialVersionUID = 1L;
+
+  /** the data */
+  final int[] m_data;
+
+  /**
+   * create the _DistanceMatrixAsymmetricInt
+   *
+   * @param n
+   *          the number of nodes
+   */
+  _DistanceMatrixAsymmetricInt(final int n) {
+    super(n);
+    this.m_data = new int[((n) * ((n) - 1))];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void setDistance(final int a, final int b, final int dist) {
+
+    if (a == b) {
+      if (dist == 0) {
+        return;
+      }
+      throw new IllegalArgumentException("Invalid index"); //$NON-NLS-1$
+    }
+
+    this.m_data[((((a) - 1) * ((this.m_n) - 1)) + (((b) > (a)) ? ((b) - 2)
+        : ((b) - 1)))] = dist;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int distance(final int a, final int b) {
+
+    if (a == b) {
+      return 0;
+    }
+
+    return this.m_data[((((a) - 1) * ((this.m_n) - 1)) + (((b) > (a)) ? ((b) - 2)
+        : ((b) - 1)))];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void fillRows(final DistanceComputer src, final int from,
+      final int to) {
+    final int[] m;
+    int i, j, k;
+
+    m = this.m_data;
+    k = ((from - 1) * (this.m_n - 1));
+    for (i = from; i < to; i++) {
+      for (j = 1; j <= this.m_n; j++) {
+        if (i == j) {
+          continue;
+        }
+        m[k++] = src.distance(i, j);
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final _DistanceMatrix compact() {
+    final _DistanceMatrix res;
+    int max;
+
+    max = 0;
+    for (final int z : this.m_data) {
+      if (z < 0) {
+        return this;
+      }
+      if (z > max) {
+        max = z;
+      }
+    }
+
+    if (max > _DistanceMatrix.MAX_SHORT) {
+      return this;
+    }
+    res = _DistanceMatrix.allocate(this.m_n, false, max);
+    res.fillFrom(this);
+    return res;
+  }
+}
@@ -0,0 +1,74 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+/**
+ * <p>
+ * An asymmetric distance matrix which stores the distances as unsigned 16 bit integers (stored in a {@code short} array), i.e., it can hold distances from {@code 0} to {@code 65'535}.
+ * See
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._DistanceMatrixAsymmetric}
+ * for a discussion of the layout and memory consumption.
+ * </p>
+ */
+final class _DistanceMatrixAsymmetricShort extends _DistanceMatrixAsymmetric {
+  /** the serial version uid */
+  private static final long serialVersionUID = 1L;
+
+  /** the data */
+  final short[] m_data;
+
+  /**
+   * create the _DistanceMatrixAsymmetricShort
+   *
+   * @param n
+   *          the number of nodes
+   */
+  _DistanceMatrixAsymmetricShort(final int n) {
+    super(n);
+    this.m_data = new short[((n) * ((n) - 1))];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void setDistance(final int a, final int b, final int dist) {
+
+    if (a == b) {
+      if (dist == 0) {
+        return;
+      }
+      throw new IllegalArgumentException("Invalid index"); //$NON-NLS-1$
+    }
+
+    this.m_data[((((a) - 1) * ((this.m_n) - 1)) + (((b) > (a)) ? ((b) - 2)
+        : ((b) - 1)))] = (short) dist;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int distance(final int a, final int b) {
+
+    if (a == b) {
+      return 0;
+    }
+
+    return (this.m_data[((((a) - 1) * ((this.m_n) - 1)) + (((b) > (a)) ? ((b) - 2)
+        : ((b) - 1)))] & 0xffff);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void fillRows(final DistanceComputer src, final int from,
+      final int to) {
+    final short[] m;
+    int i, j, k;
+
+    m = this.m_data;
+    k = ((from - 1) * (this.m_n - 1));
+    for (i = from; i < to; i++) {
+      for (j = 1; j <= this.m_n; j++) {
+        if (i == j) {
+          continue;
+        }
+        m[k++] = (short) src.distance(i, j);
+      }
+    }
+  }
+}
@@ -0,0 +1,434 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * <p>
+ * A symmetric distance matrix which does not live on the Java heap but in
+ * a memory-mapped file. Like
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._DistanceMatrixSymmetric}
+ * , it only stores the lower triangle of the matrix, i.e.,
+ * {@code n*(n-1)/2} values for an {@code n}-city TSP. Different from the
+ * heap-based matrix, the index computations here are performed with
+ * {@code long} values and the data is split into several
+ * {@link java.nio.MappedByteBuffer segments} of at most
+ * 2<sup>{@value #SEGMENT_SHIFT}</sup> bytes each. Thus, the limit of
+ * 46'342 nodes imposed by the 32 bit array index of Java does not apply
+ * here.
+ * </p>
+ * <p>
+ * In order to save as much memory (and page cache) as possible, each entry
+ * of the matrix is stored with the smallest width that can hold the
+ * largest distance of the instance: 8 bit if all distances are below 256,
+ * 16 bit if they are below 65'536, and 32 bit otherwise. The width is
+ * determined once, when the matrix file is created.
+ * </p>
+ * <p>
+ * The matrix file is created once per problem instance and can be re-used
+ * in later runs, even by different processes. It begins with a header of
+ * {@value #HEADER_SIZE} bytes which contains a magic number, a format
+ * version, the number of nodes, the width of the entries, and the length
+ * of the data section. A new file is first completely written to a
+ * temporary file which is then atomically renamed to its final name.
+ * Therefore, a matrix file either has a valid header and complete data or
+ * it is ignored and created anew.
+ * </p>
+ * <p>
+ * Since the operating system pages the matrix data in and out on demand,
+ * distance lookups remain <em>O(1)</em> even for matrices which are much
+ * larger than the Java heap, e.g., for
+ * {@link org.logisticPlanning.tsp.benchmarking.instances.Instance#PLA85900
+ * pla85900}. Of course, lookups are only fast as long as the accessed part
+ * of the matrix fits into the physical memory.
+ * </p>
+ */
+final class _DistanceMatrixMapped extends DistanceComputer {
+
+  /** the magic number at the beginning of each matrix file */
+  private static final int MAGIC = 0x54535044;
+
+  /** the version of the matrix file format */
+  private static final int VERSION = 1;
+
+  /** the size of the file header in bytes: {@value} */
+  static final int HEADER_SIZE = 32;
+
+  /** the binary logarithm of the maximum size of a segment: {@value} */
+  static final int SEGMENT_SHIFT = 30;
+
+  /** the mask for the offset inside of a segment */
+  private static final long SEGMENT_MASK = ((1l << _DistanceMatrixMapped.SEGMENT_SHIFT) - 1l);
+
+  /** the byte order used in matrix files */
+  private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+  /** the memory-mapped segments holding the data */
+  private final ByteBuffer[] m_segments;
+
+  /**
+   * the binary logarithm of the number of bytes per entry: {@code 0} for
+   * 8 bit, {@code 1} for 16 bit, and {@code 2} for 32 bit entries
+   */
+  private final int m_shift;
+
+  /**
+   * the coordinate-based distance computer from which this matrix was
+   * created, which provides the {@link #getSpatialIndex() spatial index},
+   * or {@code null}
+   */
+  transient DistanceComputer m_coordinates;
+
+  /**
+   * create the mapped distance matrix
+   *
+   * @param n
+   *          the number of nodes
+   * @param segments
+   *          the segments
+   * @param shift
+   *          the binary logarithm of the number of bytes per entry
+   */
+  private _DistanceMatrixMapped(final int n, final ByteBuffer[] segments,
+      final int shift) {
+    super(n);
+    this.m_segments = segments;
+    this.m_shift = shift;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int distance(final int a, final int b) {
+    final long i, j, k;
+    final ByteBuffer segment;
+    final int pos;
+
+    if (a > b) {
+      i = a;
+      j = b;
+    } else {
+      if (a == b) {
+        return 0;
+      }
+      i = b;
+      j = a;
+    }
+
+    k = (((((i - 1l) * (i - 2l)) >>> 1) + (j - 1l)) << this.m_shift);
+    segment = this.m_segments[(int) (k >>> _DistanceMatrixMapped.SEGMENT_SHIFT)];
+    pos = ((int) (k & _DistanceMatrixMapped.SEGMENT_MASK));
+
+    switch (this.m_shift) {
+      case 0: {
+        return (segment.get(pos) & 0xff);
+      }
+      case 1: {
+        return (segment.getShort(pos) & 0xffff);
+      }
+      default: {
+        return segment.getInt(pos);
+      }
+    }
+  }
+
+  /**
+   * Get the {@link SpatialIndex spatial index} of the coordinate-based
+   * distance computer this matrix was created from, if any. The matrix
+   * holds the same distances, so the index remains valid.
+   *
+   * @return the spatial index, or {@code null} if this matrix was not
+   *         created from suitable coordinates
+   */
+  @Override
+  public final SpatialIndex getSpatialIndex() {
+    return ((this.m_coordinates != null) ? this.m_coordinates
+        .getSpatialIndex() : null);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void print(final PrintWriter out) {
+    int i, j;
+    long f;
+
+    super.print(out);
+
+    _Constants.putTuple(_Constants.TYPE_STR, _Constants.TSP_STR, out);
+    _Constants.putTuple(_Constants.EDGE_WEIGHT_FORMAT_STR,
+        _Constants.LOWER_ROW_STR, out);
+    out.println(_Constants.EDGE_WEIGHT_SECTION_STR);
+
+    f = 0l;
+    for (i = 2; i <= this.m_n; i++) {
+      for (j = 1; j < i; j++) {
+        f++;
+        out.print('\t');
+        out.print(this.distance(i, j));
+        if ((f % _DistanceMatrix.MAX_NUMBERS_PER_LINE) == 0l) {
+          out.println();
+        }
+      }
+    }
+    if ((f % _DistanceMatrix.MAX_NUMBERS_PER_LINE) != 0l) {
+      out.println();
+    }
+
+    out.println(_Constants.EOF_STR);
+  }
+
+  /**
+   * Get the number of entries of the lower triangle matrix for {@code n}
+   * nodes
+   *
+   * @param n
+   *          the number of nodes
+   * @return the number of entries
+   */
+  static final long entries(final int n) {
+    return ((((long) n) * (n - 1l)) >>> 1);
+  }
+
+  /**
+   * Get the number of bytes occupied by the matrix data
+   *
+   * @return the number of bytes occupied by the matrix data
+   */
+  final long bytes() {
+    return (_DistanceMatrixMapped.entries(this.m_n) << this.m_shift);
+  }
+
+  /**
+   * map the data section of a matrix file into memory
+   *
+   * @param channel
+   *          the file channel
+   * @param mode
+   *          the map mode
+   * @param bytes
+   *          the number of data bytes
+   * @return the segments
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final ByteBuffer[] __map(final FileChannel channel,
+      final FileChannel.MapMode mode, final long bytes) throws IOException {
+    final ByteBuffer[] segments;
+    final long size;
+    long start;
+    int i;
+
+    size = (1l << _DistanceMatrixMapped.SEGMENT_SHIFT);
+    segments = new ByteBuffer[(int) ((bytes + size - 1l) >>> _DistanceMatrixMapped.SEGMENT_SHIFT)];
+    start = 0l;
+    for (i = 0; i < segments.length; i++) {
+      segments[i] = channel.map(mode,
+          (_DistanceMatrixMapped.HEADER_SIZE + start),
+          Math.min(size, (bytes - start))).order(_DistanceMatrixMapped.ORDER);
+      start += size;
+    }
+    return segments;
+  }
+
+  /**
+   * Open an existing matrix file.
+   *
+   * @param file
+   *          the matrix file
+   * @param n
+   *          the expected number of nodes
+   * @return the matrix, or {@code null} if the file does not exist or does
+   *         not contain a complete matrix with {@code n} nodes
+   * @throws IOException
+   *           if i/o fails
+   */
+  static final _DistanceMatrixMapped open(final File file, final int n)
+      throws IOException {
+    final ByteBuffer header;
+    final int shift;
+    final long bytes;
+
+    if ((file == null) || (!(file.isFile()))) {
+      return null;
+    }
+
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) { //$NON-NLS-1$
+      try (FileChannel channel = raf.getChannel()) {
+        header = ByteBuffer.allocate(_DistanceMatrixMapped.HEADER_SIZE)
+            .order(_DistanceMatrixMapped.ORDER);
+        while (header.hasRemaining()) {
+          if (channel.read(header, header.position()) < 0) {
+            return null;
+          }
+        }
+        header.flip();
+
+        if ((header.getInt() != _DistanceMatrixMapped.MAGIC) || //
+            (header.getInt() != _DistanceMatrixMapped.VERSION) || //
+            (header.getInt() != n)) {
+          return null;
+        }
+        shift = header.getInt();
+        if ((shift < 0) || (shift > 2)) {
+          return null;
+        }
+        bytes = header.getLong();
+        if ((bytes != (_DistanceMatrixMapped.entries(n) << shift)) || //
+            (channel.size() != (_DistanceMatrixMapped.HEADER_SIZE + bytes))) {
+          return null;
+        }
+
+        return new _DistanceMatrixMapped(n, _DistanceMatrixMapped.__map(
+            channel, FileChannel.MapMode.READ_ONLY, bytes), shift);
+      }
+    }
+  }
+
+  /**
+   * Create a matrix file holding all the distances of a given distance
+   * computer and open it. The file is first written to a temporary file
+   * in the same directory which is then renamed. If another thread or
+   * process creates the same file concurrently, one of the two complete
+   * files wins and is used.
+   *
+   * @param file
+   *          the destination file
+   * @param src
+   *          the source distance computer, which must be symmetric
+   * @param maxDist
+   *          the largest distance in {@code src}, or {@code -1} if it is
+   *          not yet known
+   * @return the matrix
+   * @throws IOException
+   *           if i/o fails
+   */
+  static final _DistanceMatrixMapped create(final File file,
+      final DistanceComputer src, final int maxDist) throws IOException {
+    final File dir, temp;
+    final int n, shift;
+    final long bytes;
+    final ByteBuffer header;
+    final ByteBuffer[] segments;
+    _DistanceMatrixMapped res;
+    ByteBuffer segment;
+    int i, j, seg;
+
+    n = src.m_n;
+
+    shift = Integer.numberOfTrailingZeros(_DistanceMatrix
+        .entryBytes((maxDist < 0) ? _DistanceMatrix.maxDistance(src, true)
+            : maxDist));
+    bytes = (_DistanceMatrixMapped.entries(n) << shift);
+
+    dir = file.getAbsoluteFile().getParentFile();
+    if (dir != null) {
+      dir.mkdirs();
+    }
+    temp = File.createTempFile(file.getName(), ".tmp", dir); //$NON-NLS-1$
+
+    try {
+      try (RandomAccessFile raf = new RandomAccessFile(temp, "rw")) { //$NON-NLS-1$
+        raf.setLength(_DistanceMatrixMapped.HEADER_SIZE + bytes);
+        try (FileChannel channel = raf.getChannel()) {
+          segments = _DistanceMatrixMapped.__map(channel,
+              FileChannel.MapMode.READ_WRITE, bytes);
+
+          seg = 0;
+          segment = segments[0];
+          for (i = 2; i <= n; i++) {
+            for (j = 1; j < i; j++) {
+              if (!(segment.hasRemaining())) {
+                ((MappedByteBuffer) segment).force();
+                segment = segments[++seg];
+              }
+              switch (shift) {
+                case 0: {
+                  segment.put((byte) (src.distance(i, j)));
+                  break;
+                }
+                case 1: {
+                  segment.putShort((short) (src.distance(i, j)));
+                  break;
+                }
+                default: {
+                  segment.putInt(src.distance(i, j));
+                }
+              }
+            }
+          }
+          ((MappedByteBuffer) segment).force();
+
+          // the header is written last, so incomplete files are never
+          // valid
+          header = ByteBuffer.allocate(_DistanceMatrixMapped.HEADER_SIZE)
+              .order(_DistanceMatrixMapped.ORDER);
+          header.putInt(_DistanceMatrixMapped.MAGIC);
+          header.putInt(_DistanceMatrixMapped.VERSION);
+          header.putInt(n);
+          header.putInt(shift);
+          header.putLong(bytes);
+          header.flip();
+          while (header.hasRemaining()) {
+            channel.write(header, header.position());
+          }
+          channel.force(true);
+        }
+      }
+
+      try {
+        Files.move(temp.toPath(), file.toPath(),
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (final IOException ioe) {
+        // another process may have created the file concurrently
+        res = _DistanceMatrixMapped.open(file, n);
+        if (res != null) {
+          return res;
+        }
+        throw ioe;
+      }
+    } finally {
+      temp.delete();
+    }
+
+    res = _DistanceMatrixMapped.open(file, n);
+    if (res == null) {
+      throw new IOException("Could not open distance matrix file " + //$NON-NLS-1$
+          file);
+    }
+    return res;
+  }
+
+  /**
+   * Obtain a memory-mapped distance matrix for a given (symmetric)
+   * distance computer: If {@code file} already holds a valid matrix for
+   * the same number of nodes, it is opened. Otherwise, it is created.
+   *
+   * @param file
+   *          the matrix file
+   * @param src
+   *          the source distance computer
+   * @param maxDist
+   *          the largest distance in {@code src}, or {@code -1} if it is
+   *          not yet known
+   * @return the matrix
+   * @throws IOException
+   *           if i/o fails
+   */
+  static final _DistanceMatrixMapped openOrCreate(final File file,
+      final DistanceComputer src, final int maxDist) throws IOException {
+    final _DistanceMatrixMapped res;
+
+    res = _DistanceMatrixMapped.open(file, src.m_n);
+    if (res != null) {
+      return res;
+    }
+    return _DistanceMatrixMapped.create(file, src, maxDist);
+  }
+}
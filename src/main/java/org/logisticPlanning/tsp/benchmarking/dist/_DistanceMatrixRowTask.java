@@ -0,0 +1,212 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * A fork-join task processing a block of rows of a distance matrix in
+ * parallel: Either the rows of a
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._DistanceMatrix
+ * matrix} are {@link _DistanceMatrix#fillRows(DistanceComputer, int, int)
+ * filled} from a source distance computer or the largest distance in the
+ * rows of the source is determined. A block of rows is split in half
+ * until it contains at most {@link #THRESHOLD} entries. Since all
+ * distance computers are immutable and different rows occupy disjoint
+ * parts of a matrix, the blocks can be processed independently.
+ * </p>
+ */
+final class _DistanceMatrixRowTask extends RecursiveAction {
+  /** the serial version uid */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * the maximum number of matrix entries processed sequentially by one
+   * task: {@value}
+   */
+  static final long THRESHOLD = (1l << 16l);
+
+  /** the pool used to process matrices */
+  private static ForkJoinPool s_pool;
+
+  /** the source distance computer */
+  private final DistanceComputer m_src;
+
+  /** the destination matrix, or {@code null} to compute the maximum */
+  private final _DistanceMatrix m_dest;
+
+  /** is only the lower triangle processed? */
+  private final boolean m_symmetric;
+
+  /** the first row (inclusive) */
+  private final int m_from;
+
+  /** the last row (exclusive) */
+  private final int m_to;
+
+  /**
+   * the largest distance in the rows, or
+   * {@link java.lang.Integer#MAX_VALUE} if a distance is negative
+   */
+  int m_max;
+
+  /**
+   * create the task
+   *
+   * @param src
+   *          the source distance computer
+   * @param dest
+   *          the destination matrix, or {@code null} to compute the
+   *          maximum
+   * @param symmetric
+   *          is only the lower triangle processed?
+   * @param from
+   *          the first row (inclusive)
+   * @param to
+   *          the last row (exclusive)
+   */
+  private _DistanceMatrixRowTask(final DistanceComputer src,
+      final _DistanceMatrix dest, final boolean symmetric, final int from,
+      final int to) {
+    super();
+    this.m_src = src;
+    this.m_dest = dest;
+    this.m_symmetric = symmetric;
+    this.m_from = from;
+    this.m_to = to;
+  }
+
+  /**
+   * Get the number of entries in a block of rows
+   *
+   * @param n
+   *          the number of nodes
+   * @param symmetric
+   *          is only the lower triangle processed?
+   * @param from
+   *          the first row (inclusive)
+   * @param to
+   *          the last row (exclusive)
+   * @return the number of entries
+   */
+  private static final long __entries(final int n,
+      final boolean symmetric, final int from, final int to) {
+    final long a, b;
+
+    if (symmetric) {
+      a = (from - 1);
+      b = (to - 1);
+      return (((b * (b - 1l)) - (a * (a - 1l))) >>> 1l);
+    }
+    return (((long) (to - from)) * (n - 1));
+  }
+
+  /**
+   * get the shared fork-join pool
+   *
+   * @return the pool
+   */
+  private static synchronized final ForkJoinPool __pool() {
+    if (_DistanceMatrixRowTask.s_pool == null) {
+      _DistanceMatrixRowTask.s_pool = new ForkJoinPool();
+    }
+    return _DistanceMatrixRowTask.s_pool;
+  }
+
+  /**
+   * Process all rows of a source distance computer
+   *
+   * @param src
+   *          the source distance computer
+   * @param dest
+   *          the destination matrix, or {@code null} to compute the
+   *          maximum
+   * @param symmetric
+   *          is only the lower triangle processed?
+   * @return the largest distance if {@code dest==null}, {@code 0}
+   *         otherwise
+   */
+  static final int process(final DistanceComputer src,
+      final _DistanceMatrix dest, final boolean symmetric) {
+    final _DistanceMatrixRowTask task;
+
+    task = new _DistanceMatrixRowTask(src, dest, symmetric, 1,
+        (src.m_n + 1));
+    if (_DistanceMatrixRowTask.__entries(src.m_n, symmetric, 1,
+        (src.m_n + 1)) <= _DistanceMatrixRowTask.THRESHOLD) {
+      task.compute();
+    } else {
+      _DistanceMatrixRowTask.__pool().invoke(task);
+    }
+    return task.m_max;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected final void compute() {
+    final _DistanceMatrixRowTask a, b;
+    final int mid;
+
+    if (((this.m_to - this.m_from) > 1)
+        && (_DistanceMatrixRowTask.__entries(this.m_src.m_n,
+            this.m_symmetric, this.m_from, this.m_to) > _DistanceMatrixRowTask.THRESHOLD)) {
+      mid = ((this.m_from + this.m_to) >>> 1);
+      a = new _DistanceMatrixRowTask(this.m_src, this.m_dest,
+          this.m_symmetric, this.m_from, mid);
+      b = new _DistanceMatrixRowTask(this.m_src, this.m_dest,
+          this.m_symmetric, mid, this.m_to);
+      RecursiveAction.invokeAll(a, b);
+      this.m_max = Math.max(a.m_max, b.m_max);
+      return;
+    }
+
+    if (this.m_dest != null) {
+      this.m_dest.fillRows(this.m_src, this.m_from, this.m_to);
+    } else {
+      this.m_max = _DistanceMatrixRowTask.__max(this.m_src,
+          this.m_symmetric, this.m_from, this.m_to);
+    }
+  }
+
+  /**
+   * Get the largest distance in a block of rows.
+   *
+   * @param src
+   *          the source distance computer
+   * @param symmetric
+   *          is only the lower triangle processed?
+   * @param from
+   *          the first row (inclusive)
+   * @param to
+   *          the last row (exclusive)
+   * @return the largest distance, or {@link java.lang.Integer#MAX_VALUE}
+   *         if any distance is negative
+   */
+  private static final int __max(final DistanceComputer src,
+      final boolean symmetric, final int from, final int to) {
+    final int n;
+    int i, j, d, max;
+
+    n = src.m_n;
+    max = 0;
+    for (i = from; i < to; i++) {
+      for (j = (symmetric ? (i - 1) : n); j > 0; j--) {
+        if (i != j) {
+          d = src.distance(i, j);
+          if (d > max) {
+            max = d;
+          } else {
+            if (d < 0) {
+              return Integer.MAX_VALUE;
+            }
+          }
+        }
+      }
+    }
+    return max;
+  }
+}
@@ -8,16 +8,25 @@ import org.logisticPlanning.utils.NumberReader;
 
 /**
  * <p>
- * A symmetric distance matrix. All unnecessary data elements are omitted.
- * The matrix is as compact as possible and uses a 1-dimensional array of
- * {@code int} as backing store. For an {@code n}-city TSP, it will hold
- * {@code ((int)((((long)(n)) * ((n) - 1)) >>> 1))} integer values.
+ * The base class for symmetric distance matrices. All unnecessary data
+ * elements are omitted. The matrix is as compact as possible and uses a
+ * 1-dimensional array as backing store. For an {@code n}-city TSP, it
+ * will hold {@code ((int)((((long)(n)) * ((n) - 1)) >>> 1))} values. The
+ * sub-classes
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._DistanceMatrixSymmetricInt}
+ * ,
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._DistanceMatrixSymmetricShort}
+ * , and
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._DistanceMatrixSymmetricByte}
+ * store these values as {@code int}, unsigned 16 bit, and unsigned 8 bit
+ * numbers, respectively.
  * <p>
- * The backing store of this matrix is a one-dimensional array of 32 bit
- * signed integer (int) ({@code int}). Arrays are indexed with 32 bit
- * signed integer (int) ({@code int}s). Thus, the highest possible value of
- * the matrix dimension {@code n} is 46'342. Be aware that such a matrix
- * may have a high memory consumption for high values of {@code n}:
+ * Arrays are indexed with 32 bit signed integer (int) ({@code int}s).
+ * Thus, the highest possible value of the matrix dimension {@code n} is
+ * 46'342. Be aware that such a matrix may have a high memory consumption
+ * for high values of {@code n}, the table below lists the memory
+ * consumption of the {@code int}-based variant (the {@code short}-based
+ * one needs half and the {@code byte}-based one a quarter of it):
  * </p>
  * <table border="1">
  * <tr>
@@ -45,10 +54,13 @@ import org.logisticPlanning.utils.NumberReader;
  * </p>
  * </p>
  */
-final class _DistanceMatrixSymmetric extends _DistanceMatrix {
+abstract class _DistanceMatrixSymmetric extends _DistanceMatrix {
   /** the serial version uid */
   private static final long serialVersionUID = 1L;
 
+  /** the maximum dimension of a symmetric distance matrix: {@value} */
+  static final int MAX_DIMENSION = 46342;
+
   /**
    * create the _DistanceMatrixSymmetric
    *
@@ -57,79 +69,30 @@ final class _DistanceMatrixSymmetric extends _DistanceMatrix {
    */
   _DistanceMatrixSymmetric(final int n) {
     super(n);
-    if (n > 46342) {
+    if (n > _DistanceMatrixSymmetric.MAX_DIMENSION) {
       // The maximum size is calculated such that 32-bit integer index
       // computations
       // cannot overflow.
       throw new IllegalArgumentException( //
           "Matrix dimension cannot be higher than 46'342."); //$NON-NLS-1$
     }
-    this.m_data = new int[((int) ((((long) (n)) * ((n) - 1)) >>> 1))];
-  }
-
-  /** {@inheritDoc} */
-  @Override
-  final void setDistance(final int a, final int b, final int dist) {
-    final int i, j;
-
-    if (a > b) {
-      i = a;
-      j = b;
-    } else {
-      if (a == b) {
-        if (dist == 0) {
-          return;
-        }
-        throw new IllegalArgumentException("Invalid index"); //$NON-NLS-1$
-      }
-      i = b;
-      j = a;
-    }
-    this.m_data[((((((i) - 1) * ((i) - 2)) >>> 1) + (j)) - 1)] = dist;
-  }
-
-  /** {@inheritDoc} */
-  @Override
-  public final int distance(final int a, final int b) {
-    final int i, j;
-
-    if (a > b) {
-      i = a;
-      j = b;
-    } else {
-      if (a == b) {
-        return 0;
-      }
-      i = b;
-      j = a;
-    }
-    return this.m_data[((((((i) - 1) * ((i) - 2)) >>> 1) + (j)) - 1)];
   }
 
-  /** {@inheritDoc} */
-  @Override
-  final void fillFrom(final DistanceComputer src) {
-    final int[] m;
-    int i, j, k;
-
-    m = this.m_data;
-    i = 1;
-    j = 1;
-
-    for (k = 0; k < m.length; k++) {
-      j++;
-      if (j >= i) {
-        i++;
-        j = 1;
-      }
-      m[k] = src.distance(i, j);
-    }
+  /**
+   * Get the number of entries of a symmetric matrix
+   *
+   * @param n
+   *          the number of nodes
+   * @return the number of entries
+   */
+  static final int entries(final int n) {
+    return ((int) ((((long) (n)) * ((n) - 1)) >>> 1));
   }
 
   /** {@inheritDoc} */
   @Override
   public final void print(final PrintWriter out) {
-    int f;
+    int i, j, f;
 
     super.print(out);
 
@@ -139,12 +102,14 @@ final class _DistanceMatrixSymmetric extends _DistanceMatrix {
     out.println(_Constants.EDGE_WEIGHT_SECTION_STR);
 
     f = 0;
-    for (final int z : this.m_data) {
-      f++;
-      out.print('\t');
-      out.print(z);
-      if ((f % _DistanceMatrix.MAX_NUMBERS_PER_LINE) == 0) {
-        out.println();
+    for (i = 2; i <= this.m_n; i++) {
+      for (j = 1; j < i; j++) {
+        f++;
+        out.print('\t');
+        out.print(this.distance(i, j));
+        if ((f % _DistanceMatrix.MAX_NUMBERS_PER_LINE) == 0) {
+          out.println();
+        }
       }
     }
     if ((f % _DistanceMatrix.MAX_NUMBERS_PER_LINE) != 0) {
@@ -0,0 +1,82 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+/**
+ * <p>
+ * A symmetric distance matrix which stores the distances as unsigned 8 bit integers (stored in a {@code byte} array), i.e., it can hold distances from {@code 0} to {@code 255}. See
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._DistanceMatrixSymmetric}
+ * for a discussion of the layout and memory consumption.
+ * </p>
+ */
+final class _DistanceMatrixSymmetricByte extends _DistanceMatrixSymmetric {
+  /** the serial version uid */
+  private static final long serialVersionUID = 1L;
+
+  /** the data */
+  final byte[] m_data;
+
+  /**
+   * create the _DistanceMatrixSymmetricByte
+   *
+   * @param n
+   *          the number of nodes
+   */
+  _DistanceMatrixSymmetricByte(final int n) {
+    super(n);
+    this.m_data = new byte[_DistanceMatrixSymmetric.entries(n)];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void setDistance(final int a, final int b, final int dist) {
+    final int i, j;
+
+    if (a > b) {
+      i = a;
+      j = b;
+    } else {
+      if (a == b) {
+        if (dist == 0) {
+          return;
+        }
+        throw new IllegalArgumentException("Invalid index"); //$NON-NLS-1$
+      }
+      i = b;
+      j = a;
+    }
+    this.m_data[((((((i) - 1) * ((i) - 2)) >>> 1) + (j)) - 1)] = (byte) dist;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int distance(final int a, final int b) {
+    final int i, j;
+
+    if (a > b) {
+      i = a;
+      j = b;
+    } else {
+      if (a == b) {
+        return 0;
+      }
+      i = b;
+      j = a;
+    }
+    return (this.m_data[((((((i) - 1) * ((i) - 2)) >>> 1) + (j)) - 1)] & 0xff);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void fillRows(final DistanceComputer src, final int from,
+      final int to) {
+    final byte[] m;
+    int i, j, k;
+
+    m = this.m_data;
+    k = (((from - 1) * (from - 2)) >>> 1);
+    for (i = from; i < to; i++) {
+      for (j = 1; j < i; j++) {
+        m[k++] = (byte) src.distance(i, j);
+      }
+    }
+  }
+}
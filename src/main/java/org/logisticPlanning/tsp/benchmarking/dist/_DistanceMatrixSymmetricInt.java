@@ -0,0 +1,106 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+/**
+ * <p>
+ * A symmetric distance matrix which stores the distances as 32 bit signed integers ({@code int}). See
+ * {@link org.logisticPlanning.tsp.benchmarking.dist._DistanceMatrixSymmetric}
+ * for a discussion of the layout and memory consumption.
+ * </p>
+ */
+final class _DistanceMatrixSymmetricInt extends _DistanceMatrixSymmetric {
+  /** the serial version uid */
+  private static final long serialVersionUID = 1L;
+
+  /** the data */
+  final int[] m_data;
+
+  /**
+   * create the _DistanceMatrixSymmetricInt
+   *
+   * @param n
+   *          the number of nodes
+   */
+  _DistanceMatrixSymmetricInt(final int n) {
+    super(n);
+    this.m_data = new int[_DistanceMatrixSymmetric.entries(n)];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void setDistance(final int a, final int b, final int dist) {
+    final int i, j;
+
+    if (a > b) {
+      i = a;
+      j = b;
+    } else {
+      if (a == b) {
+        if (dist == 0) {
+          return;
+        }
+        throw new IllegalArgumentException("Invalid index"); //$NON-NLS-1$
+      }
+      i = b;
+      j = a;
+    }
+    this.m_data[((((((i) - 1) * ((i) - 2)) >>> 1) + (j)) - 1)] = dist;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int distance(final int a, final int b) {
+    final int i, j;
+
+    if (a > b) {
+      i = a;
+      j = b;
+    } else {
+      if (a == b) {
+        return 0;
+      }
+      i = b;
+      j = a;
+    }
+    return this.m_data[((((((i) - 1) * ((i) - 2)) >>> 1) + (j)) - 1)];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final void fillRows(final DistanceComputer src, final int from,
+      final int to) {
+    final int[] m;
+    int i, j, k;
+
+    m = this.m_data;
+    k = (((from - 1) * (from - 2)) >>> 1);
+    for (i = from; i < to; i++) {
+      for (j = 1; j < i; j++) {
+        m[k++] = src.distance(i, j);
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  final _DistanceMatrix compact() {
+    final _DistanceMatrix res;
+    int max;
+
+    max = 0;
+    for (final int z : this.m_data) {
+      if (z < 0) {
+        return this;
+      }
+      if (z > max) {
+        max = z;
+      }
+    }
+
+    if (max > _DistanceMatrix.MAX_SHORT) {
+      return this;
+    }
+    res = _DistanceMatrix.allocate(this.m_n, true, max);
+    res.fillFrom(this);
+    return res;
+  }
+}
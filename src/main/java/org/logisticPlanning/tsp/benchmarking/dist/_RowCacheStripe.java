@@ -0,0 +1,48 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * One stripe of a
+ * {@link org.logisticPlanning.tsp.benchmarking.dist.RowCachedDistanceComputer
+ * row cache}: It holds the nodes whose rows are currently cached in this
+ * stripe and counts the hits and misses of the nodes it is responsible
+ * for. The list of nodes is only accessed while holding the lock of the
+ * stripe, the counters can be updated without it.
+ * </p>
+ */
+final class _RowCacheStripe {
+
+  /** the nodes whose rows are cached */
+  final int[] m_nodes;
+
+  /** the number of cached rows */
+  int m_size;
+
+  /** the number of lookups which were answered from a cached row */
+  final AtomicLong m_hits;
+
+  /** the number of lookups which required computing the distance */
+  final AtomicLong m_misses;
+
+  /** the number of evicted rows */
+  long m_evictions;
+
+  /**
+   * create the stripe
+   *
+   * @param capacity
+   *          the maximum number of rows in the stripe
+   */
+  _RowCacheStripe(final int capacity) {
+    super();
+    this.m_nodes = new int[capacity];
+    this.m_hits = new AtomicLong();
+    this.m_misses = new AtomicLong();
+  }
+}
@@ -0,0 +1,223 @@
+package org.logisticPlanning.tsp.benchmarking.dist;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * The state of one query to a {@link SpatialIndex}. The index itself is
+ * immutable and can be shared by several threads, so everything that
+ * changes during a query is kept here. In nearest-neighbor mode, the
+ * result arrays of the caller are used as a max-heap ordered by distance
+ * and node index, so that the {@code k}-th best node found so far is
+ * always at index {@code 0}.
+ * </p>
+ */
+final class _SpatialQuery {
+
+  /** the distance computer providing the exact distances */
+  DistanceComputer m_dist;
+
+  /** the query node */
+  int m_node;
+
+  /** the coordinates of the query node */
+  final double[] m_x;
+
+  /**
+   * the lower bounds of the coordinate differences to the points in the
+   * current subtree
+   */
+  final double[] m_off;
+
+  /** the coordinate differences to the current point */
+  final double[] m_diff;
+
+  /**
+   * the quadrant to which a nearest-neighbor query is restricted, or
+   * {@code -1} if it is not restricted
+   */
+  int m_quadrant;
+
+  /** the number of nodes to find, or {@code -1} for a radius query */
+  int m_k;
+
+  /** the radius of a radius query */
+  int m_radius;
+
+  /** the nodes found */
+  int[] m_nodes;
+
+  /** the distances of the nodes found */
+  int[] m_dists;
+
+  /** the number of nodes found */
+  int m_count;
+
+  /**
+   * the number of nodes alive in the subtree rooted at each position, or
+   * {@code null} if all nodes are alive
+   */
+  int[] m_alive;
+
+  /**
+   * which positions have been removed, or {@code null} if all nodes are
+   * alive
+   */
+  boolean[] m_removed;
+
+  /**
+   * create
+   *
+   * @param dim
+   *          the number of dimensions
+   */
+  _SpatialQuery(final int dim) {
+    super();
+    this.m_x = new double[dim];
+    this.m_off = new double[dim];
+    this.m_diff = new double[dim];
+  }
+
+  /**
+   * Get the largest distance that a node may have in order to become part
+   * of the result
+   *
+   * @return the largest distance that a node may have in order to become
+   *         part of the result
+   */
+  final int _limit() {
+    if (this.m_k < 0) {
+      return this.m_radius;
+    }
+    if (this.m_count < this.m_k) {
+      return Integer.MAX_VALUE;
+    }
+    return this.m_dists[0];
+  }
+
+  /**
+   * Offer a node whose distance is at most {@link #_limit()}
+   *
+   * @param node
+   *          the node
+   * @param dist
+   *          its distance to the query node
+   */
+  final void _offer(final int node, final int dist) {
+    final int[] nodes, dists;
+    int i, j, count;
+
+    nodes = this.m_nodes;
+    if (this.m_k < 0) {
+      if (this.m_count < nodes.length) {
+        nodes[this.m_count] = node;
+      }
+      this.m_count++;
+      return;
+    }
+
+    dists = this.m_dists;
+    count = this.m_count;
+    if (count < this.m_k) {
+      // sift up
+      i = count;
+      this.m_count = (count + 1);
+      while (i > 0) {
+        j = ((i - 1) >>> 1);
+        if (!(_SpatialQuery.__greater(dist, node, dists[j], nodes[j]))) {
+          break;
+        }
+        nodes[i] = nodes[j];
+        dists[i] = dists[j];
+        i = j;
+      }
+      nodes[i] = node;
+      dists[i] = dist;
+      return;
+    }
+
+    if (!(_SpatialQuery.__greater(dists[0], nodes[0], dist, node))) {
+      return;
+    }
+    this.__siftDown(node, dist, count);
+  }
+
+  /**
+   * Place a node at the root of the heap and sift it down
+   *
+   * @param node
+   *          the node
+   * @param dist
+   *          its distance
+   * @param count
+   *          the size of the heap
+   */
+  private final void __siftDown(final int node, final int dist,
+      final int count) {
+    final int[] nodes, dists;
+    int i, j;
+
+    nodes = this.m_nodes;
+    dists = this.m_dists;
+    i = 0;
+    for (;;) {
+      j = ((i << 1) + 1);
+      if (j >= count) {
+        break;
+      }
+      if (((j + 1) < count)
+          && _SpatialQuery.__greater(dists[j + 1], nodes[j + 1],
+              dists[j], nodes[j])) {
+        j++;
+      }
+      if (!(_SpatialQuery.__greater(dists[j], nodes[j], dist, node))) {
+        break;
+      }
+      nodes[i] = nodes[j];
+      dists[i] = dists[j];
+      i = j;
+    }
+    nodes[i] = node;
+    dists[i] = dist;
+  }
+
+  /**
+   * Sort the nodes found by a nearest-neighbor query by their distance
+   * and index
+   */
+  final void _sort() {
+    final int[] nodes, dists;
+    int count, node, dist;
+
+    nodes = this.m_nodes;
+    dists = this.m_dists;
+    for (count = this.m_count; (--count) > 0;) {
+      node = nodes[count];
+      dist = dists[count];
+      nodes[count] = nodes[0];
+      dists[count] = dists[0];
+      this.__siftDown(node, dist, count);
+    }
+  }
+
+  /**
+   * Is the first node farther away than the second one? Nodes with equal
+   * distances are ordered by their index.
+   *
+   * @param distA
+   *          the distance of the first node
+   * @param nodeA
+   *          the first node
+   * @param distB
+   *          the distance of the second node
+   * @param nodeB
+   *          the second node
+   * @return {@code true} if the first node comes after the second one
+   */
+  private static final boolean __greater(final int distA, final int nodeA,
+      final int distB, final int nodeB) {
+    return ((distA > distB) || ((distA == distB) && (nodeA > nodeB)));
+  }
+}
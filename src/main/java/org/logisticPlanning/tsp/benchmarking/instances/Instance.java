@@ -1,8 +1,11 @@
 package org.logisticPlanning.tsp.benchmarking.instances;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
 import org.logisticPlanning.utils.collections.lists.ArraySetView;
@@ -2125,15 +2128,105 @@ public final class Instance extends Configurable implements
    */
   public final DistanceComputer load(final int matrixLimitDim)
       throws IOException {
+    return this.load(DistanceComputer.matrixLimitBytes(matrixLimitDim),
+        null);
+  }
+
+  /**
+   * <p>
+   * Load the benchmark case. Coordinate lists are transformed to distance
+   * matrices if the matrix, stored with the narrowest possible data type,
+   * occupies at most {@code matrixLimitBytes} bytes.
+   * </p>
+   * <p>
+   * If a {@code cacheDir} is specified, it is used to store data derived
+   * from the instance for later runs, even of other processes:
+   * </p>
+   * <ol>
+   * <li>A pre-parsed binary version of the instance is stored in a file
+   * named after the instance with suffix
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer#BINARY_FILE_SUFFIX}
+   * when the instance is loaded for the first time, see
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer#writeBinary(DistanceComputer, File)}
+   * . Later, this file is loaded instead of parsing the TSPLib text
+   * resource, which remains as fallback if the file is missing or
+   * damaged. If the file cannot be written, e.g., because the directory
+   * is not writable or the instance is too large for the format, a
+   * warning is logged and the parsed instance is used anyway.</li>
+   * <li>Distance matrices which are too large for the Java heap are stored
+   * in a memory-mapped file with suffix
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer#MATRIX_FILE_SUFFIX}
+   * , see
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer#toMatrix(DistanceComputer, long, File)}
+   * .</li>
+   * </ol>
+   *
+   * @return the distance computer
+   * @param matrixLimitBytes
+   *          the maximum number of bytes that a distance matrix
+   *          automatically created from a coordinate list may occupy
+   * @param cacheDir
+   *          the directory for pre-parsed instances and memory-mapped
+   *          distance matrix files, or {@code null} if the instance should
+   *          just be loaded from its resource and only heap-based matrices
+   *          should be used
+   * @throws IOException
+   *           the io exception if io fails
+   */
+  public final DistanceComputer load(final long matrixLimitBytes,
+      final File cacheDir) throws IOException {
+    final File binary, matrix;
+    final Logger log;
     DistanceComputer c;
+
+    if (cacheDir == null) {
+      c = this.__loadText(matrixLimitBytes);
+    } else {
+      binary = new File(cacheDir, this.name()
+          + DistanceComputer.BINARY_FILE_SUFFIX);
+      matrix = new File(cacheDir, this.name()
+          + DistanceComputer.MATRIX_FILE_SUFFIX);
+
+      c = DistanceComputer.readBinary(binary);
+      if ((c == null) || (c.n() != this.m_n)) {
+        c = this.__loadText(0l);
+        try {
+          DistanceComputer.writeBinary(c, binary);
+        } catch (final IOException | IllegalArgumentException error) {
+          // the binary file is only a cache, so we continue without it
+          log = Logger.getGlobal();
+          if (log.isLoggable(Level.WARNING)) {
+            log.log(Level.WARNING, //
+                "Could not store binary version of instance " + //$NON-NLS-1$
+                    this.name() + " in " + binary, error); //$NON-NLS-1$
+          }
+        }
+      }
+      c = DistanceComputer.toMatrix(c, matrixLimitBytes, matrix);
+    }
+
+    if (c.n() != this.m_n) {
+      throw new IOException("dimensions incompatible!"); //$NON-NLS-1$
+    }
+    return c;
+  }
+
+  /**
+   * load the benchmark case from its TSPLib text resource
+   *
+   * @return the distance computer
+   * @param matrixLimitBytes
+   *          the maximum number of bytes that a distance matrix
+   *          automatically created from a coordinate list may occupy
+   * @throws IOException
+   *           the io exception if io fails
+   */
+  private final DistanceComputer __loadText(final long matrixLimitBytes)
+      throws IOException {
     try (InputStream is = Instance.class.getResourceAsStream(this.name()
         + (this.m_symmetric ? ".tsp" : ".atsp"))) {//$NON-NLS-1$//$NON-NLS-2$
-      c = DistanceComputer.read(is, matrixLimitDim, this.m_intHint,
-          this.m_symmetric);
-      if (c.n() != this.m_n) {
-        throw new IOException("dimensions incompatible!"); //$NON-NLS-1$
-      }
-      return c;
+      return DistanceComputer.read(is, matrixLimitBytes, this.m_intHint,
+          this.m_symmetric, null);
     }
   }
 
@@ -0,0 +1,379 @@
+package org.logisticPlanning.tsp.benchmarking.instances;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
+
+/**
+ * <p>
+ * A reference-counting cache for the
+ * {@link org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer
+ * distance computers} of problem instances. Distance computers are
+ * immutable, so all
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark
+ * benchmarks} and thus all
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction
+ * objective functions} working on the same instance with the same loading
+ * parameters can share one copy instead of parsing the instance and
+ * allocating a distance matrix over and over again.
+ * </p>
+ * <p>
+ * A distance computer obtained via
+ * {@link #acquire(Instance, long, File)} stays in the cache as long as it
+ * has not been {@link #release(DistanceComputer) released} as often as it
+ * was acquired. Afterwards, it is kept as long as the estimated
+ * {@link org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer#heapBytes(DistanceComputer)
+ * heap size} of all cached distance computers does not exceed the
+ * {@link #getBudget() memory budget}. If the budget is exceeded, the least
+ * recently used unreferenced distance computers are evicted first.
+ * Unreferenced distance computers are only held via
+ * {@link java.lang.ref.SoftReference soft references}, i.e., the garbage
+ * collector may also reclaim them in low-memory situations.
+ * </p>
+ * <p>
+ * The {@link #SHARED shared cache} is used by all benchmarks of a JVM.
+ * This class is thread-safe. Different instances are loaded in parallel,
+ * whereas threads requesting the same instance wait until it has been
+ * loaded once.
+ * </p>
+ */
+public final class InstanceCache {
+
+  /**
+   * the default memory budget of the {@link #SHARED shared} cache: a
+   * quarter of the maximum heap size
+   */
+  public static final long DEFAULT_BUDGET = (Runtime.getRuntime()
+      .maxMemory() >>> 2l);
+
+  /** the cache shared by all benchmarks of this JVM */
+  public static final InstanceCache SHARED = new InstanceCache(
+      InstanceCache.DEFAULT_BUDGET);
+
+  /** the entries, in least-recently-used order */
+  private final LinkedHashMap<String, _InstanceCacheEntry> m_entries;
+
+  /** the entries of the currently referenced distance computers */
+  private final IdentityHashMap<DistanceComputer, _InstanceCacheEntry> m_used;
+
+  /** the memory budget in bytes */
+  private long m_budget;
+
+  /** the estimated number of bytes occupied by the cached entries */
+  private long m_bytes;
+
+  /** the number of requests served from the cache */
+  private long m_hits;
+
+  /** the number of requests that required loading an instance */
+  private long m_misses;
+
+  /** the number of entries evicted from the cache */
+  private long m_evictions;
+
+  /**
+   * create the instance cache
+   *
+   * @param budget
+   *          the memory budget in bytes
+   */
+  public InstanceCache(final long budget) {
+    super();
+    this.m_entries = new LinkedHashMap<>(16, 0.75f, true);
+    this.m_used = new IdentityHashMap<>();
+    this.setBudget(budget);
+  }
+
+  /**
+   * Get the key for an instance and its loading parameters
+   *
+   * @param instance
+   *          the instance
+   * @param matrixLimitBytes
+   *          the matrix memory limit
+   * @param cacheDir
+   *          the directory for pre-parsed instances, or {@code null}
+   * @return the key
+   */
+  private static final String __key(final Instance instance,
+      final long matrixLimitBytes, final File cacheDir) {
+    final StringBuilder sb;
+
+    sb = new StringBuilder();
+    sb.append(instance.name());
+    sb.append('|');
+    sb.append(matrixLimitBytes);
+    if (cacheDir != null) {
+      sb.append('|');
+      sb.append(cacheDir.getAbsolutePath());
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Acquire the distance computer of an instance. If it is already in the
+   * cache, the cached copy is returned. Otherwise, it is
+   * {@link org.logisticPlanning.tsp.benchmarking.instances.Instance#load(long, File)
+   * loaded}. Each call to this method must be followed by exactly one call
+   * to {@link #release(DistanceComputer)} once the distance computer is no
+   * longer needed.
+   *
+   * @param instance
+   *          the instance
+   * @param matrixLimitBytes
+   *          the maximum number of bytes that a distance matrix
+   *          automatically created from a coordinate list may occupy
+   * @param cacheDir
+   *          the directory for pre-parsed instances and memory-mapped
+   *          distance matrix files, or {@code null}
+   * @return the distance computer
+   * @throws IOException
+   *           if loading the instance fails
+   */
+  public final DistanceComputer acquire(final Instance instance,
+      final long matrixLimitBytes, final File cacheDir) throws IOException {
+    final String key;
+    _InstanceCacheEntry entry;
+    DistanceComputer dc;
+    long time;
+    boolean ok;
+
+    key = InstanceCache.__key(instance, matrixLimitBytes, cacheDir);
+
+    synchronized (this) {
+      this.__purge();
+      entry = this.m_entries.get(key);
+      if (entry == null) {
+        entry = new _InstanceCacheEntry();
+        this.m_entries.put(key, entry);
+      }
+      entry.m_refs++;
+      dc = entry.m_dc;
+      if ((dc == null) && (entry.m_soft != null)) {
+        dc = entry.m_soft.get();
+        entry.m_dc = dc;
+      }
+      entry.m_soft = null;
+      if (dc != null) {
+        this.m_hits++;
+        this.m_used.put(dc, entry);
+        return dc;
+      }
+    }
+
+    ok = false;
+    try {
+      synchronized (entry) {
+        dc = entry.m_dc;
+        if (dc == null) {
+          time = System.currentTimeMillis();
+          dc = instance.load(matrixLimitBytes, cacheDir);
+          time = (System.currentTimeMillis() - time);
+          synchronized (this) {
+            this.m_misses++;
+            entry.m_loadTime = time;
+            entry.m_dc = dc;
+            entry.m_bytes = DistanceComputer.heapBytes(dc);
+            this.m_bytes += entry.m_bytes;
+          }
+        } else {
+          synchronized (this) {
+            this.m_hits++;
+          }
+        }
+      }
+      ok = true;
+    } finally {
+      synchronized (this) {
+        if (ok) {
+          this.m_used.put(dc, entry);
+        } else {
+          if ((--entry.m_refs) <= 0) {
+            this.m_entries.values().remove(entry);
+          }
+        }
+      }
+    }
+
+    return dc;
+  }
+
+  /**
+   * Release a distance computer previously obtained via
+   * {@link #acquire(Instance, long, File)}. If it is not referenced
+   * anymore, it may be evicted from the cache.
+   *
+   * @param dc
+   *          the distance computer
+   */
+  public synchronized final void release(final DistanceComputer dc) {
+    final _InstanceCacheEntry entry;
+
+    entry = this.m_used.get(dc);
+    if (entry == null) {
+      throw new IllegalArgumentException(//
+          "Distance computer was not acquired from this cache."); //$NON-NLS-1$
+    }
+
+    if ((--entry.m_refs) <= 0) {
+      this.m_used.remove(dc);
+      entry.m_soft = new SoftReference<>(dc);
+      entry.m_dc = null;
+      this.__evict();
+    }
+  }
+
+  /**
+   * Get the time that was needed to load a distance computer which is
+   * currently {@link #acquire(Instance, long, File) acquired}. This time
+   * includes parsing the instance and building its distance matrix, if
+   * any. It is measured once, when the distance computer is loaded, i.e.,
+   * it is also reported if the distance computer was taken from the cache.
+   *
+   * @param dc
+   *          the distance computer
+   * @return the load time in milliseconds, or {@code -1} if {@code dc}
+   *         is not referenced in this cache
+   */
+  public synchronized final long getLoadTime(final DistanceComputer dc) {
+    final _InstanceCacheEntry entry;
+
+    entry = this.m_used.get(dc);
+    return ((entry != null) ? entry.m_loadTime : (-1l));
+  }
+
+  /** remove the entries whose distance computers have been collected */
+  private final void __purge() {
+    final Iterator<_InstanceCacheEntry> it;
+    _InstanceCacheEntry e;
+
+    it = this.m_entries.values().iterator();
+    while (it.hasNext()) {
+      e = it.next();
+      if ((e.m_refs <= 0) && (e.m_soft != null) && (e.m_soft.get() == null)) {
+        it.remove();
+        this.m_bytes -= e.m_bytes;
+        this.m_evictions++;
+      }
+    }
+  }
+
+  /**
+   * evict the least recently used unreferenced entries until the budget
+   * is met
+   */
+  private final void __evict() {
+    final Iterator<_InstanceCacheEntry> it;
+    _InstanceCacheEntry e;
+
+    this.__purge();
+    it = this.m_entries.values().iterator();
+    while ((this.m_bytes > this.m_budget) && it.hasNext()) {
+      e = it.next();
+      if (e.m_refs <= 0) {
+        it.remove();
+        if (e.m_soft != null) {
+          e.m_soft.clear();
+        }
+        this.m_bytes -= e.m_bytes;
+        this.m_evictions++;
+      }
+    }
+  }
+
+  /**
+   * Set the memory budget. If the estimated size of the cached distance
+   * computers exceeds it, unreferenced entries are evicted in least
+   * recently used order. Referenced entries are never evicted.
+   *
+   * @param budget
+   *          the memory budget in bytes
+   */
+  public synchronized final void setBudget(final long budget) {
+    if (budget < 0l) {
+      throw new IllegalArgumentException(//
+          "Memory budget must not be negative, but is " + budget); //$NON-NLS-1$
+    }
+    this.m_budget = budget;
+    this.__evict();
+  }
+
+  /**
+   * Get the memory budget
+   *
+   * @return the memory budget in bytes
+   */
+  public synchronized final long getBudget() {
+    return this.m_budget;
+  }
+
+  /**
+   * Get the estimated number of bytes occupied by the cached distance
+   * computers
+   *
+   * @return the estimated number of bytes occupied by the cached distance
+   *         computers
+   */
+  public synchronized final long getBytes() {
+    return this.m_bytes;
+  }
+
+  /**
+   * Get the number of requests that were served from the cache
+   *
+   * @return the number of cache hits
+   */
+  public synchronized final long getHits() {
+    return this.m_hits;
+  }
+
+  /**
+   * Get the number of requests that required loading an instance
+   *
+   * @return the number of cache misses
+   */
+  public synchronized final long getMisses() {
+    return this.m_misses;
+  }
+
+  /**
+   * Get the number of distance computers that were evicted, either
+   * because the budget was exceeded or because they were reclaimed by the
+   * garbage collector
+   *
+   * @return the number of evictions
+   */
+  public synchronized final long getEvictions() {
+    return this.m_evictions;
+  }
+
+  /** Evict all unreferenced entries from the cache. */
+  public synchronized final void clear() {
+    final long budget;
+
+    budget = this.m_budget;
+    this.m_budget = 0l;
+    try {
+      this.__evict();
+    } finally {
+      this.m_budget = budget;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public synchronized final String toString() {
+    return ("InstanceCache: " + this.m_entries.size() + //$NON-NLS-1$
+        " entries, " + this.m_bytes + //$NON-NLS-1$
+        " of " + this.m_budget + //$NON-NLS-1$
+        " bytes, " + this.m_hits + //$NON-NLS-1$
+        " hits, " + this.m_misses + //$NON-NLS-1$
+        " misses, " + this.m_evictions + //$NON-NLS-1$
+    " evictions"); //$NON-NLS-1$
+  }
+}
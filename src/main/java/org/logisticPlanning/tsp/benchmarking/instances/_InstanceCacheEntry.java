@@ -0,0 +1,46 @@
+package org.logisticPlanning.tsp.benchmarking.instances;
+
+import java.lang.ref.SoftReference;
+
+import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * An entry of the
+ * {@link org.logisticPlanning.tsp.benchmarking.instances.InstanceCache
+ * instance cache}. While the entry is referenced, its distance computer is
+ * held strongly, afterwards only via a soft reference.
+ * </p>
+ */
+final class _InstanceCacheEntry {
+
+  /**
+   * the distance computer, or {@code null} if not yet loaded or not
+   * referenced
+   */
+  volatile DistanceComputer m_dc;
+
+  /**
+   * the soft reference to the distance computer while it is not
+   * referenced
+   */
+  SoftReference<DistanceComputer> m_soft;
+
+  /** the number of references */
+  int m_refs;
+
+  /** the estimated number of bytes occupied by the distance computer */
+  long m_bytes;
+
+  /** the time in milliseconds needed to load the distance computer */
+  long m_loadTime;
+
+  /** create */
+  _InstanceCacheEntry() {
+    super();
+  }
+}
@@ -0,0 +1,49 @@
+package org.logisticPlanning.tsp.benchmarking.instances;
+
+import java.io.File;
+
+import org.logisticPlanning.utils.io.FileUtils;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * This tool parses all the
+ * {@link org.logisticPlanning.tsp.benchmarking.instances.Instance#ALL_INSTANCES
+ * benchmark instances} once and stores their pre-parsed binary versions in
+ * a cache directory, so that later benchmark runs using this directory as
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#PARAM_CACHE_DIR
+ * instance cache} do not need to parse the text resources anymore.
+ * Instances whose binary files already exist and are valid are not parsed
+ * again.
+ * </p>
+ */
+final class _MakeBinaryInstances {
+
+  /**
+   * The main method
+   *
+   * @param args
+   *          the command line arguments: the cache directory (defaults to
+   *          {@code ./instanceCache})
+   * @throws Throwable
+   *           if something fails
+   */
+  public static void main(final String[] args) throws Throwable {
+    final File dir;
+    long time;
+
+    dir = FileUtils.canonicalize(new File(((args != null)
+        && (args.length > 0)) ? args[0] : "instanceCache")); //$NON-NLS-1$
+    dir.mkdirs();
+
+    for (final Instance inst : Instance.ALL_INSTANCES) {
+      time = System.currentTimeMillis();
+      inst.load(0l, dir);
+      time = (System.currentTimeMillis() - time);
+      System.out.println(inst.name() + '\t' + time + "ms"); //$NON-NLS-1$
+    }
+  }
+}
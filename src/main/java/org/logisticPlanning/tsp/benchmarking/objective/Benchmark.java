@@ -1,10 +1,17 @@
 package org.logisticPlanning.tsp.benchmarking.objective;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.PrintStream;
 
 import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
+import org.logisticPlanning.tsp.benchmarking.dist.RowCachedDistanceComputer;
 import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.instances.InstanceCache;
 import org.logisticPlanning.utils.config.Configurable;
 import org.logisticPlanning.utils.config.Configuration;
 import org.logisticPlanning.utils.io.FileUtils;
@@ -158,6 +165,16 @@ public final class Benchmark extends Configurable {
    */
   public static final int DEFAULT_MATRIX_LIMIT_DIM = 4096;
 
+  /**
+   * The maximum number of bytes that a distance matrix automatically
+   * created from a coordinate list may occupy: {@value} , i.e., the size
+   * of a symmetric {@code int} matrix with
+   * {@link #DEFAULT_MATRIX_LIMIT_DIM} nodes. Since matrices are stored
+   * with the narrowest possible data type, instances with up to about
+   * twice as many nodes may fit into this limit.
+   */
+  public static final long DEFAULT_MATRIX_LIMIT_BYTES = 33546240l;
+
   /** the default number of runs: {@value} */
   public static final int DEFAULT_MAX_RUNS = 30;
 
@@ -192,11 +209,105 @@ public final class Benchmark extends Configurable {
   public static final String PARAM_MAX_TIME = "maxTime"; //$NON-NLS-1$
 
   /**
-   * the limit dimension ({@value} , defaults to
-   * {@link #DEFAULT_MATRIX_LIMIT_DIM})
+   * should the {@link #PARAM_MAX_TIME runtime limit} apply to the CPU time
+   * consumed by the thread running the algorithm instead of the elapsed
+   * time ({@value} , defaults to {@code false})? This makes the limit
+   * independent of how many runs share the CPUs of the machine.
+   */
+  public static final String PARAM_CPU_TIME_LIMIT = "cpuTimeLimit"; //$NON-NLS-1$
+
+  /**
+   * the limit dimension ({@value} ): If specified, this parameter is
+   * translated to a limit for {@link #PARAM_LIMIT_BYTES}, namely the
+   * number of bytes that a symmetric {@code int} matrix of the given
+   * dimension would occupy.
    */
   public static final String PARAM_LIMIT_DIM = "maxAutoDistanceMatrixConversionDim"; //$NON-NLS-1$
 
+  /**
+   * the maximum number of bytes that a distance matrix automatically
+   * created from a coordinate list may occupy ({@value} , defaults to
+   * {@link #DEFAULT_MATRIX_LIMIT_BYTES}), overrides
+   * {@link #PARAM_LIMIT_DIM}
+   */
+  public static final String PARAM_LIMIT_BYTES = "maxAutoDistanceMatrixBytes"; //$NON-NLS-1$
+
+  /**
+   * the directory for pre-parsed binary instances and memory-mapped
+   * distance matrix files ({@value} , defaults to {@code null}, i.e.,
+   * instances are always parsed from their text resources and only
+   * heap-based distance matrices are used)
+   */
+  public static final String PARAM_CACHE_DIR = "instanceCacheDir"; //$NON-NLS-1$
+
+  /**
+   * the number of bytes that the
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.RowCachedDistanceComputer
+   * row cache} of a coordinate-based distance computer may occupy
+   * ({@value} , defaults to {@code 0}, i.e., no row cache is used): for
+   * instances too large for a distance matrix, the rows of frequently
+   * queried nodes are then kept in memory
+   */
+  public static final String PARAM_ROW_CACHE_BYTES = "distanceRowCacheBytes"; //$NON-NLS-1$
+
+  /**
+   * should the log points be written to the log file while the run is
+   * still ongoing ({@value} , defaults to {@code false})? If so, the log
+   * of a run which is interrupted, e.g., because the JVM is killed, is not
+   * lost: When the benchmark is started again, the log files of
+   * interrupted runs are completed up to the last log point and
+   * {@link ObjectiveFunction#INTERRUPTED marked} as interrupted, or
+   * deleted if they do not contain any log point or if
+   * {@link #PARAM_DISCARD_INTERRUPTED} is set. The log of a run under a
+   * {@link #PARAM_LEASE_TIMEOUT lease} which is reclaimed from a dead
+   * process is always deleted, since the run is performed again.
+   */
+  public static final String PARAM_STREAM_LOG = "streamLog"; //$NON-NLS-1$
+
+  /**
+   * should the {@link #PARAM_STREAM_LOG streamed} log files of interrupted
+   * runs be deleted instead of completed when the benchmark is started
+   * again ({@value} , defaults to {@code false})? A completed log only
+   * covers the part of the run before the interruption and counts as a
+   * performed run. If this parameter is set, the run is performed again
+   * from scratch instead.
+   */
+  public static final String PARAM_DISCARD_INTERRUPTED = "discardInterrupted"; //$NON-NLS-1$
+
+  /**
+   * should the log data of the runs be stored in the compact
+   * {@link org.logisticPlanning.tsp.benchmarking.objective.BinaryLogFormat
+   * binary format} ({@value} , defaults to {@code false})? Binary log files
+   * are much smaller and faster to load than text files, and the
+   * {@link org.logisticPlanning.tsp.evaluation.data.sources.FileDataSource
+   * evaluator} reads both formats.
+   */
+  public static final String PARAM_BINARY_LOG = "binaryLog"; //$NON-NLS-1$
+
+  /**
+   * the timeout in milliseconds of the leases on the runs ({@value} ,
+   * defaults to {@code 0}, i.e., no leases). If several processes, maybe
+   * on different machines, perform runs in the same result directory, a
+   * run is claimed with a lease file which is renewed periodically while
+   * the run is ongoing. If a process dies, the other processes reclaim its
+   * runs once the leases have not been renewed for this time, delete
+   * their incomplete logs, and perform them again.
+   */
+  public static final String PARAM_LEASE_TIMEOUT = "leaseTimeout"; //$NON-NLS-1$
+
+  /**
+   * the interval in milliseconds between two checkpoints of a run
+   * ({@value} , defaults to {@code 0}, i.e., no checkpoints). If this
+   * parameter is set, the state of each run is stored in a checkpoint file
+   * next to its log file at this interval, provided that the
+   * {@link org.logisticPlanning.tsp.solving.TSPAlgorithm algorithm}
+   * supports {@link ObjectiveFunction#shouldCheckpoint() checkpoints}. If
+   * the process performing the run dies, e.g., because its machine is
+   * rebooted, the run is resumed from its latest checkpoint when the
+   * benchmark is started again instead of being performed from scratch.
+   */
+  public static final String PARAM_CHECKPOINT_INTERVAL = "checkpointInterval"; //$NON-NLS-1$
+
   /**
    * the root directory for all results
    *
@@ -247,15 +358,119 @@ public final class Benchmark extends Configurable {
   long m_maxTime;
 
   /**
-   * the matrix limit dimension. If more than {@link #m_limitDim} cities
-   * are in a benchmark instance, distances will be computed based on
-   * coordinate lists if possible to save memory. If fewer cities are in
-   * the instance, the distance lists will automatically be used.
+   * should the runtime limit apply to the CPU time?
+   *
+   * @serial a boolean which is {@code true} if {@link #m_maxTime} limits
+   *         the CPU time, {@code false} if it limits the elapsed time
+   */
+  boolean m_cpuTimeLimit;
+
+  /**
+   * the matrix memory limit. If a distance matrix for a benchmark instance
+   * would occupy more than {@link #m_limitBytes} bytes, distances will be
+   * computed based on coordinate lists if possible to save memory.
+   * Otherwise, the coordinate list is translated to a matrix which uses
+   * the narrowest possible data type.
+   *
+   * @serial a long with the largest number of bytes that an automatically
+   *         created distance matrix may occupy
+   */
+  long m_limitBytes;
+
+  /**
+   * the directory for data derived from the problem instances: Pre-parsed
+   * binary versions of the instances as well as distance matrices which
+   * would fit into {@link #m_limitBytes} but not into the Java heap are
+   * stored there and re-used in later runs
+   *
+   * @serial a file pointing to the directory for instance data, or
+   *         {@code null} if instances should always be parsed and only
+   *         heap-based matrices should be used
+   */
+  File m_cacheDir;
+
+  /**
+   * the number of bytes that the row cache of a coordinate-based distance
+   * computer may occupy
+   *
+   * @serial a long with the size of the row cache in bytes, {@code 0} if
+   *         no row cache should be used
+   */
+  long m_rowCacheBytes;
+
+  /**
+   * should the log points be streamed to the log file during the run?
+   *
+   * @serial a boolean which is {@code true} if the log points are written
+   *         during the run, {@code false} if the log is written at its end
+   */
+  boolean m_streamLog;
+
+  /**
+   * should the streamed log files of interrupted runs be deleted?
+   *
+   * @serial a boolean which is {@code true} if the log files of
+   *         interrupted runs are deleted, {@code false} if they are
+   *         completed
+   */
+  boolean m_discardInterrupted;
+
+  /**
+   * should the log data be stored in the binary format?
+   *
+   * @serial a boolean which is {@code true} if the log data is stored in
+   *         the binary format, {@code false} if it is stored as text
+   */
+  boolean m_binaryLog;
+
+  /**
+   * the lease timeout in milliseconds
    *
-   * @serial an int with the largest number of cities for which distance
-   *         matrices will be used
+   * @serial a long with the time after which a lease which has not been
+   *         renewed expires, {@code 0} if no leases are used
    */
-  int m_limitDim;
+  long m_leaseTimeout;
+
+  /**
+   * the checkpoint interval in milliseconds
+   *
+   * @serial a long with the time between two checkpoints of a run,
+   *         {@code 0} if no checkpoints are made
+   */
+  long m_checkpointInterval;
+
+  /** have interrupted log files in the result directory been recovered? */
+  private transient boolean m_recovered;
+
+  /**
+   * is {@link #m_fileCount} up to date, or does the result directory need
+   * to be scanned?
+   */
+  private transient boolean m_counted;
+
+  /**
+   * the number of files in the result directory, as counted by the last
+   * scan plus the files created by {@link #_getFile(String)} since then
+   */
+  private transient int m_fileCount;
+
+  /** the run index at which {@link #_getFile(String)} begins probing */
+  private transient int m_nextRun;
+
+  /**
+   * the number of valid leases held by other processes, as found by the
+   * last scan of the result directory
+   */
+  private transient int m_foreignLeases;
+
+  /** the time of the last scan of the result directory */
+  private transient long m_scanTime;
+
+  /**
+   * the number of orphaned checkpoints of interrupted runs which can be
+   * resumed, as found by the last scan of the result directory
+   */
+  private transient int m_orphans;
 
   /**
    * the maximum number of runs per problem instance
@@ -270,9 +485,25 @@ public final class Benchmark extends Configurable {
   /** the FEs and DEs to log */
   transient long[] m_FEsDEsToLog;
 
-  /** the internal, shared distance computer */
+  /**
+   * the internal distance computer, shared by all objective functions of
+   * this benchmark: either {@link #m_shared} or a row cache wrapping it
+   */
   transient DistanceComputer m_dist;
 
+  /**
+   * the distance computer acquired from the
+   * {@link org.logisticPlanning.tsp.benchmarking.instances.InstanceCache#SHARED
+   * shared instance cache}
+   */
+  private transient DistanceComputer m_shared;
+
+  /**
+   * the time in milliseconds it took to load {@link #m_dist}, including
+   * building its distance matrix
+   */
+  transient long m_distBuildTime;
+
   /**
    * Create a setup
    *
@@ -307,13 +538,15 @@ public final class Benchmark extends Configurable {
     z *= n;
     this.m_maxDEs = ((z > 0l) ? z : Long.MAX_VALUE);
     this.m_maxTime = Benchmark.DEFAULT_MAX_TIME_PER_RUN;
-    this.m_limitDim = Benchmark.DEFAULT_MATRIX_LIMIT_DIM;
+    this.m_limitBytes = Benchmark.DEFAULT_MATRIX_LIMIT_BYTES;
     this.m_maxRuns = Benchmark.DEFAULT_MAX_RUNS;
   }
 
   /** {@inheritDoc} */
   @Override
   public synchronized void configure(final Configuration config) {
+    final int dim;
+
     this.__onlyIfNotRunning();
     super.configure(config);
 
@@ -325,16 +558,48 @@ public final class Benchmark extends Configurable {
 
     this.m_maxTime = config.getLong(Benchmark.PARAM_MAX_TIME, 1l,
         Long.MAX_VALUE, this.m_maxTime);
+    this.m_cpuTimeLimit = config.getBoolean(Benchmark.PARAM_CPU_TIME_LIMIT,
+        this.m_cpuTimeLimit);
 
-    this.m_limitDim = config.getInt(Benchmark.PARAM_LIMIT_DIM, 0,
-        Integer.MAX_VALUE,//
-        this.m_limitDim);
+    dim = config.getInt(Benchmark.PARAM_LIMIT_DIM, 0, Integer.MAX_VALUE,//
+        (-1));
+    if (dim >= 0) {
+      this.m_limitBytes = DistanceComputer.matrixLimitBytes(dim);
+    }
+    this.m_limitBytes = config.getLong(Benchmark.PARAM_LIMIT_BYTES, 0l,
+        Long.MAX_VALUE,//
+        this.m_limitBytes);
 
     this.m_maxRuns = config.getInt(Benchmark.PARAM_MAX_RUNS, 0, 100000,//
         this.m_maxRuns);
 
+    this.m_cacheDir = config.getFile(Benchmark.PARAM_CACHE_DIR,
+        this.m_cacheDir);
+
+    this.m_rowCacheBytes = config.getLong(Benchmark.PARAM_ROW_CACHE_BYTES,
+        0l, Long.MAX_VALUE, this.m_rowCacheBytes);
+
+    this.m_streamLog = config.getBoolean(Benchmark.PARAM_STREAM_LOG,
+        this.m_streamLog);
+
+    this.m_discardInterrupted = config.getBoolean(
+        Benchmark.PARAM_DISCARD_INTERRUPTED, this.m_discardInterrupted);
+
+    this.m_binaryLog = config.getBoolean(Benchmark.PARAM_BINARY_LOG,
+        this.m_binaryLog);
+
+    this.m_leaseTimeout = config.getLong(Benchmark.PARAM_LEASE_TIMEOUT, 0l,
+        Long.MAX_VALUE, this.m_leaseTimeout);
+
+    this.m_checkpointInterval = config.getLong(
+        Benchmark.PARAM_CHECKPOINT_INTERVAL, 0l, Long.MAX_VALUE,
+        this.m_checkpointInterval);
+
     this.m_dir = config.getFile(Benchmark.PARAM_DEST_DIR, this.m_dir);
     this.m_realDir = null;
+    this.m_recovered = false;
+    this.m_counted = false;
+    this.m_nextRun = 0;
   }
 
   /** {@inheritDoc} */
@@ -353,8 +618,34 @@ public final class Benchmark extends Configurable {
     Configurable.printKey(Benchmark.PARAM_MAX_TIME, ps);
     ps.println(this.m_maxTime);
 
-    Configurable.printKey(Benchmark.PARAM_LIMIT_DIM, ps);
-    ps.println(this.m_limitDim);
+    Configurable.printKey(Benchmark.PARAM_CPU_TIME_LIMIT, ps);
+    ps.println(this.m_cpuTimeLimit);
+
+    Configurable.printKey(Benchmark.PARAM_LIMIT_BYTES, ps);
+    ps.println(this.m_limitBytes);
+
+    Configurable.printKey(Benchmark.PARAM_CACHE_DIR, ps);
+    ps.println((this.m_cacheDir != null) ? //
+    this.m_cacheDir.getAbsolutePath()
+        : null);
+
+    Configurable.printKey(Benchmark.PARAM_ROW_CACHE_BYTES, ps);
+    ps.println(this.m_rowCacheBytes);
+
+    Configurable.printKey(Benchmark.PARAM_STREAM_LOG, ps);
+    ps.println(this.m_streamLog);
+
+    Configurable.printKey(Benchmark.PARAM_DISCARD_INTERRUPTED, ps);
+    ps.println(this.m_discardInterrupted);
+
+    Configurable.printKey(Benchmark.PARAM_BINARY_LOG, ps);
+    ps.println(this.m_binaryLog);
+
+    Configurable.printKey(Benchmark.PARAM_LEASE_TIMEOUT, ps);
+    ps.println(this.m_leaseTimeout);
+
+    Configurable.printKey(Benchmark.PARAM_CHECKPOINT_INTERVAL, ps);
+    ps.println(this.m_checkpointInterval);
 
     if (this.m_dist != null) {
       Configurable.printKey(Benchmark.DISTANCE_COMPUTER_TYPE, ps);
@@ -385,9 +676,46 @@ public final class Benchmark extends Configurable {
     ps.println(//
     "The maximum run time granted to a run in milliseconds."); //$NON-NLS-1$
 
+    Configurable.printKey(Benchmark.PARAM_CPU_TIME_LIMIT, ps);
+    ps.println(//
+    "Apply the maximum run time to the CPU time of the run instead of the elapsed time (false by default)."); //$NON-NLS-1$
+
     Configurable.printKey(Benchmark.PARAM_LIMIT_DIM, ps);
     ps.println(//
-    "The maximum problem dimension at which a coordinate list is still translated to a distance matrix."); //$NON-NLS-1$
+    "The maximum problem dimension at which a coordinate list is still translated to an int-based distance matrix, converted to a limit in bytes."); //$NON-NLS-1$
+
+    Configurable.printKey(Benchmark.PARAM_LIMIT_BYTES, ps);
+    ps.println(//
+    "The maximum number of bytes that a distance matrix created from a coordinate list may occupy (overrides " + //$NON-NLS-1$
+        Benchmark.PARAM_LIMIT_DIM + ")."); //$NON-NLS-1$
+
+    Configurable.printKey(Benchmark.PARAM_CACHE_DIR, ps);
+    ps.println(//
+    "The directory for pre-parsed binary instances and for memory-mapped distance matrices which do not fit into the heap (none by default)."); //$NON-NLS-1$
+
+    Configurable.printKey(Benchmark.PARAM_ROW_CACHE_BYTES, ps);
+    ps.println(//
+    "The number of bytes that cached rows of a coordinate-based distance computer may occupy (0, i.e., no cache, by default)."); //$NON-NLS-1$
+
+    Configurable.printKey(Benchmark.PARAM_STREAM_LOG, ps);
+    ps.println(//
+    "Write the log points to the log file during the run, so that they survive a crash (false by default)."); //$NON-NLS-1$
+
+    Configurable.printKey(Benchmark.PARAM_DISCARD_INTERRUPTED, ps);
+    ps.println(//
+    "Delete the streamed log files of interrupted runs and perform the runs again instead of completing the logs (false by default)."); //$NON-NLS-1$
+
+    Configurable.printKey(Benchmark.PARAM_BINARY_LOG, ps);
+    ps.println(//
+    "Store the log data in a compact binary format instead of text (false by default)."); //$NON-NLS-1$
+
+    Configurable.printKey(Benchmark.PARAM_LEASE_TIMEOUT, ps);
+    ps.println(//
+    "The time in milliseconds after which the lease on a run of a process which has died expires, so that the run is performed again by another process working in the same output directory (0, i.e., no leases, by default)."); //$NON-NLS-1$
+
+    Configurable.printKey(Benchmark.PARAM_CHECKPOINT_INTERVAL, ps);
+    ps.println(//
+    "The time in milliseconds between two checkpoints of a run, from which the run is resumed if the process performing it dies (0, i.e., no checkpoints, by default)."); //$NON-NLS-1$
 
     Configurable.printKey(Benchmark.PARAM_DEST_DIR, ps);
     ps.println(//
@@ -408,11 +736,16 @@ public final class Benchmark extends Configurable {
   }
 
   /**
-   * get a final file to use
+   * get a final file to use. If {@link #PARAM_LEASE_TIMEOUT leases} are
+   * used, several processes may have found that runs remain and try to
+   * claim them at the same time. Only the run indices up to the
+   * {@link #PARAM_MAX_RUNS maximum number of runs} are then claimed, so
+   * that the processes together do not perform more runs than required.
    *
    * @param prefix
    *          a prefix or {@code null}
-   * @return the temporary file
+   * @return the temporary file, or {@code null} if leases are used and
+   *         all runs have already been claimed, maybe by other processes
    */
   synchronized final File _getFile(final String prefix) {
     int i;
@@ -426,11 +759,26 @@ public final class Benchmark extends Configurable {
       if (prefix != null) {
         base_name = (prefix + "_" + base_name);//$NON-NLS-1$
       }
-      for (i = 1;; i++) {
-        f = new File(this.__getRealDir(), base_name + i + ".txt");//$NON-NLS-1$
-        if (f.createNewFile()) {
+      // begin after the last file we created: files with a smaller index
+      // already existed or have been created by us
+      for (i = Math.max(1, this.m_nextRun);; i++) {
+        if ((this.m_leaseTimeout > 0l) && (i > this.m_maxRuns)) {
+          // all runs have been claimed in the meantime
+          this.m_counted = false;
+          return null;
+        }
+        f = new File(this.__getRealDir(), base_name + i
+            + (this.m_binaryLog ? BinaryLogFormat.SUFFIX : ".txt"));//$NON-NLS-1$
+        if ((this.m_leaseTimeout > 0l) ? _LeaseThread._acquire(f,
+            this.m_leaseTimeout) : f.createNewFile()) {
+          this.m_nextRun = (i + 1);
+          this.m_fileCount++;
           return f;
         }
+        // the file has been created by someone else, maybe by another
+        // process working in the same directory: the file count needs to
+        // be refreshed
+        this.m_counted = false;
       }
 
     } catch (final Throwable t) {
@@ -439,15 +787,283 @@ public final class Benchmark extends Configurable {
   }
 
   /**
-   * The number of runs that still need to be performed
+   * Claim an interrupted run whose state has been stored in an orphaned
+   * {@link #PARAM_CHECKPOINT_INTERVAL checkpoint}, i.e., a checkpoint of a
+   * run of a process which has died, in order to resume it.
+   *
+   * @param prefix
+   *          a prefix or {@code null}
+   * @return the checkpoint of the run, or {@code null} if no run can be
+   *         resumed
+   */
+  synchronized final _Checkpoint _resume(final String prefix) {
+    final File[] fs;
+    String base_name, name;
+    File log;
+    _Checkpoint cp;
+
+    if (this.m_checkpointInterval <= 0l) {
+      return null;
+    }
+
+    // reclaims the runs whose leases have expired
+    this.__count();
+    if (this.m_orphans <= 0) {
+      return null;
+    }
+
+    base_name = (this.name() + "_");//$NON-NLS-1$
+    if (prefix != null) {
+      base_name = (prefix + "_" + base_name);//$NON-NLS-1$
+    }
+
+    fs = this.__getRealDir().listFiles();
+    if (fs == null) {
+      return null;
+    }
+
+    try {
+      for (final File f : fs) {
+        if (!(_Checkpoint._isCheckpointFile(f))) {
+          continue;
+        }
+        log = _Checkpoint._log(f);
+        name = log.getName();
+        if ((!(name.startsWith(base_name)))
+            || (!(Benchmark.__isRunIndex(name, base_name.length())))) {
+          continue;
+        }
+        if ((this.m_leaseTimeout > 0l)
+            && _LeaseThread._leaseFile(log).exists()) {
+          continue;
+        }
+        cp = _Checkpoint._claim(f);
+        if (cp == null) {
+          continue;
+        }
+        if ((this.m_leaseTimeout > 0l)
+            && (!(_LeaseThread._acquireExisting(log,
+                this.m_leaseTimeout)))) {
+          cp._close(false);
+          continue;
+        }
+        this.m_orphans--;
+        this.m_fileCount++;
+        return cp;
+      }
+    } catch (final IOException ioe) {
+      throw new RuntimeException(ioe);
+    }
+
+    // the orphans have been claimed by other processes
+    this.m_counted = false;
+    return null;
+  }
+
+  /**
+   * Check whether the part of a file name beginning at a given index is
+   * a run index followed by the file suffix
+   *
+   * @param name
+   *          the file name
+   * @param start
+   *          the start index
+   * @return {@code true} if a run index begins at {@code start},
+   *         {@code false} otherwise
+   */
+  private static final boolean __isRunIndex(final String name,
+      final int start) {
+    final int end;
+    int i;
+    char ch;
+
+    end = name.indexOf('.', start);
+    if (end <= start) {
+      return false;
+    }
+    for (i = start; i < end; i++) {
+      ch = name.charAt(i);
+      if ((ch < '0') || (ch > '9')) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The number of runs that still need to be performed. The result
+   * directory is only scanned when this method is called for the first
+   * time and when it has become known that files have been added to it by
+   * someone else, i.e., when {@link #_getFile(String)} found a file name
+   * already taken. The runs started by this benchmark object itself are
+   * counted without scanning the directory again. If
+   * {@link #PARAM_LEASE_TIMEOUT leases} are used and other processes hold
+   * leases on runs of this benchmark, the directory is scanned again
+   * whenever a quarter of the lease timeout has passed, in order to
+   * reclaim the runs of processes which have died. Runs which have been
+   * interrupted and can be resumed from an orphaned
+   * {@link #PARAM_CHECKPOINT_INTERVAL checkpoint} count as remaining.
    *
    * @return the number of runs that still need to be performed
    */
   public synchronized final int remainingRunCount() {
+    this.__count();
+    return Math.max(0, (this.m_maxRuns - this.m_fileCount));
+  }
+
+  /**
+   * The number of runs of this benchmark which are currently performed by
+   * other processes under a {@link #PARAM_LEASE_TIMEOUT lease}. If such a
+   * process dies, its runs will be reclaimed and need to be performed
+   * again, i.e., the {@link #remainingRunCount() number of remaining runs}
+   * may increase again as long as this number is not zero.
+   *
+   * @return the number of runs currently performed by other processes
+   */
+  public synchronized final int leasedRunCount() {
+    this.__count();
+    return this.m_foreignLeases;
+  }
+
+  /**
+   * Count the log files in the result directory, if necessary. Leases of
+   * other processes which have expired are reclaimed.
+   */
+  private synchronized final void __count() {
+    final long timeout;
+    File[] fs;
+    boolean reclaimed;
+    int count, foreign, orphans;
+
+    this.__recover();
+    timeout = this.m_leaseTimeout;
+    if (this.m_counted
+        && ((this.m_foreignLeases <= 0) || //
+        ((System.currentTimeMillis() - this.m_scanTime) < (timeout >>> 2l)))) {
+      return;
+    }
+
+    do {
+      fs = this.__getRealDir().listFiles();
+      count = foreign = orphans = 0;
+      reclaimed = false;
+      if (fs != null) {
+        for (final File f : fs) {
+          if (_Checkpoint._isCheckpointFile(f)) {
+            // the log of an interrupted run which can be resumed does
+            // not count as performed run
+            if (((timeout <= 0l) || //
+                (!(_LeaseThread._leaseFile(_Checkpoint._log(f)).exists())))
+                && _Checkpoint._isOrphan(f)) {
+              orphans++;
+            }
+            continue;
+          }
+          if (!(_LeaseThread._isLeaseFile(f))) {
+            count++;
+            continue;
+          }
+          if ((timeout <= 0l) || _LeaseThread._isOwn(f)) {
+            continue;
+          }
+          if (_LeaseThread._reclaim(f, timeout)) {
+            reclaimed = true;
+          } else {
+            foreign++;
+          }
+        }
+      }
+    } while (reclaimed);
+
+    if ((foreign < this.m_foreignLeases)
+        || ((count - orphans) < this.m_fileCount)) {
+      // runs have been reclaimed: probe the smallest indices again
+      this.m_nextRun = 0;
+    }
+    this.m_fileCount = (count - orphans);
+    this.m_orphans = orphans;
+    this.m_foreignLeases = foreign;
+    this.m_scanTime = System.currentTimeMillis();
+    this.m_counted = true;
+  }
+
+  /**
+   * Check whether the log file of a run may still be written: If
+   * {@link #PARAM_LEASE_TIMEOUT leases} are used, the lease on the run
+   * must not have been reclaimed by another process.
+   *
+   * @param f
+   *          the log file obtained from {@link #_getFile(String)}, or
+   *          {@code null} if none was obtained
+   * @return {@code true} if the log file may be written, {@code false}
+   *         otherwise
+   */
+  final boolean _holdsFile(final File f) {
+    return ((f != null) && //
+    ((this.m_leaseTimeout <= 0l) || _LeaseThread._holds(f)));
+  }
+
+  /**
+   * The log file of a run has been written completely: release the
+   * {@link #PARAM_LEASE_TIMEOUT lease} on it, if any.
+   *
+   * @param f
+   *          the log file obtained from {@link #_getFile(String)}, or
+   *          {@code null} if none was obtained
+   */
+  final void _releaseFile(final File f) {
+    if ((f != null) && (this.m_leaseTimeout > 0l)) {
+      _LeaseThread._release(f);
+    }
+  }
+
+  /**
+   * Get the mean runtime of the runs whose log files have been completed
+   * in the result directory, e.g., by an earlier execution of the
+   * experiment. This method reads all the log files and should therefore
+   * not be called often.
+   *
+   * @return the mean runtime in milliseconds, or {@code -1} if no
+   *         completed log file was found
+   */
+  public synchronized final long meanRuntime() {
     final File[] fs;
+    final String key;
+    long sum;
+    int count;
+    String line;
 
+    this.__recover();
     fs = this.__getRealDir().listFiles();
-    return Math.max(0, (this.m_maxRuns - ((fs != null) ? fs.length : 0)));
+    if (fs == null) {
+      return (-1l);
+    }
+
+    key = (ObjectiveFunction.RUN_TIME + ':');
+    sum = 0l;
+    count = 0;
+    for (final File f : fs) {
+      if ((f.length() <= 0l) || _Checkpoint._isCheckpointFile(f)) {
+        continue;
+      }
+      try (final InputStream is = (BinaryLogFormat.isBinary(f) ? //
+          BinaryLogFormat.openText(f)
+              : new FileInputStream(f));
+          final BufferedReader br = new BufferedReader(
+              new InputStreamReader(is, "UTF-8"))) { //$NON-NLS-1$
+        while ((line = br.readLine()) != null) {
+          if (line.startsWith(key)) {
+            sum += Long.parseLong(line.substring(key.length()).trim());
+            count++;
+            break;
+          }
+        }
+      } catch (final Throwable t) {
+        // a run which is still going on or a foreign file: ignore it
+      }
+    }
+
+    return ((count > 0) ? (sum / count) : (-1l));
   }
 
   /** only if not running! */
@@ -480,6 +1096,16 @@ public final class Benchmark extends Configurable {
     this.m_maxDEs = ((des <= 0l) ? Long.MAX_VALUE : des);
   }
 
+  /**
+   * Get the maximum allowed time per run in milliseconds.
+   *
+   * @return the maximum time per run in milliseconds, or
+   *         {@link java.lang.Long#MAX_VALUE} if the runtime is not limited
+   */
+  public final long getMaxRuntime() {
+    return this.m_maxTime;
+  }
+
   /**
    * Set the maximum allowed time per run in milliseconds. The actually
    * allocated runtime will probably be bigger than this, as we only check
@@ -493,6 +1119,29 @@ public final class Benchmark extends Configurable {
     this.m_maxTime = ((ms <= 0l) ? Long.MAX_VALUE : ms);
   }
 
+  /**
+   * If the log is {@link #PARAM_STREAM_LOG streamed}, complete or
+   * {@link #PARAM_DISCARD_INTERRUPTED delete} the log files of runs which
+   * have been interrupted. This is done only once.
+   */
+  private synchronized final void __recover() {
+    final File dir;
+
+    if (this.m_recovered || (!(this.m_streamLog))) {
+      return;
+    }
+    this.m_recovered = true;
+
+    dir = this.__getRealDir();
+    if (dir.isDirectory()) {
+      try {
+        _LogWriter._recover(dir, this.m_discardInterrupted);
+      } catch (final Throwable t) {
+        throw new RuntimeException(t);
+      }
+    }
+  }
+
   /**
    * get the actual directory
    *
@@ -533,9 +1182,15 @@ public final class Benchmark extends Configurable {
       try {
         if (makeDirs) {
           this.__getRealDir().mkdirs();
+          this.__recover();
         }
 
-        this.m_dist = this.m_instance.load(this.m_limitDim);
+        this.m_shared = InstanceCache.SHARED.acquire(this.m_instance,
+            this.m_limitBytes, this.m_cacheDir);
+        this.m_distBuildTime = InstanceCache.SHARED
+            .getLoadTime(this.m_shared);
+        this.m_dist = RowCachedDistanceComputer.wrap(this.m_shared,
+            this.m_rowCacheBytes);
 
         this.m_valuesToLog = Benchmark.getLogObjectiveValues(//
             this.m_instance.optimum());
@@ -551,6 +1206,32 @@ public final class Benchmark extends Configurable {
     }
   }
 
+  /**
+   * Release the distance computer of this benchmark to the
+   * {@link org.logisticPlanning.tsp.benchmarking.instances.InstanceCache#SHARED
+   * shared instance cache}. This should be done once no new
+   * {@link #createObjective() objective functions} will be created. The
+   * objective functions created so far can still be used, since they
+   * hold their own reference to the distance computer. If another objective
+   * function is created later, the distance computer is acquired again.
+   * Calling this method on a benchmark which has not been initialized
+   * has no effect.
+   */
+  public synchronized final void dispose() {
+    final DistanceComputer dist;
+
+    if (!(this.m_running)) {
+      return;
+    }
+    this.m_running = false;
+
+    dist = this.m_shared;
+    if (dist != null) {
+      this.m_shared = null;
+      InstanceCache.SHARED.release(dist);
+    }
+  }
+
   /**
    * Create an objective function to be used for performing runs under this
    * setup. One
@@ -560,7 +1241,10 @@ public final class Benchmark extends Configurable {
    * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction}
    * s are not thread-safe: one function must be used only in one single
    * thread. However, you can create arbitrarily many such functions, one
-   * for each thread you want to use, for instance.
+   * for each thread you want to use, for instance. A single run can be
+   * performed by multiple threads via the
+   * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction#createWorker()
+   * workers} of its objective function.
    *
    * @return the new objective function.
    */
@@ -0,0 +1,580 @@
+package org.logisticPlanning.tsp.benchmarking.objective;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * <p>
+ * The binary format for the log data of a run. In the default text
+ * format, each log point is a line with six columns, three of which must
+ * be parsed with {@link java.lang.Long#parseLong(String)} and three with
+ * {@link java.lang.Double#parseDouble(String)} when the results are
+ * evaluated. For thousands of runs, this is slow. If the
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#PARAM_BINARY_LOG
+ * binary log format} is selected, the log data section is stored in a
+ * compact binary form instead. Binary log files have the suffix
+ * {@value #SUFFIX}.
+ * </p>
+ * <p>
+ * A binary log file consists of
+ * </p>
+ * <ol>
+ * <li>a magic number and the format version,</li>
+ * <li>a header with the names of the benchmark instance, the algorithm,
+ * and the initialization algorithm (empty strings if there is none), the
+ * optimal tour length, and the runtime normalization factor,</li>
+ * <li>one record per log point: a byte with the reasons for the log point,
+ * followed by the differences of the FEs, DEs, runtime, best tour
+ * length, and CPU time to the values of the previous log point, each
+ * stored as zig-zag-encoded variable-length integer,</li>
+ * <li>the byte {@value #END}, which ends the log data, and</li>
+ * <li>all other sections of the log file (solution, algorithm setup,
+ * system information, etc.), exactly as in the text format.</li>
+ * </ol>
+ * <p>
+ * Since the FEs, DEs, runtime, and CPU time never decrease and the best
+ * tour length never increases, the differences are small and most of them fit into
+ * one or two bytes. The normalized runtime and the relative error are not
+ * stored at all: They are computed from the runtime, the tour length, and
+ * the values in the header exactly as in the text format, so both formats
+ * yield identical
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.DataPoint data
+ * points}. Files of version {@code 1} of the format do not contain the
+ * CPU time. When they are read, the runtime is used as CPU time.
+ * </p>
+ */
+public final class BinaryLogFormat {
+
+  /** the file suffix of binary log files: {@value} */
+  public static final String SUFFIX = ".bin"; //$NON-NLS-1$
+
+  /** the byte ending the log data: {@value} */
+  static final int END = 0xff;
+
+  /** the magic number at the beginning of each binary log file */
+  private static final byte[] MAGIC = { ((byte) 0x89), 'T', 'L', 'G' };
+
+  /** the version of the binary log format */
+  private static final int VERSION = 2;
+
+  /** the first version of the format, without CPU time */
+  private static final int VERSION_NO_CPU_TIME = 1;
+
+  /** the character set of the strings */
+  private static final Charset UTF8 = Charset.forName("UTF-8"); //$NON-NLS-1$
+
+  /** the maximum number of bytes of an encoded log point */
+  private static final int MAX_POINT_BYTES = (1 + (5 * 10));
+
+  /** the forbidden constructor */
+  private BinaryLogFormat() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Zig-zag-encode a number and append it as variable-length integer to a
+   * buffer
+   *
+   * @param value
+   *          the value
+   * @param buffer
+   *          the buffer
+   * @param offset
+   *          the offset into the buffer
+   * @return the offset after the encoded value
+   */
+  private static final int __putVarint(final long value,
+      final byte[] buffer, final int offset) {
+    long v;
+    int i;
+
+    v = ((value << 1) ^ (value >> 63));
+    i = offset;
+    while ((v & (~0x7fl)) != 0l) {
+      buffer[i++] = ((byte) ((v & 0x7fl) | 0x80l));
+      v >>>= 7;
+    }
+    buffer[i++] = ((byte) v);
+    return i;
+  }
+
+  /**
+   * Write a string
+   *
+   * @param s
+   *          the string, or {@code null}
+   * @param out
+   *          the output stream
+   */
+  private static final void __putString(final String s,
+      final PrintStream out) {
+    final byte[] buffer, data;
+
+    data = ((s != null) ? s.getBytes(BinaryLogFormat.UTF8) : new byte[0]);
+    buffer = new byte[10];
+    out.write(buffer, 0,
+        BinaryLogFormat.__putVarint(data.length, buffer, 0));
+    out.write(data, 0, data.length);
+  }
+
+  /**
+   * Write the magic number and the header of a binary log file
+   *
+   * @param instance
+   *          the name of the benchmark instance
+   * @param algorithm
+   *          the name of the algorithm, or {@code null}
+   * @param initializer
+   *          the name of the initialization algorithm, or {@code null}
+   * @param optimum
+   *          the optimal tour length
+   * @param timeNormalizationFactor
+   *          the runtime normalization factor
+   * @param out
+   *          the output stream
+   */
+  static final void _writeHeader(final String instance,
+      final String algorithm, final String initializer,
+      final long optimum, final double timeNormalizationFactor,
+      final PrintStream out) {
+    final byte[] buffer;
+    long bits;
+    int i;
+
+    out.write(BinaryLogFormat.MAGIC, 0, BinaryLogFormat.MAGIC.length);
+    out.write(BinaryLogFormat.VERSION);
+
+    BinaryLogFormat.__putString(instance, out);
+    BinaryLogFormat.__putString(algorithm, out);
+    BinaryLogFormat.__putString(initializer, out);
+
+    buffer = new byte[18];
+    i = BinaryLogFormat.__putVarint(optimum, buffer, 0);
+    bits = Double.doubleToRawLongBits(timeNormalizationFactor);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      buffer[i++] = ((byte) (bits >>> shift));
+    }
+    out.write(buffer, 0, i);
+  }
+
+  /**
+   * Write a log point
+   *
+   * @param prev
+   *          the previous log point, or {@code null} if {@code p} is the
+   *          first one
+   * @param p
+   *          the log point
+   * @param out
+   *          the output stream
+   */
+  static final void _writePoint(final LogPoint prev, final LogPoint p,
+      final PrintStream out) {
+    final byte[] buffer;
+    int i;
+
+    buffer = new byte[BinaryLogFormat.MAX_POINT_BYTES];
+    buffer[0] = ((byte) (p.m_type));
+    if (prev != null) {
+      i = BinaryLogFormat.__putVarint((p.m_fe - prev.m_fe), buffer, 1);
+      i = BinaryLogFormat.__putVarint((p.m_de - prev.m_de), buffer, i);
+      i = BinaryLogFormat.__putVarint((p.m_time - prev.m_time), buffer, i);
+      i = BinaryLogFormat.__putVarint((prev.m_f - p.m_f), buffer, i);
+      i = BinaryLogFormat.__putVarint((p.m_cpuTime - prev.m_cpuTime),
+          buffer, i);
+    } else {
+      // the first point is stored relative to an all-zero point
+      i = BinaryLogFormat.__putVarint(p.m_fe, buffer, 1);
+      i = BinaryLogFormat.__putVarint(p.m_de, buffer, i);
+      i = BinaryLogFormat.__putVarint(p.m_time, buffer, i);
+      i = BinaryLogFormat.__putVarint((-(p.m_f)), buffer, i);
+      i = BinaryLogFormat.__putVarint(p.m_cpuTime, buffer, i);
+    }
+    out.write(buffer, 0, i);
+  }
+
+  /**
+   * End the log data
+   *
+   * @param out
+   *          the output stream
+   */
+  static final void _writeEnd(final PrintStream out) {
+    out.write(BinaryLogFormat.END);
+  }
+
+  /**
+   * Read a byte
+   *
+   * @param in
+   *          the input stream
+   * @return the byte
+   * @throws IOException
+   *           if the end of the stream has been reached
+   */
+  private static final int __read(final InputStream in) throws IOException {
+    final int b;
+
+    b = in.read();
+    if (b < 0) {
+      throw new EOFException();
+    }
+    return b;
+  }
+
+  /**
+   * Read a zig-zag-encoded variable-length integer
+   *
+   * @param in
+   *          the input stream
+   * @return the value
+   * @throws IOException
+   *           if reading fails
+   */
+  private static final long __readVarint(final InputStream in)
+      throws IOException {
+    long v;
+    int b, shift;
+
+    v = 0l;
+    shift = 0;
+    do {
+      if (shift > 63) {
+        throw new IOException("Malformed variable-length integer."); //$NON-NLS-1$
+      }
+      b = BinaryLogFormat.__read(in);
+      v |= (((long) (b & 0x7f)) << shift);
+      shift += 7;
+    } while ((b & 0x80) != 0);
+
+    return ((v >>> 1) ^ (-(v & 1l)));
+  }
+
+  /**
+   * Read a string
+   *
+   * @param in
+   *          the input stream
+   * @return the string, or {@code null} if it is empty
+   * @throws IOException
+   *           if reading fails
+   */
+  private static final String __readString(final InputStream in)
+      throws IOException {
+    final long length;
+    final byte[] data;
+    int i, r;
+
+    length = BinaryLogFormat.__readVarint(in);
+    if ((length < 0l) || (length > 0xffffl)) {
+      throw new IOException("Invalid string length: " + length); //$NON-NLS-1$
+    }
+    if (length <= 0l) {
+      return null;
+    }
+
+    data = new byte[(int) length];
+    for (i = 0; i < data.length; i += r) {
+      r = in.read(data, i, (data.length - i));
+      if (r < 0) {
+        throw new EOFException();
+      }
+    }
+    return new String(data, BinaryLogFormat.UTF8);
+  }
+
+  /**
+   * Check whether a stream begins with the magic number of binary log
+   * files and read it
+   *
+   * @param in
+   *          the input stream
+   * @return {@code true} if the magic number was found, {@code false}
+   *         otherwise
+   * @throws IOException
+   *           if reading fails
+   */
+  private static final boolean __magic(final InputStream in)
+      throws IOException {
+    for (final byte b : BinaryLogFormat.MAGIC) {
+      if (in.read() != (b & 0xff)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Check whether a file is a binary log file
+   *
+   * @param file
+   *          the file
+   * @return {@code true} if the file is a binary log file, {@code false}
+   *         otherwise
+   * @throws IOException
+   *           if reading fails
+   */
+  public static final boolean isBinary(final File file) throws IOException {
+    try (InputStream in = new FileInputStream(file)) {
+      return BinaryLogFormat.__magic(in);
+    }
+  }
+
+  /**
+   * Read the header and the log data of a binary log file. Afterwards, the
+   * stream points to the text sections which follow the log data. The
+   * normalized runtime and the relative error of the data points are
+   * computed exactly as they are printed in the text format.
+   *
+   * @param in
+   *          the input stream, positioned at the beginning of the file
+   * @param header
+   *          an array receiving the names of the instance, the algorithm,
+   *          and the initialization algorithm, or {@code null}
+   * @param dest
+   *          the list to receive the data points, or {@code null} if the
+   *          log data should be skipped
+   * @return the runtime normalization factor
+   * @throws IOException
+   *           if reading fails or the data is not a binary log file
+   */
+  static final double _read(final InputStream in, final String[] header,
+      final List<DataPoint> dest) throws IOException {
+    final String instance, algorithm, initializer;
+    final long optimum;
+    final double factor;
+    final boolean hasCPUTime;
+    long bits, fe, de, time, f, cpuTime;
+    int type, i;
+
+    if (!(BinaryLogFormat.__magic(in))) {
+      throw new IOException("Not a binary log file."); //$NON-NLS-1$
+    }
+    i = BinaryLogFormat.__read(in);
+    if ((i != BinaryLogFormat.VERSION)
+        && (i != BinaryLogFormat.VERSION_NO_CPU_TIME)) {
+      throw new IOException("Unsupported binary log version: " + i); //$NON-NLS-1$
+    }
+    hasCPUTime = (i != BinaryLogFormat.VERSION_NO_CPU_TIME);
+
+    instance = BinaryLogFormat.__readString(in);
+    algorithm = BinaryLogFormat.__readString(in);
+    initializer = BinaryLogFormat.__readString(in);
+    optimum = BinaryLogFormat.__readVarint(in);
+    bits = 0l;
+    for (i = 8; (--i) >= 0;) {
+      bits = ((bits << 8) | BinaryLogFormat.__read(in));
+    }
+    factor = Double.longBitsToDouble(bits);
+
+    if (header != null) {
+      header[0] = instance;
+      header[1] = algorithm;
+      header[2] = initializer;
+    }
+
+    fe = de = time = f = cpuTime = 0l;
+    for (;;) {
+      type = BinaryLogFormat.__read(in);
+      if (type == BinaryLogFormat.END) {
+        return factor;
+      }
+      fe += BinaryLogFormat.__readVarint(in);
+      de += BinaryLogFormat.__readVarint(in);
+      time += BinaryLogFormat.__readVarint(in);
+      f -= BinaryLogFormat.__readVarint(in);
+      if (hasCPUTime) {
+        cpuTime += BinaryLogFormat.__readVarint(in);
+      } else {
+        cpuTime = time;
+      }
+
+      if (dest != null) {
+        dest.add(new DataPoint(fe, de, time, cpuTime, f,//
+            ((f - optimum) * (1d / optimum)),//
+            (time / factor),//
+            ((type & ObjectiveFunction.TYPE_FLAG_FE) != 0),//
+            ((type & ObjectiveFunction.TYPE_FLAG_DE) != 0),//
+            ((type & ObjectiveFunction.TYPE_FLAG_OBJECTIVE) != 0),//
+            ((type & ObjectiveFunction.TYPE_FLAG_INIT_END) != 0),//
+            ((type & ObjectiveFunction.TYPE_FLAG_END) != 0)));
+      }
+    }
+  }
+
+  /**
+   * Load the log data from a binary log file into a list of data points.
+   *
+   * @param file
+   *          the binary log file
+   * @param dest
+   *          the destination list
+   * @throws IOException
+   *           if reading fails or the file is not a binary log file
+   */
+  public static final void loadPoints(final File file,
+      final List<DataPoint> dest) throws IOException {
+    try (InputStream in = new BufferedInputStream(new FileInputStream(
+        file))) {
+      BinaryLogFormat._read(in, null, dest);
+    }
+  }
+
+  /**
+   * Open a binary log file and skip its header and log data, so that the
+   * text sections which follow can be read from the returned stream.
+   *
+   * @param file
+   *          the binary log file
+   * @return the input stream, positioned at the text sections
+   * @throws IOException
+   *           if reading fails or the file is not a binary log file
+   */
+  public static final InputStream openText(final File file)
+      throws IOException {
+    final InputStream in;
+
+    in = new BufferedInputStream(new FileInputStream(file));
+    try {
+      BinaryLogFormat._read(in, null, null);
+    } catch (final Throwable t) {
+      in.close();
+      throw t;
+    }
+    return in;
+  }
+
+  /**
+   * Check whether a byte array begins with the magic number of binary log
+   * files
+   *
+   * @param data
+   *          the data
+   * @param length
+   *          the number of valid bytes in {@code data}
+   * @return {@code true} if the magic number was found, {@code false}
+   *         otherwise
+   */
+  static final boolean _isBinary(final byte[] data, final int length) {
+    int i;
+
+    if (length < BinaryLogFormat.MAGIC.length) {
+      return false;
+    }
+    for (i = BinaryLogFormat.MAGIC.length; (--i) >= 0;) {
+      if (data[i] != BinaryLogFormat.MAGIC[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Get the number of bytes of a zig-zag-encoded variable-length integer
+   *
+   * @param value
+   *          the value
+   * @return the number of bytes used to store {@code value}
+   */
+  private static final int __varintLength(final long value) {
+    long v;
+    int i;
+
+    v = ((value << 1) ^ (value >> 63));
+    for (i = 1; (v & (~0x7fl)) != 0l; i++) {
+      v >>>= 7;
+    }
+    return i;
+  }
+
+  /**
+   * Skip a number of bytes
+   *
+   * @param in
+   *          the input stream
+   * @param count
+   *          the number of bytes to skip
+   * @throws IOException
+   *           if the end of the stream is reached before
+   */
+  private static final void __skip(final InputStream in, final long count)
+      throws IOException {
+    long i;
+
+    for (i = count; i > 0l; i--) {
+      BinaryLogFormat.__read(in);
+    }
+  }
+
+  /**
+   * Find the last complete log point in a binary log file which has been
+   * interrupted while being written. The file is read only once, from its
+   * beginning to the end of its log data.
+   *
+   * @param in
+   *          the input stream, positioned at the beginning of the file
+   * @param point
+   *          an array receiving the offset of the last complete log point
+   *          at index {@code 0} and the offset after it at index
+   *          {@code 1}
+   * @return {@code true} if a complete log point was found,
+   *         {@code false} if the data is no binary log or does not
+   *         contain any complete log point
+   * @throws IOException
+   *           if reading fails or the data is malformed
+   */
+  static final boolean _lastComplete(final InputStream in,
+      final long[] point) throws IOException {
+    final int version;
+    boolean found;
+    long pos, start, value;
+    int type, k;
+
+    if (!(BinaryLogFormat.__magic(in))) {
+      return false;
+    }
+    version = in.read();
+    if (version < 0) {
+      return false;
+    }
+    pos = (BinaryLogFormat.MAGIC.length + 1);
+
+    found = false;
+    try {
+      // the three strings, the optimum, and the normalization factor
+      for (k = 3; (--k) >= 0;) {
+        value = BinaryLogFormat.__readVarint(in);
+        BinaryLogFormat.__skip(in, value);
+        pos += (BinaryLogFormat.__varintLength(value) + value);
+      }
+      pos += BinaryLogFormat.__varintLength(BinaryLogFormat
+          .__readVarint(in));
+      BinaryLogFormat.__skip(in, 8l);
+      pos += 8l;
+
+      for (;;) {
+        type = in.read();
+        if ((type < 0) || (type == BinaryLogFormat.END)) {
+          return found;
+        }
+        start = pos++;
+        for (k = ((version == BinaryLogFormat.VERSION_NO_CPU_TIME) ? 4 : 5); (--k) >= 0;) {
+          pos += BinaryLogFormat.__varintLength(BinaryLogFormat
+              .__readVarint(in));
+        }
+        point[0] = start;
+        point[1] = pos;
+        found = true;
+      }
+    } catch (final EOFException eof) {
+      return found; // the last log point is incomplete
+    }
+  }
+}
@@ -47,7 +47,12 @@ import org.logisticPlanning.utils.math.data.point.Point;
  * dimension is reasonably small) and sometimes it may be represented as
  * coordinate list and distances are calculated on the fly. All in all, the
  * runtime measured will strongly depend on the machine and runtime
- * environment under which the experiment was carried out.
+ * environment under which the experiment was carried out. Fourth, if
+ * several runs are executed in parallel, they compete for the CPUs. For
+ * this reason, the
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.LogPoint#getConsumedCPUTime()
+ * CPU time} consumed by the thread running the algorithm is recorded as
+ * well, which does not include the time the thread waited for a CPU.
  * </p>
  * </li>
  * <li id="logPointNormalizedRuntime">
@@ -153,14 +158,23 @@ public final class DataPoint extends LogPoint {
    */
   public static final int NORMALIZED_TIME_INDEX = (DataPoint.RELATIVE_F_INDEX + 1);
 
+  /**
+   * the index of the CPU time, to be used in the {@link #get(int)} method
+   */
+  public static final int CPU_TIME_INDEX = (DataPoint.NORMALIZED_TIME_INDEX + 1);
+
   /** the dimension of the data points */
-  public static final int DATA_POINT_DIMENSION = (DataPoint.NORMALIZED_TIME_INDEX + 1);
+  public static final int DATA_POINT_DIMENSION = (DataPoint.CPU_TIME_INDEX + 1);
 
   /** toString 6 */
   private static final char[] TS6 = { ',', ' ', 'r', 'f', '=' };
   /** toString 7 */
   private static final char[] TS7 = { ',', ' ', 'n', 't', 'i', 'm', 'e',
       '=' };
+  /** toString 8 */
+  private static final char[] TS8 = { ',', ' ', 'c', 'p', 'u', '=' };
+  /** toString 9 */
+  private static final char[] TS9 = { 'm', 's' };
 
   /**
    * the relative objective value, measured as
@@ -216,12 +230,54 @@ public final class DataPoint extends LogPoint {
       final boolean reasonFE, final boolean reasonDE,
       final boolean reasonF, final boolean reasonInitEnd,
       final boolean reasonAlgoEnd) {
+    this(fes, des, time, time, f, relF, normTime, reasonFE, reasonDE,
+        reasonF, reasonInitEnd, reasonAlgoEnd);
+  }
+
+  /**
+   * Create a new data point with the following information:
+   *
+   * @param fes
+   *          the consumed function evaluations
+   * @param des
+   *          the consumed distance evaluations
+   * @param time
+   *          the elapsed runtime
+   * @param cpuTime
+   *          the consumed CPU time
+   * @param f
+   *          the achieved objective function value
+   * @param relF
+   *          the relativized achieved objective value
+   * @param normTime
+   *          the normalized consumed time
+   * @param reasonFE
+   *          the point was generated because a specific number function
+   *          evaluations has been performed
+   * @param reasonDE
+   *          the point was generated because a specific number distance
+   *          evaluations has been performed
+   * @param reasonF
+   *          the point was generated because a objective value goal limit
+   *          has been reached
+   * @param reasonInitEnd
+   *          the point was generated because the initialization procedure
+   *          has ended
+   * @param reasonAlgoEnd
+   *          the point was generated because the algorithm has finished
+   */
+  public DataPoint(final long fes, final long des, final long time,
+      final long cpuTime, final long f, final double relF,
+      final double normTime, final boolean reasonFE,
+      final boolean reasonDE, final boolean reasonF,
+      final boolean reasonInitEnd, final boolean reasonAlgoEnd) {
     this();
 
     this.m_fe = fes;
     this.m_de = des;
     this.m_f = f;
     this.m_time = time;
+    this.m_cpuTime = cpuTime;
     this.m_relF = ((fes <= 0l) ? Double.POSITIVE_INFINITY : relF);
     this.m_normTime = normTime;
 
@@ -369,9 +425,11 @@ public final class DataPoint extends LogPoint {
    *          {@link org.logisticPlanning.tsp.benchmarking.objective.LogPoint#F_INDEX
    *          F_INDEX},
    *          {@link org.logisticPlanning.tsp.benchmarking.objective.DataPoint#RELATIVE_F_INDEX
-   *          RELATIVE_F_INDEX}, and
+   *          RELATIVE_F_INDEX},
    *          {@link org.logisticPlanning.tsp.benchmarking.objective.DataPoint#NORMALIZED_TIME_INDEX
-   *          NORMALIZED_TIME_INDEX}.
+   *          NORMALIZED_TIME_INDEX}, and
+   *          {@link org.logisticPlanning.tsp.benchmarking.objective.DataPoint#CPU_TIME_INDEX
+   *          CPU_TIME_INDEX}.
    * @return the value of the measure {@code dimension} stored in this data
    *         point
    */
@@ -397,6 +455,9 @@ public final class DataPoint extends LogPoint {
       case NORMALIZED_TIME_INDEX: {
         return this.m_normTime;
       }
+      case CPU_TIME_INDEX: {
+        return this.m_cpuTime;
+      }
       default: {
         throw new IndexOutOfBoundsException(String.valueOf(dimension));
       }
@@ -417,6 +478,9 @@ public final class DataPoint extends LogPoint {
     sb.append(this.m_relF);
     sb.append(DataPoint.TS7);
     sb.append(this.m_normTime);
+    sb.append(DataPoint.TS8);
+    sb.append(this.m_cpuTime);
+    sb.append(DataPoint.TS9);
   }
 
   /**
@@ -431,6 +495,7 @@ public final class DataPoint extends LogPoint {
     return ((p.m_de == this.m_de) && //
         (p.m_fe == this.m_fe) && //
         (p.m_time == this.m_time) && //
+        (p.m_cpuTime == this.m_cpuTime) && //
         (p.m_f == this.m_f) && //
         (p.m_type == this.m_type) && //
         (Double.doubleToLongBits(this.m_relF) == //
@@ -448,13 +513,14 @@ public final class DataPoint extends LogPoint {
    *         point, {@code false} otherwise
    */
   private final boolean __equalsPoint(final Point p) {
-    if (p.dimension() != LogPoint.LOG_POINT_DIMENSION) {
+    if (p.dimension() != DataPoint.DATA_POINT_DIMENSION) {
       return false;
     }
 
     return ((this.m_de == p.get(LogPoint.DE_INDEX)) && //
         (this.m_fe == p.get(LogPoint.FE_INDEX)) && //
         (this.m_time == p.get(LogPoint.TIME_INDEX)) && //
+        (this.m_cpuTime == p.get(DataPoint.CPU_TIME_INDEX)) && //
         (this.m_f == p.get(LogPoint.F_INDEX)) && //
         (Double.doubleToLongBits(this.m_relF) == //
         Double.doubleToLongBits(p.get(DataPoint.RELATIVE_F_INDEX))) && //
@@ -609,6 +675,11 @@ public final class DataPoint extends LogPoint {
               "years... I will not allow you this ^_^");//$NON-NLS-1$
     }
 
+    if (point.m_cpuTime < 0l) {
+      throw new IllegalArgumentException(//
+          "Consumed CPU time can never be less than zero, but is " + point.m_cpuTime); //$NON-NLS-1$
+    }
+
     if (point.m_f <= 0l) {
       throw new IllegalArgumentException(//
           "Objective value, i.e., total travel distance, can never be less than 1 but is " + point.m_f); //$NON-NLS-1$
@@ -685,6 +756,12 @@ public final class DataPoint extends LogPoint {
               after.m_time + " follows " + before.m_time);//$NON-NLS-1$
     }
 
+    if (before.m_cpuTime > after.m_cpuTime) {
+      throw new IllegalArgumentException(//
+          "Consumed CPU time cannot decrease, but " + //$NON-NLS-1$
+              after.m_cpuTime + " follows " + before.m_cpuTime);//$NON-NLS-1$
+    }
+
     if (before.m_f < after.m_f) {
       throw new IllegalArgumentException(//
           "Objective value of best known solution can never increase, but " + //$NON-NLS-1$
@@ -1,5 +1,9 @@
 package org.logisticPlanning.tsp.benchmarking.objective;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 import org.logisticPlanning.utils.math.data.point.Point;
 
 /**
@@ -261,6 +265,14 @@ public class LogPoint extends Point implements Comparable<LogPoint> {
    */
   long m_time;
 
+  /**
+   * the CPU time in milliseconds consumed by the thread running the
+   * algorithm
+   *
+   * @serial a positive-or-zero long value with the consumed CPU time
+   */
+  long m_cpuTime;
+
   /**
    * the objective value
    *
@@ -297,6 +309,7 @@ public class LogPoint extends Point implements Comparable<LogPoint> {
     this.m_de = 0l;
     this.m_fe = 0l;
     this.m_time = 0l;
+    this.m_cpuTime = 0l;
     this.m_f = Long.MAX_VALUE;
     this.m_type = 0;
   }
@@ -341,6 +354,20 @@ public class LogPoint extends Point implements Comparable<LogPoint> {
     return this.m_time;
   }
 
+  /**
+   * Get an estimate of the amount of CPU time in milliseconds that the
+   * thread running the algorithm has consumed until the current point in
+   * time. Different from the {@link #getConsumedRuntime() runtime}, the
+   * CPU time does not include the time the thread spent waiting for a
+   * CPU. If the JVM cannot measure the CPU time of threads, this is the
+   * same as the runtime.
+   *
+   * @return the amount of milliseconds of CPU time consumed.
+   */
+  public long getConsumedCPUTime() {
+    return this.m_cpuTime;
+  }
+
   /**
    * assign this log point to the values from another log point
    *
@@ -352,14 +379,49 @@ public class LogPoint extends Point implements Comparable<LogPoint> {
     this.m_f = p.m_f;
     this.m_fe = p.m_fe;
     this.m_time = p.m_time;
+    this.m_cpuTime = p.m_cpuTime;
     this.m_type = p.m_type;
   }
 
+  /**
+   * write the values of this log point to a checkpoint
+   *
+   * @param out
+   *          the output to write to
+   * @throws IOException
+   *           if the output fails
+   */
+  final void _write(final DataOutput out) throws IOException {
+    out.writeLong(this.m_de);
+    out.writeLong(this.m_f);
+    out.writeLong(this.m_fe);
+    out.writeLong(this.m_time);
+    out.writeLong(this.m_cpuTime);
+    out.writeInt(this.m_type);
+  }
+
+  /**
+   * read the values of this log point from a checkpoint
+   *
+   * @param in
+   *          the input to read from
+   * @throws IOException
+   *           if the input fails
+   */
+  final void _read(final DataInput in) throws IOException {
+    this.m_de = in.readLong();
+    this.m_f = in.readLong();
+    this.m_fe = in.readLong();
+    this.m_time = in.readLong();
+    this.m_cpuTime = in.readLong();
+    this.m_type = in.readInt();
+  }
+
   /**
    * Make a copy of the current information of this log point. The copy
    * will hold the information accessible via {@link #getBestF()},
-   * {@link #getConsumedDEs()}, {@link #getConsumedFEs()}, and
-   * {@link #getConsumedRuntime()}. This copy will be immutable, meaning
+   * {@link #getConsumedDEs()}, {@link #getConsumedFEs()},
+   * {@link #getConsumedRuntime()}, and {@link #getConsumedCPUTime()}. This copy will be immutable, meaning
    * that its contents will never change.
    *
    * @return A copy holding the current data of this log point.
@@ -412,6 +474,7 @@ public class LogPoint extends Point implements Comparable<LogPoint> {
     return ((p.m_de == this.m_de) && //
         (p.m_fe == this.m_fe) && //
         (p.m_time == this.m_time) && //
+        (p.m_cpuTime == this.m_cpuTime) && //
         (p.m_f == this.m_f) && //
     (p.m_type == this.m_type));
   }
@@ -1,12 +1,25 @@
 package org.logisticPlanning.tsp.benchmarking.objective;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
+import org.logisticPlanning.tsp.benchmarking.dist.RowCachedDistanceComputer;
+import org.logisticPlanning.tsp.benchmarking.dist.SpatialIndex;
+import org.logisticPlanning.tsp.solving.operators.permutation.update.PermutationUpdateOperator;
 import org.logisticPlanning.tsp.solving.utils.RepresentationUtils;
 import org.logisticPlanning.tsp.solving.utils.SolutionValidator;
 import org.logisticPlanning.utils.NamedObject;
@@ -1059,10 +1072,10 @@ import org.logisticPlanning.utils.math.random.Randomizer;
  * <td>
  *
  * <pre class="altColor">
- * public static void main(final String[] args) {
- *     {@link org.logisticPlanning.tsp.solving.TSPAlgorithmRunner TSPAlgorithmRunner}.{@link org.logisticPlanning.tsp.solving.TSPAlgorithmRunner#benchmark(org.logisticPlanning.utils.collections.lists.ArrayListView, java.lang.Class, java.lang.String[]) benchmark}({@link org.logisticPlanning.tsp.benchmarking.instances.Instance#SYMMETRIC_INSTANCES Instance.SYMMETRIC_INSTANCES},
- *         MyHeuristic.class,
- *         args);
+ * public static void main(final String[] args) {
+ *     {@link org.logisticPlanning.tsp.solving.TSPAlgorithmRunner TSPAlgorithmRunner}.{@link org.logisticPlanning.tsp.solving.TSPAlgorithmRunner#benchmark(org.logisticPlanning.utils.collections.lists.ArrayListView, java.lang.Class, java.lang.String[]) benchmark}({@link org.logisticPlanning.tsp.benchmarking.instances.Instance#SYMMETRIC_INSTANCES Instance.SYMMETRIC_INSTANCES},
+ *         MyHeuristic.class,
+ *         args);
  *   }
  * </pre>
  *
@@ -1179,22 +1192,22 @@ import org.logisticPlanning.utils.math.random.Randomizer;
  * <td>
  *
  * <pre class="altColor">
- * package test.junit.{@code MyPackage}.{@code MyHeuristic};
- * 
- * import {@code MyPackage}.{@code MyHeuristic};
- * 
- * import {@link test.junit.org.logisticPlanning.tsp.solving.algorithms.TSPAlgorithmSymmetricTest test.junit.org.logisticPlanning.tsp.solving.algorithms.TSPAlgorithmSymmetricTest};
- * 
- * public class {@code MyHeuristic}Test extends {@link test.junit.org.logisticPlanning.tsp.solving.algorithms.TSPAlgorithmSymmetricTest TSPAlgorithmSymmetricTest} {
- * 
- *   public {@code MyHeuristic}Test() {
- *     super();
- *   }
- * 
- *   {@code @Override}
- *   protected {@code MyHeuristic} createAlgorithm() {
- *     return new {@code MyHeuristic}();
- *   }
+ * package test.junit.{@code MyPackage}.{@code MyHeuristic};
+ * 
+ * import {@code MyPackage}.{@code MyHeuristic};
+ * 
+ * import {@link test.junit.org.logisticPlanning.tsp.solving.algorithms.TSPAlgorithmSymmetricTest test.junit.org.logisticPlanning.tsp.solving.algorithms.TSPAlgorithmSymmetricTest};
+ * 
+ * public class {@code MyHeuristic}Test extends {@link test.junit.org.logisticPlanning.tsp.solving.algorithms.TSPAlgorithmSymmetricTest TSPAlgorithmSymmetricTest} {
+ * 
+ *   public {@code MyHeuristic}Test() {
+ *     super();
+ *   }
+ * 
+ *   {@code @Override}
+ *   protected {@code MyHeuristic} createAlgorithm() {
+ *     return new {@code MyHeuristic}();
+ *   }
  * }
  * </pre>
  *
@@ -1390,6 +1403,48 @@ import org.logisticPlanning.utils.math.random.Randomizer;
  * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#PARAM_DEST_DIR
  * outputDir} is the output folder you have defined.
  * </p>
+ * <p id="checkpoints">
+ * Long runs do not need to be started from scratch after such a crash,
+ * either: If the
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#PARAM_CHECKPOINT_INTERVAL
+ * checkpointInterval} parameter is set, an algorithm which supports it
+ * periodically asks {@link #shouldCheckpoint()} whether it should store
+ * its state. If so, it obtains a stream from
+ * {@link #beginCheckpoint(Object)}, which already contains the state of
+ * the objective function (the counters, the log points, the best
+ * solution, the random number generator, and the consumed time), writes
+ * its own search state (e.g., its population or current tour) to it, and
+ * then calls {@link #endCheckpoint()}. When the benchmarker is started
+ * again, the interrupted run is picked up, the state of the objective
+ * function is restored, and the algorithm can obtain its own state via
+ * {@link #resumeCheckpoint(Object)}. The run then continues with the
+ * same FE and DE counters and the time consumed before the interruption
+ * is added to all time measurements, just like the time consumed by a <a
+ * href="#detInit">deterministic initialization procedure</a>.
+ * </p>
+ * <p id="concurrency">
+ * An objective function is normally used by a single thread. An algorithm
+ * which wants to use several threads within one run obtains one
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveWorker
+ * worker} per thread via {@link #createWorker()}. Each worker has its own
+ * random number generator and counts its distance evaluations locally,
+ * adding them to the shared DE counter in batches of {@code n}. The FEs
+ * are counted in a shared atomic counter and a better tour is published
+ * as an immutable snapshot via compare-and-set, so that the threads only
+ * synchronize when one of them finds a better tour or passes an FE or DE
+ * log point. The log points are then checked under a lock in exactly the
+ * same way as in a sequential run, which ensures that each of them is
+ * taken exactly once and that the log files of concurrent and sequential
+ * runs can be compared and evaluated in the same way. There are three
+ * differences, though: The DE counter of a log point may lag behind the
+ * actual number of DEs by the DEs of the other workers not yet added to
+ * the shared counter, i.e., by less than {@code n} per worker. The
+ * consumed CPU time is the CPU time of the thread which has begun the
+ * run, so the
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#PARAM_CPU_TIME_LIMIT
+ * CPU time limit} should not be used for concurrent runs. And the
+ * {@link #beginMoves(int[], long) move journal} is not available.
+ * </p>
  * <h2>Command Line Parameters of the Benchmarking Environment</h2>
  * <p id="jarCommandLine">
  * The benchmarking environment and running can be parameterized via
@@ -1958,7 +2013,8 @@ public final class ObjectiveFunction extends DistanceComputer {
       { '/', '/', ' ', 'F', 'o', 'r', 'm', 'a', 't', ':', ' ', 'F', 'E',
           ' ', 'D', 'E', ' ', 't', 'i', 'm', 'e', ' ', 'n', 't', 'i', 'm',
           'e', ' ', 'b', 'e', 's', 't', '_', 'F', ' ', 'b', 'e', 's', 't',
-          '_', 'F', '_', 'f', 'r', 'a', 'c', ' ', 't', 'y', 'p', 'e' }, //
+          '_', 'F', '_', 'f', 'r', 'a', 'c', ' ', 'c', 'p', 'u', '_', 't',
+          'i', 'm', 'e', ' ', 't', 'y', 'p', 'e' }, //
       { '/', '/', ' ', 'W', 'h', 'e', 'r', 'e', ':', ' ', '"', 'F', 'E',
           '"', ' ', 'i', 's', ' ', 't', 'h', 'e', ' ', 'n', 'u', 'm', 'b',
           'e', 'r', ' ', 'o', 'f', ' ', 'f', 'u', 'l', 'l', 'y', ' ', 'c',
@@ -2002,6 +2058,14 @@ public final class ObjectiveFunction extends DistanceComputer {
           ' ', 'o', 'f', ' ', 't', 'h', 'e', ' ', 'k', 'n', 'o', 'w', 'n',
           ' ', 'g', 'l', 'o', 'b', 'a', 'l', ' ', 'o', 'p', 't', 'i', 'm',
           'u', 'm', '.' }, //
+      { '/', '/', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', '"', 'c', 'p',
+          'u', '_', 't', 'i', 'm', 'e', '"', ' ', 'i', 's', ' ', 't', 'h',
+          'e', ' ', 'C', 'P', 'U', ' ', 't', 'i', 'm', 'e', ' ', 'i', 'n',
+          ' ', 'm', 'i', 'l', 'l', 'i', 's', 'e', 'c', 'o', 'n', 'd', 's',
+          ' ', 'c', 'o', 'n', 's', 'u', 'm', 'e', 'd', ' ', 'b', 'y', ' ',
+          't', 'h', 'e', ' ', 't', 'h', 'r', 'e', 'a', 'd', ' ', 'r', 'u',
+          'n', 'n', 'i', 'n', 'g', ' ', 't', 'h', 'e', ' ', 'a', 'l', 'g',
+          'o', 'r', 'i', 't', 'h', 'm', '.' }, //
       { '/', '/', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', '"', 't', 'y',
           'p', 'e', '"', ' ', 'i', 's', ' ', 't', 'h', 'e', ' ', 'c', 'a',
           'u', 's', 'e', ' ', 'o', 'f', ' ', 't', 'h', 'e', ' ', 'l', 'o',
@@ -2239,6 +2303,29 @@ public final class ObjectiveFunction extends DistanceComputer {
   public static final String END_DATE = "endTime";//$NON-NLS-1$
   /** maximum runtime: {@value} */
   public static final String RUN_TIME = "runTime";//$NON-NLS-1$
+  /** the CPU time consumed by the run in milliseconds: {@value} */
+  public static final String CPU_TIME = "cpuTime";//$NON-NLS-1$
+  /** the runtime in nanoseconds: {@value} */
+  public static final String RUN_TIME_NANOS = "runTimeNanos";//$NON-NLS-1$
+  /** the CPU time consumed by the run in nanoseconds: {@value} */
+  public static final String CPU_TIME_NANOS = "cpuTimeNanos";//$NON-NLS-1$
+  /** the time spent in garbage collection during the run: {@value} */
+  public static final String GC_TIME = "gcTime";//$NON-NLS-1$
+  /** the number of garbage collections during the run: {@value} */
+  public static final String GC_COUNT = "gcCount";//$NON-NLS-1$
+  /**
+   * the time in milliseconds by which the run has exceeded its runtime
+   * limit before it stopped, {@code 0} if it stopped in time: {@value}
+   */
+  public static final String TERMINATION_DELAY = "terminationDelay";//$NON-NLS-1$
+  /**
+   * was the run interrupted, i.e., has its log been completed up to its
+   * last log point when the benchmark was started again after the process
+   * performing it had died ({@value})? This key only appears, with the
+   * value {@code true}, in the benchmark information section of such
+   * logs.
+   */
+  public static final String INTERRUPTED = "interrupted";//$NON-NLS-1$
 
   /** a prefix for the system properties: {@value} */
   public static final String SYS_PROP_PREFIX = "sysProp_";//$NON-NLS-1$
@@ -2367,6 +2454,44 @@ public final class ObjectiveFunction extends DistanceComputer {
   /** the total memory: {@value} */
   public static final String TOTAL_MEMORY = "totalMemory";//$NON-NLS-1$
 
+  /**
+   * the time in milliseconds it took to load the distance computer,
+   * including building the distance matrix (if any), which is not part of
+   * the runtime of the algorithm: {@value}
+   */
+  public static final String DISTANCE_COMPUTER_BUILD_TIME = "distanceComputerBuildTime";//$NON-NLS-1$
+
+  /**
+   * the number of distance queries answered by the row cache of the
+   * distance computer so far, if a row cache is used (the cache is shared
+   * by all runs on the same benchmark): {@value}
+   */
+  public static final String DISTANCE_ROW_CACHE_HITS = "distanceRowCacheHits";//$NON-NLS-1$
+
+  /**
+   * the number of distance queries not answered by the row cache of the
+   * distance computer so far, if a row cache is used: {@value}
+   */
+  public static final String DISTANCE_ROW_CACHE_MISSES = "distanceRowCacheMisses";//$NON-NLS-1$
+
+  /**
+   * the number of runs in this JVM so far which have stopped after their
+   * runtime limit: {@value}
+   */
+  public static final String LATE_TERMINATIONS = "lateTerminations";//$NON-NLS-1$
+
+  /**
+   * the total time in milliseconds by which the runs in this JVM so far
+   * have exceeded their runtime limit: {@value}
+   */
+  public static final String TOTAL_TERMINATION_DELAY = "totalTerminationDelay";//$NON-NLS-1$
+
+  /**
+   * the maximum time in milliseconds by which a run in this JVM so far has
+   * exceeded its runtime limit: {@value}
+   */
+  public static final String MAX_TERMINATION_DELAY = "maxTerminationDelay";//$NON-NLS-1$
+
   /**
    * the beginning of the section with information about the algorithm
    * creator and experimentor: {@value}
@@ -2566,13 +2691,16 @@ public final class ObjectiveFunction extends DistanceComputer {
    * computer could be a symmetric or asymmetric distance matrix or be
    * based on a coordinate list, depending on the size of the problem and
    * the parameter
-   * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#m_limitDim}
+   * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#m_limitBytes}
    * .
    *
    * @serial the non-null instance of the distance computer
    */
   private final DistanceComputer m_dist;
 
+  /** the time in milliseconds it took to load the distance computer */
+  private final long m_distBuildTime;
+
   /**
    * the pre-allocated array with log points
    *
@@ -2610,6 +2738,19 @@ public final class ObjectiveFunction extends DistanceComputer {
    */
   private transient File m_file;
 
+  /**
+   * the writer which streams the log points to {@link #m_file} during the
+   * run, or {@code null} if the log is written only at the
+   * {@link #endRun() end of the run}
+   */
+  private transient _LogWriter m_writer;
+
+  /**
+   * the number of log points in {@link #m_log} which have been handed to
+   * {@link #m_writer}
+   */
+  private transient int m_streamed;
+
   /**
    * the next Function evaluation where a log point should be taken
    *
@@ -2713,6 +2854,64 @@ public final class ObjectiveFunction extends DistanceComputer {
    */
   long m_endTime;
 
+  /**
+   * the start time, obtained from {@link java.lang.System#nanoTime()}
+   *
+   * @serial a {@code long} time value
+   */
+  private long m_startNanos;
+
+  /**
+   * the CPU time of the running thread at the start of the run, in
+   * nanoseconds, or {@code -1} if it cannot be measured
+   *
+   * @serial a {@code long} time value
+   */
+  private long m_startCPU;
+
+  /**
+   * the id of the thread running the algorithm
+   *
+   * @serial a {@code long} thread id
+   */
+  long m_thread;
+
+  /**
+   * should the {@link Benchmark#m_maxTime runtime limit} apply to the CPU
+   * time instead of the elapsed time?
+   *
+   * @serial a {@code boolean}
+   */
+  boolean m_cpuLimit;
+
+  /**
+   * the elapsed runtime in nanoseconds, as of the last update
+   *
+   * @serial a {@code long} time value
+   */
+  private long m_runNanos;
+
+  /**
+   * the consumed CPU time in nanoseconds, as of the last update
+   *
+   * @serial a {@code long} time value
+   */
+  private long m_cpuNanos;
+
+  /**
+   * the total garbage collection time at the start of the run
+   *
+   * @serial a {@code long} time value
+   */
+  private long m_startGCTime;
+
+  /**
+   * the total number of garbage collections at the start of the run
+   *
+   * @serial a {@code long} value
+   */
+  private long m_startGCCount;
+
   /**
    * the best candidate solution found in <a
    * href="#pathRepresentation">path representation</a>.
@@ -2721,6 +2920,55 @@ public final class ObjectiveFunction extends DistanceComputer {
    */
   private final int[] m_bestX;
 
+  /**
+   * the base tour of the move journal in <a
+   * href="#pathRepresentation">path representation</a>, set by
+   * {@link #beginMoves(int[], long)}
+   *
+   * @serial an integer array, or {@code null} if no moves have been
+   *         registered yet
+   */
+  private int[] m_moveBase;
+
+  /**
+   * the operators of the moves registered via
+   * {@link #registerMove(long, PermutationUpdateOperator, int, int)}
+   * since the base tour was set
+   *
+   * @serial an array of update operators
+   */
+  private PermutationUpdateOperator[] m_moveOps;
+
+  /**
+   * the two index parameters of each journaled move, interleaved
+   *
+   * @serial an integer array
+   */
+  private int[] m_moveIdx;
+
+  /**
+   * the number of journaled moves, or {@code -1} if no base tour has been
+   * set in the current run
+   *
+   * @serial an integer value
+   */
+  private int m_moveCount;
+
+  /**
+   * the number of journaled moves which lead to the best solution, or
+   * {@code -1} if {@link #m_bestX} is up-to-date
+   *
+   * @serial an integer value
+   */
+  private int m_moveBest;
+
+  /**
+   * the tour length of the base tour after applying all journaled moves
+   *
+   * @serial a long value
+   */
+  private long m_moveF;
+
   /**
    * Should we take a log point when the next FE or DE boundary is reached?
    * This is only necessary if an improvement was made.
@@ -2838,12 +3086,34 @@ public final class ObjectiveFunction extends DistanceComputer {
   private long m_i_randSeed;
 
   /**
-   * the time offset to be added to all runtime information, obtained from
-   * {@link java.lang.System#currentTimeMillis()}
+   * the elapsed runtime in nanoseconds of the initialization process
+   *
+   * @serial a {@code long} time value
+   */
+  private long m_i_runNanos;
+
+  /**
+   * the CPU time in nanoseconds consumed by the initialization process
+   *
+   * @serial a {@code long} time value
+   */
+  private long m_i_cpuNanos;
+
+  /**
+   * the time offset in nanoseconds to be added to all runtime
+   * information, obtained from {@link java.lang.System#nanoTime()}
+   *
+   * @serial a {@code long} time value
+   */
+  private long m_nanos_offset;
+
+  /**
+   * the time offset in nanoseconds to be added to all CPU time
+   * information
    *
    * @serial a {@code long} time value
    */
-  private long m_time_offset;
+  private long m_cpu_offset;
 
   /**
    * the factor used to <a href="#timeNormalization">normalize</a> the
@@ -2874,8 +3144,53 @@ public final class ObjectiveFunction extends DistanceComputer {
    */
   private Throwable m_exceptionDuringRun;
 
-  /** a linked list link */
-  volatile transient ObjectiveFunction m_next;
+  /** the deadline scheduled in the termination thread */
+  volatile transient _Deadline m_deadline;
+
+  /** the checkpoint of the current run, or {@code null} if none is made */
+  private transient _Checkpoint m_checkpoint;
+
+  /**
+   * the value of {@link java.lang.System#nanoTime()} at which the next
+   * checkpoint is due
+   */
+  private transient long m_nextCheckpoint;
+
+  /** the buffer receiving the checkpoint currently being written */
+  private transient ByteArrayOutputStream m_checkpointBuffer;
+
+  /** the stream of the checkpoint currently being written */
+  private transient ObjectOutputStream m_checkpointOut;
+
+  /**
+   * the stream with the state of the algorithm if the run has been
+   * resumed from a checkpoint and the algorithm has not yet obtained it
+   */
+  private transient ObjectInputStream m_resumed;
+
+  /**
+   * the worker used by the thread which has begun the run if the run is
+   * {@link #createWorker() concurrent}, or {@code null} if it is not
+   */
+  private transient ObjectiveWorker m_main;
+
+  /** the workers of the concurrent run */
+  private transient ArrayList<ObjectiveWorker> m_workers;
+
+  /** the FE counter of the concurrent run */
+  private transient AtomicLong m_cFEs;
+
+  /** the DE counter of the concurrent run */
+  private transient AtomicLong m_cDEs;
+
+  /** the best tour of the concurrent run */
+  private transient AtomicReference<_BestTour> m_cBest;
+
+  /** the next FE log point of the concurrent run */
+  volatile transient long m_cNextFE;
+
+  /** the next DE log point of the concurrent run */
+  volatile transient long m_cNextDE;
 
   /**
    * create the objective function
@@ -2897,6 +3212,7 @@ public final class ObjectiveFunction extends DistanceComputer {
     this.m_maxFEs = benchmark.m_maxFEs;
     this.m_optimum = benchmark.m_instance.optimum();
     this.m_dist = benchmark.m_dist;
+    this.m_distBuildTime = benchmark.m_distBuildTime;
 
     this.m_valuesToLog = benchmark.m_valuesToLog;
     this.m_FEsDEsToLog = benchmark.m_FEsDEsToLog;
@@ -2913,6 +3229,8 @@ public final class ObjectiveFunction extends DistanceComputer {
     i = this.n();
     this.m_bestX = new int[i];
     this.m_i_bestX = new int[i];
+    this.m_moveCount = (-1);
+    this.m_moveBest = (-1);
     this.m_calendar = new GregorianCalendar();
 
     this.m_state = ObjectiveFunction.STATE_NOTHING;
@@ -3028,6 +3346,9 @@ public final class ObjectiveFunction extends DistanceComputer {
    * @return the number of performed function evaluations (FEs)
    */
   public final LogPoint getCurrentLogPoint() {
+    if (this.m_main != null) {
+      this.__syncConcurrent();
+    }
     return this.m_currentLP;
   }
 
@@ -3038,7 +3359,11 @@ public final class ObjectiveFunction extends DistanceComputer {
    * {@link #evaluate(int[])}, etc., and its performance will automatically
    * be measured and logged in memory. Once the run has {@link #endRun()
    * ended} (and {@link #endRun()} is called), the logged information will
-   * be written to a log file.
+   * be written to a log file. If several processes share the result
+   * directory under
+   * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#PARAM_LEASE_TIMEOUT
+   * leases} and they have already claimed all runs, the run is not logged
+   * and {@link #shouldTerminate()} is {@code true} right away.
    *
    * @param algorithm
    *          the algorithm object
@@ -3059,6 +3384,8 @@ public final class ObjectiveFunction extends DistanceComputer {
    */
   @SuppressWarnings("incomplete-switch")
   final void _beginRun(final NamedObject algorithm, final boolean makeFile) {
+    final String prefix;
+    _Checkpoint cp;
 
     switch (this.m_state) {
       case ObjectiveFunction.STATE_IN_RUN: {
@@ -3076,12 +3403,305 @@ public final class ObjectiveFunction extends DistanceComputer {
     this.m_exceptionDuringRun = null;
 
     this.m_algorithm = algorithm;
+    cp = null;
     if (makeFile) {
-      this.m_file = this.m_benchmark._getFile(ObjectiveFunction
-          .__makeName(this.m_algorithm, this.m_initializer));
+      prefix = ObjectiveFunction.__makeName(this.m_algorithm,
+          this.m_initializer);
+      // interrupted runs are resumed before new runs are started
+      cp = this.m_benchmark._resume(prefix);
+      if (cp != null) {
+        this.m_file = cp.m_log;
+      } else {
+        this.m_file = this.m_benchmark._getFile(prefix);
+        if ((this.m_file != null)
+            && (this.m_benchmark.m_checkpointInterval > 0l)) {
+          try {
+            cp = _Checkpoint._create(this.m_file);
+          } catch (final IOException ioe) {
+            throw new RuntimeException(ioe);
+          }
+        }
+      }
+      if ((this.m_file != null) && this.m_benchmark.m_streamLog) {
+        try {
+          this.m_writer = new _LogWriter(this, this.m_file);
+        } catch (final IOException ioe) {
+          throw new RuntimeException(ioe);
+        }
+      }
     }
 
     this.__begin(this.m_initializer != null);
+    if (cp != null) {
+      this.__beginCheckpoints(cp);
+    }
+    if (makeFile && (this.m_file == null)) {
+      // all runs have been claimed by other processes: this run is not
+      // needed anymore and will not be logged
+      this.m_terminate = true;
+    }
+  }
+
+  /**
+   * Start making checkpoints for the current run and restore the state
+   * of the run if it is resumed from a checkpoint
+   *
+   * @param cp
+   *          the checkpoint of the run
+   */
+  private final void __beginCheckpoints(final _Checkpoint cp) {
+    final byte[] data;
+    final long interval, now;
+    ObjectInputStream in;
+
+    this.m_checkpoint = cp;
+    interval = this.m_benchmark.m_checkpointInterval;
+    this.m_nextCheckpoint = (System.nanoTime() + //
+    ((interval < (Long.MAX_VALUE >>> 21l)) ? (interval * 1000000l)
+        : (Long.MAX_VALUE >>> 1l)));
+
+    data = cp._read();
+    if (data == null) {
+      return;
+    }
+
+    try {
+      in = new ObjectInputStream(new ByteArrayInputStream(data));
+      this.__readState(in);
+    } catch (final IOException ioe) {
+      // the checkpoint is unusable: perform the run from scratch
+      this.__begin(this.m_initializer != null);
+      return;
+    }
+    this.m_resumed = in;
+
+    // the time consumed before the interruption is added to all time
+    // measurements, just like the time of a deterministic initialization
+    this.m_nanos_offset = this.m_runNanos;
+    this.m_cpu_offset = this.m_cpuNanos;
+    this.m_startCPU = _Clocks._cpuTime(this.m_thread);
+    this.m_startNanos = System.nanoTime();
+    now = System.currentTimeMillis();
+    this.m_endTime = (now + this.m_benchmark.m_maxTime);
+    if (this.m_endTime < now) {
+      this.m_endTime = Long.MAX_VALUE;
+    } else {
+      this.m_endTime -= (this.m_runNanos / 1000000l);
+    }
+    _TerminationThread._enqueue(this);
+  }
+
+  /**
+   * Write the state of the current run to a checkpoint
+   *
+   * @param out
+   *          the output to write to
+   * @throws IOException
+   *           if the output fails
+   */
+  private final void __writeState(final DataOutput out) throws IOException {
+    final int[] x;
+    int i;
+
+    this.__materializeBest();
+    this.__updateTime(this.m_currentLP);
+
+    out.writeInt(this.m_logSize);
+    for (i = 0; i < this.m_logSize; i++) {
+      this.m_log[i]._write(out);
+    }
+    this.m_currentLP._write(out);
+    this.m_lastImprovementLP._write(out);
+
+    out.writeInt(this.m_fIdx);
+    out.writeLong(this.m_nextF);
+    out.writeInt(this.m_deIdx);
+    out.writeLong(this.m_nextDE);
+    out.writeInt(this.m_feIdx);
+    out.writeLong(this.m_nextFE);
+
+    x = this.m_bestX;
+    out.writeInt(x.length);
+    for (final int v : x) {
+      out.writeInt(v);
+    }
+
+    out.writeLong(this.m_randSeed);
+    this.m_r.saveState(out);
+
+    out.writeLong(this.m_startTime);
+    out.writeLong(this.m_runNanos);
+    out.writeLong(this.m_cpuNanos);
+    out.writeLong(_Clocks._gcTime() - this.m_startGCTime);
+    out.writeLong(_Clocks._gcCount() - this.m_startGCCount);
+
+    out.writeBoolean(this.m_fimproved);
+    out.writeBoolean(this.m_shouldLog);
+  }
+
+  /**
+   * Restore the state of the current run from a checkpoint
+   *
+   * @param in
+   *          the input to read from
+   * @throws IOException
+   *           if the input fails or the checkpoint does not fit to the
+   *           problem instance
+   */
+  private final void __readState(final DataInput in) throws IOException {
+    final int[] x;
+    int i;
+
+    i = in.readInt();
+    if ((i < 0) || (i > this.m_log.length)) {
+      throw new IOException("Invalid number of log points: " + i); //$NON-NLS-1$
+    }
+    this.m_logSize = i;
+    for (i = 0; i < this.m_logSize; i++) {
+      this.m_log[i]._read(in);
+    }
+    this.m_currentLP._read(in);
+    this.m_lastImprovementLP._read(in);
+
+    this.m_fIdx = in.readInt();
+    this.m_nextF = in.readLong();
+    this.m_deIdx = in.readInt();
+    this.m_nextDE = in.readLong();
+    this.m_feIdx = in.readInt();
+    this.m_nextFE = in.readLong();
+
+    x = this.m_bestX;
+    if (in.readInt() != x.length) {
+      throw new IOException("Checkpoint does not fit to the instance."); //$NON-NLS-1$
+    }
+    for (i = 0; i < x.length; i++) {
+      x[i] = in.readInt();
+    }
+
+    this.m_randSeed = in.readLong();
+    this.m_r.loadState(in);
+
+    this.m_startTime = in.readLong();
+    this.m_runNanos = in.readLong();
+    this.m_cpuNanos = in.readLong();
+    this.m_startGCTime -= in.readLong();
+    this.m_startGCCount -= in.readLong();
+
+    this.m_fimproved = in.readBoolean();
+    this.m_shouldLog = in.readBoolean();
+  }
+
+  /**
+   * Should the algorithm store its state in a checkpoint now? This is the
+   * case if
+   * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#PARAM_CHECKPOINT_INTERVAL
+   * checkpointing} is enabled and the checkpoint interval has elapsed
+   * since the last checkpoint. This method is cheap and can be called in
+   * each iteration or generation of an algorithm.
+   *
+   * @return {@code true} if a checkpoint should be made, {@code false}
+   *         otherwise
+   * @see #beginCheckpoint(Object)
+   */
+  public final boolean shouldCheckpoint() {
+    return ((this.m_checkpoint != null) && (this.m_checkpointOut == null)
+        && (!(this.m_terminate)) && //
+    ((System.nanoTime() - this.m_nextCheckpoint) >= 0l));
+  }
+
+  /**
+   * Begin a checkpoint. The state of the objective function is written to
+   * the returned stream, after which the algorithm writes its own state.
+   * The checkpoint is stored by {@link #endCheckpoint()}.
+   *
+   * @param owner
+   *          the algorithm making the checkpoint, which must be the same
+   *          object passed to {@link #resumeCheckpoint(Object)}
+   * @return the stream to write the state of the algorithm to
+   * @throws IOException
+   *           if the state cannot be written
+   * @see #shouldCheckpoint()
+   */
+  public final ObjectOutputStream beginCheckpoint(final Object owner)
+      throws IOException {
+    final ObjectOutputStream out;
+
+    if ((this.m_state != ObjectiveFunction.STATE_IN_RUN)
+        || (this.m_checkpoint == null) || (this.m_checkpointOut != null)) {
+      throw new IllegalStateException(//
+          "Cannot begin checkpoint."); //$NON-NLS-1$
+    }
+
+    if (this.m_main != null) {
+      this.__syncConcurrent();
+    }
+    this.m_checkpointBuffer = new ByteArrayOutputStream();
+    out = new ObjectOutputStream(this.m_checkpointBuffer);
+    this.__writeState(out);
+    out.writeUTF(owner.getClass().getName());
+    this.m_checkpointOut = out;
+    return out;
+  }
+
+  /**
+   * Store the checkpoint begun with {@link #beginCheckpoint(Object)}.
+   *
+   * @throws IOException
+   *           if the checkpoint cannot be stored
+   */
+  public final void endCheckpoint() throws IOException {
+    final ObjectOutputStream out;
+    final byte[] data;
+    final long interval;
+
+    out = this.m_checkpointOut;
+    if (out == null) {
+      throw new IllegalStateException(//
+          "No checkpoint has been begun."); //$NON-NLS-1$
+    }
+    try {
+      out.flush();
+      data = this.m_checkpointBuffer.toByteArray();
+      this.m_checkpoint._write(data, data.length);
+    } finally {
+      this.m_checkpointOut = null;
+      this.m_checkpointBuffer = null;
+      interval = this.m_benchmark.m_checkpointInterval;
+      this.m_nextCheckpoint = (System.nanoTime() + //
+      ((interval < (Long.MAX_VALUE >>> 21l)) ? (interval * 1000000l)
+          : (Long.MAX_VALUE >>> 1l)));
+    }
+  }
+
+  /**
+   * Obtain the state which the algorithm has written to its latest
+   * checkpoint before the run was interrupted. The state of the objective
+   * function has already been restored when the run began. This method
+   * returns the state only once, so it must be called at the beginning of
+   * the run, before the algorithm creates its initial state.
+   *
+   * @param owner
+   *          the algorithm which has made the checkpoint
+   * @return the stream to read the state of the algorithm from, or
+   *         {@code null} if the run is not resumed from a checkpoint made
+   *         by an algorithm of the same class
+   */
+  public final ObjectInputStream resumeCheckpoint(final Object owner) {
+    final ObjectInputStream in;
+
+    in = this.m_resumed;
+    if (in == null) {
+      return null;
+    }
+    this.m_resumed = null;
+    try {
+      if (owner.getClass().getName().equals(in.readUTF())) {
+        return in;
+      }
+    } catch (final IOException ioe) {
+      // fall through
+    }
+    return null;
   }
 
   /**
@@ -3256,6 +3876,10 @@ public final class ObjectiveFunction extends DistanceComputer {
    *          use the results from the initialization procedure (or not)
    */
   private final void __begin(final boolean useInit) {
+    this.m_moveCount = (-1);
+    this.m_moveBest = (-1);
+    this.m_streamed = 0;
+
     if (useInit) {
       this.m_logSize = this.m_i_logSize;
 
@@ -3273,9 +3897,13 @@ public final class ObjectiveFunction extends DistanceComputer {
 
       System.arraycopy(this.m_i_bestX, 0, this.m_bestX, //
           0, this.m_bestX.length);
+
+      this.m_nanos_offset = this.m_i_runNanos;
+      this.m_cpu_offset = this.m_i_cpuNanos;
     } else {
       this.m_logSize = 0;
-      this.m_time_offset = 0l;
+      this.m_nanos_offset = 0l;
+      this.m_cpu_offset = 0l;
 
       this.m_currentLP.initExtreme();
       this.m_lastImprovementLP.initExtreme();
@@ -3296,6 +3924,12 @@ public final class ObjectiveFunction extends DistanceComputer {
 
     this.m_r.setSeed(this.m_randSeed = this.m_r.nextLong());
 
+    this.m_cpuLimit = this.m_benchmark.m_cpuTimeLimit;
+    this.m_thread = Thread.currentThread().getId();
+    this.m_startGCTime = _Clocks._gcTime();
+    this.m_startGCCount = _Clocks._gcCount();
+    this.m_startCPU = _Clocks._cpuTime(this.m_thread);
+    this.m_startNanos = System.nanoTime();
     this.m_startTime = System.currentTimeMillis();
     this.m_endTime = (this.m_startTime + this.m_benchmark.m_maxTime);
 
@@ -3313,7 +3947,6 @@ public final class ObjectiveFunction extends DistanceComputer {
   /** the deterministic initialization procedure has finished */
   public final void endDeterministicInitialization() {
     final LogPoint cur, lp;
-    final long t;
     int ls;
 
     this.m_terminate = true;
@@ -3327,8 +3960,7 @@ public final class ObjectiveFunction extends DistanceComputer {
       cur = this.m_currentLP;
 
       // update the time variables
-      t = System.currentTimeMillis();
-      cur.m_time = ((t - this.m_startTime));
+      this.__updateTime(cur);
 
       ls = this.m_logSize;
       shouldWeLog: {
@@ -3356,6 +3988,7 @@ public final class ObjectiveFunction extends DistanceComputer {
       if ((this.m_initLP.m_fe <= this.m_lastImprovementLP.m_fe)
           && (this.m_initLP.m_de <= this.m_lastImprovementLP.m_de)) {
         this.m_lastImprovementLP.m_time = this.m_initLP.m_time;
+        this.m_lastImprovementLP.m_cpuTime = this.m_initLP.m_cpuTime;
       }
 
       this.m_i_fIdx = this.m_fIdx;
@@ -3370,11 +4003,13 @@ public final class ObjectiveFunction extends DistanceComputer {
       this.m_i_randSeed = this.m_randSeed;
       this.m_i_startTime = this.m_startTime;
 
+      this.__materializeBest();
       System.arraycopy(this.m_bestX, 0, this.m_i_bestX, //
           0, this.m_bestX.length);
 
-      this.m_time_offset = this.m_initLP.m_time;
-      this.m_i_endTime = (this.m_i_startTime + this.m_time_offset);
+      this.m_i_runNanos = this.m_runNanos;
+      this.m_i_cpuNanos = this.m_cpuNanos;
+      this.m_i_endTime = (this.m_i_startTime + this.m_initLP.m_time);
     } finally {
       this.m_terminate = true;
       this.m_state = ObjectiveFunction.STATE_NOTHING;
@@ -3382,34 +4017,270 @@ public final class ObjectiveFunction extends DistanceComputer {
   }
 
   /**
-   * This method must be called when one run has finished. It will flush
-   * the in-memory log data to the output file.
+   * Print the head of the log file, up to and including the begin of the
+   * {@link #LOG_DATA_SECTION log data section}, or the header of a
+   * {@link org.logisticPlanning.tsp.benchmarking.objective.BinaryLogFormat
+   * binary log file}.
+   *
+   * @param ps
+   *          the print stream
    */
-  public final void endRun() {
-    final long opt, t, fm, tm, mm;
-    final double optm;
-    final Runtime rt;
-    final LogPoint cur, lp;
-    int i, ls, type;
-    LogPoint p;
+  final void _printHeader(final PrintStream ps) {
+    final String algorithm, initializer;
 
-    this.m_terminate = true;
-    _TerminationThread._dequeue(this);
+    if (this.m_algorithm != null) {
+      algorithm = this.m_algorithm.name();
+      initializer = ((this.m_initializer != null) ? this.m_initializer
+          .name() : null);
+    } else {
+      algorithm = initializer = null;
+    }
 
-    if (this.m_state != ObjectiveFunction.STATE_IN_RUN) {
-      throw new IllegalStateException(
-          "Cannot end run, as no run was started."); //$NON-NLS-1$
+    if (this.m_benchmark.m_binaryLog) {
+      BinaryLogFormat._writeHeader(this.m_benchmark.m_instance.name(),
+          algorithm, initializer, this.m_optimum,
+          this.m_timeNormalizationFactor, ps);
+    } else {
+      ObjectiveFunction._printTextHeader(algorithm, initializer,
+          this.m_benchmark.m_instance.name(),
+          this.m_benchmark.m_instance.symmetric(), ps);
     }
-    try {
-      cur = this.m_currentLP;
+  }
 
-      // update the time variables
-      t = System.currentTimeMillis();
-      cur.m_time = ((t - this.m_startTime) + this.m_time_offset);
+  /**
+   * Print the head of a text log file, up to and including the begin of
+   * the {@link #LOG_DATA_SECTION log data section}.
+   *
+   * @param algorithm
+   *          the name of the algorithm, or {@code null}
+   * @param initializer
+   *          the name of the initialization algorithm, or {@code null}
+   * @param instance
+   *          the name of the benchmark instance
+   * @param symmetric
+   *          is the instance symmetric?
+   * @param ps
+   *          the print stream
+   */
+  static final void _printTextHeader(final String algorithm,
+      final String initializer, final String instance,
+      final boolean symmetric, final PrintStream ps) {
+    // print the headline comment
+    if (algorithm != null) {
+      ps.print(ObjectiveFunction.LOG_FILE_START_A);
+      ps.print(algorithm);
+      if (initializer != null) {
+        ps.print(ObjectiveFunction.LOG_FILE_START_A2);
+        ps.print(initializer);
+      }
+      ps.print(ObjectiveFunction.LOG_FILE_START_B);
+    } else {
+      ps.print(ObjectiveFunction.LOG_FILE_START_X);
+    }
 
-      ls = this.m_logSize;
-      shouldWeLog: {
-        if (ls > 0) {
+    ps.print(instance);
+    ps.print(ObjectiveFunction.LOG_FILE_START_C);
+    if (symmetric) {
+      ps.print(ObjectiveFunction.LOG_FILE_START_DA);
+    } else {
+      ps.print(ObjectiveFunction.LOG_FILE_START_DB);
+    }
+    ps.println();
+
+    // print some general comments and start the log data
+    // section
+    for (final char[] chs : ObjectiveFunction.HEADER_COMMENTS) {
+      ps.println(chs);
+    }
+  }
+
+  /**
+   * Extract the names of the algorithm, the initialization algorithm, and
+   * the benchmark instance from the first line of a text log file, i.e.,
+   * the inverse of
+   * {@link #_printTextHeader(String, String, String, boolean, PrintStream)}
+   * .
+   *
+   * @param line
+   *          the first line of the log file
+   * @return an array with the names of the algorithm, the initialization
+   *         algorithm, and the instance, where the first two may be
+   *         {@code null}, or {@code null} if the line is not the first
+   *         line of a log file
+   */
+  static final String[] _parseTextHeader(final String line) {
+    final String a, a2, b, c;
+    final String[] res;
+    int i, j, k;
+
+    c = String.valueOf(ObjectiveFunction.LOG_FILE_START_C);
+    res = new String[3];
+
+    a = String.valueOf(ObjectiveFunction.LOG_FILE_START_A);
+    if (line.startsWith(a)) {
+      b = String.valueOf(ObjectiveFunction.LOG_FILE_START_B);
+      i = line.indexOf(b, a.length());
+      if (i < 0) {
+        return null;
+      }
+      a2 = String.valueOf(ObjectiveFunction.LOG_FILE_START_A2);
+      k = line.indexOf(a2, a.length());
+      if ((k >= 0) && (k < i)) {
+        res[0] = line.substring(a.length(), k);
+        res[1] = line.substring(k + a2.length(), i);
+      } else {
+        res[0] = line.substring(a.length(), i);
+      }
+      i += b.length();
+    } else {
+      a2 = String.valueOf(ObjectiveFunction.LOG_FILE_START_X);
+      if (!(line.startsWith(a2))) {
+        return null;
+      }
+      i = a2.length();
+    }
+
+    j = line.indexOf(c, i);
+    if (j < 0) {
+      return null;
+    }
+    res[2] = line.substring(i, j);
+    return res;
+  }
+
+  /**
+   * Print one log point, either as one line of the
+   * {@link #LOG_DATA_SECTION log data section} or as one record of a
+   * {@link org.logisticPlanning.tsp.benchmarking.objective.BinaryLogFormat
+   * binary log file}.
+   *
+   * @param prev
+   *          the log point printed before {@code p}, or {@code null} if
+   *          {@code p} is the first one
+   * @param p
+   *          the log point
+   * @param ps
+   *          the print stream
+   */
+  final void _printLogPoint(final LogPoint prev, final LogPoint p,
+      final PrintStream ps) {
+    if (this.m_benchmark.m_binaryLog) {
+      BinaryLogFormat._writePoint(prev, p, ps);
+    } else {
+      ObjectiveFunction._printTextPoint(p, this.m_optimum,
+          this.m_timeNormalizationFactor, ps);
+    }
+  }
+
+  /**
+   * End the log data, either by ending the {@link #LOG_DATA_SECTION log
+   * data section} or the log data of a
+   * {@link org.logisticPlanning.tsp.benchmarking.objective.BinaryLogFormat
+   * binary log file}.
+   *
+   * @param ps
+   *          the print stream
+   */
+  private final void __endLogData(final PrintStream ps) {
+    if (this.m_benchmark.m_binaryLog) {
+      BinaryLogFormat._writeEnd(ps);
+    } else {
+      ps.println(ObjectiveFunction.SECTION_END);
+    }
+  }
+
+  /**
+   * Print one line of the {@link #LOG_DATA_SECTION log data section}: FE
+   * DE Time Normalized_Time F Rel_Error Reason
+   *
+   * @param p
+   *          the log point
+   * @param opt
+   *          the optimal tour length
+   * @param timeNormalizationFactor
+   *          the runtime normalization factor
+   * @param ps
+   *          the print stream
+   */
+  static final void _printTextPoint(final LogPoint p, final long opt,
+      final double timeNormalizationFactor, final PrintStream ps) {
+    final int type;
+
+    ps.print(p.m_fe);
+    ps.print('\t');
+    ps.print(p.m_de);
+    ps.print('\t');
+    ps.print(p.m_time);
+    ps.print('\t');
+    ps.print(p.m_time / timeNormalizationFactor);
+    ps.print('\t');
+    ps.print(p.m_f);
+    ps.print('\t');
+    ps.print((p.m_f - opt) * (1d / opt));
+    ps.print('\t');
+    ps.print(p.m_cpuTime);
+
+    type = p.m_type;
+    if (type != 0) {
+      ps.print('\t');
+      if ((type & ObjectiveFunction.TYPE_FLAG_OBJECTIVE) != 0) {
+        ps.print(ObjectiveFunction.TYPE_FLAG_OBJECTIVE_CHAR);
+      }
+      if ((type & ObjectiveFunction.TYPE_FLAG_FE) != 0) {
+        ps.print(ObjectiveFunction.TYPE_FLAG_FE_CHAR);
+      }
+      if ((type & ObjectiveFunction.TYPE_FLAG_DE) != 0) {
+        ps.print(ObjectiveFunction.TYPE_FLAG_DE_CHAR);
+      }
+      if ((type & ObjectiveFunction.TYPE_FLAG_INIT_END) != 0) {
+        ps.print(ObjectiveFunction.TYPE_FLAG_INIT_END_CHAR);
+      }
+      if ((type & ObjectiveFunction.TYPE_FLAG_END) != 0) {
+        ps.print(ObjectiveFunction.TYPE_FLAG_END_CHAR);
+      }
+    }
+    ps.println();
+  }
+
+  /**
+   * This method must be called when one run has finished. It will flush
+   * the in-memory log data to the output file. If the log is
+   * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#PARAM_STREAM_LOG
+   * streamed}, most log points are already in the file and only the
+   * remaining ones and the other sections are appended.
+   */
+  public final void endRun() {
+    final long t, fm, tm, mm, delay;
+    final Runtime rt;
+    final LogPoint cur, lp;
+    final _LogWriter writer;
+    final _Checkpoint cp;
+    boolean written;
+    int i, ls;
+
+    this.m_terminate = true;
+    _TerminationThread._dequeue(this);
+
+    if (this.m_state != ObjectiveFunction.STATE_IN_RUN) {
+      throw new IllegalStateException(
+          "Cannot end run, as no run was started."); //$NON-NLS-1$
+    }
+    try {
+      if (this.m_main != null) {
+        this.__syncConcurrent();
+      }
+      cur = this.m_currentLP;
+
+      // update the time variables
+      t = System.currentTimeMillis();
+      this.__updateTime(cur);
+      delay = Math.max(0l, ((this.m_cpuLimit ? cur.m_cpuTime : cur.m_time)//
+          - this.m_benchmark.m_maxTime));
+      _TerminationThread._late(delay);
+
+      ls = this.m_logSize;
+      shouldWeLog: {
+        if (ls > 0) {
           lp = this.m_log[ls - 1];
           if ((lp.m_de >= cur.m_de) && (lp.m_fe >= cur.m_fe)
               && (lp.m_f <= cur.m_f)) {
@@ -3427,78 +4298,39 @@ public final class ObjectiveFunction extends DistanceComputer {
         this.m_log[ls - 1].m_type |= ObjectiveFunction.TYPE_FLAG_END;
       }
 
-      opt = this.m_optimum;
+      writer = this.m_writer;
+      written = false;
       try {
-
-        try (PrintStream ps = new PrintStream(this.m_file, "UTF-8")) { //$NON-NLS-1$
-
-          // print the headline comment
-          if (this.m_algorithm != null) {
-            ps.print(ObjectiveFunction.LOG_FILE_START_A);
-            ps.print(this.m_algorithm.name());
-            if (this.m_initializer != null) {
-              ps.print(ObjectiveFunction.LOG_FILE_START_A2);
-              ps.print(this.m_initializer.name());
-            }
-            ps.print(ObjectiveFunction.LOG_FILE_START_B);
-          } else {
-            ps.print(ObjectiveFunction.LOG_FILE_START_X);
+        if (writer != null) {
+          this.m_writer = null;
+          writer._stop();
+        } else {
+          if (!(this.m_benchmark._holdsFile(this.m_file))) {
+            // the lease on the run has expired and another process has
+            // taken over the log file, or the run did not get a log file
+            // since all runs had been claimed by other processes
+            return;
           }
+        }
 
-          ps.print(this.m_benchmark.m_instance.name());
-          ps.print(ObjectiveFunction.LOG_FILE_START_C);
-          if (this.m_benchmark.m_instance.symmetric()) {
-            ps.print(ObjectiveFunction.LOG_FILE_START_DA);
-          } else {
-            ps.print(ObjectiveFunction.LOG_FILE_START_DB);
-          }
-          ps.println();
+        try (PrintStream ps = ((writer != null) ? writer._stream()
+            : new PrintStream(this.m_file, "UTF-8"))) { //$NON-NLS-1$
 
-          // print some general comments and start the log data
-          // section
-          for (final char[] chs : ObjectiveFunction.HEADER_COMMENTS) {
-            ps.println(chs);
+          if (writer == null) {
+            this._printHeader(ps);
+            i = 0;
+          } else {
+            // the streamed log points are already in the file
+            i = this.m_streamed;
           }
 
           // print the log data: FE DE Time Normalized_Time F
           // Rel_Error Reason
-          optm = (1d / opt);
-          for (i = 0; i < ls; i++) {
-            p = this.m_log[i];
-            ps.print(p.m_fe);
-            ps.print('\t');
-            ps.print(p.m_de);
-            ps.print('\t');
-            ps.print(p.m_time);
-            ps.print('\t');
-            ps.print(p.m_time / this.m_timeNormalizationFactor);
-            ps.print('\t');
-            ps.print(p.m_f);
-            ps.print('\t');
-            ps.print((p.m_f - opt) * optm);
-
-            type = p.m_type;
-            if (type != 0) {
-              ps.print('\t');
-              if ((type & ObjectiveFunction.TYPE_FLAG_OBJECTIVE) != 0) {
-                ps.print(ObjectiveFunction.TYPE_FLAG_OBJECTIVE_CHAR);
-              }
-              if ((type & ObjectiveFunction.TYPE_FLAG_FE) != 0) {
-                ps.print(ObjectiveFunction.TYPE_FLAG_FE_CHAR);
-              }
-              if ((type & ObjectiveFunction.TYPE_FLAG_DE) != 0) {
-                ps.print(ObjectiveFunction.TYPE_FLAG_DE_CHAR);
-              }
-              if ((type & ObjectiveFunction.TYPE_FLAG_INIT_END) != 0) {
-                ps.print(ObjectiveFunction.TYPE_FLAG_INIT_END_CHAR);
-              }
-              if ((type & ObjectiveFunction.TYPE_FLAG_END) != 0) {
-                ps.print(ObjectiveFunction.TYPE_FLAG_END_CHAR);
-              }
-            }
-            ps.println();
+          for (; i < ls; i++) {
+            this._printLogPoint(((i > 0) ? this.m_log[i - 1] : null),
+                this.m_log[i], ps);
           }
-          ps.println(ObjectiveFunction.SECTION_END);
+          this.__endLogData(ps);
 
           // print best solution discovered, if at least 1 FE was
           // performed
@@ -3511,6 +4343,7 @@ public final class ObjectiveFunction extends DistanceComputer {
 
             // print result if at least one fe was performed
             Configurable.printKey(ObjectiveFunction.BEST_SOLUTION, ps);
+            this.__materializeBest();
             RepresentationUtils.appendPathInNormalForm(this.m_bestX, ps);
             ps.println();
             SolutionValidator.validatePath(this.m_bestX,
@@ -3553,6 +4386,18 @@ public final class ObjectiveFunction extends DistanceComputer {
 
           Configurable.printKey(ObjectiveFunction.RUN_TIME, ps);
           ps.println(this.m_currentLP.m_time);
+          Configurable.printKey(ObjectiveFunction.CPU_TIME, ps);
+          ps.println(this.m_currentLP.m_cpuTime);
+          Configurable.printKey(ObjectiveFunction.RUN_TIME_NANOS, ps);
+          ps.println(this.m_runNanos);
+          Configurable.printKey(ObjectiveFunction.CPU_TIME_NANOS, ps);
+          ps.println(this.m_cpuNanos);
+          Configurable.printKey(ObjectiveFunction.GC_TIME, ps);
+          ps.println(_Clocks._gcTime() - this.m_startGCTime);
+          Configurable.printKey(ObjectiveFunction.GC_COUNT, ps);
+          ps.println(_Clocks._gcCount() - this.m_startGCCount);
+          Configurable.printKey(ObjectiveFunction.TERMINATION_DELAY, ps);
+          ps.println(delay);
           ps.println(ObjectiveFunction.SECTION_END);
 
           // if an initialization algorithm was used, print
@@ -3676,6 +4521,30 @@ public final class ObjectiveFunction extends DistanceComputer {
           Configurable.printKey(ObjectiveFunction.TOTAL_MEMORY, ps);
           ps.println(tm);
 
+          Configurable.printKey(
+              ObjectiveFunction.DISTANCE_COMPUTER_BUILD_TIME, ps);
+          ps.println(this.m_distBuildTime);
+
+          if (this.m_dist instanceof RowCachedDistanceComputer) {
+            Configurable.printKey(
+                ObjectiveFunction.DISTANCE_ROW_CACHE_HITS, ps);
+            ps.println(((RowCachedDistanceComputer) (this.m_dist))
+                .getHits());
+            Configurable.printKey(
+                ObjectiveFunction.DISTANCE_ROW_CACHE_MISSES, ps);
+            ps.println(((RowCachedDistanceComputer) (this.m_dist))
+                .getMisses());
+          }
+
+          Configurable.printKey(ObjectiveFunction.LATE_TERMINATIONS, ps);
+          ps.println(_TerminationThread._lateCount());
+          Configurable.printKey(ObjectiveFunction.TOTAL_TERMINATION_DELAY,
+              ps);
+          ps.println(_TerminationThread._lateTotal());
+          Configurable.printKey(ObjectiveFunction.MAX_TERMINATION_DELAY,
+              ps);
+          ps.println(_TerminationThread._lateMax());
+
           ps.println(ObjectiveFunction.SECTION_END);
 
           // print information about the person/group who did this
@@ -3687,13 +4556,31 @@ public final class ObjectiveFunction extends DistanceComputer {
             this.m_creator.printConfiguration(ps);
             ps.println(ObjectiveFunction.SECTION_END);
           }
+
+          if (writer != null) {
+            writer._sync();
+          }
         }
+        written = true;
       } catch (final Throwable txt) {
         throw new RuntimeException(txt);
+      } finally {
+        cp = this.m_checkpoint;
+        if (cp != null) {
+          // a run whose log could not be written can still be resumed
+          cp._close(written);
+        }
+        this.m_benchmark._releaseFile(this.m_file);
       }
     } finally {
+      this.m_checkpoint = null;
+      this.m_checkpointOut = null;
+      this.m_checkpointBuffer = null;
+      this.m_resumed = null;
+      this.__endConcurrent();
       this.m_terminate = true;
       this.m_logSize = 0;
+      this.m_streamed = 0;
       this.m_state = ObjectiveFunction.STATE_NOTHING;
     }
   }
@@ -3706,6 +4593,7 @@ public final class ObjectiveFunction extends DistanceComputer {
    */
   final void _clear() {
     this.m_terminate = true;
+    this.__endConcurrent();
 
     this.m_currentLP.initExtreme();
     this.m_lastImprovementLP.initExtreme();
@@ -3727,6 +4615,12 @@ public final class ObjectiveFunction extends DistanceComputer {
     this.m_randSeed = 0l;
     this.m_startTime = 0l;
     this.m_endTime = 0l;
+    this.m_startNanos = 0l;
+    this.m_startCPU = 0l;
+    this.m_runNanos = 0l;
+    this.m_cpuNanos = 0l;
+    this.m_startGCTime = 0l;
+    this.m_startGCCount = 0l;
     this.m_shouldLog = false;
     this.m_fimproved = false;
     this.m_algorithm = null;
@@ -3742,8 +4636,11 @@ public final class ObjectiveFunction extends DistanceComputer {
     this.m_i_startTime = 0l;
     this.m_i_endTime = 0l;
     this.m_i_randSeed = 0l;
+    this.m_i_runNanos = 0l;
+    this.m_i_cpuNanos = 0l;
 
-    this.m_time_offset = 0l;
+    this.m_nanos_offset = 0l;
+    this.m_cpu_offset = 0l;
 
     this.m_exceptionDuringInit = null;
     this.m_exceptionDuringRun = null;
@@ -3788,14 +4685,57 @@ public final class ObjectiveFunction extends DistanceComputer {
     return this.m_creator;
   }
 
-  /** {@inheritDoc} */
-  @Override
-  public final int distance(final int i, final int j) {
+  /**
+   * <p>
+   * Register {@code count} DEs (distance evaluations) that have been
+   * performed without calling {@link #distance(int, int)}, i.e., via the
+   * {@link #getUncheckedDistanceComputer() unchecked distance computer}.
+   * {@link #distance(int, int)} invokes this method with {@code count=1}
+   * itself.
+   * </p>
+   * <p>
+   * Registering {@code count} DEs at once has exactly the same effect as
+   * registering {@code count} single DEs: Reaching a DE log point only
+   * marks the log point, the actual logging takes place when the next FE
+   * is registered, and the DE limit only sets the
+   * {@link #shouldTerminate() termination} flag. Hence, an algorithm which
+   * performs a tight loop with the unchecked distance computer must call
+   * this method before it registers the next FE and before it queries
+   * {@link #shouldTerminate()} again. The only difference is that the
+   * loop itself may exceed the DE limit, which is not possible when
+   * checking {@link #shouldTerminate()} after every distance evaluation
+   * &ndash; which almost no algorithm does anyway.
+   * </p>
+   *
+   * @param count
+   *          the number of DEs to register
+   * @see #getUncheckedDistanceComputer()
+   */
+  public final void registerDEs(final long count) {
+    if (count < 0l) {
+      throw new IllegalArgumentException(//
+          "Number of DEs must not be negative, but is " + count); //$NON-NLS-1$
+    }
+
+    if (this.m_main != null) {
+      this.m_main.registerDEs(count);
+    } else {
+      this.__registerDEs(count);
+    }
+  }
+
+  /**
+   * Count DEs and check whether a DE log point has been reached.
+   *
+   * @param count
+   *          the number of DEs to register
+   */
+  private final void __registerDEs(final long count) {
     final long de;
     final LogPoint cur;
 
     cur = this.m_currentLP;
-    de = (++cur.m_de);
+    de = (cur.m_de += count);
 
     // check if we reached a DE check point
     if (de >= this.m_nextDE) {
@@ -3827,10 +4767,87 @@ public final class ObjectiveFunction extends DistanceComputer {
         this.m_terminate = true;
       }
     }
+  }
 
+  /**
+   * <p>
+   * Get the distance computer underlying this objective function. Its
+   * distance evaluations are <em>not</em> counted, so algorithms can use
+   * it in tight loops instead of {@link #distance(int, int)} and thus
+   * avoid the overhead of counting each DE and checking the DE log points.
+   * Such an algorithm must count the distance evaluations itself and
+   * report them via {@link #registerDEs(long)}, since otherwise the
+   * experiment would be invalid. All distance computers are immutable,
+   * i.e., this is a read-only view on the problem instance which can
+   * neither change the instance nor the state of the objective function.
+   * </p>
+   * <p>
+   * The {@link #evaluate(int[]) tour evaluation methods} of the returned
+   * computer must not be used, since they bypass the registration of FEs.
+   * </p>
+   *
+   * @return the distance computer whose evaluations are not counted
+   * @see #registerDEs(long)
+   */
+  public final DistanceComputer getUncheckedDistanceComputer() {
+    return this.m_dist;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int distance(final int i, final int j) {
+    if (this.m_main != null) {
+      this.m_main.registerDEs(1l);
+    } else {
+      this.__registerDEs(1l);
+    }
     return this.m_dist.distance(i, j);
   }
 
+  /**
+   * Compute the distances from node {@code i} to {@code count} other
+   * nodes at once, see
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer#distances(int, int[], int, int[])}
+   * . This counts as {@code count} DEs, exactly as if
+   * {@link #distance(int, int)} was called {@code count} times.
+   *
+   * @param i
+   *          the node (1-based) from which the distances are computed
+   * @param nodes
+   *          the nodes (1-based) to which the distances are computed
+   * @param count
+   *          the number of nodes to use from the beginning of
+   *          {@code nodes}
+   * @param dest
+   *          the array receiving the {@code count} distances
+   */
+  @Override
+  public final void distances(final int i, final int[] nodes,
+      final int count, final int[] dest) {
+    this.registerDEs(count);
+    this.m_dist.distances(i, nodes, count, dest);
+  }
+
+  /**
+   * Compute the lengths of {@code count} edges at once, see
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer#edgeDistances(int[], int, int[])}
+   * . This counts as {@code count} DEs, exactly as if
+   * {@link #distance(int, int)} was called {@code count} times.
+   *
+   * @param edges
+   *          the array with {@code 2*count} node indices (1-based)
+   * @param count
+   *          the number of edges
+   * @param dest
+   *          the array receiving the {@code count} distances
+   */
+  @Override
+  public final void edgeDistances(final int[] edges, final int count,
+      final int[] dest) {
+    this.registerDEs(count);
+    this.m_dist.edgeDistances(edges, count, dest);
+  }
+
   /**
    * <p>
    * Evaluate a given candidate solution in <a
@@ -4071,6 +5088,189 @@ public final class ObjectiveFunction extends DistanceComputer {
     return this.__register(fes, adjacencyList, f, false, true);
   }
 
+  /**
+   * <p>
+   * Set the base tour for a sequence of moves registered via
+   * {@link #registerMove(long, PermutationUpdateOperator, int, int)}. No
+   * FE is registered. The tour is copied once, later changes to
+   * {@code nodes} are not visible to this objective function.
+   * </p>
+   * <p>
+   * A local search which applies one improving move after the other
+   * normally registers each new tour via {@link #registerFE(int[], long)}
+   * , which copies the complete tour whenever it is an improvement, i.e.,
+   * after almost every move. With this method and
+   * {@link #registerMove(long, PermutationUpdateOperator, int, int)},
+   * only the moves are recorded in a journal and the best tour is
+   * reconstructed from the base tour and the journal when it is actually
+   * needed, e.g., by {@link #getCopyOfBest(int[])}. The journal is
+   * replayed into the base tour after {@link #n()} moves, so it never
+   * grows beyond that.
+   * </p>
+   *
+   * @param nodes
+   *          the tour in <a href="#pathRepresentation">path
+   *          representation</a> to which the following moves are applied
+   * @param f
+   *          the tour length of {@code nodes}
+   * @see #registerMove(long, PermutationUpdateOperator, int, int)
+   */
+  public final void beginMoves(final int[] nodes, final long f) {
+    final int n;
+
+    if (this.m_main != null) {
+      throw new IllegalStateException(//
+          "Moves cannot be journaled in a concurrent run."); //$NON-NLS-1$
+    }
+    this.__materializeBest();
+
+    n = this.m_n;
+    if (this.m_moveBase == null) {
+      this.m_moveBase = new int[n];
+      this.m_moveOps = new PermutationUpdateOperator[n];
+      this.m_moveIdx = new int[n << 1];
+    }
+
+    System.arraycopy(nodes, 0, this.m_moveBase, 0, n);
+    this.m_moveCount = 0;
+    this.m_moveF = f;
+  }
+
+  /**
+   * <p>
+   * Register that a move has been applied to the current tour and that
+   * this has changed the tour length by {@code delta}. {@code 1 FE} is
+   * registered, but no {@code DE}, exactly as in
+   * {@link #registerFE(int[], long)}. The move is described by an update
+   * operator and its two index parameters: Applying
+   * <code>{@link org.logisticPlanning.tsp.solving.operators.permutation.update.PermutationUpdateOperator#update(int[], int, int) move.update(tour, a, b)}</code>
+   * to the tour set via {@link #beginMoves(int[], long)} and then all
+   * moves registered since then, in the order of their registration, must
+   * yield the new tour.
+   * </p>
+   * <p>
+   * If the new tour is better than the best solution found so far, this
+   * method returns {@code true}. Different from
+   * {@link #registerFE(int[], long)}, the tour is not copied. Instead, the
+   * number of moves leading to it is remembered and the tour is
+   * reconstructed when it is needed. Hence, the cost of registering an
+   * improving move does not depend on the number {@link #n()} of nodes.
+   * </p>
+   *
+   * @param delta
+   *          the change in the tour length caused by the move
+   * @param move
+   *          the update operator describing the move
+   * @param a
+   *          the first index parameter of the move
+   * @param b
+   *          the second index parameter of the move
+   * @return {@code true} if the new tour is better than the best solution
+   *         found so far, {@code false} otherwise
+   * @throws IllegalStateException
+   *           if {@link #beginMoves(int[], long)} has not been called in
+   *           this run
+   * @see #beginMoves(int[], long)
+   */
+  public final boolean registerMove(final long delta,
+      final PermutationUpdateOperator move, final int a, final int b) {
+    int count;
+
+    count = this.m_moveCount;
+    if (count < 0) {
+      throw new IllegalStateException(//
+          "No base tour has been set for the moves."); //$NON-NLS-1$
+    }
+
+    if (count >= this.m_moveOps.length) {
+      this.__compactMoves();
+      count = 0;
+    }
+
+    this.m_moveOps[count] = move;
+    this.m_moveIdx[count << 1] = a;
+    this.m_moveIdx[(count << 1) + 1] = b;
+    this.m_moveCount = (++count);
+
+    if (this.__register(1l, null, (this.m_moveF += delta), false, false)) {
+      this.m_moveBest = count;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Apply the first {@code count} journaled moves to a tour
+   *
+   * @param dest
+   *          the tour
+   * @param count
+   *          the number of moves to apply
+   */
+  private final void __replayMoves(final int[] dest, final int count) {
+    final PermutationUpdateOperator[] ops;
+    final int[] idx;
+    int i, j;
+
+    ops = this.m_moveOps;
+    idx = this.m_moveIdx;
+    for (i = 0, j = 0; i < count; i++) {
+      ops[i].update(dest, idx[j++], idx[j++]);
+    }
+  }
+
+  /**
+   * Make sure that {@link #m_bestX} holds the best solution, even if it
+   * was reached by journaled moves
+   */
+  private final void __materializeBest() {
+    if (this.m_moveBest >= 0) {
+      System.arraycopy(this.m_moveBase, 0, this.m_bestX, 0, this.m_n);
+      this.__replayMoves(this.m_bestX, this.m_moveBest);
+      this.m_moveBest = (-1);
+    }
+  }
+
+  /** Apply all journaled moves to the base tour and clear the journal */
+  private final void __compactMoves() {
+    final int count;
+
+    count = this.m_moveCount;
+    if (this.m_moveBest != count) {
+      this.__materializeBest();
+    }
+
+    this.__replayMoves(this.m_moveBase, count);
+    this.m_moveCount = 0;
+
+    if (this.m_moveBest >= 0) {
+      System.arraycopy(this.m_moveBase, 0, this.m_bestX, 0, this.m_n);
+      this.m_moveBest = (-1);
+    }
+  }
+
+  /**
+   * Hand the new log points to the {@link #m_writer log writer}. The most
+   * recent log point is held back, since it may still be marked as the
+   * last point of the run. If the queue of the writer is full, the
+   * remaining points are handed over with the next log point or at the
+   * {@link #endRun() end of the run}, so this method never blocks.
+   */
+  private final void __stream() {
+    final _LogWriter writer;
+    final int end;
+    int i;
+
+    writer = this.m_writer;
+    end = (this.m_logSize - 1);
+    for (i = this.m_streamed; i < end; i++) {
+      if (!(writer._offer(this.m_log[i]))) {
+        break;
+      }
+    }
+    this.m_streamed = i;
+  }
+
   /**
    * This is an internal function used to register the candidate solution
    * along with its objective value. It will update the intneral state
@@ -4111,7 +5311,36 @@ public final class ObjectiveFunction extends DistanceComputer {
    */
   private final boolean __register(final long fes, final int[] nodes,
       final long f, final boolean countDEs, final boolean adj) {
-    final long fe, de, t;
+    if (this.m_main != null) {
+      return this.m_main._register(fes, nodes, f, countDEs, adj);
+    }
+    return this.__update(fes, nodes, f, countDEs, adj);
+  }
+
+  /**
+   * Update the internal state with a new candidate solution, as described
+   * in {@link #__register(long, int[], long, boolean, boolean)}.
+   *
+   * @param nodes
+   *          the candidate solution, or {@code null}
+   * @param f
+   *          its objective value
+   * @param fes
+   *          the number function evaluations to register
+   * @param countDEs
+   *          count the equivalent number of distance evaluations for the
+   *          {@code fes}
+   * @param adj
+   *          {@code true} if {@code nodes} is in adjacency
+   *          representation, {@code false} if it is in path
+   *          representation
+   * @return {@code true} if the registered solution was an improvement
+   *         compared to the currently best known solution, {@code false}
+   *         otherwise
+   */
+  private final boolean __update(final long fes, final int[] nodes,
+      final long f, final boolean countDEs, final boolean adj) {
+    final long fe, de;
     final LogPoint cur;
     final boolean improved;
 
@@ -4125,6 +5354,7 @@ public final class ObjectiveFunction extends DistanceComputer {
       this.m_fimproved = true;
       cur.m_f = f;
       if (nodes != null) {
+        this.m_moveBest = (-1);
         if (adj) {
           RepresentationUtils.adjacencyListToPath(nodes, this.m_bestX);
         } else {
@@ -4212,9 +5442,7 @@ public final class ObjectiveFunction extends DistanceComputer {
         // improved
 
         // update the time variables
-        t = System.currentTimeMillis();
-        cur.m_time = ((t - this.m_startTime) + this.m_time_offset);
-        if (t >= this.m_endTime) { // did we exceed the end time?
+        if (this.__updateTime(cur)) { // did we exceed the end time?
           this.m_terminate = true;
         }
 
@@ -4223,6 +5451,9 @@ public final class ObjectiveFunction extends DistanceComputer {
         this.m_fimproved = false;
         this.m_log[this.m_logSize++]._assign(cur);
         cur.m_type = 0;
+        if (this.m_writer != null) {
+          this.__stream();
+        }
       }
 
       if (improved) {
@@ -4233,6 +5464,120 @@ public final class ObjectiveFunction extends DistanceComputer {
     return improved;
   }
 
+  /**
+   * <p>
+   * Create a handle for a worker thread of a multi-threaded algorithm and
+   * switch the current run into <a href="#concurrency">concurrent
+   * mode</a>. Each thread of the algorithm uses its own worker to compute
+   * distances, evaluate tours, and obtain random numbers. The objective
+   * function itself remains usable by the thread which has begun the run,
+   * whose calls are then handled by an internal worker.
+   * </p>
+   * <p>
+   * This method must be called by the thread which has begun the run,
+   * before the worker threads are started. The workers must not be used
+   * anymore after {@link #endRun()}.
+   * </p>
+   *
+   * @return the new worker
+   * @throws IllegalStateException
+   *           if no run is ongoing
+   */
+  public synchronized final ObjectiveWorker createWorker() {
+    final LogPoint cur;
+    final ObjectiveWorker worker;
+
+    if (this.m_state != ObjectiveFunction.STATE_IN_RUN) {
+      throw new IllegalStateException(//
+          "Workers can only be created during a run."); //$NON-NLS-1$
+    }
+
+    if (this.m_main == null) {
+      // the move journal is not thread-safe, so we end it here
+      this.__materializeBest();
+      this.m_moveCount = (-1);
+
+      cur = this.m_currentLP;
+      this.m_cFEs = new AtomicLong(cur.m_fe);
+      this.m_cDEs = new AtomicLong(cur.m_de);
+      this.m_cBest = new AtomicReference<>(new _BestTour(cur.m_f,
+          ((cur.m_fe > 0l) ? this.m_bestX.clone() : null)));
+      this.m_cNextFE = this.m_nextFE;
+      this.m_cNextDE = this.m_nextDE;
+      this.m_workers = new ArrayList<>();
+      this.m_main = new ObjectiveWorker(this, this.m_dist, this.m_r,
+          this.m_cFEs, this.m_cDEs, this.m_cBest);
+      this.m_workers.add(this.m_main);
+    }
+
+    worker = new ObjectiveWorker(this, this.m_dist, new Randomizer(
+        this.m_r.nextLong()), this.m_cFEs, this.m_cDEs, this.m_cBest);
+    this.m_workers.add(worker);
+    return worker;
+  }
+
+  /**
+   * Bring the current log point of a concurrent run up to date. This is
+   * called by the workers whenever they have found a better tour or passed
+   * an FE or DE log point. Since the counters only grow, and since the log
+   * points are checked here under the lock of the objective function,
+   * every log point is taken exactly once, just like in a sequential run.
+   *
+   * @param fe
+   *          the FEs counted by the worker
+   * @param de
+   *          the DEs counted by the worker
+   * @param f
+   *          the length of the better tour, or {@link Long#MAX_VALUE} if
+   *          no better tour was found
+   */
+  synchronized final void _logConcurrent(final long fe, final long de,
+      final long f) {
+    final LogPoint cur;
+
+    if (this.m_state != ObjectiveFunction.STATE_IN_RUN) {
+      return;
+    }
+
+    cur = this.m_currentLP;
+    if (de > cur.m_de) {
+      this.__registerDEs(de - cur.m_de);
+    }
+    this.__update(((fe > cur.m_fe) ? (fe - cur.m_fe) : 0l), null, f,
+        false, false);
+
+    this.m_cNextFE = this.m_nextFE;
+    this.m_cNextDE = this.m_nextDE;
+  }
+
+  /**
+   * Fold the counters and the best tour of a concurrent run into the
+   * current log point and {@link #m_bestX}.
+   */
+  private synchronized final void __syncConcurrent() {
+    final _BestTour best;
+    long de;
+
+    de = this.m_cDEs.get();
+    for (final ObjectiveWorker worker : this.m_workers) {
+      de += worker.m_pending;
+    }
+    best = this.m_cBest.get();
+    this._logConcurrent(this.m_cFEs.get(), de, best.m_f);
+    if (best.m_x != null) {
+      System.arraycopy(best.m_x, 0, this.m_bestX, 0, this.m_bestX.length);
+    }
+  }
+
+  /** Leave the concurrent mode */
+  private synchronized final void __endConcurrent() {
+    this.m_main = null;
+    this.m_workers = null;
+    this.m_cFEs = null;
+    this.m_cDEs = null;
+    this.m_cBest = null;
+  }
+
   /**
    * Get a copy of the best candidate solution discovered in this run in <a
    * href="#pathRepresentation"><em>path representation</em></a>. This is
@@ -4250,7 +5595,11 @@ public final class ObjectiveFunction extends DistanceComputer {
    * @see #getCopyOfBestAdj(int[])
    */
   public final void getCopyOfBest(final int[] nodes) {
+    if (this.m_main != null) {
+      this.__syncConcurrent();
+    }
     if (this.m_currentLP.m_fe > 0l) {
+      this.__materializeBest();
       System.arraycopy(this.m_bestX, 0, nodes, 0, this.m_bestX.length);
     } else {
       throw new IllegalStateException(//
@@ -4281,7 +5630,11 @@ public final class ObjectiveFunction extends DistanceComputer {
    * @see #getCopyOfBest(int[])
    */
   public final void getCopyOfBestAdj(final int[] adjacencyList) {
+    if (this.m_main != null) {
+      this.__syncConcurrent();
+    }
     if (this.m_currentLP.m_fe > 0l) {
+      this.__materializeBest();
       RepresentationUtils.pathToAdjacencyList(this.m_bestX, adjacencyList);
     } else {
       throw new IllegalStateException(//
@@ -4387,6 +5740,18 @@ public final class ObjectiveFunction extends DistanceComputer {
     return this.m_symmetric;
   }
 
+  /**
+   * {@inheritDoc} The queries of the index compute the exact distances
+   * with the distance computer passed to them. If the objective function
+   * is passed, these distance evaluations are counted as usual, if the
+   * {@link #getUncheckedDistanceComputer() unchecked distance computer}
+   * is passed, they must be registered via {@link #registerDEs(long)}.
+   */
+  @Override
+  public final SpatialIndex getSpatialIndex() {
+    return this.m_dist.getSpatialIndex();
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void print(final PrintWriter out) {
@@ -4394,17 +5759,62 @@ public final class ObjectiveFunction extends DistanceComputer {
   }
 
   /** update the currently consumed runtime */
-  final void _updateConsumedTime() {
-    final long t;
-
+  synchronized final void _updateConsumedTime() {
     if (this.m_state != ObjectiveFunction.STATE_NOTHING) {
 
       // update the time variables
-      t = System.currentTimeMillis();
-      this.m_currentLP.m_time = ((t - this.m_startTime) + this.m_time_offset);
-      if (t >= this.m_endTime) { // did we exceed the end time?
+      if (this.__updateTime(this.m_currentLP)) { // did we exceed the end
+        // time?
         this.m_terminate = true;
       }
     }
   }
+
+  /**
+   * Update the runtime and CPU time of a log point. The runtime is
+   * measured with {@link java.lang.System#nanoTime()}, the CPU time is the
+   * CPU time consumed by the thread which has started the run (or the
+   * runtime, if it cannot be measured).
+   *
+   * @param cur
+   *          the log point
+   * @return {@code true} if the time limit has been exceeded,
+   *         {@code false} otherwise
+   */
+  private final boolean __updateTime(final LogPoint cur) {
+    final long cpu;
+
+    this.m_runNanos = ((System.nanoTime() - this.m_startNanos) + this.m_nanos_offset);
+    cur.m_time = (this.m_runNanos / 1000000l);
+
+    cpu = _Clocks._cpuTime(this.m_thread);
+    if ((cpu >= 0l) && (this.m_startCPU >= 0l)) {
+      this.m_cpuNanos = ((cpu - this.m_startCPU) + this.m_cpu_offset);
+    } else {
+      this.m_cpuNanos = this.m_runNanos;
+    }
+    cur.m_cpuTime = (this.m_cpuNanos / 1000000l);
+
+    return ((this.m_cpuLimit ? cur.m_cpuTime : cur.m_time) >= this.m_benchmark.m_maxTime);
+  }
+
+  /**
+   * Get the CPU time in milliseconds that the current run may still
+   * consume before its {@link Benchmark#m_maxTime runtime limit} is
+   * reached. This method is called by the
+   * {@link org.logisticPlanning.tsp.benchmarking.objective._TerminationThread
+   * termination thread} if the limit applies to the CPU time.
+   *
+   * @return the remaining CPU time, or a value {@code <=0} if the limit
+   *         has been reached or the CPU time cannot be measured
+   */
+  final long _remainingCPUTime() {
+    final long cpu;
+
+    cpu = _Clocks._cpuTime(this.m_thread);
+    if ((cpu < 0l) || (this.m_startCPU < 0l)) {
+      return 0l;
+    }
+    return (this.m_benchmark.m_maxTime - (((cpu - this.m_startCPU) + this.m_cpu_offset) / 1000000l));
+  }
 }
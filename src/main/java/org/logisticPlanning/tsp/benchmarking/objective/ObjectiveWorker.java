@@ -0,0 +1,472 @@
+package org.logisticPlanning.tsp.benchmarking.objective;
+
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
+import org.logisticPlanning.tsp.benchmarking.dist.SpatialIndex;
+import org.logisticPlanning.tsp.solving.utils.RepresentationUtils;
+import org.logisticPlanning.utils.math.random.Randomizer;
+
+/**
+ * <p>
+ * The handle through which one worker thread of a multi-threaded
+ * algorithm accesses the {@link ObjectiveFunction objective function} of
+ * the current run. Worker handles are obtained from
+ * {@link ObjectiveFunction#createWorker()}, one for each thread, and
+ * offer the same methods for computing distances, evaluating tours, and
+ * registering FEs and DEs as the objective function itself. Different
+ * workers can use them concurrently, but each handle must only be used by
+ * a single thread at a time.
+ * </p>
+ * <p>
+ * Each worker has its own {@link #getRandom() random number generator},
+ * which is seeded from the generator of the objective function when the
+ * worker is created. The distance evaluations of a worker are first
+ * counted locally and added to the shared DE counter of the run in
+ * batches of {@link #n()} DEs as well as whenever an FE is registered, so
+ * that the workers do not compete for the counter in tight loops. The
+ * FEs are counted in a shared atomic counter and the best tour is
+ * published as an immutable snapshot via compare-and-set. Only when a
+ * worker finds a better tour or passes an FE or DE log point, it
+ * synchronizes with the objective function in order to update the log
+ * point, see the <a href="ObjectiveFunction.html#concurrency">description
+ * of concurrent runs</a>.
+ * </p>
+ * <p>
+ * A worker must call {@link #flush()} before it ends, since otherwise the
+ * DEs it performed after its last FE may not be counted.
+ * </p>
+ */
+public final class ObjectiveWorker extends DistanceComputer {
+
+  /** the owning objective function */
+  private final ObjectiveFunction m_owner;
+
+  /** the distance computer */
+  private final DistanceComputer m_dist;
+
+  /** the random number generator of this worker */
+  private final Randomizer m_r;
+
+  /** the FE counter of the run */
+  private final AtomicLong m_fes;
+
+  /** the DE counter of the run */
+  private final AtomicLong m_des;
+
+  /** the best tour of the run */
+  private final AtomicReference<_BestTour> m_best;
+
+  /** the number of DEs after which they are added to the DE counter */
+  private final long m_batch;
+
+  /**
+   * the DEs of this worker which have not yet been added to the DE counter
+   * of the run
+   */
+  long m_pending;
+
+  /**
+   * create the worker
+   *
+   * @param owner
+   *          the owning objective function
+   * @param dist
+   *          the distance computer
+   * @param r
+   *          the random number generator of the worker
+   * @param fes
+   *          the FE counter of the run
+   * @param des
+   *          the DE counter of the run
+   * @param best
+   *          the best tour of the run
+   */
+  ObjectiveWorker(final ObjectiveFunction owner,
+      final DistanceComputer dist, final Randomizer r,
+      final AtomicLong fes, final AtomicLong des,
+      final AtomicReference<_BestTour> best) {
+    super(owner.n());
+    this.m_owner = owner;
+    this.m_dist = dist;
+    this.m_r = r;
+    this.m_fes = fes;
+    this.m_des = des;
+    this.m_best = best;
+    this.m_batch = Math.max(1l, this.m_n);
+  }
+
+  /**
+   * Get the objective function to which this worker belongs
+   *
+   * @return the objective function to which this worker belongs
+   */
+  public final ObjectiveFunction getObjectiveFunction() {
+    return this.m_owner;
+  }
+
+  /**
+   * Get the random number generator of this worker. This must be the only
+   * source of random numbers used by the thread of this worker.
+   *
+   * @return the random number generator of this worker
+   * @see ObjectiveFunction#getRandom()
+   */
+  public final Randomizer getRandom() {
+    return this.m_r;
+  }
+
+  /**
+   * Get the distance computer underlying the objective function, whose
+   * distance evaluations are not counted. The worker must report them via
+   * {@link #registerDEs(long)}.
+   *
+   * @return the distance computer whose evaluations are not counted
+   * @see ObjectiveFunction#getUncheckedDistanceComputer()
+   */
+  public final DistanceComputer getUncheckedDistanceComputer() {
+    return this.m_dist;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int distance(final int i, final int j) {
+    if ((++this.m_pending) >= this.m_batch) {
+      this.__flush();
+    }
+    return this.m_dist.distance(i, j);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void distances(final int i, final int[] nodes,
+      final int count, final int[] dest) {
+    this.registerDEs(count);
+    this.m_dist.distances(i, nodes, count, dest);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void edgeDistances(final int[] edges, final int count,
+      final int[] dest) {
+    this.registerDEs(count);
+    this.m_dist.edgeDistances(edges, count, dest);
+  }
+
+  /**
+   * Register distance evaluations performed with the
+   * {@link #getUncheckedDistanceComputer() unchecked distance computer}.
+   *
+   * @param count
+   *          the number of DEs to register
+   * @see ObjectiveFunction#registerDEs(long)
+   */
+  public final void registerDEs(final long count) {
+    if (count < 0l) {
+      throw new IllegalArgumentException(//
+          "Number of DEs must not be negative, but is " + count); //$NON-NLS-1$
+    }
+    if ((this.m_pending += count) >= this.m_batch) {
+      this.__flush();
+    }
+  }
+
+  /**
+   * Add the DEs counted by this worker to the DE counter of the run. This
+   * must be called before the worker ends.
+   */
+  public final void flush() {
+    this.__flush();
+  }
+
+  /**
+   * Add the pending DEs to the DE counter of the run and notify the
+   * objective function if a DE log point has been passed
+   */
+  private final void __flush() {
+    final long count, de;
+
+    count = this.m_pending;
+    if (count > 0l) {
+      this.m_pending = 0l;
+      de = this.m_des.addAndGet(count);
+      if (de >= this.m_owner.m_cNextDE) {
+        this.m_owner._logConcurrent(this.m_fes.get(), de, Long.MAX_VALUE);
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final long evaluate(final int[] nodes) {
+    final long f;
+
+    f = this.m_dist.evaluate(nodes);
+    this._register(1l, nodes, f, true, false);
+    return f;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final long evaluateAdj(final int[] adjacencyList) {
+    final long f;
+
+    f = this.m_dist.evaluateAdj(adjacencyList);
+    this._register(1l, adjacencyList, f, true, true);
+    return f;
+  }
+
+  /**
+   * Register a tour in path representation whose length has been
+   * computed with the distance methods of this worker.
+   *
+   * @param nodes
+   *          the tour, or {@code null} if it cannot be better than the
+   *          best tour of the run
+   * @param f
+   *          its length
+   * @return {@code true} if the tour is better than the best tour of the
+   *         run, {@code false} otherwise
+   * @see ObjectiveFunction#registerFE(int[], long)
+   */
+  public final boolean registerFE(final int[] nodes, final long f) {
+    return this._register(1l, nodes, f, false, false);
+  }
+
+  /**
+   * Register a tour in path representation and {@code fes} function
+   * evaluations.
+   *
+   * @param fes
+   *          the number of function evaluations
+   * @param nodes
+   *          the tour, or {@code null} if it cannot be better than the
+   *          best tour of the run
+   * @param f
+   *          its length
+   * @return {@code true} if the tour is better than the best tour of the
+   *         run, {@code false} otherwise
+   * @see ObjectiveFunction#registerFEs(long, int[], long)
+   */
+  public final boolean registerFEs(final long fes, final int[] nodes,
+      final long f) {
+    return this._register(fes, nodes, f, false, false);
+  }
+
+  /**
+   * Register a tour in adjacency representation whose length has been
+   * computed with the distance methods of this worker.
+   *
+   * @param adjacencyList
+   *          the tour, or {@code null} if it cannot be better than the
+   *          best tour of the run
+   * @param f
+   *          its length
+   * @return {@code true} if the tour is better than the best tour of the
+   *         run, {@code false} otherwise
+   * @see ObjectiveFunction#registerFEAdj(int[], long)
+   */
+  public final boolean registerFEAdj(final int[] adjacencyList,
+      final long f) {
+    return this._register(1l, adjacencyList, f, false, true);
+  }
+
+  /**
+   * Register a tour in adjacency representation and {@code fes} function
+   * evaluations.
+   *
+   * @param fes
+   *          the number of function evaluations
+   * @param adjacencyList
+   *          the tour, or {@code null} if it cannot be better than the
+   *          best tour of the run
+   * @param f
+   *          its length
+   * @return {@code true} if the tour is better than the best tour of the
+   *         run, {@code false} otherwise
+   * @see ObjectiveFunction#registerFEsAdj(long, int[], long)
+   */
+  public final boolean registerFEsAdj(final long fes,
+      final int[] adjacencyList, final long f) {
+    return this._register(fes, adjacencyList, f, false, true);
+  }
+
+  /**
+   * Register a candidate solution. A better tour is published as new
+   * snapshot via compare-and-set, the FEs are added to the shared
+   * counter, and only if the tour is better or a log point has been
+   * passed, the objective function is notified under its lock.
+   *
+   * @param fes
+   *          the number of function evaluations
+   * @param nodes
+   *          the tour, or {@code null}
+   * @param f
+   *          its length
+   * @param countDEs
+   *          count {@code n} DEs per FE
+   * @param adj
+   *          {@code true} if {@code nodes} is in adjacency representation,
+   *          {@code false} for path representation
+   * @return {@code true} if the tour is better than the best tour of the
+   *         run, {@code false} otherwise
+   */
+  final boolean _register(final long fes, final int[] nodes,
+      final long f, final boolean countDEs, final boolean adj) {
+    final ObjectiveFunction owner;
+    final long fe, de, pending;
+    _BestTour best;
+    int[] x;
+    boolean improved;
+
+    owner = this.m_owner;
+
+    pending = (countDEs ? (this.m_pending + (fes * this.m_n))
+        : this.m_pending);
+    this.m_pending = 0l;
+    de = ((pending > 0l) ? this.m_des.addAndGet(pending) : this.m_des
+        .get());
+
+    improved = false;
+    best = this.m_best.get();
+    if (f < best.m_f) {
+      x = null;
+      if (nodes != null) {
+        x = new int[this.m_n];
+        if (adj) {
+          RepresentationUtils.adjacencyListToPath(nodes, x);
+        } else {
+          System.arraycopy(nodes, 0, x, 0, x.length);
+        }
+      }
+
+      // publish the new tour unless another worker was faster with an
+      // even better one
+      do {
+        if (this.m_best.compareAndSet(best, new _BestTour(f,
+            ((x != null) ? x : best.m_x)))) {
+          improved = true;
+          break;
+        }
+        best = this.m_best.get();
+      } while (f < best.m_f);
+    }
+
+    fe = this.m_fes.addAndGet(fes);
+
+    if (improved || (fe >= owner.m_cNextFE) || (de >= owner.m_cNextDE)) {
+      owner._logConcurrent(fe, de, (improved ? f : Long.MAX_VALUE));
+    }
+
+    return improved;
+  }
+
+  /**
+   * Get the length of the best tour discovered by any worker in this run
+   *
+   * @return the length of the best tour discovered in this run
+   */
+  public final long getBestF() {
+    return this.m_best.get().m_f;
+  }
+
+  /**
+   * Get the number of FEs performed by all workers in this run so far
+   *
+   * @return the number of FEs performed in this run
+   */
+  public final long getConsumedFEs() {
+    return this.m_fes.get();
+  }
+
+  /**
+   * Get the number of DEs performed in this run so far. This includes the
+   * DEs of this worker, but not the DEs which other workers have not yet
+   * added to the shared counter.
+   *
+   * @return the number of DEs performed in this run
+   */
+  public final long getConsumedDEs() {
+    return (this.m_des.get() + this.m_pending);
+  }
+
+  /**
+   * Get a copy of the best tour discovered by any worker in this run in
+   * path representation.
+   *
+   * @param nodes
+   *          the destination array
+   * @throws IllegalStateException
+   *           if no solution has been sampled so far
+   * @see ObjectiveFunction#getCopyOfBest(int[])
+   */
+  public final void getCopyOfBest(final int[] nodes) {
+    final int[] x;
+
+    x = this.m_best.get().m_x;
+    if (x == null) {
+      throw new IllegalStateException(//
+          "No solution has been generated so far."); //$NON-NLS-1$
+    }
+    System.arraycopy(x, 0, nodes, 0, x.length);
+  }
+
+  /**
+   * Get a copy of the best tour discovered by any worker in this run in
+   * adjacency representation.
+   *
+   * @param adjacencyList
+   *          the destination array
+   * @throws IllegalStateException
+   *           if no solution has been sampled so far
+   * @see ObjectiveFunction#getCopyOfBestAdj(int[])
+   */
+  public final void getCopyOfBestAdj(final int[] adjacencyList) {
+    final int[] x;
+
+    x = this.m_best.get().m_x;
+    if (x == null) {
+      throw new IllegalStateException(//
+          "No solution has been generated so far."); //$NON-NLS-1$
+    }
+    RepresentationUtils.pathToAdjacencyList(x, adjacencyList);
+  }
+
+  /**
+   * Should the worker terminate?
+   *
+   * @return {@code true} if the run is completed and the worker should
+   *         stop, {@code false} otherwise
+   * @see ObjectiveFunction#shouldTerminate()
+   */
+  public final boolean shouldTerminate() {
+    return this.m_owner.m_terminate;
+  }
+
+  /**
+   * Tell the objective function that the run should terminate, which
+   * concerns all workers.
+   *
+   * @see ObjectiveFunction#terminate()
+   */
+  public final void terminate() {
+    this.m_owner.m_terminate = true;
+  }
+
+  /**
+   * {@inheritDoc} The distances computed by the index are only counted if
+   * this worker is passed to its queries.
+   */
+  @Override
+  public final SpatialIndex getSpatialIndex() {
+    return this.m_dist.getSpatialIndex();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void print(final PrintWriter out) {
+    this.m_dist.print(out);
+  }
+}
@@ -0,0 +1,42 @@
+package org.logisticPlanning.tsp.benchmarking.objective;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * An immutable snapshot of the best tour of a
+ * {@link ObjectiveFunction#createWorker() concurrent} run. A worker which
+ * discovers a better tour creates a new snapshot with a private copy of
+ * the tour and publishes it via compare-and-set. Since a published
+ * snapshot is never changed again, a reader always sees a tour and a tour
+ * length which belong together, without any locking.
+ * </p>
+ */
+final class _BestTour {
+
+  /** the tour length */
+  final long m_f;
+
+  /**
+   * the tour in path representation, or {@code null} if no tour is known
+   * yet
+   */
+  final int[] m_x;
+
+  /**
+   * create
+   *
+   * @param f
+   *          the tour length
+   * @param x
+   *          the tour in path representation, which must not be changed
+   *          anymore
+   */
+  _BestTour(final long f, final int[] x) {
+    super();
+    this.m_f = f;
+    this.m_x = x;
+  }
+}
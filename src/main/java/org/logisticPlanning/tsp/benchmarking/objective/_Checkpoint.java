@@ -0,0 +1,364 @@
+package org.logisticPlanning.tsp.benchmarking.objective;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * The checkpoint file of a run. If
+ * {@link Benchmark#PARAM_CHECKPOINT_INTERVAL checkpointing} is enabled,
+ * each run has a checkpoint file next to its log file, with the same name
+ * plus the suffix {@value #SUFFIX}. The file is locked for as long as the
+ * run is ongoing and contains the state of the run as written by the
+ * latest {@link ObjectiveFunction#beginCheckpoint(Object) checkpoint}.
+ * When the run has ended and its log file has been written, the
+ * checkpoint file is deleted.
+ * </p>
+ * <p>
+ * If a process dies, the lock on the checkpoint file is released by the
+ * operating system. Such an orphaned checkpoint which contains a state
+ * can be {@link #_claim(File) claimed} by a new run, which then resumes
+ * the interrupted run from the stored state instead of starting from
+ * scratch. A checkpoint consists of a magic number, the length of the
+ * data, the data, and its CRC32 checksum, so that a checkpoint which was
+ * only partially written when the process died is recognized and
+ * discarded.
+ * </p>
+ */
+final class _Checkpoint {
+
+  /** the suffix of the checkpoint files: {@value} */
+  static final String SUFFIX = ".checkpoint"; //$NON-NLS-1$
+
+  /** the magic number at the beginning of a checkpoint */
+  private static final int MAGIC = 0x54535043;
+
+  /** the checkpoint files currently opened by this process */
+  private static final Set<File> OPEN = Collections
+      .newSetFromMap(new ConcurrentHashMap<File, Boolean>());
+
+  /** the log file */
+  final File m_log;
+
+  /** the checkpoint file */
+  final File m_file;
+
+  /** the random access file */
+  private RandomAccessFile m_raf;
+
+  /** the lock */
+  private FileLock m_lock;
+
+  /**
+   * create
+   *
+   * @param log
+   *          the log file
+   * @param file
+   *          the checkpoint file
+   * @param raf
+   *          the random access file
+   * @param lock
+   *          the lock
+   */
+  private _Checkpoint(final File log, final File file,
+      final RandomAccessFile raf, final FileLock lock) {
+    super();
+    this.m_log = log;
+    this.m_file = file;
+    this.m_raf = raf;
+    this.m_lock = lock;
+  }
+
+  /**
+   * Get the checkpoint file belonging to a log file
+   *
+   * @param log
+   *          the log file
+   * @return the checkpoint file
+   */
+  static final File _file(final File log) {
+    return new File(log.getParentFile(),
+        (log.getName() + _Checkpoint.SUFFIX));
+  }
+
+  /**
+   * Get the log file belonging to a checkpoint file
+   *
+   * @param file
+   *          the checkpoint file
+   * @return the log file
+   */
+  static final File _log(final File file) {
+    final String name;
+
+    name = file.getName();
+    return new File(file.getParentFile(), name.substring(0,
+        (name.length() - _Checkpoint.SUFFIX.length())));
+  }
+
+  /**
+   * Is the given file a checkpoint file, i.e., not a log file?
+   *
+   * @param f
+   *          the file
+   * @return {@code true} if the file is a checkpoint file, {@code false}
+   *         otherwise
+   */
+  static final boolean _isCheckpointFile(final File f) {
+    return f.getName().endsWith(_Checkpoint.SUFFIX);
+  }
+
+  /**
+   * Does the given log file have a checkpoint from which its run can be
+   * resumed?
+   *
+   * @param log
+   *          the log file
+   * @return {@code true} if a checkpoint with a stored state exists,
+   *         {@code false} otherwise
+   */
+  static final boolean _hasState(final File log) {
+    return (_Checkpoint._file(log).length() > 0l);
+  }
+
+  /**
+   * Create the checkpoint file for a new run
+   *
+   * @param log
+   *          the log file of the run, which has just been created
+   * @return the checkpoint
+   * @throws IOException
+   *           if the checkpoint file cannot be created or locked
+   */
+  static final _Checkpoint _create(final File log) throws IOException {
+    final File file;
+    final _Checkpoint cp;
+
+    file = _Checkpoint._file(log);
+    if (!(_Checkpoint.OPEN.add(file))) {
+      throw new IOException("Checkpoint '" + file + //$NON-NLS-1$
+          "' is already in use."); //$NON-NLS-1$
+    }
+    cp = _Checkpoint.__open(log, file);
+    if (cp == null) {
+      _Checkpoint.OPEN.remove(file);
+      throw new IOException("Checkpoint '" + file + //$NON-NLS-1$
+          "' is locked by another process."); //$NON-NLS-1$
+    }
+    cp.m_raf.setLength(0l);
+    return cp;
+  }
+
+  /**
+   * Is the given checkpoint file orphaned, i.e., does it belong to a run
+   * of a process which has died and can the run be resumed from it?
+   *
+   * @param file
+   *          the checkpoint file
+   * @return {@code true} if the checkpoint is orphaned, {@code false}
+   *         otherwise
+   */
+  static final boolean _isOrphan(final File file) {
+    final _Checkpoint cp;
+
+    cp = _Checkpoint._claim(file);
+    if (cp == null) {
+      return false;
+    }
+    cp._close(false);
+    return true;
+  }
+
+  /**
+   * Claim an orphaned checkpoint in order to resume its run
+   *
+   * @param file
+   *          the checkpoint file
+   * @return the checkpoint, or {@code null} if the checkpoint is not
+   *         orphaned
+   */
+  static final _Checkpoint _claim(final File file) {
+    final File log;
+    _Checkpoint cp;
+
+    log = _Checkpoint._log(file);
+    // a checkpoint without state belongs to a run which has not yet
+    // written one or which died before doing so
+    if ((file.length() <= 0l) || (!(log.exists()))) {
+      return null;
+    }
+    if (!(_Checkpoint.OPEN.add(file))) {
+      return null;
+    }
+
+    cp = null;
+    try {
+      cp = _Checkpoint.__open(log, file);
+      if ((cp != null)
+          && ((cp.m_raf.length() <= 0l) || (!(log.exists())))) {
+        // the run has ended while we were trying to lock its checkpoint
+        cp._close(false);
+        cp = null;
+      }
+    } catch (final IOException ioe) {
+      cp = null;
+    }
+    if (cp == null) {
+      _Checkpoint.OPEN.remove(file);
+    }
+    return cp;
+  }
+
+  /**
+   * Open and lock a checkpoint file
+   *
+   * @param log
+   *          the log file
+   * @param file
+   *          the checkpoint file
+   * @return the checkpoint, or {@code null} if the file is locked
+   * @throws IOException
+   *           if the file cannot be opened
+   */
+  private static final _Checkpoint __open(final File log, final File file)
+      throws IOException {
+    final RandomAccessFile raf;
+    FileLock lock;
+
+    raf = new RandomAccessFile(file, "rw"); //$NON-NLS-1$
+    try {
+      lock = raf.getChannel().tryLock();
+    } catch (final OverlappingFileLockException ofle) {
+      lock = null;
+    } catch (final IOException ioe) {
+      raf.close();
+      throw ioe;
+    }
+    if (lock == null) {
+      raf.close();
+      return null;
+    }
+    return new _Checkpoint(log, file, raf, lock);
+  }
+
+  /**
+   * Read the state stored in the checkpoint
+   *
+   * @return the state, or {@code null} if no valid state is stored
+   */
+  final byte[] _read() {
+    final RandomAccessFile raf;
+    final CRC32 crc;
+    final byte[] data;
+    final int length;
+
+    raf = this.m_raf;
+    try {
+      if (raf.length() < 16l) {
+        return null;
+      }
+      raf.seek(0l);
+      if (raf.readInt() != _Checkpoint.MAGIC) {
+        return null;
+      }
+      length = raf.readInt();
+      if ((length < 0) || ((length + 16l) != raf.length())) {
+        return null;
+      }
+      data = new byte[length];
+      raf.readFully(data);
+      crc = new CRC32();
+      crc.update(data, 0, length);
+      if (raf.readLong() != crc.getValue()) {
+        return null;
+      }
+      return data;
+    } catch (final IOException ioe) {
+      return null;
+    }
+  }
+
+  /**
+   * Store a state in the checkpoint
+   *
+   * @param data
+   *          the data
+   * @param length
+   *          the number of valid bytes in {@code data}
+   * @throws IOException
+   *           if the state cannot be written
+   */
+  final void _write(final byte[] data, final int length)
+      throws IOException {
+    final RandomAccessFile raf;
+    final CRC32 crc;
+
+    crc = new CRC32();
+    crc.update(data, 0, length);
+
+    raf = this.m_raf;
+    raf.seek(0l);
+    raf.writeInt(_Checkpoint.MAGIC);
+    raf.writeInt(length);
+    raf.write(data, 0, length);
+    raf.writeLong(crc.getValue());
+    raf.setLength(length + 16l);
+    raf.getChannel().force(true);
+  }
+
+  /**
+   * Close the checkpoint and release its lock
+   *
+   * @param delete
+   *          should the checkpoint file be deleted, i.e., has the run
+   *          ended?
+   */
+  final void _close(final boolean delete) {
+    final RandomAccessFile raf;
+
+    raf = this.m_raf;
+    if (raf == null) {
+      return;
+    }
+    this.m_raf = null;
+    try {
+      if (delete) {
+        // truncate first: a checkpoint without state is never resumed,
+        // even if it cannot be deleted
+        raf.setLength(0l);
+      }
+      this.m_lock.release();
+    } catch (final IOException ioe) {
+      // ignore
+    } finally {
+      this.m_lock = null;
+      try {
+        raf.close();
+      } catch (final IOException ioe) {
+        // ignore
+      }
+      if (delete) {
+        this.m_file.delete();
+      }
+      _Checkpoint.OPEN.remove(this.m_file);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final String toString() {
+    return this.m_file.toString();
+  }
+}
@@ -0,0 +1,109 @@
+package org.logisticPlanning.tsp.benchmarking.objective;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * The clocks used to measure the runtime of a run. The elapsed time is
+ * measured with {@link java.lang.System#nanoTime()}, which is monotonic
+ * and has a much finer resolution than
+ * {@link java.lang.System#currentTimeMillis()}. The CPU time is the time
+ * that the thread running the algorithm has actually spent on a CPU, as
+ * reported by the {@link java.lang.management.ThreadMXBean}. Unlike the
+ * elapsed time, it does not grow while the thread waits for a CPU, e.g.,
+ * because more runs are executed in parallel than there are cores. If the
+ * JVM cannot measure the CPU time of threads, the elapsed time is used
+ * instead. The time spent in garbage collection is summed up over all
+ * {@link java.lang.management.GarbageCollectorMXBean garbage collectors}
+ * and refers to the whole JVM.
+ * </p>
+ */
+final class _Clocks {
+
+  /** the thread management bean, or {@code null} if not supported */
+  private static final ThreadMXBean THREADS;
+
+  /** the garbage collector beans */
+  private static final List<GarbageCollectorMXBean> COLLECTORS;
+
+  static {
+    ThreadMXBean threads;
+
+    try {
+      threads = ManagementFactory.getThreadMXBean();
+      if (threads.isThreadCpuTimeSupported()) {
+        if (!(threads.isThreadCpuTimeEnabled())) {
+          threads.setThreadCpuTimeEnabled(true);
+        }
+      } else {
+        threads = null;
+      }
+    } catch (final Throwable t) {
+      threads = null;
+    }
+    THREADS = threads;
+
+    COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+  }
+
+  /** the forbidden constructor */
+  private _Clocks() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Get the CPU time consumed by a given thread
+   *
+   * @param id
+   *          the id of the thread
+   * @return the CPU time in nanoseconds, or {@code -1} if it cannot be
+   *         measured
+   */
+  static final long _cpuTime(final long id) {
+    return ((_Clocks.THREADS != null) ? _Clocks.THREADS.getThreadCpuTime(id)
+        : (-1l));
+  }
+
+  /**
+   * Get the total time that the JVM has spent in garbage collection
+   *
+   * @return the time in milliseconds
+   */
+  static final long _gcTime() {
+    long sum, t;
+
+    sum = 0l;
+    for (final GarbageCollectorMXBean gc : _Clocks.COLLECTORS) {
+      t = gc.getCollectionTime();
+      if (t > 0l) {
+        sum += t;
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Get the total number of garbage collections performed by the JVM
+   *
+   * @return the number of garbage collections
+   */
+  static final long _gcCount() {
+    long sum, t;
+
+    sum = 0l;
+    for (final GarbageCollectorMXBean gc : _Clocks.COLLECTORS) {
+      t = gc.getCollectionCount();
+      if (t > 0l) {
+        sum += t;
+      }
+    }
+    return sum;
+  }
+}
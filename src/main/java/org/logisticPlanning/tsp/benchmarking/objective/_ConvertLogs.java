@@ -0,0 +1,375 @@
+package org.logisticPlanning.tsp.benchmarking.objective;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.utils.io.FileUtils;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * This tool converts all log files in a directory tree of results either
+ * from the text format to the
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.BinaryLogFormat
+ * binary format} or vice versa. A text log file is only converted if the
+ * normalized runtime and relative error of each of its log points can be
+ * re-computed exactly from the other columns, i.e., if converting it back
+ * would yield the same log data. In text files written before the CPU
+ * time was recorded, the runtime is used as CPU time. All sections
+ * following the log data are copied verbatim. The original file is
+ * deleted after the converted file has been written.
+ * </p>
+ */
+public final class _ConvertLogs {
+
+  /** the character set */
+  private static final Charset UTF8 = Charset.forName("UTF-8"); //$NON-NLS-1$
+
+  /** the forbidden constructor */
+  private _ConvertLogs() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * The main method
+   *
+   * @param args
+   *          the command line arguments: the root directory of the results
+   *          (defaults to {@code ./results}) and the target format, either
+   *          {@code binary} (the default) or {@code text}
+   * @throws Throwable
+   *           if something fails
+   */
+  public static void main(final String[] args) throws Throwable {
+    final File dir;
+    final boolean binary;
+    final int[] counts;
+
+    dir = FileUtils.canonicalize(new File(((args != null)
+        && (args.length > 0)) ? args[0] : "results")); //$NON-NLS-1$
+    binary = (!((args != null) && (args.length > 1) && "text" //$NON-NLS-1$
+    .equalsIgnoreCase(args[1])));
+
+    counts = new int[2];
+    _ConvertLogs.__convert(dir, binary, counts);
+    System.out.println("Converted " + counts[0] + //$NON-NLS-1$
+        " log files, skipped " + counts[1] + '.');//$NON-NLS-1$
+  }
+
+  /**
+   * Convert all log files in a directory tree
+   *
+   * @param dir
+   *          the directory
+   * @param binary
+   *          {@code true} to convert text to binary files, {@code false}
+   *          for the other direction
+   * @param counts
+   *          the numbers of converted and skipped files
+   */
+  private static final void __convert(final File dir, final boolean binary,
+      final int[] counts) {
+    final File[] files;
+    String name;
+    File dest;
+    boolean ok;
+
+    files = dir.listFiles();
+    if (files == null) {
+      return;
+    }
+
+    for (final File f : files) {
+      if (f.isDirectory()) {
+        _ConvertLogs.__convert(f, binary, counts);
+        continue;
+      }
+
+      name = f.getName();
+      if (!(name.toLowerCase().endsWith(binary ? ".txt" //$NON-NLS-1$
+          : BinaryLogFormat.SUFFIX))) {
+        continue;
+      }
+      name = name.substring(0, name.lastIndexOf('.'));
+      dest = new File(dir, name
+          + (binary ? BinaryLogFormat.SUFFIX : ".txt")); //$NON-NLS-1$
+      if (dest.exists()) {
+        counts[1]++;
+        continue;
+      }
+
+      try {
+        if (binary) {
+          ok = _ConvertLogs.__toBinary(f, dest);
+        } else {
+          ok = (BinaryLogFormat.isBinary(f) && _ConvertLogs.__toText(f,
+              dest));
+        }
+      } catch (final Throwable t) {
+        System.err.println("Could not convert '" + f + //$NON-NLS-1$
+            "': " + t);//$NON-NLS-1$
+        dest.delete();
+        ok = false;
+      }
+
+      if (ok) {
+        f.delete();
+        counts[0]++;
+      } else {
+        counts[1]++;
+      }
+    }
+  }
+
+  /**
+   * Find the end of the line beginning at a given index
+   *
+   * @param text
+   *          the text
+   * @param start
+   *          the start of the line
+   * @return the index after the line and its line break
+   */
+  private static final int __lineEnd(final String text, final int start) {
+    final int i;
+
+    i = text.indexOf('\n', start);
+    return ((i < 0) ? text.length() : (i + 1));
+  }
+
+  /**
+   * Remove the comment from a line and trim it
+   *
+   * @param line
+   *          the line
+   * @return the line without comment
+   */
+  private static final String __strip(final String line) {
+    final int i;
+
+    i = line.indexOf(ObjectiveFunction.COMMENT_START);
+    return ((i >= 0) ? line.substring(0, i) : line).trim();
+  }
+
+  /**
+   * Convert a text log file to a binary one
+   *
+   * @param src
+   *          the source file
+   * @param dest
+   *          the destination file
+   * @return {@code true} if the file was converted, {@code false} if it
+   *         was skipped
+   * @throws IOException
+   *           if io fails
+   */
+  private static final boolean __toBinary(final File src, final File dest)
+      throws IOException {
+    final String text, key;
+    final String[] header;
+    final Instance inst;
+    final ArrayList<LogPoint> points;
+    final long opt;
+    double factor;
+    LogPoint p;
+    String line, flags;
+    String[] cols;
+    int start, end, tail, i;
+    boolean inLog;
+
+    text = new String(Files.readAllBytes(src.toPath()), _ConvertLogs.UTF8);
+    end = _ConvertLogs.__lineEnd(text, 0);
+    header = ObjectiveFunction._parseTextHeader(text.substring(0, end)
+        .trim());
+    if (header == null) {
+      return false;
+    }
+    inst = Instance.forName(header[2]);
+    if (inst == null) {
+      return false;
+    }
+    opt = inst.optimum();
+
+    // find the runtime normalization factor
+    key = (ObjectiveFunction.RUNTIME_NORMALIZATION_FACTOR + ':');
+    factor = Double.NaN;
+    for (start = end; start < text.length(); start = end) {
+      end = _ConvertLogs.__lineEnd(text, start);
+      line = _ConvertLogs.__strip(text.substring(start, end));
+      if (line.startsWith(key)) {
+        factor = Double.parseDouble(line.substring(key.length()).trim());
+        break;
+      }
+    }
+    if (Double.isNaN(factor)) {
+      return false;
+    }
+
+    // load the log points and check that the derived columns can be
+    // re-computed exactly
+    points = new ArrayList<>();
+    inLog = false;
+    tail = (-1);
+    end = _ConvertLogs.__lineEnd(text, 0);
+    for (start = end; start < text.length(); start = end) {
+      end = _ConvertLogs.__lineEnd(text, start);
+      line = _ConvertLogs.__strip(text.substring(start, end));
+      if (line.isEmpty()) {
+        continue;
+      }
+      if (!(inLog)) {
+        inLog = ObjectiveFunction.LOG_DATA_SECTION.equalsIgnoreCase(line);
+        continue;
+      }
+      if (ObjectiveFunction.SECTION_END.equalsIgnoreCase(line)) {
+        tail = end;
+        break;
+      }
+
+      cols = line.split("\t"); //$NON-NLS-1$
+      if ((cols.length < 6) || (cols.length > 8)) {
+        return false;
+      }
+      p = new LogPoint();
+      p.m_fe = Long.parseLong(cols[0]);
+      p.m_de = Long.parseLong(cols[1]);
+      p.m_time = Long.parseLong(cols[2]);
+      p.m_f = Long.parseLong(cols[4]);
+      if (!(String.valueOf(p.m_time / factor).equals(cols[3]) && String
+          .valueOf((p.m_f - opt) * (1d / opt)).equals(cols[5]))) {
+        return false;
+      }
+
+      // older log files do not have the CPU time column
+      flags = null;
+      p.m_cpuTime = p.m_time;
+      if (cols.length > 6) {
+        if (Character.isDigit(cols[6].charAt(0))) {
+          p.m_cpuTime = Long.parseLong(cols[6]);
+          if (cols.length > 7) {
+            flags = cols[7];
+          }
+        } else {
+          if (cols.length > 7) {
+            return false;
+          }
+          flags = cols[6];
+        }
+      }
+      if (flags != null) {
+        for (i = flags.length(); (--i) >= 0;) {
+          switch (flags.charAt(i)) {
+            case ObjectiveFunction.TYPE_FLAG_OBJECTIVE_CHAR: {
+              p.m_type |= ObjectiveFunction.TYPE_FLAG_OBJECTIVE;
+              break;
+            }
+            case ObjectiveFunction.TYPE_FLAG_FE_CHAR: {
+              p.m_type |= ObjectiveFunction.TYPE_FLAG_FE;
+              break;
+            }
+            case ObjectiveFunction.TYPE_FLAG_DE_CHAR: {
+              p.m_type |= ObjectiveFunction.TYPE_FLAG_DE;
+              break;
+            }
+            case ObjectiveFunction.TYPE_FLAG_INIT_END_CHAR: {
+              p.m_type |= ObjectiveFunction.TYPE_FLAG_INIT_END;
+              break;
+            }
+            case ObjectiveFunction.TYPE_FLAG_END_CHAR: {
+              p.m_type |= ObjectiveFunction.TYPE_FLAG_END;
+              break;
+            }
+            default: {
+              return false;
+            }
+          }
+        }
+      }
+      points.add(p);
+    }
+    if (tail < 0) {
+      return false;
+    }
+
+    try (PrintStream ps = new PrintStream(new BufferedOutputStream(
+        new FileOutputStream(dest)), false, "UTF-8")) { //$NON-NLS-1$
+      BinaryLogFormat._writeHeader(inst.name(), header[0], header[1], opt,
+          factor, ps);
+      p = null;
+      for (final LogPoint q : points) {
+        BinaryLogFormat._writePoint(p, q, ps);
+        p = q;
+      }
+      BinaryLogFormat._writeEnd(ps);
+      ps.print(text.substring(tail));
+      if (ps.checkError()) {
+        throw new IOException("Could not write '" + dest + '\'');//$NON-NLS-1$
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Convert a binary log file to a text one
+   *
+   * @param src
+   *          the source file
+   * @param dest
+   *          the destination file
+   * @return {@code true} if the file was converted, {@code false} if it
+   *         was skipped
+   * @throws IOException
+   *           if io fails
+   */
+  private static final boolean __toText(final File src, final File dest)
+      throws IOException {
+    final String[] header;
+    final ArrayList<DataPoint> points;
+    final byte[] buffer;
+    final double factor;
+    final Instance inst;
+    int r;
+
+    header = new String[3];
+    points = new ArrayList<>();
+    try (InputStream in = new BufferedInputStream(new FileInputStream(src))) {
+      factor = BinaryLogFormat._read(in, header, points);
+      inst = Instance.forName(header[0]);
+      if (inst == null) {
+        return false;
+      }
+
+      try (PrintStream ps = new PrintStream(new BufferedOutputStream(
+          new FileOutputStream(dest)), false, "UTF-8")) { //$NON-NLS-1$
+        ObjectiveFunction._printTextHeader(header[1], header[2],
+            inst.name(), inst.symmetric(), ps);
+        for (final DataPoint p : points) {
+          ObjectiveFunction._printTextPoint(p, inst.optimum(), factor, ps);
+        }
+        ps.println(ObjectiveFunction.SECTION_END);
+
+        buffer = new byte[4096];
+        while ((r = in.read(buffer)) > 0) {
+          ps.write(buffer, 0, r);
+        }
+        if (ps.checkError()) {
+          throw new IOException("Could not write '" + dest + '\'');//$NON-NLS-1$
+        }
+      }
+    }
+    return true;
+  }
+}
@@ -9,7 +9,7 @@ package org.logisticPlanning.tsp.benchmarking.objective;
  * A {@link org.logisticPlanning.tsp.benchmarking.objective.LogPoint log
  * point} representing the current state of the optimization algorithm.
  * This log point is special by providing a {@link #getConsumedRuntime()}
- * function which uses {@link java.lang.System#currentTimeMillis()} to
+ * function which uses {@link java.lang.System#nanoTime()} to
  * compute the runtime that has passed and which additionally updates the
  * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction#shouldTerminate()
  * termination criterion} of the
@@ -61,6 +61,27 @@ final class _CurrentLogPoint extends LogPoint {
     return this.m_time;
   }
 
+  /**
+   * <p>
+   * Get an estimate of the amount of CPU time in milliseconds consumed by
+   * the thread running the algorithm until the current point in time.
+   * </p>
+   * <p>
+   * Warning: Calling this function is very time consuming, as it will
+   * update the state of the owning objective function instance and lead to
+   * a system call!
+   * </p>
+   *
+   * @return the amount of milliseconds of CPU time consumed.
+   */
+  @Override
+  public final long getConsumedCPUTime() {
+    if (this.m_owner != null) {
+      this.m_owner._updateConsumedTime();
+    }
+    return this.m_cpuTime;
+  }
+
   /**
    * Find a replacement to be written into a stream. As this log point is
    * linked to an objective function, we instead store a copy of it. This
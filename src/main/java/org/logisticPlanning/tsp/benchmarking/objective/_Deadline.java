@@ -0,0 +1,117 @@
+package org.logisticPlanning.tsp.benchmarking.objective;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * The deadline of a run or initialization procedure, as scheduled in the
+ * timing wheel of the
+ * {@link org.logisticPlanning.tsp.benchmarking.objective._TerminationThread
+ * termination thread}. A deadline is never re-used: each time an
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction
+ * objective function} begins a run, a new deadline is created. Cancelling
+ * a deadline does not remove it from the wheel, it just marks it, so that
+ * it can be dropped the next time the termination thread visits it. The
+ * state of a deadline is changed atomically, so that a deadline can
+ * either be cancelled or fire, but never both.
+ * </p>
+ */
+final class _Deadline {
+
+  /** the deadline is waiting to fire */
+  private static final int STATE_ACTIVE = 0;
+  /** the deadline has been cancelled */
+  private static final int STATE_CANCELLED = 1;
+  /** the deadline is currently firing */
+  private static final int STATE_FIRING = 2;
+  /** the deadline has fired */
+  private static final int STATE_FIRED = 3;
+
+  /** the updater for the state */
+  private static final AtomicIntegerFieldUpdater<_Deadline> STATE = AtomicIntegerFieldUpdater
+      .newUpdater(_Deadline.class, "m_state"); //$NON-NLS-1$
+
+  /** the owning objective function */
+  final ObjectiveFunction m_owner;
+
+  /**
+   * the end time, obtained from
+   * {@link java.lang.System#currentTimeMillis()}
+   */
+  final long m_end;
+
+  /** the next deadline in the same bucket of the timing wheel */
+  _Deadline m_next;
+
+  /** the state */
+  private volatile int m_state;
+
+  /**
+   * create the deadline
+   *
+   * @param owner
+   *          the owning objective function
+   * @param end
+   *          the end time
+   */
+  _Deadline(final ObjectiveFunction owner, final long end) {
+    super();
+    this.m_owner = owner;
+    this.m_end = end;
+  }
+
+  /**
+   * Has this deadline been cancelled?
+   *
+   * @return {@code true} if the deadline has been cancelled,
+   *         {@code false} otherwise
+   */
+  final boolean _isCancelled() {
+    return (this.m_state == _Deadline.STATE_CANCELLED);
+  }
+
+  /**
+   * Cancel the deadline. If the deadline is firing at the moment, wait
+   * until it has fired.
+   */
+  final void _cancel() {
+    for (;;) {
+      switch (this.m_state) {
+        case STATE_ACTIVE: {
+          if (_Deadline.STATE.compareAndSet(this, _Deadline.STATE_ACTIVE,
+              _Deadline.STATE_CANCELLED)) {
+            return;
+          }
+          break;
+        }
+        case STATE_FIRING: {
+          Thread.yield();
+          break;
+        }
+        default: {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Begin firing the deadline
+   *
+   * @return {@code true} if the deadline was active and is now firing,
+   *         {@code false} if it has been cancelled
+   */
+  final boolean _beginFire() {
+    return _Deadline.STATE.compareAndSet(this, _Deadline.STATE_ACTIVE,
+        _Deadline.STATE_FIRING);
+  }
+
+  /** the deadline has fired */
+  final void _endFire() {
+    this.m_state = _Deadline.STATE_FIRED;
+  }
+}
@@ -0,0 +1,362 @@
+package org.logisticPlanning.tsp.benchmarking.objective;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * This internal {@link java.lang.Thread thread} manages the leases on the
+ * log files of the runs performed by this JVM. If several processes,
+ * maybe on different machines, work on the same result directory, a run
+ * is claimed by atomically creating a lease file next to its log file,
+ * with the same name plus the suffix {@value #LEASE_SUFFIX}, before the
+ * log file itself is created. The lease file contains a token unique for
+ * the lease. While the run is ongoing, this thread periodically sets the
+ * modification time of the lease file to the current time (heartbeat).
+ * When the run has ended and its log file has been written, the lease
+ * file is deleted, so that the layout of the result directory is the
+ * same as without leases.
+ * </p>
+ * <p>
+ * If a process dies, its lease files are no longer updated. Once the
+ * modification time of a lease file is older than the lease timeout, any
+ * other process may {@link #_reclaim(File, long) reclaim} it: It first
+ * renames the lease file to a name unique to itself, which only one
+ * process can succeed in, and then deletes the incomplete log file, even
+ * if the log was streamed, so that the run will be performed again. The
+ * log file is only kept if the run can be resumed from its
+ * {@link _Checkpoint checkpoint}. The clocks of the machines should
+ * therefore be synchronized much more precisely than the lease timeout.
+ * </p>
+ */
+final class _LeaseThread extends Thread {
+
+  /** the suffix of the lease files: {@value} */
+  static final String LEASE_SUFFIX = ".lease"; //$NON-NLS-1$
+
+  /** the suffix of lease files being reclaimed: {@value} */
+  static final String RECLAIM_SUFFIX = ".reclaim"; //$NON-NLS-1$
+
+  /** the name of this process */
+  private static final String OWNER = ManagementFactory.getRuntimeMXBean()
+      .getName();
+
+  /** the counter for the tokens */
+  private static final AtomicLong COUNTER = new AtomicLong();
+
+  /** the lease files held by this process, mapped to their tokens */
+  private static final ConcurrentHashMap<File, String> LEASES = new ConcurrentHashMap<>();
+
+  /** the instance */
+  private static final _LeaseThread INSTANCE;
+
+  static {
+    INSTANCE = new _LeaseThread();
+    _LeaseThread.INSTANCE.start();
+  }
+
+  /** the time in milliseconds between two heartbeats */
+  private volatile long m_interval;
+
+  /** is the thread waiting for new leases? */
+  private volatile boolean m_idle;
+
+  /** create */
+  private _LeaseThread() {
+    super();
+    this.m_interval = Long.MAX_VALUE;
+    this.setDaemon(true);
+  }
+
+  /**
+   * Get the lease file belonging to a log file
+   *
+   * @param log
+   *          the log file
+   * @return the lease file
+   */
+  static final File _leaseFile(final File log) {
+    return new File(log.getParentFile(),
+        (log.getName() + _LeaseThread.LEASE_SUFFIX));
+  }
+
+  /**
+   * Is the given file a lease file, i.e., not a log file?
+   *
+   * @param f
+   *          the file
+   * @return {@code true} if the file is a lease file, {@code false}
+   *         otherwise
+   */
+  static final boolean _isLeaseFile(final File f) {
+    final String name;
+
+    name = f.getName();
+    return (name.endsWith(_LeaseThread.LEASE_SUFFIX) || name
+        .endsWith(_LeaseThread.RECLAIM_SUFFIX));
+  }
+
+  /**
+   * Is the given lease file held by this process?
+   *
+   * @param lease
+   *          the lease file
+   * @return {@code true} if the lease is held by this process,
+   *         {@code false} otherwise
+   */
+  static final boolean _isOwn(final File lease) {
+    return _LeaseThread.LEASES.containsKey(lease);
+  }
+
+  /**
+   * Try to claim a run by first creating its lease file and then its log
+   * file
+   *
+   * @param log
+   *          the log file
+   * @param timeout
+   *          the lease timeout in milliseconds
+   * @return {@code true} if the run has been claimed, {@code false} if
+   *         the lease or the log file already exist
+   * @throws IOException
+   *           if the files cannot be created
+   */
+  static final boolean _acquire(final File log, final long timeout)
+      throws IOException {
+    return _LeaseThread.__acquire(log, timeout, true);
+  }
+
+  /**
+   * Try to claim an interrupted run whose log file already exists in
+   * order to resume it from its {@link _Checkpoint checkpoint}
+   *
+   * @param log
+   *          the log file
+   * @param timeout
+   *          the lease timeout in milliseconds
+   * @return {@code true} if the run has been claimed, {@code false} if
+   *         the lease file already exists
+   * @throws IOException
+   *           if the lease file cannot be created
+   */
+  static final boolean _acquireExisting(final File log, final long timeout)
+      throws IOException {
+    return _LeaseThread.__acquire(log, timeout, false);
+  }
+
+  /**
+   * Try to claim a run by creating its lease file
+   *
+   * @param log
+   *          the log file
+   * @param timeout
+   *          the lease timeout in milliseconds
+   * @param create
+   *          should the log file be created, too?
+   * @return {@code true} if the run has been claimed, {@code false}
+   *         otherwise
+   * @throws IOException
+   *           if the files cannot be created
+   */
+  private static final boolean __acquire(final File log,
+      final long timeout, final boolean create) throws IOException {
+    final File lease;
+    final String token;
+    final _LeaseThread thread;
+    final long interval;
+
+    lease = _LeaseThread._leaseFile(log);
+    if (!(lease.createNewFile())) {
+      return false;
+    }
+
+    token = (_LeaseThread.OWNER + '#' + _LeaseThread.COUNTER
+        .incrementAndGet());
+    try {
+      try (FileOutputStream fos = new FileOutputStream(lease)) {
+        fos.write(token.getBytes("UTF-8")); //$NON-NLS-1$
+      }
+      if (create ? (!(log.createNewFile())) : (!(log.exists()))) {
+        // the run has already been performed
+        lease.delete();
+        return false;
+      }
+    } catch (final IOException ioe) {
+      lease.delete();
+      throw ioe;
+    }
+
+    _LeaseThread.LEASES.put(lease, token);
+
+    thread = _LeaseThread.INSTANCE;
+    interval = Math.max(1l, (timeout >>> 2l));
+    if (interval < thread.m_interval) {
+      thread.m_interval = interval;
+    }
+    if (thread.m_idle) {
+      LockSupport.unpark(thread);
+    }
+    return true;
+  }
+
+  /**
+   * Check whether this process still holds the lease on a log file, i.e.,
+   * whether it has not been reclaimed by another process
+   *
+   * @param log
+   *          the log file
+   * @return {@code true} if the lease is still held, {@code false}
+   *         otherwise
+   */
+  static final boolean _holds(final File log) {
+    final File lease;
+    final String token;
+
+    lease = _LeaseThread._leaseFile(log);
+    token = _LeaseThread.LEASES.get(lease);
+    return ((token != null) && token.equals(_LeaseThread.__read(lease)));
+  }
+
+  /**
+   * Release the lease on a log file after the log has been written
+   *
+   * @param log
+   *          the log file
+   */
+  static final void _release(final File log) {
+    final File lease;
+    final String token;
+
+    lease = _LeaseThread._leaseFile(log);
+    token = _LeaseThread.LEASES.remove(lease);
+    // do not delete a lease which another process has taken over
+    if ((token != null) && token.equals(_LeaseThread.__read(lease))) {
+      lease.delete();
+    }
+  }
+
+  /**
+   * Reclaim a lease of another process if it has expired
+   *
+   * @param lease
+   *          the lease file
+   * @param timeout
+   *          the lease timeout in milliseconds
+   * @return {@code true} if the lease has been reclaimed, {@code false}
+   *         if it is still valid
+   */
+  static final boolean _reclaim(final File lease, final long timeout) {
+    final File tomb, log;
+    final String name;
+    long time;
+
+    if (!(lease.getName().endsWith(_LeaseThread.LEASE_SUFFIX))) {
+      // a lease being reclaimed: delete it if the reclaiming process died
+      time = lease.lastModified();
+      if ((time > 0l)
+          && ((System.currentTimeMillis() - time) > timeout)) {
+        lease.delete();
+      }
+      return false;
+    }
+
+    time = lease.lastModified();
+    if ((time <= 0l) || ((System.currentTimeMillis() - time) <= timeout)) {
+      return false;
+    }
+
+    // only one process can succeed in renaming the lease
+    name = lease.getName();
+    tomb = new File(lease.getParentFile(),//
+        (name + '.' + _LeaseThread.OWNER.replace('@', '_') + '.'
+            + _LeaseThread.COUNTER.incrementAndGet() + _LeaseThread.RECLAIM_SUFFIX));
+    if (!(lease.renameTo(tomb))) {
+      return false;
+    }
+
+    try {
+      time = tomb.lastModified();
+      if ((time <= 0l) || ((System.currentTimeMillis() - time) <= timeout)) {
+        // the lease has been renewed in the meantime: give it back
+        tomb.renameTo(lease);
+        return false;
+      }
+      // mark the time when the reclaiming began
+      tomb.setLastModified(System.currentTimeMillis());
+
+      log = new File(lease.getParentFile(),//
+          name.substring(0,
+              (name.length() - _LeaseThread.LEASE_SUFFIX.length())));
+      // a run with a checkpoint will be resumed, so its log is kept,
+      // any other run is performed again from scratch
+      if (log.exists() && (!(_Checkpoint._hasState(log)))) {
+        log.delete();
+      }
+    } finally {
+      tomb.delete();
+    }
+    return true;
+  }
+
+  /**
+   * Read the token from a lease file
+   *
+   * @param lease
+   *          the lease file
+   * @return the token, or {@code null} if the file cannot be read
+   */
+  private static final String __read(final File lease) {
+    final byte[] data;
+    int length, read;
+
+    try (FileInputStream fis = new FileInputStream(lease)) {
+      data = new byte[256];
+      length = 0;
+      while ((length < data.length)
+          && ((read = fis.read(data, length, (data.length - length))) > 0)) {
+        length += read;
+      }
+      return new String(data, 0, length, "UTF-8"); //$NON-NLS-1$
+    } catch (final IOException ioe) {
+      return null;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void run() {
+    long time;
+
+    for (;;) {
+      if (_LeaseThread.LEASES.isEmpty()) {
+        this.m_idle = true;
+        if (_LeaseThread.LEASES.isEmpty()) {
+          LockSupport.park(this);
+        }
+        this.m_idle = false;
+        continue;
+      }
+
+      time = System.currentTimeMillis();
+      for (final Map.Entry<File, String> e : _LeaseThread.LEASES
+          .entrySet()) {
+        // a lease which has been reclaimed does not exist anymore and
+        // cannot be renewed
+        e.getKey().setLastModified(time);
+      }
+
+      LockSupport.parkNanos(this, (this.m_interval * 1000000l));
+    }
+  }
+}
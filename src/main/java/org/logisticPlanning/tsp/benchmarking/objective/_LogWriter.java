@@ -0,0 +1,554 @@
+package org.logisticPlanning.tsp.benchmarking.objective;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * This internal {@link java.lang.Thread thread} streams the log points of
+ * one run of an
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction
+ * objective function} to its log file while the run is still ongoing. The
+ * head of the log file is written when the run begins. The objective
+ * function then {@link #_offer(LogPoint) offers} each log point to a
+ * bounded queue with a single producer and a single consumer. Offering a
+ * point never blocks: if the queue is full, the objective function keeps
+ * the point and offers it again later. The thread drains the queue,
+ * appends the points to the file, flushes them to the operating system,
+ * and forces them to the disk at least every {@value #SYNC_INTERVAL}
+ * milliseconds. When the run ends, the objective function appends the
+ * remaining log points and sections to the same stream.
+ * </p>
+ * <p>
+ * While the run is ongoing, the thread holds a
+ * {@link java.nio.channels.FileChannel#tryLock() lock} on the log file.
+ * If the process dies, the operating system releases the lock and the log
+ * file ends in the middle of the log data section. Such files are found
+ * by {@link #_recover(File, boolean)} when the benchmark is started
+ * again: If they contain at least one complete log point, the last one is
+ * marked as end of the run, the log data section is closed, and a
+ * benchmark information section with the key
+ * {@link ObjectiveFunction#INTERRUPTED} is appended, so that the run can
+ * be evaluated up to the point where it was interrupted and can be told
+ * apart from complete runs. Otherwise, or if the
+ * {@link Benchmark#PARAM_DISCARD_INTERRUPTED interrupted logs are to be
+ * discarded}, the file is deleted and the run will be repeated. This
+ * works for text and
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.BinaryLogFormat
+ * binary} log files alike.
+ * </p>
+ */
+final class _LogWriter extends Thread {
+
+  /**
+   * the maximum time in milliseconds between two synchronizations of the
+   * log file with the disk: {@value}
+   */
+  static final long SYNC_INTERVAL = 1000l;
+
+  /** the number of log points that fit into the queue: {@value} */
+  static final int CAPACITY = 64;
+
+  /** the number of {@code long} values per queued log point: {@value} */
+  private static final int RECORD = 6;
+
+  /** the number of bytes to check at the end of a log file: {@value} */
+  private static final int TAIL = 64;
+
+  /**
+   * the number of bytes initially read from the end of an interrupted
+   * text log file in order to find its last log point: {@value}
+   */
+  private static final int WINDOW = 4096;
+
+  /** the owning objective function */
+  private final ObjectiveFunction m_owner;
+
+  /** the queue of log points */
+  private final long[] m_queue;
+
+  /** the number of log points put into the queue, only set by the owner */
+  private volatile long m_put;
+
+  /**
+   * the number of log points taken from the queue, only set by this
+   * thread
+   */
+  private volatile long m_take;
+
+  /** should the thread stop after draining the queue? */
+  private volatile boolean m_stop;
+
+  /** the error which has stopped the thread, if any */
+  private volatile Throwable m_error;
+
+  /** the output stream of the log file */
+  private final FileOutputStream m_fos;
+
+  /** the lock on the log file */
+  private final FileLock m_lock;
+
+  /** the print stream used for writing */
+  private final PrintStream m_out;
+
+  /**
+   * create the log writer, write the head of the log file, and start the
+   * thread
+   *
+   * @param owner
+   *          the owning objective function
+   * @param file
+   *          the log file
+   * @throws IOException
+   *           if the file cannot be opened or locked
+   */
+  _LogWriter(final ObjectiveFunction owner, final File file)
+      throws IOException {
+    super("LogWriter"); //$NON-NLS-1$
+
+    this.setDaemon(true);
+    this.m_owner = owner;
+    this.m_queue = new long[_LogWriter.CAPACITY * _LogWriter.RECORD];
+
+    this.m_fos = new FileOutputStream(file);
+    try {
+      this.m_lock = this.m_fos.getChannel().tryLock();
+      if (this.m_lock == null) {
+        throw new IOException("Log file '" + file + //$NON-NLS-1$
+            "' is locked by another process."); //$NON-NLS-1$
+      }
+      this.m_out = new PrintStream(new BufferedOutputStream(this.m_fos),
+          false, "UTF-8"); //$NON-NLS-1$
+      owner._printHeader(this.m_out);
+      this.__flush();
+    } catch (final Throwable t) {
+      this.m_fos.close();
+      throw t;
+    }
+
+    this.start();
+  }
+
+  /**
+   * Offer a log point to the queue. This method is only called by the
+   * owning objective function and never blocks.
+   *
+   * @param p
+   *          the log point
+   * @return {@code true} if the point was put into the queue,
+   *         {@code false} if the queue is full
+   */
+  final boolean _offer(final LogPoint p) {
+    final long put;
+    int i;
+
+    put = this.m_put;
+    if ((put - this.m_take) >= _LogWriter.CAPACITY) {
+      return false;
+    }
+
+    i = (((int) (put % _LogWriter.CAPACITY)) * _LogWriter.RECORD);
+    this.m_queue[i++] = p.m_fe;
+    this.m_queue[i++] = p.m_de;
+    this.m_queue[i++] = p.m_time;
+    this.m_queue[i++] = p.m_cpuTime;
+    this.m_queue[i++] = p.m_f;
+    this.m_queue[i] = p.m_type;
+    this.m_put = (put + 1l);
+
+    LockSupport.unpark(this);
+    return true;
+  }
+
+  /**
+   * flush the print stream
+   *
+   * @throws IOException
+   *           if writing has failed
+   */
+  private final void __flush() throws IOException {
+    this.m_out.flush();
+    if (this.m_out.checkError()) {
+      throw new IOException("Could not write to log file."); //$NON-NLS-1$
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void run() {
+    LogPoint p, prev, swap;
+    boolean stop, dirty;
+    long put, take, last, now;
+    int i;
+
+    p = new LogPoint();
+    prev = null;
+    dirty = false;
+    last = System.currentTimeMillis();
+
+    try {
+      for (;;) {
+        // read the stop flag first: all points offered before it was set
+        // will be drained below
+        stop = this.m_stop;
+
+        put = this.m_put;
+        take = this.m_take;
+        if (take < put) {
+          for (; take < put; take++) {
+            i = (((int) (take % _LogWriter.CAPACITY)) * _LogWriter.RECORD);
+            p.m_fe = this.m_queue[i++];
+            p.m_de = this.m_queue[i++];
+            p.m_time = this.m_queue[i++];
+            p.m_cpuTime = this.m_queue[i++];
+            p.m_f = this.m_queue[i++];
+            p.m_type = ((int) (this.m_queue[i]));
+            this.m_owner._printLogPoint(prev, p, this.m_out);
+            swap = ((prev != null) ? prev : new LogPoint());
+            prev = p;
+            p = swap;
+          }
+          this.m_take = take;
+          this.__flush();
+          dirty = true;
+        }
+
+        now = System.currentTimeMillis();
+        if (dirty && (stop || ((now - last) >= _LogWriter.SYNC_INTERVAL))) {
+          this.m_fos.getChannel().force(false);
+          dirty = false;
+          last = now;
+        }
+
+        if (stop) {
+          return;
+        }
+        LockSupport.parkNanos(this, (_LogWriter.SYNC_INTERVAL * 1000000l));
+      }
+    } catch (final Throwable t) {
+      this.m_error = t;
+    }
+  }
+
+  /**
+   * Stop the thread after it has written all queued log points and wait
+   * until it has finished. Afterwards, the rest of the log file can be
+   * written to {@link #_stream()}.
+   *
+   * @throws IOException
+   *           if writing the log points has failed
+   */
+  final void _stop() throws IOException {
+    final Throwable error;
+    boolean interrupted;
+
+    this.m_stop = true;
+    LockSupport.unpark(this);
+
+    interrupted = false;
+    while (this.isAlive()) {
+      try {
+        this.join();
+      } catch (final InterruptedException ie) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+
+    error = this.m_error;
+    if (error != null) {
+      this.m_out.close();
+      throw new IOException("Could not stream log file.", error); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * Get the print stream of the log file. Closing it releases the lock on
+   * the file.
+   *
+   * @return the print stream of the log file
+   */
+  final PrintStream _stream() {
+    return this.m_out;
+  }
+
+  /**
+   * Flush the print stream and force its contents to the disk
+   *
+   * @throws IOException
+   *           if writing has failed
+   */
+  final void _sync() throws IOException {
+    this.__flush();
+    this.m_fos.getChannel().force(true);
+  }
+
+  /**
+   * Find the log files in a directory whose runs have been interrupted
+   * while their log was streamed and either complete or delete them. Log
+   * files which are locked by a run that is still ongoing are not touched.
+   *
+   * @param dir
+   *          the directory
+   * @param discard
+   *          should the log files be deleted even if they could be
+   *          completed?
+   * @throws IOException
+   *           if a log file cannot be read or written
+   */
+  static final void _recover(final File dir, final boolean discard)
+      throws IOException {
+    final File[] files;
+
+    files = dir.listFiles();
+    if (files == null) {
+      return;
+    }
+
+    for (final File f : files) {
+      // runs under a lease are reclaimed when their lease expires
+      // runs with a checkpoint are resumed instead
+      if (f.isFile() && (!(_LeaseThread._isLeaseFile(f)))
+          && (!(_LeaseThread._leaseFile(f).exists()))
+          && (!(_Checkpoint._isCheckpointFile(f)))
+          && (!(_Checkpoint._hasState(f)))) {
+        _LogWriter._recoverLog(f, discard);
+      }
+    }
+  }
+
+  /**
+   * Complete the log file of a run that has been interrupted while its log
+   * was streamed, or delete it if it does not contain any log point or
+   * {@code discard} is {@code true}. If the log file is locked by a run
+   * which is still ongoing, it is not touched.
+   *
+   * @param f
+   *          the log file
+   * @param discard
+   *          should the log file be deleted even if it could be completed?
+   * @throws IOException
+   *           if the log file cannot be read or written
+   */
+  static final void _recoverLog(final File f, final boolean discard)
+      throws IOException {
+    if (f.length() > 0l) {
+      if (_LogWriter.__recover(f, discard)) {
+        f.delete();
+      }
+    }
+  }
+
+  /**
+   * Check whether a log file has been interrupted and complete it, if
+   * possible
+   *
+   * @param file
+   *          the file
+   * @param discard
+   *          should an interrupted file be deleted even if it could be
+   *          completed?
+   * @return {@code true} if the file has been interrupted and contains no
+   *         log point or should be discarded, i.e., if it should be
+   *         deleted, {@code false} otherwise
+   * @throws IOException
+   *           if the file cannot be read or written
+   */
+  private static final boolean __recover(final File file,
+      final boolean discard) throws IOException {
+    final long[] point;
+    final long length;
+    FileLock lock;
+    byte[] data;
+    String line;
+    long offset, last;
+    int size, start, end, type;
+
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+      try {
+        lock = raf.getChannel().tryLock();
+      } catch (final OverlappingFileLockException ofle) {
+        return false; // the run is ongoing in this JVM
+      }
+      if (lock == null) {
+        return false; // the run is ongoing in another process
+      }
+
+      try {
+        length = raf.length();
+
+        // a complete log file ends with the end of a section
+        size = ((int) (Math.min(length, _LogWriter.TAIL)));
+        data = new byte[size];
+        raf.seek(length - size);
+        raf.readFully(data);
+        if (new String(data, "UTF-8").trim().endsWith(//$NON-NLS-1$
+            ObjectiveFunction.SECTION_END)) {
+          return false;
+        }
+        if (discard) {
+          return true;
+        }
+
+        raf.seek(0l);
+        raf.readFully(data);
+        if (BinaryLogFormat._isBinary(data, size)) {
+          // the log data is at the beginning of the file and can only be
+          // read forward
+          raf.seek(0l);
+          point = new long[2];
+          if (!(BinaryLogFormat._lastComplete(new BufferedInputStream(
+              Channels.newInputStream(raf.getChannel())), point))) {
+            return true;
+          }
+
+          // mark the last complete log point as end of the run, cut off
+          // everything after it, and end the log data
+          raf.seek(point[0]);
+          type = raf.read();
+          raf.seek(point[0]);
+          raf.write(type | ObjectiveFunction.TYPE_FLAG_END);
+          raf.setLength(point[1]);
+          raf.seek(point[1]);
+          raf.write(BinaryLogFormat.END);
+          _LogWriter.__close(raf, false);
+          return false;
+        }
+
+        // read the file backwards in growing windows until the last
+        // complete log point is found: log points are the only lines
+        // which begin with a digit, all other lines are comments, section
+        // names, or key-value pairs
+        last = (-1l);
+        line = null;
+        size = _LogWriter.WINDOW;
+        finder: for (;;) {
+          size = ((int) (Math.min(length, size)));
+          offset = (length - size);
+          data = new byte[size];
+          raf.seek(offset);
+          raf.readFully(data);
+
+          // the last line is complete only if it ends with a newline
+          for (end = size; (end > 0) && (data[end - 1] != '\n'); end--) {
+            //
+          }
+
+          while (end > 0) {
+            for (start = (end - 1); (start > 0) && (data[start - 1] != '\n'); start--) {
+              //
+            }
+            if ((start <= 0) && (offset > 0l)) {
+              break; // the line may begin before the window
+            }
+
+            line = _LogWriter.__strip(new String(data, start,
+                (end - start), "UTF-8")); //$NON-NLS-1$
+            if (ObjectiveFunction.LOG_DATA_SECTION.equalsIgnoreCase(line)) {
+              return true; // no complete log point
+            }
+            if ((line.length() > 0) && Character.isDigit(line.charAt(0))) {
+              last = (offset + start);
+              break finder;
+            }
+            end = start;
+          }
+
+          if (offset <= 0l) {
+            return true; // no complete log point
+          }
+          if (size > (Integer.MAX_VALUE >>> 1)) {
+            return false; // too large to be examined, leave it as is
+          }
+          size <<= 1;
+        }
+
+        // mark the last complete log point as end of the run, cut off
+        // everything after it, and close the log data section
+        if (line.indexOf(ObjectiveFunction.TYPE_FLAG_END_CHAR) < 0) {
+          line += (Character.isLetter(line.charAt(line.length() - 1)) ? //
+          String.valueOf(ObjectiveFunction.TYPE_FLAG_END_CHAR)
+              : ("\t" + ObjectiveFunction.TYPE_FLAG_END_CHAR)); //$NON-NLS-1$
+        }
+        raf.setLength(last);
+        raf.seek(last);
+        raf.write((line + System.lineSeparator()).getBytes("UTF-8")); //$NON-NLS-1$
+        _LogWriter.__close(raf, true);
+      } finally {
+        lock.release();
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Remove the comment from a line of a log file and trim it
+   *
+   * @param line
+   *          the line
+   * @return the line without comment and surrounding white space
+   */
+  private static final String __strip(final String line) {
+    final int i;
+
+    i = line.indexOf(ObjectiveFunction.COMMENT_START);
+    return ((i >= 0) ? line.substring(0, i) : line).trim();
+  }
+
+  /**
+   * Close the log data section of a log file which has been cut off after
+   * its last complete log point, append a benchmark information section
+   * which marks the run as {@link ObjectiveFunction#INTERRUPTED
+   * interrupted}, and force the file to the disk
+   *
+   * @param raf
+   *          the log file, positioned at its end
+   * @param text
+   *          is the log data stored as text, i.e., does the log data
+   *          section need to be closed?
+   * @throws IOException
+   *           if the file cannot be written
+   */
+  private static final void __close(final RandomAccessFile raf,
+      final boolean text) throws IOException {
+    final StringBuilder sb;
+    final String nl;
+
+    nl = System.lineSeparator();
+    sb = new StringBuilder();
+    if (text) {
+      sb.append(ObjectiveFunction.SECTION_END);
+      sb.append(nl);
+    }
+    sb.append(ObjectiveFunction.COMMENT_START);
+    sb.append(" The run was interrupted, its log was completed when the benchmark was restarted."); //$NON-NLS-1$
+    sb.append(nl);
+    sb.append(ObjectiveFunction.BENCHMARK_INFORMATION_SECTION);
+    sb.append(nl);
+    sb.append(ObjectiveFunction.INTERRUPTED);
+    sb.append(":\t"); //$NON-NLS-1$
+    sb.append(true);
+    sb.append(nl);
+    sb.append(ObjectiveFunction.SECTION_END);
+    sb.append(nl);
+
+    raf.write(sb.toString().getBytes("UTF-8")); //$NON-NLS-1$
+    raf.getChannel().force(true);
+  }
+}
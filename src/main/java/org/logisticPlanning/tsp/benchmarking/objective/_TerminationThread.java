@@ -1,5 +1,9 @@
 package org.logisticPlanning.tsp.benchmarking.objective;
 
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * <p>
  * This class is an internal class. Please do not instantiate it, use it by
@@ -9,28 +13,87 @@ package org.logisticPlanning.tsp.benchmarking.objective;
  * We could also check whether a runtime limit is reached by calling
  * {@link java.lang.System#currentTimeMillis()}, but this would be costly
  * (system calls!) and waste time during optimization. Thus, instead, we
- * have this thread which {@link java.lang.Object#wait(long) sleeps} until
- * the time limit of an objective function is reached and then updates its
+ * have this thread which {@link java.util.concurrent.locks.LockSupport#parkNanos(Object, long)
+ * sleeps} until the time limit of an objective function is reached and
+ * then updates its
  * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction#shouldTerminate()
  * termination criterion}. As one thread is shared for all instances of
  * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction
  * ObjectiveFunction}, this method is very resource-friendly and saves
- * runtime.</p>
+ * runtime. If the runtime limit applies to the
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#PARAM_CPU_TIME_LIMIT
+ * CPU time}, the end time is only the earliest point in time at which the
+ * limit could have been reached, since a thread can never consume more CPU
+ * time than the time that has passed. When it is reached, the CPU time of
+ * the thread running the algorithm is checked and, if some of it is left,
+ * the objective function is put back into the queue with a correspondingly
+ * later end time.</p>
+ * <p>
+ * The {@link org.logisticPlanning.tsp.benchmarking.objective._Deadline
+ * deadlines} are kept in a hashed timing wheel: an array of
+ * {@value #WHEEL_SIZE} buckets, each of which holds the deadlines falling
+ * into one tick of {@value #TICK} milliseconds (modulo the length of the
+ * wheel). Beginning a run just appends its deadline to a lock-free queue,
+ * from which the thread moves it into its bucket. Ending a run just marks
+ * the deadline as cancelled, it is dropped when the thread visits its
+ * bucket for the next time. Both operations thus take constant time and
+ * do not need a global lock, so that many short runs executed in parallel
+ * do not contend for the termination thread. The price is that a run may
+ * be terminated up to one tick late. How late runs actually stop is
+ * {@link #_late(long) counted}.
+ * </p>
  */
 final class _TerminationThread extends Thread {
 
-  /** the synchronizer */
-  private static final Object SYNC = new Object();
+  /** the length of one tick of the wheel in milliseconds: {@value} */
+  static final long TICK = 4l;
+
+  /** the number of buckets of the wheel, a power of two: {@value} */
+  static final int WHEEL_SIZE = 512;
+
+  /** the deadlines which have not yet been put into the wheel */
+  private static final ConcurrentLinkedQueue<_Deadline> PENDING = new ConcurrentLinkedQueue<>();
+
+  /** the number of runs which stopped after their time limit */
+  private static final AtomicLong LATE_COUNT = new AtomicLong();
+
+  /**
+   * the sum of the times in milliseconds by which runs have exceeded their
+   * time limit
+   */
+  private static final AtomicLong LATE_TOTAL = new AtomicLong();
+
+  /**
+   * the maximum time in milliseconds by which a run has exceeded its time
+   * limit
+   */
+  private static final AtomicLong LATE_MAX = new AtomicLong();
 
-  /** the queue */
-  private static volatile ObjectiveFunction s_queue = null;
   /** the instance */
-  private static volatile _TerminationThread s_instance = null;
+  private static final _TerminationThread INSTANCE;
+
+  static {
+    INSTANCE = new _TerminationThread();
+    _TerminationThread.INSTANCE.start();
+  }
+
+  /** the buckets of the wheel */
+  private final _Deadline[] m_wheel;
+
+  /** the number of deadlines in the wheel */
+  private int m_size;
+
+  /** the last tick which was processed */
+  private long m_tick;
+
+  /** is the thread waiting for new deadlines? */
+  private volatile boolean m_idle;
 
   /** create */
   private _TerminationThread() {
     super();
 
+    this.m_wheel = new _Deadline[_TerminationThread.WHEEL_SIZE];
     this.setDaemon(true);
   }
 
@@ -42,112 +105,230 @@ final class _TerminationThread extends Thread {
    */
   static final void _enqueue(final ObjectiveFunction f) {
     final long t;
-    ObjectiveFunction prev, next;
+    final _Deadline d;
+    final _TerminationThread thread;
 
     if (f == null) {
       return;
     }
+    _TerminationThread._dequeue(f);
+
     t = f.m_endTime;
     if ((t >= Long.MAX_VALUE) || (t <= 0l)) {
       return;
     }
 
-    synchronized (_TerminationThread.SYNC) {
-
-      prev = null;
-      next = _TerminationThread.s_queue;
+    d = new _Deadline(f, t);
+    f.m_deadline = d;
+    _TerminationThread.PENDING.add(d);
 
-      while (next != null) {
-        if (next == f) {
-          return;
-        }
-        if (next.m_endTime > f.m_endTime) {
-          break;
-        }
-        prev = next;
-        next = next.m_next;
-      }
+    thread = _TerminationThread.INSTANCE;
+    if (thread.m_idle) {
+      LockSupport.unpark(thread);
+    }
+  }
 
-      f.m_next = next;
-      if (prev != null) {
-        prev.m_next = f;
-        return;
-      }
+  /**
+   * dequeue an objective function
+   *
+   * @param f
+   *          the function
+   */
+  static final void _dequeue(final ObjectiveFunction f) {
+    _Deadline d;
 
-      _TerminationThread.s_queue = f;
+    if (f == null) {
+      return;
+    }
 
-      if (_TerminationThread.s_instance == null) {
-        _TerminationThread.s_instance = new _TerminationThread();
-        _TerminationThread.s_instance.start();
+    // if the deadline is replaced while it fires (CPU time limit), we
+    // need to cancel the replacement as well
+    do {
+      d = f.m_deadline;
+      if (d == null) {
         return;
       }
+      d._cancel();
+    } while (f.m_deadline != d);
+    f.m_deadline = null;
+  }
 
-      _TerminationThread.SYNC.notifyAll();
+  /**
+   * Count that a run has stopped after its time limit
+   *
+   * @param delay
+   *          the time in milliseconds by which the run has exceeded its
+   *          time limit
+   */
+  static final void _late(final long delay) {
+    long max;
+
+    if (delay <= 0l) {
+      return;
     }
+    _TerminationThread.LATE_COUNT.incrementAndGet();
+    _TerminationThread.LATE_TOTAL.addAndGet(delay);
+    do {
+      max = _TerminationThread.LATE_MAX.get();
+    } while ((delay > max)
+        && (!(_TerminationThread.LATE_MAX.compareAndSet(max, delay))));
   }
 
   /**
-   * dequeue an objective function
+   * Get the number of runs that have stopped after their time limit
    *
-   * @param f
-   *          the function
+   * @return the number of runs that have stopped after their time limit
    */
-  static final void _dequeue(final ObjectiveFunction f) {
-    ObjectiveFunction cur, next;
-    if (f == null) {
+  static final long _lateCount() {
+    return _TerminationThread.LATE_COUNT.get();
+  }
+
+  /**
+   * Get the sum of the times in milliseconds by which runs have exceeded
+   * their time limit
+   *
+   * @return the sum of the times by which runs have exceeded their time
+   *         limit
+   */
+  static final long _lateTotal() {
+    return _TerminationThread.LATE_TOTAL.get();
+  }
+
+  /**
+   * Get the maximum time in milliseconds by which a run has exceeded its
+   * time limit
+   *
+   * @return the maximum time by which a run has exceeded its time limit
+   */
+  static final long _lateMax() {
+    return _TerminationThread.LATE_MAX.get();
+  }
+
+  /**
+   * Put a deadline into its bucket
+   *
+   * @param d
+   *          the deadline
+   */
+  private final void __put(final _Deadline d) {
+    final int i;
+
+    // the first tick starting at or after the end time
+    i = ((int) (Math.max(
+        ((d.m_end + (_TerminationThread.TICK - 1l)) / _TerminationThread.TICK),
+        (this.m_tick + 1l)) & (_TerminationThread.WHEEL_SIZE - 1)));
+    d.m_next = this.m_wheel[i];
+    this.m_wheel[i] = d;
+    this.m_size++;
+  }
+
+  /**
+   * Fire a deadline
+   *
+   * @param d
+   *          the deadline
+   * @param time
+   *          the current time
+   */
+  private final void __fire(final _Deadline d, final long time) {
+    final ObjectiveFunction f;
+    final _Deadline next;
+    final long remaining;
+
+    if (!(d._beginFire())) {
       return;
     }
 
-    synchronized (_TerminationThread.SYNC) {
-      cur = null;
-      next = _TerminationThread.s_queue;
-
-      while (next != null) {
-        if (next == f) {
-          if (cur == null) {
-            _TerminationThread.s_queue = next.m_next;
-            _TerminationThread.SYNC.notifyAll();
-            return;
-          }
-          cur.m_next = next.m_next;
+    f = d.m_owner;
+    try {
+      if (f.m_cpuLimit) {
+        remaining = f._remainingCPUTime();
+        if (remaining > 0l) {
+          f.m_endTime = (time + remaining);
+          next = new _Deadline(f, f.m_endTime);
+          f.m_deadline = next;
+          this.__put(next);
           return;
         }
-        cur = next;
-        next = next.m_next;
       }
+      f.m_terminate = true;
+    } finally {
+      d._endFire();
+    }
+  }
+
+  /**
+   * Process one bucket of the wheel
+   *
+   * @param index
+   *          the index of the bucket
+   * @param time
+   *          the current time
+   */
+  private final void __process(final int index, final long time) {
+    _Deadline d, next, keep;
+
+    keep = null;
+    for (d = this.m_wheel[index]; d != null; d = next) {
+      next = d.m_next;
+      if (d._isCancelled()) {
+        this.m_size--;
+        continue;
+      }
+      if (d.m_end <= time) {
+        this.m_size--;
+        this.__fire(d, time);
+        continue;
+      }
+      d.m_next = keep;
+      keep = d;
     }
+    this.m_wheel[index] = keep;
   }
 
   /** {@inheritDoc} */
   @Override
   public final void run() {
-    long time;
+    _Deadline d;
+    long time, tick, target;
+
+    this.m_tick = (System.currentTimeMillis() / _TerminationThread.TICK);
 
     for (;;) {
       time = System.currentTimeMillis();
 
-      synchronized (_TerminationThread.SYNC) {
-
-        inner: for (;;) {
-          if (_TerminationThread.s_queue == null) {
-            _TerminationThread.s_instance = null;
-            return;
-          }
-
-          if (_TerminationThread.s_queue.m_endTime <= time) {
-            _TerminationThread.s_queue.m_terminate = true;
-            _TerminationThread.s_queue = _TerminationThread.s_queue.m_next;
-          } else {
-            break inner;
-          }
+      // move the new deadlines into the wheel
+      while ((d = _TerminationThread.PENDING.poll()) != null) {
+        if (d._isCancelled()) {
+          continue;
         }
+        if (d.m_end <= time) {
+          this.__fire(d, time);
+        } else {
+          this.__put(d);
+        }
+      }
 
-        try {
-          _TerminationThread.SYNC.wait(Math.max(0l,
-              (_TerminationThread.s_queue.m_endTime - time)));
-        } catch (final InterruptedException ie) {
-          continue;
+      // process all buckets up to the current tick, but each at most once
+      target = (time / _TerminationThread.TICK);
+      tick = Math.max(this.m_tick,
+          (target - _TerminationThread.WHEEL_SIZE));
+      while (tick < target) {
+        this.__process(
+            ((int) ((++tick) & (_TerminationThread.WHEEL_SIZE - 1))), time);
+      }
+      this.m_tick = target;
+
+      if (this.m_size > 0) {
+        LockSupport.parkNanos(this, ((((target + 1l) * //
+            _TerminationThread.TICK) - time) * 1000000l));
+      } else {
+        this.m_idle = true;
+        if (_TerminationThread.PENDING.isEmpty()) {
+          LockSupport.park(this);
         }
+        this.m_idle = false;
+        this.m_tick = (System.currentTimeMillis() / _TerminationThread.TICK);
       }
     }
   }
@@ -47,6 +47,10 @@ import org.logisticPlanning.utils.utils.comparison.ComparisonUtils;
  * was taken.</li>
  * <li>{@link #NORMALIZED_RUNTIME}: The normalized runtime consumed until
  * the current log point was taken.</li>
+ * <li>{@link #CPU_RUNTIME}: The
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.LogPoint#getConsumedCPUTime()
+ * CPU time} consumed in milliseconds by the thread running the algorithm
+ * until the current log point was taken.</li>
  * <li>{@link #F}: The absolute objective value (tour length) of the best
  * solution discovered until the current log point.</li>
  * <li>{@link #F_RELATIVE}: The relative objective value ((tour length -
@@ -563,6 +567,105 @@ public enum Accessor {
     }
   },
 
+  /** the CPU time accessor */
+  CPU_RUNTIME(DataPoint.CPU_TIME_INDEX, "CT", null,//$NON-NLS-1$
+      "CPU time", false) {//$NON-NLS-1$
+    /** {@inheritDoc} */
+    @Override
+    public final double fromPoint(final DataPoint p) {
+      return ((p == null) ? Double.POSITIVE_INFINITY : p
+          .getConsumedCPUTime());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean canAccessAsLong() {
+      return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long fromPointLong(final DataPoint p) {
+      return ((p == null) ? Long.MAX_VALUE : p.getConsumedCPUTime());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long calculateScale(final int n) {
+      return (n);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean isScaled() {
+      return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void define(final Header header) throws IOException {
+      super.define(header);
+      Macros.SCALE.define(header);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final String getScaleString() {
+      return Macros.SCALE.getPlaceholder();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void writeScale(final Element ame) throws IOException {
+      if (ame instanceof AbstractInlineElement) {
+        ((AbstractInlineElement) ame).macroInvoke(Macros.SCALE);
+      } else {
+        super.writeScale(ame);
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void validateValue(final double value,
+        final boolean isActualMeasurement) {
+      if (value < 0d) {
+        throw new IllegalArgumentException(//
+            "CPU time must not be less than zero, but is " + value); //$NON-NLS-1$
+      }
+
+      if (value != value) {
+        throw new IllegalArgumentException("CPU time must not be NaN"); //$NON-NLS-1$
+      }
+
+      if (isActualMeasurement) {
+        if (value >= Double.POSITIVE_INFINITY) {
+          throw new IllegalArgumentException(//
+              "CPU time must not be infinite, but is."); //$NON-NLS-1$
+        }
+
+        if (!(ComparisonUtils.isInteger(value))) {
+          throw new IllegalArgumentException(//
+              "CPU time must not be a fraction, but is " + value); //$NON-NLS-1$
+        }
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final boolean isTime() {
+      return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void writeValue(final double value,
+        final AbstractTextComplex txt, final NumberFormat format)
+        throws IOException {
+      Accessor._writeValue(value, txt, format);
+      txt.write("ms");//$NON-NLS-1$
+    }
+  },
+
   ;
 
   /** the total number of accessors */
@@ -579,7 +682,9 @@ public enum Accessor {
   /** the proper unbiased x-dimensions for progress diagrams */
   public static final ArraySetView<Accessor> UNBIASED_TIME_MEASURES = //
   Accessor.TIME_MEASURES.select(//
-      new NotCondition<>(new EqualsCondition(Accessor.RUNTIME)));
+      new CompoundCondition<>(LAnd.INSTANCE,//
+          new NotCondition<>(new EqualsCondition(Accessor.RUNTIME)),//
+          new NotCondition<>(new EqualsCondition(Accessor.CPU_RUNTIME))));
 
   /** the proper x-dimensions for progress diagrams */
   public static final ArraySetView<Accessor> OBJECTIVE_MEASURES = //
@@ -363,6 +363,62 @@ public final class Run extends _OwnedSet<DataPoint, RunSet> implements
     return ps[low - 1];
   }
 
+  /**
+   * Get the data point representing the information available at the given
+   * CPU time (see
+   * <code>{@link org.logisticPlanning.tsp.benchmarking.objective.LogPoint#getConsumedCPUTime() LogPoint.getConsumedCPUTime()}</code>
+   * )
+   *
+   * @param cpuTime
+   *          the CPU time (see
+   *          <code>{@link org.logisticPlanning.tsp.benchmarking.objective.LogPoint#getConsumedCPUTime() LogPoint.getConsumedCPUTime()}</code>
+   *          )
+   * @return the data point representing the information available at the
+   *         given CPU time (see
+   *         <code>{@link org.logisticPlanning.tsp.benchmarking.objective.LogPoint#getConsumedCPUTime() LogPoint.getConsumedCPUTime()}</code>
+   *         )
+   */
+  public final DataPoint findCPUTime(final long cpuTime) {
+    final DataPoint[] ps;
+    DataPoint midVal, next;
+    int low, sh, high, mid, cmp, i;
+
+    ps = this.m_data;
+    low = 0;
+    sh = high = (ps.length - 1);
+
+    while (low <= high) {
+      mid = ((low + high) >>> 1);
+      midVal = ps[mid];
+      cmp = java.lang.Long.compare(midVal.getConsumedCPUTime(), cpuTime);
+
+      if (cmp < 0) {
+        low = (mid + 1);
+      } else
+        if (cmp > 0) {
+          high = (mid - 1);
+        } else {
+          for (i = mid; (++i) <= sh;) {
+            next = ps[i];
+            if ((java.lang.Long
+                .compare(next.getConsumedCPUTime(), cpuTime)) != 0) {
+              return midVal;
+            }
+            midVal = next;
+          }
+          return midVal;
+        }
+    }
+
+    if (low <= 0) {
+      return null;
+    }
+    if (low > sh) {
+      return ps[sh];
+    }
+    return ps[low - 1];
+  }
+
   /**
    * Get the data point representing the information available at the given
    * normalized runtime (see
@@ -78,6 +78,9 @@ public class RunSetECDFProperty extends Property<RunSet, IDataCollection> {
   /** the run set ECDF to success in terms of normalized runtime */
   public static final RunSetECDFProperty NORMALIZED_RUNTIME_OPTIMUM = new RunSetECDFProperty(
       EPropertyType.TEMPORARILY_STORED, Accessor.NORMALIZED_RUNTIME, 0d);
+  /** the run set ECDF to success in terms of CPU time */
+  public static final RunSetECDFProperty CPU_RUNTIME_OPTIMUM = new RunSetECDFProperty(
+      EPropertyType.TEMPORARILY_STORED, Accessor.CPU_RUNTIME, 0d);
 
   /** the accessor */
   private final Accessor m_axs;
@@ -163,6 +166,9 @@ public class RunSetECDFProperty extends Property<RunSet, IDataCollection> {
         case NORMALIZED_RUNTIME: {
           return RunSetECDFProperty.NORMALIZED_RUNTIME_OPTIMUM;
         }
+        case CPU_RUNTIME: {
+          return RunSetECDFProperty.CPU_RUNTIME_OPTIMUM;
+        }
         default: {
           break;
         }
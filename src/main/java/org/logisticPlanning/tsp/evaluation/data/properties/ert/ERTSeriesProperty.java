@@ -122,6 +122,13 @@ public final class ERTSeriesProperty extends Property<RunSet, ERTSeries> {
   public static final ERTSeriesProperty NORMALIZED_RUNTIME_ERT_SERIES = //
   new ERTSeriesProperty(Accessor.NORMALIZED_RUNTIME);
 
+  /**
+   * the {@link org.logisticPlanning.tsp.evaluation.data.Accessor#CPU_RUNTIME
+   * CPU time}-based series property
+   */
+  public static final ERTSeriesProperty CPU_RUNTIME_ERT_SERIES = //
+  new ERTSeriesProperty(Accessor.CPU_RUNTIME);
+
   /** the accessor */
   private final Accessor m_axs;
 
@@ -186,6 +193,9 @@ public final class ERTSeriesProperty extends Property<RunSet, ERTSeries> {
       case NORMALIZED_RUNTIME: {
         return ERTSeriesProperty.NORMALIZED_RUNTIME_ERT_SERIES;
       }
+      case CPU_RUNTIME: {
+        return ERTSeriesProperty.CPU_RUNTIME_ERT_SERIES;
+      }
       default: {
         return new ERTSeriesProperty(axs);
       }
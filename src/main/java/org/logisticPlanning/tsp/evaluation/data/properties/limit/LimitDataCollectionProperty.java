@@ -100,7 +100,8 @@ public final class LimitDataCollectionProperty extends
       case LogPoint.DE_INDEX:
       case LogPoint.FE_INDEX:
       case LogPoint.TIME_INDEX:
-      case LogPoint.F_INDEX: {
+      case LogPoint.F_INDEX:
+      case DataPoint.CPU_TIME_INDEX: {
         return (Accessor.ACCESSORS.get(this.m_dim).getShortName() + Math
             .round(this.m_dim));
       }
@@ -146,7 +147,8 @@ public final class LimitDataCollectionProperty extends
       }
       case LogPoint.DE_INDEX:
       case LogPoint.FE_INDEX:
-      case LogPoint.TIME_INDEX: {
+      case LogPoint.TIME_INDEX:
+      case DataPoint.CPU_TIME_INDEX: {
         if (out instanceof AbstractTextComplex) {
           try (InlineMath im = ((AbstractTextComplex) out).inlineMath()) {
             try (MathOp mo = im.mathOp(EMathOp.CMP_LESS_OR_EQUAL)) {
@@ -375,6 +377,17 @@ public final class LimitDataCollectionProperty extends
         return;
       }
 
+      case DataPoint.CPU_TIME_INDEX: {
+        out.write("the earliest log point of each run where at most "); //$NON-NLS-1$
+        out.writeLong(Math.round(this.m_value));
+        out.write(" milliseconds of "); //$NON-NLS-1$
+        Accessor.CPU_RUNTIME.writeLongName(out, true);
+        out.write(" ("); //$NON-NLS-1$
+        Accessor.CPU_RUNTIME.writeShortName(out, true);
+        out.write(") have been consumed"); //$NON-NLS-1$
+        return;
+      }
+
       default: {
         LimitDataCollectionProperty.__dimError(this.m_dim);
       }
@@ -420,6 +433,10 @@ public final class LimitDataCollectionProperty extends
         return new _NormalizedTimeLimitDataCollection(dataset,
             this.m_value);
       }
+      case DataPoint.CPU_TIME_INDEX: {
+        return new _CPUTimeLimitDataCollection(dataset,
+            Math.round(this.m_value));
+      }
       default: {
         LimitDataCollectionProperty.__dimError(this.m_dim);
         return null;
@@ -0,0 +1,39 @@
+package org.logisticPlanning.tsp.evaluation.data.properties.limit;
+
+import org.logisticPlanning.tsp.benchmarking.objective.DataPoint;
+import org.logisticPlanning.tsp.evaluation.data.RunSet;
+
+/**
+ * A collection of data reflecting a state in the state of a run set at a
+ * given CPU time.
+ */
+final class _CPUTimeLimitDataCollection extends _LimitDataCollection {
+
+  /** the CPU time */
+  private final long m_time;
+
+  /**
+   * the run set
+   *
+   * @param time
+   *          the CPU time limit
+   * @param rs
+   *          the run set
+   */
+  _CPUTimeLimitDataCollection(final RunSet rs, final long time) {
+    super(rs);
+    this.m_time = time;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final double get(final int point, final int dimension) {
+    final DataPoint p;
+    p = this.m_rs.get(point).findCPUTime(this.m_time);
+    if (p == null) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return p.get(dimension);
+  }
+
+}
@@ -2,8 +2,11 @@ package org.logisticPlanning.tsp.evaluation.data.sources;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.io.Reader;
 import java.util.ArrayList;
@@ -12,6 +15,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.objective.BinaryLogFormat;
 import org.logisticPlanning.tsp.benchmarking.objective.DataPoint;
 import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
 import org.logisticPlanning.tsp.evaluation.data.DataSource;
@@ -33,7 +37,13 @@ import org.logisticPlanning.utils.text.TextUtils;
  * data that has been generated by the
  * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction
  * objective function} that logs an algorithms progress in memory and
- * flushes it to log files once a run has completed.
+ * flushes it to log files once a run has completed. Log files in the
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.BinaryLogFormat
+ * binary format} are recognized and loaded as well. Runs which have been
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction#INTERRUPTED
+ * interrupted} and whose logs have been completed up to the point of the
+ * interruption are {@link #PARAM_SKIP_INTERRUPTED skipped} by default,
+ * since they would distort the statistics of the complete runs.
  */
 public class FileDataSource extends DataSource {
   /** the serial version uid */
@@ -42,13 +52,24 @@ public class FileDataSource extends DataSource {
   /** the file/folder list: {@value} */
   public static final String PARAM_SOURCE = "source"; //$NON-NLS-1$
 
+  /**
+   * should the logs of runs which have been
+   * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction#INTERRUPTED
+   * interrupted} be skipped ({@value} , defaults to {@code true})?
+   */
+  public static final String PARAM_SKIP_INTERRUPTED = "skipInterrupted"; //$NON-NLS-1$
+
   /** the file/folder list */
   private List<File> m_list;
 
+  /** should the logs of interrupted runs be skipped? */
+  private boolean m_skipInterrupted;
+
   /** Instantiate the data source */
   public FileDataSource() {
     super("FileDataSource"); //$NON-NLS-1$
     this.m_list = null;
+    this.m_skipInterrupted = true;
   }
 
   /** {@inheritDoc} */
@@ -110,6 +131,8 @@ public class FileDataSource extends DataSource {
 
     this.m_list = config.get(FileDataSource.PARAM_SOURCE,
         ListParser.FILE_LIST_PARSER, this.m_list);
+    this.m_skipInterrupted = config.getBoolean(
+        FileDataSource.PARAM_SKIP_INTERRUPTED, this.m_skipInterrupted);
   }
 
   /** {@inheritDoc} */
@@ -118,6 +141,8 @@ public class FileDataSource extends DataSource {
     super.printConfiguration(ps);
     Configurable.printKey(FileDataSource.PARAM_SOURCE, ps);
     Configurable.printlnObject(this.m_list, ps);
+    Configurable.printKey(FileDataSource.PARAM_SKIP_INTERRUPTED, ps);
+    ps.println(this.m_skipInterrupted);
   }
 
   /** {@inheritDoc} */
@@ -126,6 +151,83 @@ public class FileDataSource extends DataSource {
     super.printParameters(ps);
     Configurable.printKey(FileDataSource.PARAM_SOURCE, ps);
     ps.println("The list of source files/folders."); //$NON-NLS-1$
+    Configurable.printKey(FileDataSource.PARAM_SKIP_INTERRUPTED, ps);
+    ps.println(//
+    "Skip the logs of runs which have been interrupted and completed up to the point of the interruption (true by default)."); //$NON-NLS-1$
+  }
+
+  /**
+   * Read the rest of a section of a log file and check whether it
+   * contains the key
+   * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction#INTERRUPTED}
+   * with value {@code true}
+   *
+   * @param br
+   *          the reader, positioned after the line beginning the section
+   * @return {@code true} if the run has been marked as interrupted,
+   *         {@code false} otherwise
+   * @throws IOException
+   *           if io fails
+   */
+  private static final boolean __isInterrupted(final BufferedReader br)
+      throws IOException {
+    String s;
+    boolean interrupted;
+    int i;
+
+    interrupted = false;
+    while ((s = br.readLine()) != null) {
+      s = FileDataSource.__prepare(s);
+      if (s == null) {
+        continue;
+      }
+      if (ObjectiveFunction.SECTION_END.equalsIgnoreCase(s)) {
+        break;
+      }
+      i = s.indexOf(':');
+      if ((i > 0)
+          && ObjectiveFunction.INTERRUPTED.equalsIgnoreCase(//
+              FileDataSource.__prepare(s.substring(0, i)))) {
+        interrupted = Boolean.parseBoolean(//
+            FileDataSource.__prepare(s.substring(i + 1)));
+      }
+    }
+    return interrupted;
+  }
+
+  /**
+   * Check whether a log file, either in text or in
+   * {@link org.logisticPlanning.tsp.benchmarking.objective.BinaryLogFormat
+   * binary} format, belongs to a run which has been
+   * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction#INTERRUPTED
+   * interrupted} and whose log has been completed up to the point of the
+   * interruption when the benchmark was started again.
+   *
+   * @param file
+   *          the log file
+   * @return {@code true} if the run has been interrupted, {@code false}
+   *         otherwise
+   * @throws IOException
+   *           if io fails
+   */
+  public static final boolean isInterrupted(final File file)
+      throws IOException {
+    String s;
+
+    try (final InputStream is = (BinaryLogFormat.isBinary(file) ? //
+        BinaryLogFormat.openText(file)
+            : new FileInputStream(file))) {
+      try (final BufferedReader br = new BufferedReader(
+          new InputStreamReader(is, "UTF-8"))) { //$NON-NLS-1$
+        while ((s = br.readLine()) != null) {
+          if (ObjectiveFunction.BENCHMARK_INFORMATION_SECTION
+              .equalsIgnoreCase(FileDataSource.__prepare(s))) {
+            return FileDataSource.__isInterrupted(br);
+          }
+        }
+      }
+    }
+    return false;
   }
 
   /**
@@ -147,6 +249,7 @@ public class FileDataSource extends DataSource {
     String name, s;
     Run res;
     int size;
+    boolean interrupted;
 
     v = FileUtils.canonicalize(f);
     if (v == null) {
@@ -179,28 +282,41 @@ public class FileDataSource extends DataSource {
     try {
 
       temp.clear();
+      interrupted = false;
       try {
 
-        try (Reader r = new FileReader(v)) {
+        if (BinaryLogFormat.isBinary(v)) {
+          BinaryLogFormat.loadPoints(v, temp);
+          interrupted = (this.m_skipInterrupted && //
+          FileDataSource.isInterrupted(v));
+        } else {
+          try (Reader r = new FileReader(v)) {
 
-          try (BufferedReader br = new BufferedReader(r)) {
-            int l;
-            DataPoint p;
+            try (BufferedReader br = new BufferedReader(r)) {
+              int l;
+              DataPoint p;
 
-            while ((s = br.readLine()) != null) {
-              s = FileDataSource.__prepare(s);
-              if (s == null) {
-                continue;
-              }
+              while ((s = br.readLine()) != null) {
+                s = FileDataSource.__prepare(s);
+                if (s == null) {
+                  continue;
+                }
 
-              l = s.length();
-              if (l <= 0) {
-                continue;
-              }
+                l = s.length();
+                if (l <= 0) {
+                  continue;
+                }
 
-              if (ObjectiveFunction.LOG_DATA_SECTION.equalsIgnoreCase(s)) {
-                while ((p = FileDataSource.__load_point(br)) != null) {
-                  temp.add(p);
+                if (ObjectiveFunction.LOG_DATA_SECTION.equalsIgnoreCase(s)) {
+                  while ((p = FileDataSource.__load_point(br)) != null) {
+                    temp.add(p);
+                  }
+                  continue;
+                }
+
+                if (ObjectiveFunction.BENCHMARK_INFORMATION_SECTION
+                    .equalsIgnoreCase(s)) {
+                  interrupted = FileDataSource.__isInterrupted(br);
                 }
               }
             }
@@ -208,7 +324,7 @@ public class FileDataSource extends DataSource {
         }
 
         size = temp.size();
-        if (size > 0) {
+        if ((size > 0) && (!(interrupted && this.m_skipInterrupted))) {
           try {
             res = new Run(name, temp.toArray(new DataPoint[size]));
           } catch (final IllegalArgumentException | NullPointerException
@@ -229,7 +345,7 @@ public class FileDataSource extends DataSource {
           s += ("': got a new run with " + res.size() + //$NON-NLS-1$
           " points."); //$NON-NLS-1$
         } else {
-          s += ("', but it did not contain any log points."); //$NON-NLS-1$
+          s += ("', but it did not contain any log points or belongs to an interrupted run."); //$NON-NLS-1$
         }
         log.finer(s);
       }
@@ -374,7 +490,9 @@ public class FileDataSource extends DataSource {
       if (s == null) {
         continue;
       }
-      if (s.toLowerCase().endsWith(".txt")) { //$NON-NLS-1$
+      s = s.toLowerCase();
+      if (s.endsWith(".txt") || //$NON-NLS-1$
+          s.endsWith(BinaryLogFormat.SUFFIX)) {
         try {
           es = FileDataSource.__load_setup(f);
           if (es != null) {
@@ -512,6 +630,14 @@ public class FileDataSource extends DataSource {
       throws IOException {
     try {
       if ((file != null) && (file.exists()) && (file.isFile())) {
+        if (BinaryLogFormat.isBinary(file)) {
+          try (final InputStream is = BinaryLogFormat.openText(file)) {
+            try (final BufferedReader br = new BufferedReader(
+                new InputStreamReader(is, "UTF-8"))) { //$NON-NLS-1$
+              return FileDataSource.__load_setup(br);
+            }
+          }
+        }
         try (final FileReader fr = new FileReader(file)) {
           try (final BufferedReader br = new BufferedReader(fr)) {
             return FileDataSource.__load_setup(br);
@@ -735,7 +861,7 @@ public class FileDataSource extends DataSource {
     String s, t;
     int i, l, start, end;
 
-    long fe, de, time, f;
+    long fe, de, time, cpuTime, f;
     double relF, normTime;
     boolean reasonFE, reasonDE, reasonF, reasonInitEnd, reasonAlgoEnd;
 
@@ -937,6 +1063,34 @@ public class FileDataSource extends DataSource {
             "Invalid relative objective value format: " + t, tt); //$NON-NLS-1$
       }
 
+      // load the CPU time, which is missing in older log files
+      cpuTime = time;
+      start = -1;
+      for (i = end; i < l; i++) {
+        if (s.charAt(i) > ' ') {
+          start = i;
+          break;
+        }
+      }
+      if ((start > end) && (s.charAt(start) >= '0')
+          && (s.charAt(start) <= '9')) {
+        end = l;
+        for (i = start; i < l; i++) {
+          if (s.charAt(i) <= ' ') {
+            end = i;
+            break;
+          }
+        }
+
+        t = s.substring(start, end);
+        try {
+          cpuTime = Long.parseLong(t);
+        } catch (final Throwable tt) {
+          throw new IllegalArgumentException(
+              "Invalid CPU time format: " + t, tt); //$NON-NLS-1$
+        }
+      }
+
       // load log reason flags
       start = -1;
       for (i = end; i < l; i++) {
@@ -972,8 +1126,8 @@ public class FileDataSource extends DataSource {
         reasonInitEnd = true;
       }
 
-      return new DataPoint(fe, de, time, f, relF, normTime, reasonFE,
-          reasonDE, reasonF, reasonInitEnd, reasonAlgoEnd);
+      return new DataPoint(fe, de, time, cpuTime, f, relF, normTime,
+          reasonFE, reasonDE, reasonF, reasonInitEnd, reasonAlgoEnd);
     }
   }
 
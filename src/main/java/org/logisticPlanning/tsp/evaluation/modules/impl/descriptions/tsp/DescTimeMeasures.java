@@ -270,6 +270,7 @@ public final class DescTimeMeasures extends DescriptionModule {
     Accessor.FE.define(header);
     Accessor.RUNTIME.define(header);
     Accessor.NORMALIZED_RUNTIME.define(header);
+    Accessor.CPU_RUNTIME.define(header);
   }
 
   /** {@inheritDoc} */
@@ -301,7 +302,12 @@ public final class DescTimeMeasures extends DescriptionModule {
         "): This measure highly depends on the machine on which the algorithm is executed and can only be measured up to a certain granularity (e.g., 10ms), which may be inappropriate for small-scale problems. However, for experiments executed on the same machine, it also is somewhat fair and more or less correctly represents the respective algorithms overheads. Furthermore, many results from literature are accompanied with measurements of the runtime, see, e.g.,");//$NON-NLS-1$
         enui.cite(ECitationMode.BY_ID_IN_SENTENCE,
             DescTimeMeasures.JMG20088DICTTSP);
-        enui.writeChar('.');
+        enui.write(". A variant of this measure is the ");//$NON-NLS-1$
+        Accessor.CPU_RUNTIME.writeLongName(enui, false);
+        enui.write(" (");//$NON-NLS-1$
+        Accessor.CPU_RUNTIME.writeShortName(enui, false);
+        enui.write(//
+        ") consumed by the thread running the algorithm, which does not grow while the thread waits for a CPU, e.g., because several runs are executed in parallel.");//$NON-NLS-1$
       }
 
       try (EnumerationItem enui = enu.item()) {
@@ -1,6 +1,8 @@
 package org.logisticPlanning.tsp.solving;
 
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 import org.logisticPlanning.utils.NamedObject;
@@ -125,6 +127,44 @@ public class Individual<S> implements Serializable {
     this.f = copy.f;
   }
 
+  /**
+   * Write this individual record to a
+   * {@link org.logisticPlanning.tsp.solving.TSPModule#writeCheckpoint(ObjectOutputStream)
+   * checkpoint}. The {@link #producer} is not stored.
+   *
+   * @param out
+   *          the output stream
+   * @throws IOException
+   *           if the output fails
+   * @see #readCheckpoint(ObjectInputStream)
+   */
+  public void writeCheckpoint(final ObjectOutputStream out)
+      throws IOException {
+    out.writeObject(this.solution);
+    out.writeLong(this.tourLength);
+    out.writeDouble(this.f);
+  }
+
+  /**
+   * Restore this individual record from a checkpoint written by
+   * {@link #writeCheckpoint(ObjectOutputStream)}.
+   *
+   * @param in
+   *          the input stream
+   * @throws IOException
+   *           if the input fails
+   * @throws ClassNotFoundException
+   *           if the solution is of an unknown class
+   */
+  @SuppressWarnings("unchecked")
+  public void readCheckpoint(final ObjectInputStream in)
+      throws IOException, ClassNotFoundException {
+    this.solution = ((S) (in.readObject()));
+    this.tourLength = in.readLong();
+    this.f = in.readDouble();
+    this.producer = null;
+  }
+
   /**
    * append this individual's contents to an appendable
    *
@@ -5,6 +5,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.instances.InstanceCache;
 import org.logisticPlanning.tsp.benchmarking.objective.CreatorInfo;
 import org.logisticPlanning.utils.collections.lists.ArrayListView;
 import org.logisticPlanning.utils.config.Configurable;
@@ -513,6 +514,29 @@ import org.logisticPlanning.utils.config.LoggerOwner;
  * <code>maxRuns</code>, it moves to the next benchmark instance.
  * </p>
  * <p>
+ * Within one process, the runs that still need to be performed are
+ * counted only once, before the threads are started, by looking into the
+ * output folder of each benchmark instance. The resulting jobs are
+ * distributed evenly over the threads. A thread which has finished all of
+ * its own jobs takes over jobs from the other threads, so that no thread
+ * idles while work is left. Handing out the jobs does not require any
+ * lock. With the parameter
+ * <code>{@link org.logisticPlanning.tsp.solving.TSPAlgorithmRunner#PARAM_SCHEDULE schedule}={@link org.logisticPlanning.tsp.solving.TSPAlgorithmRunner#SCHEDULE_LPT lpt}</code>
+ * , the runs with the longest predicted runtime are performed first,
+ * which shortens the total time of the experiment if runs take very
+ * different amounts of time. At the end, the total time of the experiment
+ * and statistics on how well the threads were utilized are logged.
+ * </p>
+ * <p>
+ * Algorithms which allocate data structures growing quadratically with
+ * the number of nodes can {@link TSPModule#estimateMemory(int) estimate}
+ * their memory consumption. A thread only starts a run if the estimates of
+ * all runs performed in parallel fit into the
+ * <code>{@link org.logisticPlanning.tsp.solving.TSPAlgorithmRunner#PARAM_MEMORY_BUDGET runMemoryBudget}</code>
+ * . Otherwise, the run is deferred until another run has finished, instead
+ * of failing with an {@link java.lang.OutOfMemoryError}.
+ * </p>
+ * <p>
  * This mechanism allows the most primitive and yet surprisingly robust way
  * to enable parallelization, distribution, and restarting of experiments.
  * For instance, amongst the threads in a single
@@ -532,6 +556,38 @@ import org.logisticPlanning.utils.config.LoggerOwner;
  * about two days (unless the solver can solve some problems in less than
  * an hour, in which case the time would be less, too).
  * </p>
+ * <p>
+ * If one of the computers crashes, its unfinished runs would leave empty
+ * log files behind which count as performed. To avoid this, set
+ * <code>{@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#PARAM_LEASE_TIMEOUT leaseTimeout}=nnn</code>
+ * (in milliseconds, e.g., {@code 60000}) for all processes. Each run is
+ * then claimed with a lease file next to its log file, which is renewed
+ * while the run is ongoing and deleted when it is finished. If a lease
+ * has not been renewed for {@code nnn} milliseconds, another process
+ * reclaims the run and performs it again. A process which has no more
+ * runs to perform therefore waits until the runs of the other processes
+ * are finished. The clocks of the computers must be synchronized much
+ * more precisely than the lease timeout. This can be tried on a single
+ * machine by starting several JVMs with the same
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#PARAM_DEST_DIR
+ * outputDir} and killing one of them.
+ * </p>
+ * <p>
+ * Long runs can additionally be protected by setting
+ * <code>{@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#PARAM_CHECKPOINT_INTERVAL checkpointInterval}=nnn</code>
+ * (in milliseconds, e.g., {@code 300000}). Algorithms which support it,
+ * such as the {@link org.logisticPlanning.tsp.solving.algorithms.metaheuristics.general.ea.EA
+ * EA}, the
+ * {@link org.logisticPlanning.tsp.solving.algorithms.metaheuristics.permutation.paco.PACO
+ * PACO}, and the
+ * {@link org.logisticPlanning.tsp.solving.algorithms.localSearch.TSPLocalSearchAlgorithm
+ * local searches}, then store their state in a checkpoint file next to
+ * the log file every {@code nnn} milliseconds. If the process dies, the
+ * interrupted runs are resumed from their latest checkpoints, with the
+ * FEs, DEs, and time consumed before the interruption, when the
+ * experiment is started again (or, if leases are used, when another
+ * process reclaims them).
+ * </p>
  * <p id="restart">
  * Restarting experiments is also easy because of this mechanism: A
  * completed run will have an associated log file of non-zero size. Since
@@ -790,6 +846,45 @@ public final class TSPAlgorithmRunner extends LoggerOwner {
    */
   public static final String PARAM_MAX_THREADS = "maxThreads"; //$NON-NLS-1$
 
+  /**
+   * the command line parameter defining the order in which the runs are
+   * performed, either {@link #SCHEDULE_INSTANCE_ORDER} (default) or
+   * {@link #SCHEDULE_LPT} ({@value} )
+   */
+  public static final String PARAM_SCHEDULE = "schedule"; //$NON-NLS-1$
+
+  /**
+   * the {@link #PARAM_SCHEDULE schedule} performing the runs in the order
+   * of the benchmark instances ({@value} )
+   */
+  public static final String SCHEDULE_INSTANCE_ORDER = "instances"; //$NON-NLS-1$
+
+  /**
+   * the {@link #PARAM_SCHEDULE schedule} performing the runs with the
+   * longest predicted runtime first ({@value} )
+   */
+  public static final String SCHEDULE_LPT = "lpt"; //$NON-NLS-1$
+
+  /**
+   * the command line parameter defining the memory budget in bytes which
+   * the runs executed in parallel may occupy together, {@code 0} for
+   * three quarters of the heap not reserved for the
+   * {@link org.logisticPlanning.tsp.benchmarking.instances.InstanceCache#SHARED
+   * instance cache} ({@value} )
+   */
+  public static final String PARAM_MEMORY_BUDGET = "runMemoryBudget"; //$NON-NLS-1$
+
+  /**
+   * the command line parameter defining the memory budget in bytes of the
+   * {@link org.logisticPlanning.tsp.benchmarking.instances.InstanceCache#SHARED
+   * shared instance cache} ({@value} , defaults to
+   * {@link org.logisticPlanning.tsp.benchmarking.instances.InstanceCache#DEFAULT_BUDGET}
+   * ): distance computers which are no longer used by any benchmark are
+   * kept in memory as long as this budget permits, so that they do not
+   * need to be loaded again
+   */
+  public static final String PARAM_SHARED_CACHE_BYTES = "sharedInstanceCacheBytes"; //$NON-NLS-1$
+
   /**
    * the command line parameter to define the logger to be used ({@value} )
    */
@@ -798,6 +893,9 @@ public final class TSPAlgorithmRunner extends LoggerOwner {
   /** the maximum threads */
   private int m_maxThreads;
 
+  /** the memory budget of the shared instance cache */
+  private long m_sharedCacheBytes;
+
   /** the algorithm */
   private Class<? extends TSPAlgorithm> m_algo;
 
@@ -837,6 +935,7 @@ public final class TSPAlgorithmRunner extends LoggerOwner {
     super("algorithmRunner", TSPAlgorithmRunner.PARAM_RUNNER_LOGGER); //$NON-NLS-1$
 
     this.m_maxThreads = Runtime.getRuntime().availableProcessors();
+    this.m_sharedCacheBytes = InstanceCache.SHARED.getBudget();
     this.m_queue = new _TSPQueue(instances);
 
     this.m_algo = algo;
@@ -914,6 +1013,10 @@ public final class TSPAlgorithmRunner extends LoggerOwner {
     this.m_maxThreads = config.getInt(
         TSPAlgorithmRunner.PARAM_MAX_THREADS, 1, 10000, this.m_maxThreads);
 
+    this.m_sharedCacheBytes = config.getLong(
+        TSPAlgorithmRunner.PARAM_SHARED_CACHE_BYTES, 0l, Long.MAX_VALUE,
+        this.m_sharedCacheBytes);
+
     this.m_algoInst = config.getInstance(
         TSPAlgorithmRunner.PARAM_ALGO_CLASS, TSPAlgorithm.class,
         this.m_algo, this.m_algoInst);
@@ -942,6 +1045,9 @@ public final class TSPAlgorithmRunner extends LoggerOwner {
     Configurable.printKey(TSPAlgorithmRunner.PARAM_MAX_THREADS, ps);
     ps.println(this.m_maxThreads);
 
+    Configurable.printKey(TSPAlgorithmRunner.PARAM_SHARED_CACHE_BYTES, ps);
+    ps.println(this.m_sharedCacheBytes);
+
     Configurable.printKey(TSPAlgorithmRunner.PARAM_ALGO_CLASS, ps);
     Configurable.printlnClass(this.m_algo, ps);
 
@@ -969,6 +1075,9 @@ public final class TSPAlgorithmRunner extends LoggerOwner {
     Configurable.printKey(TSPAlgorithmRunner.PARAM_MAX_THREADS, ps);
     ps.println("the number of threads executing runs in parallel."); //$NON-NLS-1$
 
+    Configurable.printKey(TSPAlgorithmRunner.PARAM_SHARED_CACHE_BYTES, ps);
+    ps.println("the memory budget of the instance cache shared by all benchmarks in this JVM, in bytes."); //$NON-NLS-1$
+
     Configurable.printKey(TSPAlgorithmRunner.PARAM_ALGO_CLASS, ps);
     ps.println("the algorithm class"); //$NON-NLS-1$
 
@@ -990,6 +1099,7 @@ public final class TSPAlgorithmRunner extends LoggerOwner {
   public void benchmark() {
     final _TSPThread[] threads;
     final Logger log;
+    final long start;
     int i;
 
     threads = new _TSPThread[this.m_maxThreads];
@@ -1007,13 +1117,18 @@ public final class TSPAlgorithmRunner extends LoggerOwner {
               : this.m_init));
     }
 
+    start = System.currentTimeMillis();
     try {
+      InstanceCache.SHARED.setBudget(this.m_sharedCacheBytes);
+      this.m_queue._init(threads.length, this.m_algoInst,
+          this.m_initInst);
+
       for (i = threads.length; (--i) >= 0;) {
         threads[i] = new _TSPThread(
             //
             ((this.m_algoInst != null) ? (this.m_algoInst.clone()) : null),//
             ((this.m_initInst != null) ? (this.m_initInst.clone()) : null),//
-            this.m_queue, this.m_creator, log);
+            this.m_queue, i, this.m_creator, log);
       }
 
       for (i = threads.length; (--i) >= 0;) {
@@ -1047,6 +1162,9 @@ public final class TSPAlgorithmRunner extends LoggerOwner {
             String.valueOf((this.m_initInst != null) ? //
             this.m_initInst.getClass()
                 : this.m_init));
+        log.info(this.m_queue._statistics(//
+            System.currentTimeMillis() - start));
+        log.info(InstanceCache.SHARED.toString());
       }
     }
   }
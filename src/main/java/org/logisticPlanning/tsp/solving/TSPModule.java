@@ -1,5 +1,9 @@
 package org.logisticPlanning.tsp.solving;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
 import org.logisticPlanning.utils.config.Configurable;
 
@@ -59,6 +63,206 @@ public class TSPModule extends Configurable {
     //
   }
 
+  /**
+   * Write the search state of this module, such as its population or its
+   * current tour, to a checkpoint. Modules which keep a state between
+   * iterations of an algorithm must override this method and
+   * {@link #readCheckpoint(ObjectInputStream)} if the algorithm using
+   * them supports checkpoints. If this object holds references to other
+   * modules, it must call their
+   * {@link #writeCheckpoint(ObjectOutputStream) writeCheckpoint} methods
+   * in return.
+   *
+   * @param out
+   *          the output stream
+   * @throws IOException
+   *           if the output fails
+   * @see #checkpoint(ObjectiveFunction)
+   * @see org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction#beginCheckpoint(Object)
+   */
+  public void writeCheckpoint(final ObjectOutputStream out)
+      throws IOException {
+    //
+  }
+
+  /**
+   * Restore the search state of this module which has been written by
+   * {@link #writeCheckpoint(ObjectOutputStream)} when a run is resumed.
+   * This method is called after {@link #beginRun(ObjectiveFunction)}.
+   *
+   * @param in
+   *          the input stream
+   * @throws IOException
+   *           if the input fails
+   * @throws ClassNotFoundException
+   *           if an object of an unknown class is read
+   * @see #resume(ObjectiveFunction)
+   * @see org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction#resumeCheckpoint(Object)
+   */
+  public void readCheckpoint(final ObjectInputStream in)
+      throws IOException, ClassNotFoundException {
+    //
+  }
+
+  /**
+   * Store the state of the run in a checkpoint if
+   * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction#shouldCheckpoint()
+   * one is due}. An algorithm calls this method at points where its state
+   * is consistent, e.g., at the beginning of a generation. The state of
+   * the objective function is stored together with the state written by
+   * {@link #writeCheckpoint(ObjectOutputStream)}.
+   *
+   * @param f
+   *          the objective function
+   * @see #resume(ObjectiveFunction)
+   */
+  protected final void checkpoint(final ObjectiveFunction f) {
+    final ObjectOutputStream out;
+
+    if (f.shouldCheckpoint()) {
+      try {
+        out = f.beginCheckpoint(this);
+        this.writeCheckpoint(out);
+        f.endCheckpoint();
+      } catch (final IOException ioe) {
+        throw new RuntimeException(ioe);
+      }
+    }
+  }
+
+  /**
+   * Restore the state of the algorithm if the run is resumed from a
+   * checkpoint made via {@link #checkpoint(ObjectiveFunction)}. The state
+   * of the objective function has already been restored when the run
+   * began. An algorithm calls this method at the beginning of its run and
+   * only creates its initial state if it returns {@code false}.
+   *
+   * @param f
+   *          the objective function
+   * @return {@code true} if the state has been restored, {@code false} if
+   *         the run is not resumed or the state could not be read
+   */
+  protected final boolean resume(final ObjectiveFunction f) {
+    final ObjectInputStream in;
+
+    in = f.resumeCheckpoint(this);
+    if (in == null) {
+      return false;
+    }
+    try {
+      this.readCheckpoint(in);
+      return true;
+    } catch (final IOException | ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Invoke the {@link #writeCheckpoint(ObjectOutputStream)} method of a
+   * set of modules.
+   *
+   * @param out
+   *          the output stream
+   * @param modules
+   *          the modules
+   * @throws IOException
+   *           if the output fails
+   * @see #invokeReadCheckpoint(ObjectInputStream, TSPModule[])
+   */
+  protected static final void invokeWriteCheckpoint(
+      final ObjectOutputStream out, final TSPModule[] modules)
+      throws IOException {
+    if (modules != null) {
+      for (final TSPModule module : modules) {
+        module.writeCheckpoint(out);
+      }
+    }
+  }
+
+  /**
+   * Invoke the {@link #readCheckpoint(ObjectInputStream)} method of a set
+   * of modules.
+   *
+   * @param in
+   *          the input stream
+   * @param modules
+   *          the modules
+   * @throws IOException
+   *           if the input fails
+   * @throws ClassNotFoundException
+   *           if an object of an unknown class is read
+   * @see #invokeWriteCheckpoint(ObjectOutputStream, TSPModule[])
+   */
+  protected static final void invokeReadCheckpoint(
+      final ObjectInputStream in, final TSPModule[] modules)
+      throws IOException, ClassNotFoundException {
+    if (modules != null) {
+      for (final TSPModule module : modules) {
+        module.readCheckpoint(in);
+      }
+    }
+  }
+
+  /**
+   * Estimate the peak amount of memory that this module allocates during
+   * a run on a problem with {@code n} nodes. The
+   * {@link org.logisticPlanning.tsp.solving.TSPAlgorithmRunner runner}
+   * uses this estimate to decide whether a run can be started, so that
+   * not too many runs allocating large data structures are executed at
+   * the same time. Modules allocating data structures whose size grows
+   * quadratically (or faster) with {@code n}, such as {@code n*n}
+   * matrices, should override this method. Data structures of linear size
+   * may be ignored. If this object holds references to other modules, it
+   * should add their estimates.
+   *
+   * @param n
+   *          the number of nodes
+   * @return the estimated memory in bytes, {@code 0} by default
+   * @see #estimateMemory(int, TSPModule[])
+   */
+  public long estimateMemory(final int n) {
+    return 0l;
+  }
+
+  /**
+   * Sum up the {@link #estimateMemory(int) memory estimates} of a set of
+   * modules.
+   *
+   * @param n
+   *          the number of nodes
+   * @param modules
+   *          the modules
+   * @return the sum of their estimates
+   * @see #estimateMemory(int)
+   */
+  protected static final long estimateMemory(final int n,
+      final TSPModule[] modules) {
+    long sum;
+
+    sum = 0l;
+    if (modules != null) {
+      for (final TSPModule module : modules) {
+        if (module != null) {
+          sum += module.estimateMemory(n);
+        }
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Get the number of bytes occupied by a {@code boolean[n][n]} matrix
+   *
+   * @param n
+   *          the number of nodes
+   * @return the number of bytes occupied by the matrix
+   */
+  protected static final long booleanMatrixMemory(final int n) {
+    // each row is an array with a header of about 16 bytes and the outer
+    // array holds n references
+    return ((n * (n + 16l)) + (8l * n));
+  }
+
   /**
    * Invoke the {@link #beginRun(ObjectiveFunction)} method of a set of
    * modules. The two methods
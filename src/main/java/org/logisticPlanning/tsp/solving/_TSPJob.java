@@ -0,0 +1,76 @@
+package org.logisticPlanning.tsp.solving;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.logisticPlanning.tsp.benchmarking.objective.Benchmark;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * One job of the {@link org.logisticPlanning.tsp.solving._TSPQueue job
+ * queue}: a single run to be performed on a given benchmark instance. All
+ * jobs of the same benchmark share one counter of unfinished jobs, so that
+ * the benchmark can be {@link Benchmark#dispose() disposed} as soon as the
+ * last of them has been finished. Jobs are ordered by their predicted
+ * runtime, the longest job first.
+ * </p>
+ */
+final class _TSPJob implements Comparable<_TSPJob> {
+
+  /** the benchmark */
+  final Benchmark m_bm;
+
+  /**
+   * the index of the job amongst the runs still to be performed for the
+   * benchmark, starting at {@code 1}
+   */
+  final int m_run;
+
+  /** the number of unfinished jobs for the benchmark */
+  final AtomicInteger m_open;
+
+  /** the predicted runtime of the job in milliseconds */
+  final long m_cost;
+
+  /** the estimated peak memory of the job in bytes */
+  final long m_memory;
+
+  /**
+   * create the job
+   *
+   * @param bm
+   *          the benchmark
+   * @param run
+   *          the index of the run
+   * @param open
+   *          the number of unfinished jobs for the benchmark
+   * @param cost
+   *          the predicted runtime of the job in milliseconds
+   * @param memory
+   *          the estimated peak memory of the job in bytes
+   */
+  _TSPJob(final Benchmark bm, final int run, final AtomicInteger open,
+      final long cost, final long memory) {
+    super();
+    this.m_bm = bm;
+    this.m_run = run;
+    this.m_open = open;
+    this.m_cost = cost;
+    this.m_memory = memory;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int compareTo(final _TSPJob o) {
+    return Long.compare(o.m_cost, this.m_cost);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final String toString() {
+    return (this.m_bm.name() + '#' + this.m_run);
+  }
+}
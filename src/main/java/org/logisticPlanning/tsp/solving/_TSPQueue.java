@@ -1,15 +1,84 @@
 package org.logisticPlanning.tsp.solving;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.instances.InstanceCache;
 import org.logisticPlanning.tsp.benchmarking.objective.Benchmark;
 import org.logisticPlanning.utils.collections.lists.ArrayListView;
 import org.logisticPlanning.utils.config.Configurable;
 import org.logisticPlanning.utils.config.Configuration;
 
 /**
+ * <p>
  * a queue holding information for running a tsp algorithm
+ * </p>
+ * <p>
+ * Before the worker threads are started, the queue
+ * {@link #_init(int, TSPAlgorithm, TSPAlgorithm) enumerates} all the runs
+ * that still need to be performed, scanning the result directory of each
+ * benchmark instance only once. The resulting {@link org.logisticPlanning.tsp.solving._TSPJob
+ * jobs} are dealt out to one deque per worker thread, either in the order
+ * of the instances or, if the
+ * {@link org.logisticPlanning.tsp.solving.TSPAlgorithmRunner#PARAM_SCHEDULE
+ * schedule} is
+ * {@link org.logisticPlanning.tsp.solving.TSPAlgorithmRunner#SCHEDULE_LPT
+ * longest processing time first}, in the order of decreasing predicted
+ * runtime. A worker takes its jobs from the head of its own deque.
+ * Once it has run out of jobs, it steals jobs from the tail of the deques
+ * of the other workers. Since the deques are lock-free, the workers do not
+ * need to synchronize with each other in order to get their next run.
+ * </p>
+ * <p>
+ * A job does not yet reserve a log file: the file is still created
+ * atomically with {@link java.io.File#createNewFile()} when the run
+ * begins. Before a job is handed out, it is checked whether the
+ * benchmark still {@link Benchmark#remainingRunCount() needs more runs}.
+ * If another process works on the same result directory, this check
+ * avoids that more than the required number of runs is performed. If the
+ * processes use
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#PARAM_LEASE_TIMEOUT
+ * leases}, a job is also created for each run another process is working
+ * on. Such a job is kept back until the run has either been completed or
+ * been reclaimed from a process which has died, in which case it is
+ * performed again. Since the processes only claim the run indices up to
+ * the maximum number of runs, a job may also find that another process
+ * has claimed its run right before it, in which case its run ends at once
+ * without a log. The last job of a benchmark is therefore only finished
+ * when no runs remain and no leases are held by other processes.
+ * </p>
+ * <p>
+ * The runtime of a job is predicted as the mean runtime of the completed
+ * runs found in the result directory of its benchmark instance. If there
+ * are none, it is assumed to grow with the square of the number of nodes
+ * of the instance. If other instances have completed runs, the square is
+ * scaled to match their runtimes, but not above the runtime limit of a
+ * run. Otherwise, the unscaled square is used as relative cost, which is
+ * all the schedule needs in order to start the largest instances first.
+ * Scheduling the longest jobs first
+ * avoids that the last run on a huge instance is only started when all
+ * other runs are finished, keeping one thread busy while all other
+ * threads idle.
+ * </p>
+ * <p>
+ * Each job also carries an estimate of the peak memory its run needs,
+ * obtained from {@link TSPModule#estimateMemory(int)} of the algorithm and
+ * the initialization procedure. A job is only handed out if the memory
+ * reserved by the jobs currently running plus its own estimate fits into
+ * the {@link TSPAlgorithmRunner#PARAM_MEMORY_BUDGET memory budget}.
+ * Otherwise it is deferred and retried as soon as a running job has
+ * released its memory, instead of letting several runs on huge instances
+ * allocate their quadratic data structures at once and fail with an
+ * {@link java.lang.OutOfMemoryError}. A job is always admitted if no other
+ * job is running, so that an instance too large for the budget is still
+ * tried once.
+ * </p>
  */
 final class _TSPQueue extends Configurable {
   /** the serial version uid */
@@ -21,11 +90,42 @@ final class _TSPQueue extends Configurable {
   /** the configuration */
   private Configuration m_cfg;
 
-  /** the current benchmark */
-  private volatile Benchmark m_bm;
+  /** the scheduling policy */
+  private String m_schedule;
 
-  /** the index */
-  private volatile int m_idx;
+  /** the memory budget in bytes, {@code 0} for automatic */
+  private long m_memoryBudget;
+
+  /** the job deques, one per worker thread */
+  private transient volatile ConcurrentLinkedDeque<_TSPJob>[] m_deques;
+
+  /** the number of jobs */
+  private transient int m_jobs;
+
+  /**
+   * the sum of the predicted runtimes of all jobs in milliseconds, or
+   * {@code -1} if no runtime has been observed and the predictions are
+   * only relative costs
+   */
+  private transient long m_predicted;
+
+  /** the sum of the runtimes of the finished jobs */
+  private transient AtomicLong m_busy;
+
+  /** the longest runtime of a finished job */
+  private transient AtomicLong m_longest;
+
+  /** the memory budget in effect */
+  private transient long m_budget;
+
+  /** the memory reserved by the running jobs */
+  private transient AtomicLong m_reserved;
+
+  /** the jobs deferred because they did not fit into the memory budget */
+  private transient ConcurrentLinkedQueue<_TSPJob> m_deferred;
+
+  /** the number of times a job has been deferred */
+  private transient AtomicInteger m_deferrals;
 
   /**
    * instantiate
@@ -36,76 +136,413 @@ final class _TSPQueue extends Configurable {
   _TSPQueue(final ArrayListView<Instance> inst) {
     super("queue"); //$NON-NLS-1$
     this.m_instances = inst;
-    this.m_idx = (-1);
+    this.m_schedule = TSPAlgorithmRunner.SCHEDULE_INSTANCE_ORDER;
   }
 
   /** {@inheritDoc} */
   @Override
   public final void configure(final Configuration config) {
+    final String schedule;
+
     super.configure(config);
     this.m_cfg = config;
+
+    schedule = config.getString(TSPAlgorithmRunner.PARAM_SCHEDULE,
+        this.m_schedule);
+    if (TSPAlgorithmRunner.SCHEDULE_INSTANCE_ORDER
+        .equalsIgnoreCase(schedule)) {
+      this.m_schedule = TSPAlgorithmRunner.SCHEDULE_INSTANCE_ORDER;
+    } else {
+      if (TSPAlgorithmRunner.SCHEDULE_LPT.equalsIgnoreCase(schedule)) {
+        this.m_schedule = TSPAlgorithmRunner.SCHEDULE_LPT;
+      } else {
+        throw new IllegalArgumentException(//
+            "Unknown schedule '" + schedule + //$NON-NLS-1$
+                "', must be either '" + //$NON-NLS-1$
+                TSPAlgorithmRunner.SCHEDULE_INSTANCE_ORDER + "' or '" + //$NON-NLS-1$
+                TSPAlgorithmRunner.SCHEDULE_LPT + '\'' + '.');
+      }
+    }
+
+    this.m_memoryBudget = config.getLong(
+        TSPAlgorithmRunner.PARAM_MEMORY_BUDGET, 0l, Long.MAX_VALUE,
+        this.m_memoryBudget);
+  }
+
+  /**
+   * Create a configured benchmark for the first instance, which is used
+   * to print the configuration
+   *
+   * @return the benchmark
+   */
+  private final Benchmark __benchmark() {
+    final Benchmark bm;
+
+    bm = new Benchmark(this.m_instances.first());
+    bm.configure(this.m_cfg);
+    return bm;
   }
 
   /** {@inheritDoc} */
   @Override
   public final void printConfiguration(final PrintStream ps) {
-    Benchmark bm;
-
     super.printConfiguration(ps);
 
+    Configurable.printKey(TSPAlgorithmRunner.PARAM_SCHEDULE, ps);
+    ps.println(this.m_schedule);
+
+    Configurable.printKey(TSPAlgorithmRunner.PARAM_MEMORY_BUDGET, ps);
+    ps.println(this.m_memoryBudget);
+
     if (this.m_cfg != null) {
-      bm = this.next();
-      if (bm == null) {
-        bm = new Benchmark(this.m_instances.first());
-        bm.configure(this.m_cfg);
-      }
-      bm.printConfiguration(ps);
+      this.__benchmark().printConfiguration(ps);
     }
   }
 
   /** {@inheritDoc} */
   @Override
   public final void printParameters(final PrintStream ps) {
-    Benchmark bm;
-
     super.printParameters(ps);
 
+    Configurable.printKey(TSPAlgorithmRunner.PARAM_SCHEDULE, ps);
+    ps.println(//
+        "the order in which the runs are performed: either '" + //$NON-NLS-1$
+            TSPAlgorithmRunner.SCHEDULE_INSTANCE_ORDER
+            + "' (in the order of the benchmark instances, default) or '" + //$NON-NLS-1$
+            TSPAlgorithmRunner.SCHEDULE_LPT
+            + "' (longest predicted runtime first)"); //$NON-NLS-1$
+
+    Configurable.printKey(TSPAlgorithmRunner.PARAM_MEMORY_BUDGET, ps);
+    ps.println(//
+    "the memory in bytes which the runs executed in parallel may occupy together, 0 for three quarters of the heap not used by the instance cache (default)"); //$NON-NLS-1$
+
     if (this.m_cfg != null) {
-      bm = this.next();
-      if (bm == null) {
-        bm = new Benchmark(this.m_instances.first());
-        bm.configure(this.m_cfg);
-      }
-      bm.printParameters(ps);
+      this.__benchmark().printParameters(ps);
     }
   }
 
   /**
-   * get the next benchmark to work on
+   * Enumerate all the runs that still need to be performed and deal them
+   * out to the deques of the workers.
    *
-   * @return the next benchmark to work on
+   * @param workers
+   *          the number of worker threads
+   * @param algo
+   *          the algorithm, or {@code null} if unknown
+   * @param init
+   *          the initialization procedure, or {@code null} if there is none
    */
-  final Benchmark next() {
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  final synchronized void _init(final int workers, final TSPAlgorithm algo,
+      final TSPAlgorithm init) {
+    final ConcurrentLinkedDeque<_TSPJob>[] deques;
+    final ArrayList<Benchmark> bms;
+    final ArrayList<_TSPJob> jobs;
+    final boolean lpt;
+    final int size;
+    final int[] remaining;
+    final long[] observed;
+    AtomicInteger open;
     Benchmark bm;
+    double observedSum, squareSum, n;
+    long cost, predicted, memory;
+    int i, j, r, m;
+
+    lpt = (this.m_schedule == TSPAlgorithmRunner.SCHEDULE_LPT);
 
-    bm = this.m_bm;
-    if ((bm != null) && (bm.remainingRunCount() > 0)) {
-      return bm;
+    // find the benchmarks which need more runs, scanning each directory
+    // once
+    bms = new ArrayList<>();
+    for (final Instance inst : this.m_instances) {
+      bm = new Benchmark(inst);
+      bm.configure(this.m_cfg);
+      // runs leased by other processes may need to be repeated
+      if ((bm.remainingRunCount() + bm.leasedRunCount()) > 0) {
+        bms.add(bm);
+      }
+    }
+
+    // get the observed runtimes and fit the size model to them
+    size = bms.size();
+    remaining = new int[size];
+    observed = new long[size];
+    observedSum = squareSum = 0d;
+    for (i = 0; i < size; i++) {
+      bm = bms.get(i);
+      remaining[i] = (bm.remainingRunCount() + bm.leasedRunCount());
+      observed[i] = (lpt ? bm.meanRuntime() : (-1l));
+      if (observed[i] >= 0l) {
+        n = bm.getInstance().n();
+        observedSum += observed[i];
+        squareSum += (n * n);
+      }
+    }
+
+    jobs = new ArrayList<>();
+    predicted = 0l;
+    for (i = 0; i < size; i++) {
+      bm = bms.get(i);
+      cost = observed[i];
+      if (cost < 0l) {
+        n = bm.getInstance().n();
+        n *= n;
+        if (squareSum > 0d) {
+          // scale to milliseconds, then the runtime limit applies
+          n *= (observedSum / squareSum);
+          cost = ((n < bm.getMaxRuntime()) ? Math.round(n) : bm
+              .getMaxRuntime());
+        } else {
+          // no runtime observed yet: the square is a relative cost
+          cost = Math.round(n);
+        }
+      }
+
+      m = bm.getInstance().n();
+      memory = 0l;
+      if (algo != null) {
+        memory += algo.estimateMemory(m);
+      }
+      if (init != null) {
+        memory += init.estimateMemory(m);
+      }
+
+      r = remaining[i];
+      open = new AtomicInteger(r);
+      for (j = 1; j <= r; j++) {
+        jobs.add(new _TSPJob(bm, j, open, cost, memory));
+        predicted += cost;
+      }
+    }
+
+    if (lpt) {
+      // the sort is stable: the jobs of one instance stay together
+      Collections.sort(jobs);
+    }
+
+    deques = new ConcurrentLinkedDeque[workers];
+    for (i = workers; (--i) >= 0;) {
+      deques[i] = new ConcurrentLinkedDeque<>();
+    }
+    j = 0;
+    for (final _TSPJob job : jobs) {
+      deques[j].addLast(job);
+      j = ((j + 1) % workers);
     }
 
+    this.m_jobs = jobs.size();
+    this.m_predicted = ((squareSum > 0d) ? predicted : (-1l));
+    this.m_busy = new AtomicLong();
+    this.m_longest = new AtomicLong();
+    this.m_budget = ((this.m_memoryBudget > 0l) ? this.m_memoryBudget
+        : Math.max(0l, (((Runtime.getRuntime().maxMemory() - //
+        InstanceCache.SHARED.getBudget()) / 4l) * 3l)));
+    this.m_reserved = new AtomicLong();
+    this.m_deferred = new ConcurrentLinkedQueue<>();
+    this.m_deferrals = new AtomicInteger();
+    this.m_deques = deques;
+  }
+
+  /**
+   * get the next job to work on. If there are jobs left, but none of them
+   * fits into the memory budget, wait until a running job has released
+   * its memory.
+   *
+   * @param worker
+   *          the index of the worker thread
+   * @return the next job to work on, or {@code null} if there is none left
+   */
+  final _TSPJob _next(final int worker) {
+    final ConcurrentLinkedDeque<_TSPJob>[] deques;
+    final ConcurrentLinkedQueue<_TSPJob> deferred;
+    ConcurrentLinkedDeque<_TSPJob> deque;
+    _TSPJob job;
+    int i, n, k;
+
+    deques = this.m_deques;
+    if (deques == null) {
+      return null;
+    }
+    n = deques.length;
+    deferred = this.m_deferred;
+
     for (;;) {
-      this.m_bm = bm = null;
+      // first retry the deferred jobs, each at most once
+      for (k = deferred.size(); (--k) >= 0;) {
+        job = deferred.poll();
+        if (job == null) {
+          break;
+        }
+        if (job.m_bm.remainingRunCount() > 0) {
+          if (this.__reserve(job)) {
+            return job;
+          }
+          deferred.add(job);
+        } else {
+          this.__drop(job);
+        }
+      }
+
+      for (i = 0; i < n; i++) {
+        deque = deques[(worker + i) % n];
+        // take jobs from the own deque in order and steal from the end
+        while ((job = ((i == 0) ? deque.pollFirst() : deque.pollLast())) != null) {
+          if (job.m_bm.remainingRunCount() <= 0) {
+            // the run has been performed by someone else in the meantime
+            this.__drop(job);
+            continue;
+          }
+          if (this.__reserve(job)) {
+            return job;
+          }
+          this.m_deferrals.incrementAndGet();
+          deferred.add(job);
+        }
+      }
 
-      if ((++this.m_idx) >= this.m_instances.size()) {
+      if (deferred.isEmpty()) {
         return null;
       }
 
-      this.m_bm = bm = new Benchmark(this.m_instances.get(this.m_idx));
-      bm.configure(this.m_cfg);
+      synchronized (deferred) {
+        try {
+          deferred.wait(100l);
+        } catch (final InterruptedException ie) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  /**
+   * A job is not needed at the moment, since the remaining runs of its
+   * benchmark have already been performed or are being performed by
+   * someone else. If other processes hold leases on runs of the benchmark,
+   * the job is deferred, since one of them may die and its run will then
+   * need to be performed again. Otherwise, the job is finished.
+   *
+   * @param job
+   *          the job
+   */
+  private final void __drop(final _TSPJob job) {
+    if (job.m_bm.leasedRunCount() > 0) {
+      this.m_deferred.add(job);
+    } else {
+      this.__finish(job);
+    }
+  }
+
+  /**
+   * Try to reserve the estimated memory of a job
+   *
+   * @param job
+   *          the job
+   * @return {@code true} if the memory has been reserved, {@code false}
+   *         if the job does not fit into the budget at the moment
+   */
+  private final boolean __reserve(final _TSPJob job) {
+    final AtomicLong reserved;
+    long old;
 
-      if (bm.remainingRunCount() > 0) {
-        return bm;
+    reserved = this.m_reserved;
+    do {
+      old = reserved.get();
+      if ((old > 0l) && ((old + job.m_memory) > this.m_budget)) {
+        return false;
+      }
+    } while (!(reserved.compareAndSet(old, (old + job.m_memory))));
+    return true;
+  }
+
+  /**
+   * A job will not be executed anymore. If it was the last unfinished job
+   * of its benchmark, no new runs will be started for the benchmark and
+   * its distance computer can be returned to the shared instance cache.
+   * If runs of the benchmark still remain or are leased by other
+   * processes, however, the job is deferred again: Another process may
+   * have claimed the run of a job of this queue first, and then have died.
+   *
+   * @param job
+   *          the job
+   */
+  private final void __finish(final _TSPJob job) {
+    if (job.m_open.decrementAndGet() <= 0) {
+      if ((job.m_bm.remainingRunCount() + job.m_bm.leasedRunCount()) > 0) {
+        job.m_open.incrementAndGet();
+        this.m_deferred.add(job);
+      } else {
+        job.m_bm.dispose();
       }
     }
   }
+
+  /**
+   * A job obtained from {@link #_next(int)} has been finished: its memory
+   * is released and the threads waiting for a deferred job are woken up.
+   *
+   * @param job
+   *          the job
+   * @param time
+   *          the time in milliseconds it took to finish the job
+   */
+  final void _done(final _TSPJob job, final long time) {
+    final AtomicLong longest;
+    final ConcurrentLinkedQueue<_TSPJob> deferred;
+    long max;
+
+    this.m_reserved.addAndGet(-job.m_memory);
+
+    this.m_busy.addAndGet(time);
+    longest = this.m_longest;
+    do {
+      max = longest.get();
+    } while ((time > max) && (!(longest.compareAndSet(max, time))));
+
+    this.__finish(job);
+
+    deferred = this.m_deferred;
+    if (!(deferred.isEmpty())) {
+      synchronized (deferred) {
+        deferred.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Get the statistics about how well the jobs have been scheduled
+   *
+   * @param makespan
+   *          the time in milliseconds from enumerating the jobs until the
+   *          last worker thread had finished
+   * @return the statistics as a string
+   */
+  final String _statistics(final long makespan) {
+    final ConcurrentLinkedDeque<_TSPJob>[] deques;
+    final long busy, bound;
+    final int workers;
+
+    deques = this.m_deques;
+    if (deques == null) {
+      return null;
+    }
+    workers = deques.length;
+    busy = this.m_busy.get();
+    // no schedule can be shorter than the longest job or than the total
+    // runtime divided by the number of workers
+    bound = Math.max(this.m_longest.get(), (busy / workers));
+
+    return ("Schedule '" + this.m_schedule + //$NON-NLS-1$
+        "' with " + workers + //$NON-NLS-1$
+        " threads: " + this.m_jobs + //$NON-NLS-1$
+        " jobs, makespan " + makespan + //$NON-NLS-1$
+        "ms, total job runtime " + busy + //$NON-NLS-1$
+        "ms, predicted job runtime " + //$NON-NLS-1$
+        ((this.m_predicted >= 0l) ? (this.m_predicted + "ms") : "unknown") + //$NON-NLS-1$//$NON-NLS-2$
+        ", longest job " + this.m_longest.get() + //$NON-NLS-1$
+        "ms, utilization " + //$NON-NLS-1$
+        ((makespan > 0l) ? (((100d * busy) / workers) / makespan) : 0d)
+        + "%, makespan / lower bound " + //$NON-NLS-1$
+        ((bound > 0l) ? (((double) makespan) / bound) : 1d) + //
+        ", memory budget " + this.m_budget + //$NON-NLS-1$
+        " bytes, deferrals " + this.m_deferrals.get()); //$NON-NLS-1$
+  }
 }
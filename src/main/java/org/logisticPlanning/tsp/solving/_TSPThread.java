@@ -36,6 +36,9 @@ final class _TSPThread extends Thread {
   /** the queue */
   private final _TSPQueue m_queue;
 
+  /** the index of this worker in the queue */
+  private final int m_index;
+
   /** the creator information */
   private final CreatorInfo m_creator;
 
@@ -60,17 +63,21 @@ final class _TSPThread extends Thread {
    *          the algorithm initializer
    * @param queue
    *          the queue
+   * @param index
+   *          the index of this worker in the queue
    * @param creator
    *          the creator info
    * @param log
    *          the logger
    */
   _TSPThread(final TSPAlgorithm algo, final TSPAlgorithm init,
-      final _TSPQueue queue, final CreatorInfo creator, final Logger log) {
+      final _TSPQueue queue, final int index, final CreatorInfo creator,
+      final Logger log) {
     super();
     this.m_algo = algo;
     this.m_init = init;
     this.m_queue = queue;
+    this.m_index = index;
     this.m_creator = creator;
     this.m_log = log;
 
@@ -103,10 +110,14 @@ final class _TSPThread extends Thread {
     final _TSPQueue q;
     final TSPAlgorithm init, algo;
     final Logger log;
+    final int index;
     Benchmark bm, nbm;
     ObjectiveFunction f;
+    _TSPJob job;
+    long start;
 
     q = this.m_queue;
+    index = this.m_index;
     init = this.m_init;
     algo = this.m_algo;
     log = this.m_log;
@@ -115,49 +126,48 @@ final class _TSPThread extends Thread {
     f = null;
     try {
 
-      if (init != null) {
-        for (;;) {
-
-          synchronized (q) {
-            nbm = q.next();
-
-            if (nbm == null) {
-              if ((log != null) && (log.isLoggable(Level.INFO))) {
-                log.logp(Level.INFO, _TSPThread.SOURCE_CLASS,
-                    _TSPThread.SOURCE_METHOD, this.m_noMoreJobs);
-              }
-              return;
-            }
+      for (;;) {
+        job = q._next(index);
 
-            if ((nbm != bm) || (f == null)) {
-              bm = nbm;
-              f = bm.createObjective();
-              f.setCreatorInfo(this.m_creator);
-            }
+        if (job == null) {
+          if ((log != null) && (log.isLoggable(Level.INFO))) {
+            log.logp(Level.INFO, _TSPThread.SOURCE_CLASS,
+                _TSPThread.SOURCE_METHOD, this.m_noMoreJobs);
+          }
+          return;
+        }
 
-            // initialization procedure is always executed: get
-            // better runtime
-            // estimate
-            f.beginDeterministicInitialization(init);
+        start = System.currentTimeMillis();
+        try {
+          nbm = job.m_bm;
+          if ((nbm != bm) || (f == null)) {
+            bm = nbm;
+            f = bm.createObjective();
+            f.setCreatorInfo(this.m_creator);
           }
 
-          try {
+          if (init != null) {
+            // initialization procedure is always executed: get better
+            // runtime estimate
+            f.beginDeterministicInitialization(init);
             try {
-              init.call(f);
-            } catch (final Throwable z) {
               try {
-                f.setExceptionDuringInitalization(z);
-                MemoryUtils.gc();
-              } finally {
-                if ((log != null) && log.isLoggable(Level.SEVERE)) {
-                  log.logp(Level.SEVERE, _TSPThread.SOURCE_CLASS,
-                      _TSPThread.SOURCE_METHOD,
-                      (this.m_errorCaught + nbm.name()), z);
+                init.call(f);
+              } catch (final Throwable z) {
+                try {
+                  f.setExceptionDuringInitalization(z);
+                  MemoryUtils.gc();
+                } finally {
+                  if ((log != null) && log.isLoggable(Level.SEVERE)) {
+                    log.logp(Level.SEVERE, _TSPThread.SOURCE_CLASS,
+                        _TSPThread.SOURCE_METHOD,
+                        (this.m_errorCaught + nbm.name()), z);
+                  }
                 }
               }
+            } finally {
+              f.endDeterministicInitialization();
             }
-          } finally {
-            f.endDeterministicInitialization();
           }
 
           f.beginRun(algo);
@@ -179,58 +189,13 @@ final class _TSPThread extends Thread {
           } finally {
             f.endRun();
           }
-
-          if ((log != null) && log.isLoggable(Level.INFO)) {
-            log.logp(Level.INFO, _TSPThread.SOURCE_CLASS,
-                _TSPThread.SOURCE_METHOD,
-                (this.m_jobCompleted + nbm.name()));
-          }
-        }
-      }
-
-      for (;;) {
-        synchronized (q) {
-          nbm = q.next();
-
-          if (nbm == null) {
-            if ((log != null) && (log.isLoggable(Level.INFO))) {
-              log.logp(Level.INFO, _TSPThread.SOURCE_CLASS,
-                  _TSPThread.SOURCE_METHOD, this.m_noMoreJobs);
-            }
-            return;
-          }
-
-          if ((nbm != bm) || (f == null)) {
-            bm = nbm;
-            f = bm.createObjective();
-            f.setCreatorInfo(this.m_creator);
-          }
-
-          f.beginRun(algo);
-        }
-
-        try {
-          try {
-            algo.call(f);
-          } catch (final Throwable z) {
-            try {
-              f.setExceptionDuringRun(z);
-              MemoryUtils.gc();
-            } finally {
-              if ((log != null) && log.isLoggable(Level.SEVERE)) {
-                log.logp(Level.SEVERE, _TSPThread.SOURCE_CLASS,
-                    _TSPThread.SOURCE_METHOD,
-                    (this.m_errorCaught + nbm.name()), z);
-              }
-            }
-          }
         } finally {
-          f.endRun();
+          q._done(job, (System.currentTimeMillis() - start));
         }
 
         if ((log != null) && log.isLoggable(Level.INFO)) {
           log.logp(Level.INFO, _TSPThread.SOURCE_CLASS,
-              _TSPThread.SOURCE_METHOD, (this.m_jobCompleted + nbm.name()));
+              _TSPThread.SOURCE_METHOD, (this.m_jobCompleted + job));
         }
       }
     } catch (final Throwable t) {
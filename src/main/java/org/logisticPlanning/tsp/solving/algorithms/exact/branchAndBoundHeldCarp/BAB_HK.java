@@ -7,6 +7,7 @@ import org.logisticPlanning.tsp.benchmarking.instances.Instance;
 import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
 import org.logisticPlanning.tsp.solving.TSPAlgorithm;
 import org.logisticPlanning.tsp.solving.TSPAlgorithmRunner;
+import org.logisticPlanning.tsp.solving.TSPModule;
 import org.logisticPlanning.utils.math.random.Randomizer;
 
 /**
@@ -177,6 +178,16 @@ public class BAB_HK extends TSPAlgorithm {
     return r;
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    // the matrix m_excluded of the root node and, assuming about n open
+    // nodes, their copied row arrays, excluded rows, Lagrangian
+    // multipliers, degrees, and parents
+    return (super.estimateMemory(n) + TSPModule.booleanMatrixMemory(n) + (26l
+        * n * n));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
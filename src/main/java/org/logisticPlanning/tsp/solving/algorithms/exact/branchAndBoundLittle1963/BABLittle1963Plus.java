@@ -7,6 +7,7 @@ import org.logisticPlanning.tsp.benchmarking.objective.LogPoint;
 import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
 import org.logisticPlanning.tsp.solving.TSPAlgorithm;
 import org.logisticPlanning.tsp.solving.TSPAlgorithmRunner;
+import org.logisticPlanning.tsp.solving.TSPModule;
 import org.logisticPlanning.tsp.solving.operators.permutation.creation.PermutationCreateCanonical;
 
 /**
@@ -354,6 +355,14 @@ public class BABLittle1963Plus extends TSPAlgorithm {
     return x;
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    // the zero list m_zeros and the matrix m_infinity
+    return (super.estimateMemory(n) + (4l * n * n) + TSPModule
+        .booleanMatrixMemory(n));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
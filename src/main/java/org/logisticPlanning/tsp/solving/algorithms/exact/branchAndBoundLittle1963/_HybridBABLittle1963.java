@@ -342,6 +342,12 @@ abstract class _HybridBABLittle1963 extends BABLittle1963 {
     return x;
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    return (super.estimateMemory(n) + this.m_unary.estimateMemory(n));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
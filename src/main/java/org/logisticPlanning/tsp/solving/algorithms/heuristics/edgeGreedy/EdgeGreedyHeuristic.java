@@ -2,11 +2,15 @@ package org.logisticPlanning.tsp.solving.algorithms.heuristics.edgeGreedy;
 
 import java.io.PrintStream;
 
+import org.logisticPlanning.tsp.benchmarking.dist.DelaunayGraph;
+import org.logisticPlanning.tsp.benchmarking.dist.SpatialIndex;
 import org.logisticPlanning.tsp.benchmarking.instances.Instance;
 import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
 import org.logisticPlanning.tsp.solving.Individual;
 import org.logisticPlanning.tsp.solving.TSPAlgorithmRunner;
 import org.logisticPlanning.tsp.solving.algorithms.heuristics.TSPHeuristic;
+import org.logisticPlanning.tsp.solving.utils.edge.DelaunayEdgeIterator;
+import org.logisticPlanning.tsp.solving.utils.edge.Edge;
 import org.logisticPlanning.tsp.solving.utils.edge.PriorityEdge;
 import org.logisticPlanning.tsp.solving.utils.edge.UndirectedPriorityEdgeNeighborList;
 import org.logisticPlanning.tsp.solving.utils.path.EdgePathElement;
@@ -71,6 +75,17 @@ import org.logisticPlanning.utils.config.Configuration;
  * it to {@code 20} by default. However, this is a configuration parameter
  * and may be adapted to the user's liking.
  * </p>
+ * <p>
+ * For two-dimensional instances with Euclidean distances, we can go one
+ * step further: if {@link #PARAM_USE_DELAUNAY} is {@code true}, only the
+ * {@code O(n)} edges of the
+ * {@link org.logisticPlanning.tsp.benchmarking.dist.DelaunayGraph Delaunay
+ * graph} are put into the neighbor list instead of all {@code O(n^2)}
+ * edges. The graph contains the few shortest edges of each node, so the
+ * heuristic picks almost the same edges, but it needs only
+ * {@code O(n log n)} time and distance evaluations to create the edge
+ * list. For other instances, this parameter has no effect.
+ * </p>
  * <h2>References</h2>
  * <ol>
  * <li><div><span id="cite_JMB1997TTSPACSILO" /><a
@@ -156,6 +171,12 @@ public class EdgeGreedyHeuristic extends TSPHeuristic {
    */
   public static final String PARAM_AUGMENTATION = "edgeGreedyAugmentByFirstCandidate"; //$NON-NLS-1$
 
+  /**
+   * the parameter for using only the edges of the Delaunay graph:
+   * {@value} , see {@link #m_useDelaunay}
+   */
+  public static final String PARAM_USE_DELAUNAY = "edgeGreedyUseDelaunay"; //$NON-NLS-1$
+
   /**
    * the neighbor list length
    *
@@ -170,6 +191,14 @@ public class EdgeGreedyHeuristic extends TSPHeuristic {
    */
   private boolean m_augmentByAddingFirstCandidate;
 
+  /**
+   * consider only the edges of the Delaunay graph, if the instance has
+   * one?
+   *
+   * @serial serializable field
+   */
+  private boolean m_useDelaunay;
+
   /** the edge list */
   private transient UndirectedPriorityEdgeNeighborList<PriorityEdge> m_edgeList;
 
@@ -181,6 +210,7 @@ public class EdgeGreedyHeuristic extends TSPHeuristic {
     super("Edge-Greedy Heuristic"); //$NON-NLS-1$
     this.m_neighborListLength = EdgeGreedyHeuristic.DEFAULT_NEIGHBOR_LIST_LENGTH;
     this.m_augmentByAddingFirstCandidate = false;
+    this.m_useDelaunay = false;
   }
 
   /** {@inheritDoc} */
@@ -194,6 +224,8 @@ public class EdgeGreedyHeuristic extends TSPHeuristic {
     this.m_augmentByAddingFirstCandidate = config.getBoolean(
         EdgeGreedyHeuristic.PARAM_AUGMENTATION,
         this.m_augmentByAddingFirstCandidate);
+    this.m_useDelaunay = config.getBoolean(
+        EdgeGreedyHeuristic.PARAM_USE_DELAUNAY, this.m_useDelaunay);
   }
 
   /** {@inheritDoc} */
@@ -207,6 +239,9 @@ public class EdgeGreedyHeuristic extends TSPHeuristic {
 
     Configurable.printKey(EdgeGreedyHeuristic.PARAM_AUGMENTATION, ps);
     ps.println(this.m_augmentByAddingFirstCandidate);
+
+    Configurable.printKey(EdgeGreedyHeuristic.PARAM_USE_DELAUNAY, ps);
+    ps.println(this.m_useDelaunay);
   }
 
   /** {@inheritDoc} */
@@ -220,6 +255,9 @@ public class EdgeGreedyHeuristic extends TSPHeuristic {
 
     Configurable.printKey(EdgeGreedyHeuristic.PARAM_AUGMENTATION, ps);
     ps.println("tour augmentation (if neighbor list too short) by first candidate edge (true) or by best edge (false)"); //$NON-NLS-1$
+
+    Configurable.printKey(EdgeGreedyHeuristic.PARAM_USE_DELAUNAY, ps);
+    ps.println("consider only the edges of the Delaunay graph of two-dimensional Euclidean instances"); //$NON-NLS-1$
   }
 
   /** {@inheritDoc} */
@@ -232,6 +270,10 @@ public class EdgeGreedyHeuristic extends TSPHeuristic {
     UndirectedEdgePath path;
     EdgePathElement a, b, best;
     UndirectedPriorityEdgeNeighborList<PriorityEdge> arr;
+    SpatialIndex index;
+    DelaunayGraph graph;
+    DelaunayEdgeIterator edges;
+    Edge delaunayEdge;
     long length;
 
     n = f.n();
@@ -299,9 +341,28 @@ public class EdgeGreedyHeuristic extends TSPHeuristic {
     // log_2
     // neighListLen), so we can consider it a constant for small
     // neighListLen.
-    for (i = 1; i < n; i++) {
-      for (j = (i + 1); j <= n; j++) {
-        arr.checkIn(i, j, f.distance(i, j));
+    graph = null;
+    if (this.m_useDelaunay) {
+      index = f.getSpatialIndex();
+      if (index != null) {
+        graph = index.getDelaunayGraph();
+      }
+    }
+
+    if (graph != null) {
+      // The Delaunay graph has less than 3n edges, so we only need
+      // O(n*insertion) steps.
+      edges = new DelaunayEdgeIterator(graph);
+      while (edges.hasNext()) {
+        delaunayEdge = edges.next();
+        arr.checkIn(delaunayEdge.a, delaunayEdge.b,
+            f.distance(delaunayEdge.a, delaunayEdge.b));
+      }
+    } else {
+      for (i = 1; i < n; i++) {
+        for (j = (i + 1); j <= n; j++) {
+          arr.checkIn(i, j, f.distance(i, j));
+        }
       }
     }
 
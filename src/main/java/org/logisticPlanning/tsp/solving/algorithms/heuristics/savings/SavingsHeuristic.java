@@ -2,11 +2,15 @@ package org.logisticPlanning.tsp.solving.algorithms.heuristics.savings;
 
 import java.io.PrintStream;
 
+import org.logisticPlanning.tsp.benchmarking.dist.DelaunayGraph;
+import org.logisticPlanning.tsp.benchmarking.dist.SpatialIndex;
 import org.logisticPlanning.tsp.benchmarking.instances.Instance;
 import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
 import org.logisticPlanning.tsp.solving.Individual;
 import org.logisticPlanning.tsp.solving.TSPAlgorithmRunner;
 import org.logisticPlanning.tsp.solving.algorithms.heuristics.TSPHeuristicWithStartNode;
+import org.logisticPlanning.tsp.solving.utils.edge.DelaunayEdgeIterator;
+import org.logisticPlanning.tsp.solving.utils.edge.Edge;
 import org.logisticPlanning.tsp.solving.utils.path.EdgePathElement;
 import org.logisticPlanning.tsp.solving.utils.path.UndirectedEdgePath;
 import org.logisticPlanning.utils.config.Configurable;
@@ -98,6 +102,17 @@ import org.logisticPlanning.utils.config.Configuration;
  * it to {@code 20} by default. However, this is a configuration parameter
  * and may be adapted to the user's liking.
  * </p>
+ * <p>
+ * For two-dimensional instances with Euclidean distances, the candidate
+ * edges can be restricted further: if {@link #PARAM_USE_DELAUNAY} is
+ * {@code true}, only the {@code O(n)} edges of the
+ * {@link org.logisticPlanning.tsp.benchmarking.dist.DelaunayGraph Delaunay
+ * graph} which are not incident to the depot are put into the neighbor
+ * list. This reduces the time and number of distance evaluations needed
+ * to build the list from {@code O(n^2)} to {@code O(n log n)}, at the
+ * price of ignoring long edges with high savings. For other instances,
+ * this parameter has no effect.
+ * </p>
  * <h2>References</h2>
  * <ol>
  * <li><div><span id="cite_CW1964SOVFACDTANODP" />G. Clarke and&nbsp;J. W.
@@ -216,6 +231,12 @@ public class SavingsHeuristic extends TSPHeuristicWithStartNode {
    */
   public static final String PARAM_AUGMENTATION = "savingsAugmentByFirstCandidate"; //$NON-NLS-1$
 
+  /**
+   * the parameter for using only the edges of the Delaunay graph:
+   * {@value} , see {@link #m_useDelaunay}
+   */
+  public static final String PARAM_USE_DELAUNAY = "savingsUseDelaunay"; //$NON-NLS-1$
+
   /**
    * the neighbor list length
    *
@@ -230,6 +251,14 @@ public class SavingsHeuristic extends TSPHeuristicWithStartNode {
    */
   public boolean m_augmentByAddingFirstCandidate;
 
+  /**
+   * consider only the edges of the Delaunay graph, if the instance has
+   * one?
+   *
+   * @serial serializable field
+   */
+  private boolean m_useDelaunay;
+
   /** the root distances */
   private transient int[] m_rootDist;
 
@@ -249,6 +278,7 @@ public class SavingsHeuristic extends TSPHeuristicWithStartNode {
     super(name + "Savings Heuristic"); //$NON-NLS-1$
     this.m_neighborListLength = SavingsHeuristic.DEFAULT_NEIGHBOR_LIST_LENGTH;
     this.m_augmentByAddingFirstCandidate = false;
+    this.m_useDelaunay = false;
   }
 
   /** instantiate */
@@ -268,6 +298,8 @@ public class SavingsHeuristic extends TSPHeuristicWithStartNode {
     this.m_augmentByAddingFirstCandidate = config.getBoolean(
         SavingsHeuristic.PARAM_AUGMENTATION,
         this.m_augmentByAddingFirstCandidate);
+    this.m_useDelaunay = config.getBoolean(
+        SavingsHeuristic.PARAM_USE_DELAUNAY, this.m_useDelaunay);
   }
 
   /** {@inheritDoc} */
@@ -280,6 +312,9 @@ public class SavingsHeuristic extends TSPHeuristicWithStartNode {
 
     Configurable.printKey(SavingsHeuristic.PARAM_AUGMENTATION, ps);
     ps.println(this.m_augmentByAddingFirstCandidate);
+
+    Configurable.printKey(SavingsHeuristic.PARAM_USE_DELAUNAY, ps);
+    ps.println(this.m_useDelaunay);
   }
 
   /** {@inheritDoc} */
@@ -292,6 +327,9 @@ public class SavingsHeuristic extends TSPHeuristicWithStartNode {
 
     Configurable.printKey(SavingsHeuristic.PARAM_AUGMENTATION, ps);
     ps.println("tour augmentation (if neighbor list too short) by first candidate edge (true) or by best edge (false)"); //$NON-NLS-1$
+
+    Configurable.printKey(SavingsHeuristic.PARAM_USE_DELAUNAY, ps);
+    ps.println("consider only the edges of the Delaunay graph of two-dimensional Euclidean instances"); //$NON-NLS-1$
   }
 
   /** {@inheritDoc} */
@@ -305,6 +343,10 @@ public class SavingsHeuristic extends TSPHeuristicWithStartNode {
     EdgePathElement a, b, best;
     SavingsEdgeNeighborhoodList arr;
     SavingsEdge temp;
+    SpatialIndex index;
+    DelaunayGraph graph;
+    DelaunayEdgeIterator edges;
+    Edge delaunayEdge;
     long length;
 
     n = f.n();
@@ -396,23 +438,51 @@ public class SavingsHeuristic extends TSPHeuristicWithStartNode {
     // O(neighListLen + log_2 neighListLen), so we can consider it a
     // constant
     // for small neighListLen.
-    for (i = 1; i < n; i++) {
-      if (i == depot) {
-        continue;
+    graph = null;
+    if (this.m_useDelaunay) {
+      index = f.getSpatialIndex();
+      if (index != null) {
+        graph = index.getDelaunayGraph();
       }
-      iO = ((i > depot) ? (i - 1) : i);
-      rdi = rootDist[iO - 1];
-      for (j = (i + 1); j <= n; j++) {
-        if (j == depot) {
+    }
+
+    if (graph != null) {
+      // only check in the less than 3n edges of the Delaunay graph
+      edges = new DelaunayEdgeIterator(graph);
+      while (edges.hasNext()) {
+        delaunayEdge = edges.next();
+        i = delaunayEdge.a;
+        j = delaunayEdge.b;
+        if ((i == depot) || (j == depot)) {
           continue;
         }
         d = f.distance(i, j);
+        iO = ((i > depot) ? (i - 1) : i);
         jO = ((j > depot) ? (j - 1) : j);
-        temp = arr.checkIn(iO, jO, d - rdi - rootDist[jO - 1]);
+        temp = arr.checkIn(iO, jO, d - rootDist[iO - 1] - rootDist[jO - 1]);
         if (temp != null) {
           temp.distance = d;
         }
       }
+    } else {
+      for (i = 1; i < n; i++) {
+        if (i == depot) {
+          continue;
+        }
+        iO = ((i > depot) ? (i - 1) : i);
+        rdi = rootDist[iO - 1];
+        for (j = (i + 1); j <= n; j++) {
+          if (j == depot) {
+            continue;
+          }
+          d = f.distance(i, j);
+          jO = ((j > depot) ? (j - 1) : j);
+          temp = arr.checkIn(iO, jO, d - rdi - rootDist[jO - 1]);
+          if (temp != null) {
+            temp.distance = d;
+          }
+        }
+      }
     }
 
     // Obtain the list of sorted edges and let us choose the edges that we
@@ -1,5 +1,8 @@
 package org.logisticPlanning.tsp.solving.algorithms.localSearch;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.PrintStream;
 
 import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
@@ -163,6 +166,22 @@ public abstract class TSPLocalSearchAlgorithm<P> extends TSPAlgorithm {
    */
   private int m_maxIterations;
 
+  /**
+   * the individual record worked on by {@link #solve(ObjectiveFunction)},
+   * {@code null} if the algorithm is not run as stand-alone algorithm,
+   * e.g., if it is used as mutation operator
+   */
+  private transient Individual<P> m_current;
+
+  /** the tour length at the start of the main loop, kept for checkpoints */
+  private transient long m_originalTourLength;
+
+  /** the remaining iterations of the main loop, kept for checkpoints */
+  private transient int m_iterations;
+
+  /** has the state of the main loop been restored from a checkpoint? */
+  private transient boolean m_resumed;
+
   /**
    * the parameter prefix
    *
@@ -307,20 +326,29 @@ public abstract class TSPLocalSearchAlgorithm<P> extends TSPAlgorithm {
     final boolean checkIterationLimit;
     int iterations;
 
-    originalTourLength = srcdst.tourLength;
-    this.accept(srcdst, f);
+    if (this.m_resumed && (srcdst == this.m_current)) {
+      // the run is resumed from a checkpoint made in the main loop: the
+      // restored solution has already been perturbed
+      this.m_resumed = false;
+      originalTourLength = this.m_originalTourLength;
+      iterations = this.m_iterations;
+      this.accept(srcdst, f);
+    } else {
+      originalTourLength = srcdst.tourLength;
+      this.accept(srcdst, f);
+
+      // If the solution has been produced by this algorithm, we should
+      // perturb
+      // it before optimization. Otherwise, we waste one round of
+      // optimization
+      // which would just lead to the same result.
+      if (srcdst.producer == this) {
+        this.m_perturbation.pertube(srcdst, f);
+      }
 
-    // If the solution has been produced by this algorithm, we should
-    // perturb
-    // it before optimization. Otherwise, we waste one round of
-    // optimization
-    // which would just lead to the same result.
-    if (srcdst.producer == this) {
-      this.m_perturbation.pertube(srcdst, f);
+      iterations = this.m_maxIterations;
     }
-
-    iterations = this.m_maxIterations;
-    checkIterationLimit = (iterations > 0);
+    checkIterationLimit = (this.m_maxIterations > 0);
 
     // In the main loop, we apply the local search.
     looper: for (;;) {
@@ -328,6 +356,15 @@ public abstract class TSPLocalSearchAlgorithm<P> extends TSPAlgorithm {
       if (f.shouldTerminate()) {
         break looper;
       }
+
+      // store the current solution in a checkpoint, but only if we are
+      // run as stand-alone algorithm
+      if ((srcdst == this.m_current) && f.shouldCheckpoint()) {
+        this.m_originalTourLength = originalTourLength;
+        this.m_iterations = iterations;
+        this.checkpoint(f);
+      }
+
       // Apply the local search
       this.localSearch(srcdst, f);
 
@@ -445,14 +482,49 @@ public abstract class TSPLocalSearchAlgorithm<P> extends TSPAlgorithm {
     int[] path;
 
     ind = new Individual<>();
-    if (f.getCurrentLogPoint().getConsumedFEs() > 0l) {
-      this.loadBestIntoIndividual(ind, f);
-    } else {
-      path = PermutationCreateUniform.create(f.n(), f.getRandom());
-      this.loadPathIntoIndividual(ind, path, f.evaluate(path));
-      path = null;
+    this.m_current = ind;
+    this.m_resumed = false;
+    try {
+      if (!(this.resume(f))) {
+        this.m_resumed = false;
+        if (f.getCurrentLogPoint().getConsumedFEs() > 0l) {
+          this.loadBestIntoIndividual(ind, f);
+        } else {
+          path = PermutationCreateUniform.create(f.n(), f.getRandom());
+          this.loadPathIntoIndividual(ind, path, f.evaluate(path));
+          path = null;
+        }
+      }
+      this.mainLoop(ind, f);
+    } finally {
+      this.m_current = null;
+      this.m_resumed = false;
     }
-    this.mainLoop(ind, f);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeCheckpoint(final ObjectOutputStream out)
+      throws IOException {
+    super.writeCheckpoint(out);
+    out.writeLong(this.m_originalTourLength);
+    out.writeInt(this.m_iterations);
+    this.m_current.writeCheckpoint(out);
+    this.m_acceptance.writeCheckpoint(out);
+    this.m_perturbation.writeCheckpoint(out);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readCheckpoint(final ObjectInputStream in)
+      throws IOException, ClassNotFoundException {
+    super.readCheckpoint(in);
+    this.m_originalTourLength = in.readLong();
+    this.m_iterations = in.readInt();
+    this.m_current.readCheckpoint(in);
+    this.m_acceptance.readCheckpoint(in);
+    this.m_perturbation.readCheckpoint(in);
+    this.m_resumed = true;
   }
 
   /**
@@ -559,6 +631,14 @@ public abstract class TSPLocalSearchAlgorithm<P> extends TSPAlgorithm {
     this.m_maxIterations = ((maxIterations > 0) ? maxIterations : 0);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    return (super.estimateMemory(n)
+        + this.m_acceptance.estimateMemory(n)
+        + this.m_perturbation.estimateMemory(n));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
@@ -109,6 +109,12 @@ public class TSPLocalSearchBasedMutation<P> extends UnaryOperator<P> {
     this.m_algorithm.mainLoop(dest, f);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    return (super.estimateMemory(n) + this.m_algorithm.estimateMemory(n));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
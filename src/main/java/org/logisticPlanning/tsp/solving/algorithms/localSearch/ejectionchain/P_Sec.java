@@ -4,6 +4,7 @@ import org.logisticPlanning.tsp.benchmarking.instances.Instance;
 import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
 import org.logisticPlanning.tsp.solving.Individual;
 import org.logisticPlanning.tsp.solving.TSPAlgorithmRunner;
+import org.logisticPlanning.tsp.solving.TSPModule;
 import org.logisticPlanning.tsp.solving.algorithms.localSearch.TSPLocalSearchAlgorithm;
 import org.logisticPlanning.tsp.solving.operators.permutation.creation.PermutationCreateCanonical;
 import org.logisticPlanning.tsp.solving.utils.candidates.CandidateSet;
@@ -78,6 +79,13 @@ public class P_Sec extends TSPLocalSearchAlgorithm<int[]> {
    *          between two cities and the total tour length of a permutation
    *          or adjacency list representation
    */
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    // the tabu matrix m_tabuEdge
+    return (super.estimateMemory(n) + TSPModule.booleanMatrixMemory(n));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
@@ -227,6 +227,12 @@ public class LocalNOpt extends TSPLocalSearchAlgorithm<int[]> {
         LocalNOpt.PARAM_RANDOM_OVERLAP, this.m_randomOverlap));
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    return (super.estimateMemory(n) + this.m_opt.estimateMemory(n));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
@@ -2,6 +2,7 @@ package org.logisticPlanning.tsp.solving.algorithms.localSearch.permutation.mult
 
 import java.io.PrintStream;
 
+import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
 import org.logisticPlanning.tsp.benchmarking.instances.Instance;
 import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
 import org.logisticPlanning.tsp.solving.Individual;
@@ -596,6 +597,24 @@ public class MultiNeighborhoodSearch extends
    */
   private transient int[] m_distances;
 
+  /**
+   * the distances from the node at index {@code j} to the nodes at the
+   * indices {@code 0..j-1}, fetched in one batch for each {@code j}
+   */
+  private transient int[] m_rowJ;
+
+  /**
+   * the distances from the node at index {@code j+1} to the nodes at the
+   * indices {@code 0..j-1}
+   */
+  private transient int[] m_rowJp1;
+
+  /**
+   * the distances from the node at index {@code j-1} to the nodes at the
+   * indices {@code 0..j-3}
+   */
+  private transient int[] m_rowJm1;
+
   /** the objective function to use */
   private transient ObjectiveFunction m_f;
 
@@ -634,6 +653,7 @@ public class MultiNeighborhoodSearch extends
     // compute the distances and initialize the internal distance list
     srcdst.tourLength = MultiNeighborhoodSearch.distanceAndLengthInit(f,
         n, srcdst.solution, this.m_distances);
+    f.beginMoves(srcdst.solution, srcdst.tourLength);
 
     // initialize local variables
     changed_range_i = 0;
@@ -702,8 +722,9 @@ public class MultiNeighborhoodSearch extends
         srcdst.tourLength += move.m_delta; // modify the total tour
         // length
         // accordingly
-        // we now have a new and better candidate solution: register
-        f.registerFE(srcdst.solution, srcdst.tourLength);
+        // we now have a new and better candidate solution: register the
+        // move, which is cheaper than registering the whole tour
+        f.registerMove(move.m_delta, move._operator(), move.m_i, move.m_j);
 
         move.m_next = this.m_old; // dispose the move: hang it into the
         this.m_old = move;// queue for re-use
@@ -1000,17 +1021,32 @@ public class MultiNeighborhoodSearch extends
   private final boolean fillMoveQueue(final int lastChangeStart,
       final int lastChangeEnd, final int[] sol, final int[] dists) {
     final ObjectiveFunction f;
+    final DistanceComputer dist;
     final int n, nm1;
     final int begin, end;
-    int i, j, jm1, im1, delta;
+    final boolean rows;
+    final int[] rowJ, rowJp1, rowJm1;
+    int i, j, jm1, im1, delta, count;
+    long des;
     int sol_im1, sol_i, sol_ip1, sol_jm1, sol_j, sol_jp1;
     int D_im1_i, D_i_ip1, D_jm1_j, D_j_jp1, D_im1_j, D_i_jp1, D_im1_ip1, D_i_j, D_jm1_jp1, D_ip1_j, D_i_jm1;
     _Move move;
 
     f = this.m_f;
+    dist = f.getUncheckedDistanceComputer();
     n = f.n();
     nm1 = (n - 1);
 
+    // For symmetric instances, the distances from the nodes at indices
+    // j-1, j, and j+1 to the nodes at the interesting indices i are
+    // fetched in batches, which also avoids computing the same distance
+    // several times. For asymmetric instances, the direction of the
+    // distances matters, so we stick to single distance computations.
+    rows = f.symmetric();
+    rowJ = this.m_rowJ;
+    rowJp1 = this.m_rowJp1;
+    rowJm1 = this.m_rowJm1;
+
     // Any move intersecting with the range [begin,end] is interesting.
     // The -1/+1 stem from the fact that when changing range [2,3], also
     // the
@@ -1018,139 +1054,186 @@ public class MultiNeighborhoodSearch extends
     begin = (lastChangeStart - 1);
     end = (lastChangeEnd + 1);
 
-    // iterate over all indices 0<j<n
-    j = (n - 1);
-    D_jm1_j = dists[j];
-    sol_j = sol[0];
-    sol_jm1 = sol[j];
-    for (; j > 0; j = jm1) {
-      jm1 = (j - 1); // as j>0, this can never wrap/become <0
-
-      // initialize variables pi_j-1, pi_j, pi_j+1
-      sol_jp1 = sol_j;
-      sol_j = sol_jm1;
-      sol_jm1 = sol[jm1];
-
-      // load distances d(j-1,j), d(j,j+1)
-      D_j_jp1 = D_jm1_j;
-      D_jm1_j = dists[jm1];
-
-      // iterate over all indices 0<=i<j
-      D_im1_i = dists[j];
-
-      sol_i = sol[j];
-      i = (j - 1);
-      sol_im1 = sol[i];
-      inner: for (; i >= 0; i--) {
-
-        im1 = ((i + nm1) % n);
-
-        // initialize variables pi_i-1, pi_i, pi_i+1
-        sol_ip1 = sol_i;
-        sol_i = sol_im1;
-        sol_im1 = sol[im1];
-
-        // load distances d(i-1,i), d(i,i+1)
-        D_i_ip1 = D_im1_i;
-        D_im1_i = dists[im1];
-
-        // check if the interesting range is intersected
-        if ((i > end) || (j < begin)) {
-          continue inner;
+    // The distances are computed with the unchecked distance computer
+    // and the number of DEs is registered in one go at the end.
+    des = 0l;
+    try {
+      // iterate over all indices 0<j<n
+      j = (n - 1);
+      D_jm1_j = dists[j];
+      sol_j = sol[0];
+      sol_jm1 = sol[j];
+      for (; j > 0; j = jm1) {
+        jm1 = (j - 1); // as j>0, this can never wrap/become <0
+
+        // initialize variables pi_j-1, pi_j, pi_j+1
+        sol_jp1 = sol_j;
+        sol_j = sol_jm1;
+        sol_jm1 = sol[jm1];
+
+        // load distances d(j-1,j), d(j,j+1)
+        D_j_jp1 = D_jm1_j;
+        D_jm1_j = dists[jm1];
+
+        // fetch the rows of distances needed for the indices 0<=i<j
+        if (rows && (j >= begin)) {
+          i = Math.min(jm1, end); // the largest interesting index i
+          if (i >= 0) {
+            dist.distances(sol_jp1, sol, (i + 1), rowJp1);
+            count = Math.min((i + 2), j);
+            dist.distances(sol_j, sol, count, rowJ);
+            des += ((i + 1) + count);
+            count = Math.min((i + 1), (j - 2));
+            if (count > 0) {
+              dist.distances(sol_jm1, sol, count, rowJm1);
+              des += count;
+            }
+          }
         }
 
-        // the inversion specific distance requirements
-        D_im1_j = f.distance(sol_im1, sol_j);
-        D_i_jp1 = f.distance(sol_i, sol_jp1);
+        // iterate over all indices 0<=i<j
+        D_im1_i = dists[j];
 
-        if ((i <= 0) && (j >= nm1)) {
-          continue inner; // no operation works at full-range
-        }
+        sol_i = sol[j];
+        i = (j - 1);
+        sol_im1 = sol[i];
+        inner: for (; i >= 0; i--) {
+
+          im1 = ((i + nm1) % n);
 
-        // check the reversal move
-        delta = ((D_im1_j - D_im1_i) + (D_i_jp1 - D_j_jp1));
+          // initialize variables pi_i-1, pi_i, pi_i+1
+          sol_ip1 = sol_i;
+          sol_i = sol_im1;
+          sol_im1 = sol[im1];
 
-        if (delta < 0) { // ok, the move is promising: enqueue
-          move = this.allocate(); // allocate the move
-          if (move == null) {
-            return true;// we hit the allocation limit, force exit
+          // load distances d(i-1,i), d(i,i+1)
+          D_i_ip1 = D_im1_i;
+          D_im1_i = dists[im1];
+
+          // check if the interesting range is intersected
+          if ((i > end) || (j < begin)) {
+            continue inner;
           }
 
-          move.init_reverse(i, j, delta, D_im1_j, D_i_jp1);// init the
-          // move
-          this.enqueue(move);
-        }
+          // the inversion specific distance requirements
+          if (rows) {
+            if (i > 0) {
+              D_im1_j = rowJ[im1];
+            } else {
+              D_im1_j = dist.distance(sol_im1, sol_j);
+              des++;
+            }
+            D_i_jp1 = rowJp1[i];
+          } else {
+            D_im1_j = dist.distance(sol_im1, sol_j);
+            D_i_jp1 = dist.distance(sol_i, sol_jp1);
+            des += 2l;
+          }
 
-        if (j == (i + 1)) {
-          // for swap, rotate left, and rotate right, only index
-          // tuples
-          // with
-          // j!=((i+1)%n) are interesting
-          continue inner;
-        }
+          if ((i <= 0) && (j >= nm1)) {
+            continue inner; // no operation works at full-range
+          }
 
-        // check the rotate left move
-        D_im1_ip1 = f.distance(sol_im1, sol_ip1);
-        D_i_j = f.distance(sol_i, sol_j);
+          // check the reversal move
+          delta = ((D_im1_j - D_im1_i) + (D_i_jp1 - D_j_jp1));
 
-        delta = ((D_im1_ip1 - D_im1_i) + //
-            (D_i_j - D_i_ip1) + //
-        (D_i_jp1 - D_j_jp1));
+          if (delta < 0) { // ok, the move is promising: enqueue
+            move = this.allocate(); // allocate the move
+            if (move == null) {
+              return true;// we hit the allocation limit, force exit
+            }
 
-        if (delta < 0) {// move is promising:enqueue
-          move = this.allocate(); // allocate the move
-          if (move == null) {
-            return true;// we hit the allocation limit, force exit
+            move.init_reverse(i, j, delta, D_im1_j, D_i_jp1);// init the
+            // move
+            this.enqueue(move);
           }
 
-          move.init_rotate_left(i, j, delta, D_im1_ip1, D_i_j, D_i_jp1);// init
-          this.enqueue(move);
-        }
+          if (j == (i + 1)) {
+            // for swap, rotate left, and rotate right, only index
+            // tuples
+            // with
+            // j!=((i+1)%n) are interesting
+            continue inner;
+          }
 
-        // check the rotate right move
-        D_jm1_jp1 = f.distance(sol_jm1, sol_jp1);
+          // check the rotate left move
+          D_im1_ip1 = dist.distance(sol_im1, sol_ip1);
+          if (rows) {
+            D_i_j = rowJ[i];
+            des++;
+          } else {
+            D_i_j = dist.distance(sol_i, sol_j);
+            des += 2l;
+          }
 
-        delta = ((D_im1_j - D_im1_i) + //
-            (D_i_j - D_j_jp1) + //
-        (D_jm1_jp1 - D_jm1_j));
+          delta = ((D_im1_ip1 - D_im1_i) + //
+              (D_i_j - D_i_ip1) + //
+          (D_i_jp1 - D_j_jp1));
 
-        if (delta < 0) {// move is promising:enqueue
-          move = this.allocate(); // allocate the move
-          if (move == null) {
-            return true;// we hit the allocation limit, force exit
+          if (delta < 0) {// move is promising:enqueue
+            move = this.allocate(); // allocate the move
+            if (move == null) {
+              return true;// we hit the allocation limit, force exit
+            }
+
+            move.init_rotate_left(i, j, delta, D_im1_ip1, D_i_j, D_i_jp1);// init
+            this.enqueue(move);
           }
 
-          move.init_rotate_right(i, j, delta, D_jm1_jp1, D_i_j, D_im1_j);// init
-          this.enqueue(move);
-        }
+          // check the rotate right move
+          D_jm1_jp1 = dist.distance(sol_jm1, sol_jp1);
+          des++;
 
-        if (j == ((i + 2) % n)) {
-          // for swap, j!=((i+2)%n) are interesting
-          continue inner;
-        }
+          delta = ((D_im1_j - D_im1_i) + //
+              (D_i_j - D_j_jp1) + //
+          (D_jm1_jp1 - D_jm1_j));
+
+          if (delta < 0) {// move is promising:enqueue
+            move = this.allocate(); // allocate the move
+            if (move == null) {
+              return true;// we hit the allocation limit, force exit
+            }
 
-        // check the swap move
-        D_i_jm1 = f.distance(sol_i, sol_jm1);
-        D_ip1_j = f.distance(sol_ip1, sol_j);
+            move.init_rotate_right(i, j, delta, D_jm1_jp1, D_i_j, D_im1_j);// init
+            this.enqueue(move);
+          }
 
-        delta = ((D_im1_j - D_im1_i) + //
-            (D_ip1_j - D_i_ip1) + //
-            (D_i_jm1 - D_jm1_j) + //
-        (D_i_jp1 - D_j_jp1));
+          if (j == ((i + 2) % n)) {
+            // for swap, j!=((i+2)%n) are interesting
+            continue inner;
+          }
 
-        if (delta < 0) {// move is promising:enqueue
-          move = this.allocate(); // allocate the move
-          if (move == null) {
-            return true;// we hit the allocation limit, force exit
+          // check the swap move
+          if (rows) {
+            D_i_jm1 = rowJm1[i];
+            D_ip1_j = rowJ[i + 1];
+          } else {
+            D_i_jm1 = dist.distance(sol_i, sol_jm1);
+            D_ip1_j = dist.distance(sol_ip1, sol_j);
+            des += 2l;
           }
 
-          move.init_swap(i, j, delta, D_im1_j, D_ip1_j, D_i_jm1, D_i_jp1);// init
-          this.enqueue(move);
+          delta = ((D_im1_j - D_im1_i) + //
+              (D_ip1_j - D_i_ip1) + //
+              (D_i_jm1 - D_jm1_j) + //
+          (D_i_jp1 - D_j_jp1));
+
+          if (delta < 0) {// move is promising:enqueue
+            move = this.allocate(); // allocate the move
+            if (move == null) {
+              return true;// we hit the allocation limit, force exit
+            }
+
+            move.init_swap(i, j, delta, D_im1_j, D_ip1_j, D_i_jm1, D_i_jp1);// init
+            this.enqueue(move);
+          }
         }
       }
-    }
 
-    return false;
+      return false;
+    } finally {
+      f.registerDEs(des);
+    }
   }
 
   /** {@inheritDoc} */
@@ -1168,6 +1251,9 @@ public class MultiNeighborhoodSearch extends
   /** clear this manager */
   private final void __clear() {
     this.m_distances = null;
+    this.m_rowJ = null;
+    this.m_rowJp1 = null;
+    this.m_rowJm1 = null;
     this.m_f = null;
     this.m_old = null;
     this.m_queue = null;
@@ -1227,6 +1313,9 @@ public class MultiNeighborhoodSearch extends
     this.m_f = f;
     n = f.n();
     this.m_distances = new int[n];
+    this.m_rowJ = new int[n];
+    this.m_rowJp1 = new int[n];
+    this.m_rowJm1 = new int[n];
   }
 
   /** {@inheritDoc} */
@@ -1,5 +1,11 @@
 package org.logisticPlanning.tsp.solving.algorithms.localSearch.permutation.multiNeighborhoodSearch;
 
+import org.logisticPlanning.tsp.solving.operators.permutation.update.PermutationUpdateOperator;
+import org.logisticPlanning.tsp.solving.operators.permutation.update.PermutationUpdate_Reverse;
+import org.logisticPlanning.tsp.solving.operators.permutation.update.PermutationUpdate_Rotate_Left;
+import org.logisticPlanning.tsp.solving.operators.permutation.update.PermutationUpdate_Rotate_Right;
+import org.logisticPlanning.tsp.solving.operators.permutation.update.PermutationUpdate_Swap;
+
 /**
  * <p>
  * The internal move class holds all information necessary for describing
@@ -556,6 +562,16 @@ final class _Move {
       "swap(" //$NON-NLS-1$
   };
 
+  /**
+   * the update operators which change a tour in the same way as the move
+   * types
+   */
+  private static final PermutationUpdateOperator[] OPERATORS = new PermutationUpdateOperator[] {
+      PermutationUpdate_Reverse.INSTANCE,
+      PermutationUpdate_Rotate_Left.INSTANCE,
+      PermutationUpdate_Rotate_Right.INSTANCE,
+      PermutationUpdate_Swap.INSTANCE };
+
   /** the move's type */
   int m_type;
 
@@ -719,6 +735,16 @@ final class _Move {
     this.m_a = D_i_jp1;
   }
 
+  /**
+   * Get the update operator which, invoked with the indices {@link #m_i}
+   * and {@link #m_j}, changes a tour in the same way as this move
+   *
+   * @return the update operator
+   */
+  final PermutationUpdateOperator _operator() {
+    return _Move.OPERATORS[this.m_type];
+  }
+
   /**
    * <p>
    * This method has one &quot;external&quot; and one &quot;internal&quot;
@@ -200,6 +200,12 @@ public final class RandomPermutationWalk extends TSPAlgorithm {
         args);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    return (super.estimateMemory(n) + this.m_update.estimateMemory(n));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
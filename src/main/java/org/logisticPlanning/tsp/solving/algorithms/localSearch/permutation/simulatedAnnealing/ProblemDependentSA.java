@@ -232,6 +232,12 @@ public final class ProblemDependentSA extends
 
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    return (super.estimateMemory(n) + this.m_update.estimateMemory(n));
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void beginRun(final ObjectiveFunction f) {
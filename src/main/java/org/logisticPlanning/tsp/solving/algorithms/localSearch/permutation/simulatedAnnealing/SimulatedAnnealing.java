@@ -164,6 +164,12 @@ public class SimulatedAnnealing extends TSPLocalSearchAlgorithm<int[]> {
     return clo;
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    return (super.estimateMemory(n) + this.m_update.estimateMemory(n));
+  }
+
   /** {@inheritDoc} */
   @Override
   public final void beginRun(final ObjectiveFunction f) {
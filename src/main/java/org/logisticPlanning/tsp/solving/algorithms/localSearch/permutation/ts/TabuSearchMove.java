@@ -235,6 +235,13 @@ public class TabuSearchMove extends TSPLocalSearchAlgorithm<int[]> {
     Configurable.printlnObject(this.m_ops, ps);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    return (super.estimateMemory(n)
+        + TSPModule.estimateMemory(n, this.m_ops));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
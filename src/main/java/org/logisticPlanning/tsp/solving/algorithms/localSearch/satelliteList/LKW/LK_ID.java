@@ -9,6 +9,7 @@ import org.logisticPlanning.tsp.solving.TSPAlgorithmRunner;
 import org.logisticPlanning.tsp.solving.algorithms.localSearch.TSPLocalSearchAlgorithm;
 import org.logisticPlanning.tsp.solving.operators.permutation.creation.PermutationCreateCanonical;
 import org.logisticPlanning.tsp.solving.utils.candidates.CandidateSet;
+import org.logisticPlanning.tsp.solving.utils.candidates.ECandidateSetStrategy;
 import org.logisticPlanning.tsp.solving.utils.satelliteList.UndoableSatelliteList;
 import org.logisticPlanning.tsp.solving.utils.satelliteList.UndoableSatelliteNode;
 import org.logisticPlanning.utils.config.Configurable;
@@ -124,6 +125,24 @@ public class LK_ID extends TSPLocalSearchAlgorithm<int[]> {
    */
   public static final String CONFIG_CANDIDATE_COUNT = "lkidConfigUsedCandidateCount"; //$NON-NLS-1$
 
+  /**
+   * the default candidate set strategy
+   *
+   * @see #PARAM_CANDIDATE_STRATEGY
+   * @see #m_candidateStrategy
+   */
+  public static final ECandidateSetStrategy DEFAULT_CANDIDATE_STRATEGY = ECandidateSetStrategy.NEAREST_NEIGHBORS;
+
+  /**
+   * the parameter governing which nodes become candidates if the
+   * {@link #PARAM_CANDIDATE_COUNT number of candidates} is limited:
+   * {@value}
+   *
+   * @see #DEFAULT_CANDIDATE_STRATEGY
+   * @see #m_candidateStrategy
+   */
+  public static final String PARAM_CANDIDATE_STRATEGY = "lkidCandidateStrategy"; //$NON-NLS-1$
+
   /**
    * the start max depth for recursion: the algorithm may initially add and
    * remove at most <em>{@value}+1</em> edges.
@@ -178,6 +197,9 @@ public class LK_ID extends TSPLocalSearchAlgorithm<int[]> {
   /** the number of candidates */
   private int m_candidateCount;
 
+  /** the candidate set strategy */
+  private ECandidateSetStrategy m_candidateStrategy;
+
   /** the starting max depth */
   private int m_startMaxDepth;
 
@@ -225,6 +247,7 @@ public class LK_ID extends TSPLocalSearchAlgorithm<int[]> {
     super("Iterative Deepening Lin-Kerninghan Heuristic");//$NON-NLS-1$
 
     this.m_candidateCount = LK_ID.DEFAULT_CANDIDATE_COUNT;
+    this.m_candidateStrategy = LK_ID.DEFAULT_CANDIDATE_STRATEGY;
     this.m_startMaxDepth = LK_ID.DEFAULT_START_MAX_RECURSION_DEPTH;
     this.m_maxMaxDepth = LK_ID.DEFAULT_MAX_MAX_RECURSION_DEPTH;
     this.m_depthIncreasingProbability = LK_ID.DEFAULT_DEPTH_INCREASING_PROBABILITY;
@@ -453,6 +476,9 @@ public class LK_ID extends TSPLocalSearchAlgorithm<int[]> {
     Configurable.printKey(LK_ID.PARAM_CANDIDATE_COUNT, ps);
     ps.println(this.m_candidateCount);
 
+    Configurable.printKey(LK_ID.PARAM_CANDIDATE_STRATEGY, ps);
+    Configurable.printlnObject(this.m_candidateStrategy, ps);
+
     if (this.m_candidates != null) {
       Configurable.printKey(LK_ID.CONFIG_CANDIDATE_COUNT, ps);
       ps.println(this.m_candidates.m());
@@ -476,6 +502,9 @@ public class LK_ID extends TSPLocalSearchAlgorithm<int[]> {
     Configurable.printKey(LK_ID.PARAM_CANDIDATE_COUNT, ps);
     ps.println("the number of nearest neighbors in the candidate sets per node"); //$NON-NLS-1$
 
+    Configurable.printKey(LK_ID.PARAM_CANDIDATE_STRATEGY, ps);
+    ps.println("the strategy deciding which nodes become candidates"); //$NON-NLS-1$
+
     Configurable.printKey(LK_ID.PARAM_START_MAX_RECURSION_DEPTH, ps);
     ps.println("the start depth limit of the recursion"); //$NON-NLS-1$
 
@@ -493,6 +522,9 @@ public class LK_ID extends TSPLocalSearchAlgorithm<int[]> {
 
     this.m_candidateCount = config.getInt(LK_ID.PARAM_CANDIDATE_COUNT, -1,
         1000000, this.m_candidateCount);
+    this.m_candidateStrategy = config.getConstant(
+        LK_ID.PARAM_CANDIDATE_STRATEGY, ECandidateSetStrategy.class,
+        ECandidateSetStrategy.class, this.m_candidateStrategy);
 
     this.m_maxMaxDepth = config.getInt(
         LK_ID.PARAM_MAXIMUM_MAX_RECURSION_DEPTH, 1, 100000,
@@ -548,7 +580,7 @@ public class LK_ID extends TSPLocalSearchAlgorithm<int[]> {
     this.m_f = f;
 
     this.m_candidates = CandidateSet.allocate(f, this.m_candidateCount,
-        null);
+        this.m_candidateStrategy, null);
     this.m_m = this.m_candidates.m();
 
     n = f.n();
@@ -1,11 +1,15 @@
 package org.logisticPlanning.tsp.solving.algorithms.metaheuristics.general.ea;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.PrintStream;
 
 import org.logisticPlanning.tsp.benchmarking.objective.LogPoint;
 import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
 import org.logisticPlanning.tsp.solving.Individual;
 import org.logisticPlanning.tsp.solving.TSPAlgorithm;
+import org.logisticPlanning.tsp.solving.TSPModule;
 import org.logisticPlanning.tsp.solving.algorithms.metaheuristics.general.ea.fitness.FitnessIsObjectiveValue;
 import org.logisticPlanning.tsp.solving.algorithms.metaheuristics.general.ea.populationResize.StaticPopulationSize;
 import org.logisticPlanning.tsp.solving.algorithms.metaheuristics.general.ea.selection.TruncationSelection;
@@ -2306,6 +2310,21 @@ public class EA extends TSPAlgorithm {
    */
   private transient int m_completedGenerations;
 
+  /** the population, only set while a checkpoint is made or restored */
+  private transient Individual<Object>[] m_pop;
+
+  /** the current number of offspring, kept for checkpoints */
+  private transient int m_currentLambda;
+
+  /** the current mating pool size, kept for checkpoints */
+  private transient int m_currentMu;
+
+  /** the next mating pool size, kept for checkpoints */
+  private transient int m_nextMu;
+
+  /** the FEs at the last improvement, kept for checkpoints */
+  private transient long m_lastImprovementFE;
+
   /**
    * create the EA an initialize all parameters to default values
    *
@@ -2888,14 +2907,39 @@ public class EA extends TSPAlgorithm {
     bestLP = f.getLastImprovementLogPoint();
     lastImprovementFE = Long.MIN_VALUE;
 
-    // Produce the first generation of individuals. These individuals will
-    // usually be random, may have also been produced with a heuristic
-    // and/or refined with a local search
-    this.createFirstGeneration(pop, f);
+    if (this.resume(f)) {
+      // The run is resumed from a checkpoint: continue with the stored
+      // population instead of creating the first generation.
+      pop = this.m_pop;
+      currentLambda = this.m_currentLambda;
+      currentMu = this.m_currentMu;
+      nextMu = this.m_nextMu;
+      lastImprovementFE = this.m_lastImprovementFE;
+      this.m_pop = null;
+    } else {
+      // Produce the first generation of individuals. These individuals
+      // will usually be random, may have also been produced with a
+      // heuristic and/or refined with a local search
+      this.createFirstGeneration(pop, f);
+    }
 
     for (;;) {
       // loop forever - termination criterion is checked in loop body
 
+      // store the population in a checkpoint, if one is due
+      if (f.shouldCheckpoint()) {
+        this.m_pop = pop;
+        this.m_currentLambda = currentLambda;
+        this.m_currentMu = currentMu;
+        this.m_nextMu = nextMu;
+        this.m_lastImprovementFE = lastImprovementFE;
+        try {
+          this.checkpoint(f);
+        } finally {
+          this.m_pop = null;
+        }
+      }
+
       // increase number of completed generations
       this.m_completedGenerations++;
 
@@ -3008,6 +3052,83 @@ public class EA extends TSPAlgorithm {
     }
   }
 
+  /**
+   * Get the modules of this EA in the order in which they are initialized
+   *
+   * @return the modules
+   */
+  @SuppressWarnings("rawtypes")
+  private final TSPModule[] __modules() {
+    if ((!(this.m_binary instanceof BinaryOperatorFollowedByUnary))
+        || ((((BinaryOperatorFollowedByUnary) (this.m_binary))
+            .getUnaryOperator()) != this.m_unary)) {
+      return new TSPModule[] { this.m_nullary, this.m_unary,
+          this.m_binary, this.m_gpm, this.m_fap, this.m_selection,
+          this.m_resizeStrategy };
+    }
+    return new TSPModule[] { this.m_nullary, this.m_binary, this.m_gpm,
+        this.m_fap, this.m_selection, this.m_resizeStrategy };
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeCheckpoint(final ObjectOutputStream out)
+      throws IOException {
+    final Individual<Object>[] pop;
+
+    super.writeCheckpoint(out);
+
+    out.writeInt(this.m_completedGenerations);
+    out.writeInt(this.m_currentLambda);
+    out.writeInt(this.m_currentMu);
+    out.writeInt(this.m_nextMu);
+    out.writeLong(this.m_lastImprovementFE);
+
+    pop = this.m_pop;
+    out.writeInt(pop.length);
+    for (final Individual<Object> ind : pop) {
+      out.writeBoolean(ind != null);
+      if (ind != null) {
+        ind.writeCheckpoint(out);
+      }
+    }
+
+    TSPModule.invokeWriteCheckpoint(out, this.__modules());
+  }
+
+  /** {@inheritDoc} */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  @Override
+  public void readCheckpoint(final ObjectInputStream in)
+      throws IOException, ClassNotFoundException {
+    final Individual<Object>[] pop;
+    int i;
+
+    super.readCheckpoint(in);
+
+    this.m_completedGenerations = in.readInt();
+    this.m_currentLambda = in.readInt();
+    this.m_currentMu = in.readInt();
+    this.m_nextMu = in.readInt();
+    this.m_lastImprovementFE = in.readLong();
+
+    i = in.readInt();
+    if ((i < this.m_currentLambda) || (this.m_currentMu <= 0)
+        || (this.m_nextMu <= 0)) {
+      throw new IOException("Invalid population size."); //$NON-NLS-1$
+    }
+    pop = new Individual[i];
+    for (i = 0; i < pop.length; i++) {
+      if (in.readBoolean()) {
+        pop[i] = new Individual<>();
+        pop[i].readCheckpoint(in);
+      }
+    }
+    this.m_pop = pop;
+
+    TSPModule.invokeReadCheckpoint(in, this.__modules());
+  }
+
   /** {@inheritDoc} */
   @Override
   @SuppressWarnings("unchecked")
@@ -3028,6 +3149,24 @@ public class EA extends TSPAlgorithm {
     return cfg;
   }
 
+  /** {@inheritDoc} */
+  @SuppressWarnings("rawtypes")
+  @Override
+  public long estimateMemory(final int n) {
+    long sum;
+
+    sum = (super.estimateMemory(n) + this.m_nullary.estimateMemory(n));
+    if ((!(this.m_binary instanceof BinaryOperatorFollowedByUnary))
+        || ((((BinaryOperatorFollowedByUnary) (this.m_binary))
+            .getUnaryOperator()) != this.m_unary)) {
+      sum += this.m_unary.estimateMemory(n);
+    }
+    return (sum + this.m_binary.estimateMemory(n)
+        + this.m_gpm.estimateMemory(n) + this.m_fap.estimateMemory(n)
+        + this.m_selection.estimateMemory(n) + this.m_resizeStrategy
+        .estimateMemory(n));
+  }
+
   /** {@inheritDoc} */
   @SuppressWarnings("rawtypes")
   @Override
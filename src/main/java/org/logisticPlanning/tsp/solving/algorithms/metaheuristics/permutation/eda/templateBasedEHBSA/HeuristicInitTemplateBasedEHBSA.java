@@ -609,6 +609,14 @@ public class HeuristicInitTemplateBasedEHBSA extends TemplateBasedEHBSA {
         args);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    return (super.estimateMemory(n)
+        + TSPModule.estimateMemory(n, this.m_initOnce)
+        + TSPModule.estimateMemory(n, this.m_initMulti));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
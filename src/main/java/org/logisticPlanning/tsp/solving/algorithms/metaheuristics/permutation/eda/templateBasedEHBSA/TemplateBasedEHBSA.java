@@ -10,6 +10,7 @@ import org.logisticPlanning.tsp.solving.TSPAlgorithmRunner;
 import org.logisticPlanning.tsp.solving.operators.permutation.creation.PermutationCreateUniform;
 import org.logisticPlanning.tsp.solving.utils.NodeManager;
 import org.logisticPlanning.tsp.solving.utils.candidates.CandidateSet;
+import org.logisticPlanning.tsp.solving.utils.candidates.ECandidateSetStrategy;
 import org.logisticPlanning.tsp.solving.utils.edgeData.EdgeNumber;
 import org.logisticPlanning.utils.config.Configurable;
 import org.logisticPlanning.utils.config.Configuration;
@@ -412,6 +413,8 @@ public class TemplateBasedEHBSA extends TSPAlgorithm {
   public static final String PARAM_HISTOGRAM_ORDER_BIAS = "ehbsaHistogramOrderBias";//$NON-NLS-1$
   /** the candidate set size: {@value} */
   public static final String PARAM_CANDIDATE_SET_SIZE = "ehbsaCandidateSetSize"; //$NON-NLS-1$
+  /** the candidate set strategy: {@value} */
+  public static final String PARAM_CANDIDATE_SET_STRATEGY = "ehbsaCandidateSetStrategy"; //$NON-NLS-1$
   /** the template method: {@value} */
   public static final String PARAM_TEMPLATE_METHOD = "ehbsaTemplateMethod"; //$NON-NLS-1$
   /** the augmentation method: {@value} */
@@ -441,6 +444,8 @@ public class TemplateBasedEHBSA extends TSPAlgorithm {
   public static final double DEFAULT_HISTOGRAM_ORDER_BIAS = 0.05d;
   /** the default candidate set size: {@value} */
   public static final int DEFAULT_CANDIDATE_SET_SIZE = 20;
+  /** the default candidate set strategy */
+  public static final ECandidateSetStrategy DEFAULT_CANDIDATE_SET_STRATEGY = ECandidateSetStrategy.NEAREST_NEIGHBORS;
   /** the default template method */
   public static final ETemplateMethod DEFAULT_TEMPLATE_METHOD = ETemplateMethod.CUT;
   /** the default augmentation method */
@@ -491,6 +496,15 @@ public class TemplateBasedEHBSA extends TSPAlgorithm {
    */
   private int m_candidateSetSize;
 
+  /**
+   * the strategy deciding which nodes become candidates, see
+   * {@link #PARAM_CANDIDATE_SET_STRATEGY} and
+   * {@link org.logisticPlanning.tsp.solving.utils.candidates.ECandidateSetStrategy}
+   *
+   * @serial a non-null instance
+   */
+  private ECandidateSetStrategy m_candidateSetStrategy;
+
   /**
    * the template method deciding how many elements of a sample should come
    * from the model (the rest is copied from a template), see
@@ -563,6 +577,7 @@ public class TemplateBasedEHBSA extends TSPAlgorithm {
     this.m_populationSizeFactor = TemplateBasedEHBSA.DEFAULT_POPULATION_SIZE_FACTOR;
     this.m_histogramOrderBias = TemplateBasedEHBSA.DEFAULT_HISTOGRAM_ORDER_BIAS;
     this.m_candidateSetSize = TemplateBasedEHBSA.DEFAULT_CANDIDATE_SET_SIZE;
+    this.m_candidateSetStrategy = TemplateBasedEHBSA.DEFAULT_CANDIDATE_SET_STRATEGY;
     this.m_templateMethod = TemplateBasedEHBSA.DEFAULT_TEMPLATE_METHOD;
     this.m_augmentationMethod = TemplateBasedEHBSA.DEFAULT_AUGMENTATION_METHOD;
     this.m_bias = Double.NaN;
@@ -577,6 +592,10 @@ public class TemplateBasedEHBSA extends TSPAlgorithm {
     Configurable.printKey(TemplateBasedEHBSA.PARAM_CANDIDATE_SET_SIZE, ps);
     ps.println(this.m_candidateSetSize);
 
+    Configurable.printKey(TemplateBasedEHBSA.PARAM_CANDIDATE_SET_STRATEGY,
+        ps);
+    Configurable.printlnObject(this.m_candidateSetStrategy, ps);
+
     Configurable.printKey(TemplateBasedEHBSA.PARAM_GAMMA, ps);
     ps.println(this.m_gamma);
 
@@ -633,6 +652,10 @@ public class TemplateBasedEHBSA extends TSPAlgorithm {
     Configurable.printKey(TemplateBasedEHBSA.PARAM_CANDIDATE_SET_SIZE, ps);
     ps.println("the candidate set size"); //$NON-NLS-1$
 
+    Configurable.printKey(TemplateBasedEHBSA.PARAM_CANDIDATE_SET_STRATEGY,
+        ps);
+    ps.println("the strategy deciding which nodes become candidates"); //$NON-NLS-1$
+
     Configurable.printKey(TemplateBasedEHBSA.PARAM_GAMMA, ps);
     ps.println("the gamma parameter"); //$NON-NLS-1$
 
@@ -678,6 +701,11 @@ public class TemplateBasedEHBSA extends TSPAlgorithm {
         TemplateBasedEHBSA.PARAM_CANDIDATE_SET_SIZE, 0, Integer.MAX_VALUE,
         this.m_candidateSetSize);
 
+    this.m_candidateSetStrategy = config.getConstant(
+        TemplateBasedEHBSA.PARAM_CANDIDATE_SET_STRATEGY,
+        ECandidateSetStrategy.class, ECandidateSetStrategy.class,
+        this.m_candidateSetStrategy);
+
     this.m_templateMethod = config.getConstant(
         TemplateBasedEHBSA.PARAM_TEMPLATE_METHOD, ETemplateMethod.class,
         ETemplateMethod.class, this.m_templateMethod);
@@ -1114,6 +1142,27 @@ public class TemplateBasedEHBSA extends TSPAlgorithm {
         args);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    final int ps;
+    long sum;
+
+    ps = Math.max(2, (this.m_basicPopulationSize + //
+        ((int) (0.5d + (n * this.m_populationSizeFactor)))));
+
+    // the templates and samples
+    sum = (super.estimateMemory(n) + (2l * ps * ((4l * n) + 16l)));
+
+    // the edge histogram model, unless restricted to the candidate edges;
+    // the problem may be asymmetric
+    if (this.m_augmentationMethod == //
+        EAugmentationMethod.AUGMENT_BY_HISTOGRAM) {
+      sum += EdgeNumber.estimateMemory(n, false, 0, ps, false);
+    }
+    return sum;
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
@@ -1142,7 +1191,7 @@ public class TemplateBasedEHBSA extends TSPAlgorithm {
     // Initialize the candidate set holding the {@link #m_candidateSetSize}
     // nearest neighboring nodes for each node.
     this.m_candidateSet = CandidateSet.allocate(f,
-        this.m_candidateSetSize, null);
+        this.m_candidateSetSize, this.m_candidateSetStrategy, null);
 
     // Allocate the edge histogram model, built from ps individuals. As
     // each
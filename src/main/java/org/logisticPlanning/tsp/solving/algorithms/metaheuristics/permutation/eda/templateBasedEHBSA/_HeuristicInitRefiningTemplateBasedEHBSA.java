@@ -498,6 +498,12 @@ abstract class _HeuristicInitRefiningTemplateBasedEHBSA extends
     this.m_unary.mutate(ind, f, tmp);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    return (super.estimateMemory(n) + this.m_unary.estimateMemory(n));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
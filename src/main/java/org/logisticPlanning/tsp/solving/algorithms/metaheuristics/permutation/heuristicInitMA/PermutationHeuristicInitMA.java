@@ -594,6 +594,14 @@ public abstract class PermutationHeuristicInitMA extends EA {
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    return (super.estimateMemory(n)
+        + TSPModule.estimateMemory(n, this.m_initOnce)
+        + TSPModule.estimateMemory(n, this.m_initMulti));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
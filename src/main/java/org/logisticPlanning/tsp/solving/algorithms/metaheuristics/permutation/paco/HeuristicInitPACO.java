@@ -497,6 +497,14 @@ public class HeuristicInitPACO extends PACO {
         args);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    return (super.estimateMemory(n)
+        + TSPModule.estimateMemory(n, this.m_initOnce)
+        + TSPModule.estimateMemory(n, this.m_initMulti));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
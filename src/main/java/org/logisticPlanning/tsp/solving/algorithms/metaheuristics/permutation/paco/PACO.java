@@ -1,5 +1,8 @@
 package org.logisticPlanning.tsp.solving.algorithms.metaheuristics.permutation.paco;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.PrintStream;
 import java.util.Arrays;
 
@@ -415,6 +418,9 @@ public class PACO extends TSPAlgorithm {
   /** a temporary variable for the population */
   private transient PACOIndividual[] m_pop;
 
+  /** the current generation, kept for checkpoints */
+  private transient long m_gen;
+
   /**
    * instantiate
    *
@@ -597,32 +603,49 @@ public class PACO extends TSPAlgorithm {
     // the initially empty population
     pop = this.m_pop;
 
-    // Create the initial population, if initialization heuristics are
-    // used.
-    // If
-    // individuals are created, check them into the pheromone matrix.
-    this.createInitialPopulation(pop, f);// call the initialization
-    // heuristics
-    initialized = false;
-    for (final PACOIndividual ind : pop) {// check if any individuals were
-      // created
-      if (ind.tourLength != Individual.TOUR_LENGTH_NOT_SET) {
-        ind.m_birthday = gen; // ok, individuals were created, set
-        // birthday
-        initialized = true; // remember to increase generation
-        matrix.add(ind.solution);// check individuals into matrix
-      } else { // ok, no more individuals, break loop
-        break; // this is the fast exit if no initialization
+    if (this.resume(f)) {
+      // The run is resumed from a checkpoint: the pheromone matrix is
+      // fully defined by the stored population.
+      gen = this.m_gen;
+      for (final PACOIndividual ind : pop) {
+        if (!(ind.isEmpty())) {
+          matrix.add(ind.solution);
+        }
+      }
+    } else {
+      // Create the initial population, if initialization heuristics are
+      // used.
+      // If
+      // individuals are created, check them into the pheromone matrix.
+      this.createInitialPopulation(pop, f);// call the initialization
+      // heuristics
+      initialized = false;
+      for (final PACOIndividual ind : pop) {// check if any individuals
+        // were created
+        if (ind.tourLength != Individual.TOUR_LENGTH_NOT_SET) {
+          ind.m_birthday = gen; // ok, individuals were created, set
+          // birthday
+          initialized = true; // remember to increase generation
+          matrix.add(ind.solution);// check individuals into matrix
+        } else { // ok, no more individuals, break loop
+          break; // this is the fast exit if no initialization
+        }
+      }
+      if (initialized) {// individuals were created by a heuristic
+        gen++;// thus, we need to increase the generation
       }
-    }
-    if (initialized) {// individuals were created by a heuristic
-      gen++;// thus, we need to increase the generation
     }
 
     bestGen = new PACOIndividual();
 
     // main algorithm part: run as long as we can
     while (!(f.shouldTerminate())) {
+      // store the population in a checkpoint between two generations
+      if ((curAnt == 0) && f.shouldCheckpoint()) {
+        this.m_gen = gen;
+        this.checkpoint(f);
+      }
+
       nodes.init(n);
 
       // Build one new candidate solution by simulating the behavior of
@@ -649,13 +672,15 @@ public class PACO extends TSPAlgorithm {
         bestDist = bestNode = (-1);
         pheroSum = 0d;
 
+        // Get the distances from the last node to all nodes which are not
+        // yet assigned in one batch.
+        nodes.distances(lastNode, f, dists);
+
         // Then: for each node which is not yet assigned...
         for (j = 0; j < nodesLeft; j++) {
-          // Get that node.
+          // Get that node and its distance from the last node.
           curNode = nodes.getByIndex(j);
-
-          // Get the distance from the last node.
-          dist = f.distance(lastNode, curNode);
+          dist = dists[j];
 
           // Compute the pheromone/heuristic value.
           phero = (Math.pow(matrix.get(lastNode, curNode), alpha) * //
@@ -680,7 +705,6 @@ public class PACO extends TSPAlgorithm {
             // runtime.
             pheroSum += phero;
             table[j] = pheroSum;
-            dists[j] = dist;
           }
         }
 
@@ -877,6 +901,47 @@ public class PACO extends TSPAlgorithm {
         args);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public void writeCheckpoint(final ObjectOutputStream out)
+      throws IOException {
+    super.writeCheckpoint(out);
+    out.writeLong(this.m_gen);
+    out.writeInt(this.m_pop.length);
+    for (final PACOIndividual ind : this.m_pop) {
+      ind.writeCheckpoint(out);
+    }
+    this.m_update.writeCheckpoint(out);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readCheckpoint(final ObjectInputStream in)
+      throws IOException, ClassNotFoundException {
+    final int n;
+
+    super.readCheckpoint(in);
+    this.m_gen = in.readLong();
+    if (in.readInt() != this.m_pop.length) {
+      throw new IOException("Invalid population size."); //$NON-NLS-1$
+    }
+    n = this.m_cur.length;
+    for (final PACOIndividual ind : this.m_pop) {
+      ind.readCheckpoint(in);
+      if ((!(ind.isEmpty()))
+          && ((ind.solution == null) || (ind.solution.length != n))) {
+        throw new IOException("Invalid solution."); //$NON-NLS-1$
+      }
+    }
+    this.m_update.readCheckpoint(in);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    return (super.estimateMemory(n) + this.m_update.estimateMemory(n));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
@@ -1,5 +1,9 @@
 package org.logisticPlanning.tsp.solving.algorithms.metaheuristics.permutation.paco;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import org.logisticPlanning.tsp.solving.Individual;
 
 /**
@@ -144,6 +148,22 @@ public final class PACOIndividual extends Individual<int[]> {
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public final void writeCheckpoint(final ObjectOutputStream out)
+      throws IOException {
+    super.writeCheckpoint(out);
+    out.writeLong(this.m_birthday);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final void readCheckpoint(final ObjectInputStream in)
+      throws IOException, ClassNotFoundException {
+    super.readCheckpoint(in);
+    this.m_birthday = in.readLong();
+  }
+
   /** clear */
   final void doclear() {
     this.tourLength = Individual.TOUR_LENGTH_NOT_SET;
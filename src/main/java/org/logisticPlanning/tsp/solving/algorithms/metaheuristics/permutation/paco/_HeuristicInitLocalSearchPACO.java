@@ -371,6 +371,12 @@ abstract class _HeuristicInitLocalSearchPACO extends HeuristicInitPACO {
     return this.m_tempB.tourLength;
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    return (super.estimateMemory(n) + this.m_mutation.estimateMemory(n));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
@@ -176,6 +176,14 @@ public final class BinaryOperatorFollowedByUnary<P> extends
     return this.m_unary;
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public long estimateMemory(final int n) {
+    return (super.estimateMemory(n)
+        + this.m_binary.estimateMemory(n)
+        + this.m_unary.estimateMemory(n));
+  }
+
   /** {@inheritDoc} */
   @Override
   public void beginRun(final ObjectiveFunction f) {
@@ -2,6 +2,7 @@ package org.logisticPlanning.tsp.solving.utils;
 
 import java.util.Arrays;
 
+import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
 import org.logisticPlanning.tsp.solving.operators.permutation.creation.PermutationCreateCanonical;
 import org.logisticPlanning.utils.math.random.Randomizer;
 
@@ -201,6 +202,26 @@ public final class NodeManager {
     return (this.m_n <= 0);
   }
 
+  /**
+   * Compute the distances from a given node to all remaining nodes in one
+   * batch via
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer#distances(int, int[], int, int[])}
+   * . Afterwards, {@code dest[i]} holds the distance to the node
+   * {@link #getByIndex(int) at index} {@code i}, for all
+   * <code>i&isin;0..{@link #size()}-1</code>.
+   *
+   * @param node
+   *          the node from which the distances are computed
+   * @param dist
+   *          the distance computer, e.g., the objective function
+   * @param dest
+   *          the array receiving the distances
+   */
+  public final void distances(final int node, final DistanceComputer dist,
+      final int[] dest) {
+    dist.distances(node, this.m_nodes, this.m_n, dest);
+  }
+
   /**
    * get the remaining node at the given index
    *
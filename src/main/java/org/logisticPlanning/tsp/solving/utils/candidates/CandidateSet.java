@@ -3,15 +3,19 @@ package org.logisticPlanning.tsp.solving.utils.candidates;
 import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
 
 /**
- * A candidate set that presents {@code m} candidates per node, i.e., the
- * {@code m} nearest other nodes. The candidates for each node receive
- * &quot;pseudo-node ids&quot; ranging from {@code 1} to {@code m}.
+ * A candidate set that presents {@code m} candidates per node, by default
+ * the {@code m} nearest other nodes (see {@link ECandidateSetStrategy}).
+ * The candidates for each node receive &quot;pseudo-node ids&quot; ranging
+ * from {@code 1} to {@code m}.
  */
 public abstract class CandidateSet {
 
   /** the candidate count */
   int m_m;
 
+  /** the lower bound computed by the strategy */
+  long m_lowerBound;
+
   /** instantiate */
   CandidateSet() {
     super();
@@ -27,7 +31,20 @@ public abstract class CandidateSet {
   }
 
   /**
-   * Allocate and initialize a candidate set.
+   * Get the lower bound for the length of the optimal tour which was
+   * computed as a by-product when choosing the candidates, e.g., by the
+   * {@link ECandidateSetStrategy#ALPHA_NEARNESS} strategy. The gap between
+   * a tour and this bound bounds the distance of the tour to the optimum.
+   *
+   * @return the lower bound, or {@code 0} if none was computed
+   */
+  public final long getLowerBound() {
+    return this.m_lowerBound;
+  }
+
+  /**
+   * Allocate and initialize a candidate set of the
+   * {@link ECandidateSetStrategy#NEAREST_NEIGHBORS nearest neighbors}.
    *
    * @param f
    *          the objective function
@@ -41,6 +58,31 @@ public abstract class CandidateSet {
    */
   public static final CandidateSet allocate(final ObjectiveFunction f,
       final int m, final CandidateSet old) {
+    return CandidateSet.allocate(f, m,
+        ECandidateSetStrategy.NEAREST_NEIGHBORS, old);
+  }
+
+  /**
+   * Allocate and initialize a candidate set.
+   *
+   * @param f
+   *          the objective function
+   * @param m
+   *          the number of candidates per node
+   * @param strategy
+   *          the strategy deciding which nodes become candidates, or
+   *          {@code null} for the
+   *          {@link ECandidateSetStrategy#NEAREST_NEIGHBORS nearest
+   *          neighbors}
+   * @param old
+   *          an old candidate set that can maybe be re-used
+   * @return the candidate set, or {@code null} if the objective function
+   *         should always be used (if {@code m<=0} or
+   *         {@code m>=Integer.MAX_VALUE})
+   */
+  public static final CandidateSet allocate(final ObjectiveFunction f,
+      final int m, final ECandidateSetStrategy strategy,
+      final CandidateSet old) {
     final int n, nm1, mm;
     final CandidateSet ret;
 
@@ -61,7 +103,8 @@ public abstract class CandidateSet {
       }
     }
 
-    ret.init(f, n, mm);
+    ret.init(f, n, mm, ((strategy != null) ? strategy
+        : ECandidateSetStrategy.NEAREST_NEIGHBORS));
     return ret;
   }
 
@@ -106,8 +149,12 @@ public abstract class CandidateSet {
    *          the number of candidates per node
    * @param n
    *          the number of nodes n
+   * @param strategy
+   *          the strategy deciding which nodes become candidates
    */
-  void init(final ObjectiveFunction f, final int n, final int m) {
+  void init(final ObjectiveFunction f, final int n, final int m,
+      final ECandidateSetStrategy strategy) {
     this.m_m = m;
+    this.m_lowerBound = 0l;
   }
 }
@@ -0,0 +1,248 @@
+package org.logisticPlanning.tsp.solving.utils.candidates;
+
+import java.util.Arrays;
+
+import org.logisticPlanning.tsp.benchmarking.dist.DelaunayGraph;
+import org.logisticPlanning.tsp.benchmarking.dist.SpatialIndex;
+import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
+
+/**
+ * This enumeration defines how the {@code m} candidates of each node in a
+ * {@link CandidateSet candidate set} are chosen. The strategy only matters
+ * if {@code m} is less than {@code n-1}, otherwise all other nodes are
+ * candidates.
+ */
+public enum ECandidateSetStrategy {
+
+  /**
+   * The candidates of a node are the {@code m} nodes nearest to it, where
+   * nodes with the same distance are ordered by their index. This is the
+   * default strategy. Its disadvantage is that, on clustered instances,
+   * all candidates of a node usually lie in the same cluster, so that no
+   * edge between two clusters is a candidate edge.
+   */
+  NEAREST_NEIGHBORS() {
+
+    /** {@inheritDoc} */
+    @Override
+    final long fill(final ObjectiveFunction f, final int n, final int m,
+        final int[] data) {
+      final SpatialIndex index;
+      final int[] nodes, dists;
+      int node, start;
+
+      index = f.getSpatialIndex();
+      if (index == null) {
+        _CandidateRowTask.process(f.getUncheckedDistanceComputer(), data,
+            m);
+        f.registerDEs(((long) n) * (n - 1));
+        return 0l;
+      }
+
+      nodes = new int[m];
+      dists = new int[m];
+      start = 0;
+      for (node = 1; node <= n; node++) {
+        index.nearest(f, node, m, nodes, dists);
+        System.arraycopy(nodes, 0, data, start, m);
+        Arrays.sort(data, start, (start + m));
+        start += m;
+      }
+      return 0l;
+    }
+  },
+
+  /**
+   * The plane around each node is divided into four quadrants and the
+   * {@code m/4} nearest nodes in each quadrant become candidates (see
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.SpatialIndex#nearestInQuadrant(org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer, int, int, int, int[], int[])
+   * SpatialIndex.nearestInQuadrant}). If a quadrant contains fewer nodes
+   * or {@code m} is not divisible by four, the remaining candidates are
+   * the nearest nodes not chosen yet. This ensures that the candidates of
+   * a node at the border of a cluster include nodes of the neighboring
+   * clusters, which makes this strategy better suited for clustered
+   * instances, such as the {@code fl*}, {@code pla*}, and {@code rl*}
+   * instances. Quadrants require coordinates, so for instances without
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.SpatialIndex
+   * spatial index}, this strategy is the same as
+   * {@link #NEAREST_NEIGHBORS}.
+   */
+  QUADRANT_NEIGHBORS() {
+
+    /** {@inheritDoc} */
+    @Override
+    final long fill(final ObjectiveFunction f, final int n, final int m,
+        final int[] data) {
+      final SpatialIndex index;
+      final int[] nodes, dists, chosen;
+      final int perQuadrant;
+      int node, start, end, quadrant, found, i, candidate;
+
+      index = f.getSpatialIndex();
+      perQuadrant = (m >>> 2);
+      if ((index == null) || (perQuadrant <= 0)) {
+        return ECandidateSetStrategy.NEAREST_NEIGHBORS.fill(f, n, m, data);
+      }
+
+      nodes = new int[m];
+      dists = new int[m];
+      // chosen[j]==node marks that j already is a candidate of node
+      chosen = new int[n + 1];
+      start = 0;
+      for (node = 1; node <= n; node++) {
+        end = start;
+        for (quadrant = 0; quadrant < 4; quadrant++) {
+          found = index.nearestInQuadrant(f, node, quadrant, perQuadrant,
+              nodes, dists);
+          for (i = 0; i < found; i++) {
+            candidate = nodes[i];
+            chosen[candidate] = node;
+            data[end++] = candidate;
+          }
+        }
+
+        found = (start + m);
+        if (end < found) {
+          index.nearest(f, node, m, nodes, dists);
+          for (i = 0; end < found; i++) {
+            candidate = nodes[i];
+            if (chosen[candidate] != node) {
+              data[end++] = candidate;
+            }
+          }
+        }
+
+        Arrays.sort(data, start, found);
+        start = found;
+      }
+      return 0l;
+    }
+  },
+
+  /**
+   * The candidates of a node are its neighbors in the
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.DelaunayGraph
+   * Delaunay graph} of the instance (see
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.SpatialIndex#getDelaunayGraph()}
+   * ). Delaunay neighbors surround a node from all sides and connect
+   * neighboring clusters, so they contain almost all edges of good tours.
+   * A node has six Delaunay neighbors on average: if it has more than
+   * {@code m}, the {@code m} nearest of them are chosen, if it has fewer,
+   * the remaining candidates are the nearest nodes not chosen yet. For
+   * instances without Delaunay graph, e.g., instances with geographical
+   * coordinates, this strategy is the same as {@link #NEAREST_NEIGHBORS}.
+   */
+  DELAUNAY() {
+
+    /** {@inheritDoc} */
+    @Override
+    final long fill(final ObjectiveFunction f, final int n, final int m,
+        final int[] data) {
+      final SpatialIndex index;
+      final DelaunayGraph graph;
+      final int[] chosen;
+      int[] nodes, dists;
+      long[] keys;
+      int node, start, end, degree, i, j, candidate;
+
+      index = f.getSpatialIndex();
+      graph = ((index != null) ? index.getDelaunayGraph() : null);
+      if (graph == null) {
+        return ECandidateSetStrategy.NEAREST_NEIGHBORS.fill(f, n, m, data);
+      }
+
+      nodes = new int[m];
+      dists = new int[m];
+      keys = new long[m];
+      // chosen[j]==node marks that j already is a candidate of node
+      chosen = new int[n + 1];
+      start = 0;
+      for (node = 1; node <= n; node++) {
+        degree = graph.degree(node);
+        if (degree > nodes.length) {
+          nodes = new int[degree];
+          dists = new int[degree];
+          keys = new long[degree];
+        }
+        graph.neighbors(node, nodes);
+        f.distances(node, nodes, degree, dists);
+        for (i = degree; (--i) >= 0;) {
+          keys[i] = ((((long) (dists[i])) << 32l) | nodes[i]);
+        }
+        if (degree > m) {
+          Arrays.sort(keys, 0, degree);
+          degree = m;
+        }
+
+        end = start;
+        for (i = 0; i < degree; i++) {
+          candidate = ((int) (keys[i]));
+          chosen[candidate] = node;
+          data[end++] = candidate;
+        }
+
+        i = (start + m);
+        if (end < i) {
+          index.nearest(f, node, m, nodes, dists);
+          for (j = 0; end < i; j++) {
+            candidate = nodes[j];
+            if (chosen[candidate] != node) {
+              data[end++] = candidate;
+            }
+          }
+        }
+
+        Arrays.sort(data, start, i);
+        start = i;
+      }
+      return 0l;
+    }
+  },
+
+  /**
+   * The candidates of a node are its {@code m} &alpha;-nearest neighbors
+   * computed from a minimum 1-tree whose node penalties have been
+   * optimized by subgradient optimization, as in Helsgaun's LKH (see
+   * {@link OneTree}). Many edges of optimal tours are not among the few
+   * nearest neighbors of their nodes, but almost all of them have small
+   * &alpha;-values, so fewer &alpha;-nearest candidates than nearest
+   * neighbors suffice for the same tour quality. As a by-product, this
+   * strategy yields a {@link CandidateSet#getLowerBound() lower bound} for
+   * the tour length. It needs {@code O(n^2)} time and distance
+   * evaluations, independent of whether the instance has coordinates.
+   */
+  ALPHA_NEARNESS() {
+
+    /** {@inheritDoc} */
+    @Override
+    final long fill(final ObjectiveFunction f, final int n, final int m,
+        final int[] data) {
+      final OneTree tree;
+
+      tree = new OneTree(n);
+      tree.ascend(f);
+      tree.alphaCandidates(f, m, data);
+      return tree.getLowerBound();
+    }
+  };
+
+  /**
+   * Fill the candidate array of a candidate set.
+   *
+   * @param f
+   *          the objective function
+   * @param n
+   *          the number of nodes
+   * @param m
+   *          the number of candidates per node, which is less than
+   *          {@code n-1}
+   * @param data
+   *          the candidate array receiving the {@code m} candidates of
+   *          node {@code i}, sorted by node index, at the indices
+   *          {@code (i-1)*m} to {@code i*m-1}
+   * @return a lower bound for the length of the optimal tour, or
+   *         {@code 0} if the strategy does not compute one
+   */
+  abstract long fill(final ObjectiveFunction f, final int n, final int m,
+      final int[] data);
+}
@@ -0,0 +1,1027 @@
+package org.logisticPlanning.tsp.solving.utils.candidates;
+
+import java.util.Arrays;
+
+import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
+
+/**
+ * <p>
+ * A minimum 1-tree with node penalties&nbsp;[<a
+ * href="#cite_HK1970TTSPAMST" style="font-weight:bold">1</a>, <a
+ * href="#cite_HK1971TTSPAMSTPII" style="font-weight:bold">2</a>] and the
+ * &alpha;-nearness of all edges derived from it&nbsp;[<a
+ * href="#cite_H1998AEIOTLKTSH" style="font-weight:bold">3</a>]. A 1-tree
+ * is a spanning tree on the nodes {@code V\{s}} plus two edges incident to
+ * a special node {@code s}. Every tour is a 1-tree, so the length of a
+ * minimum 1-tree is a lower bound for the length of the optimal tour. If
+ * each node {@code i} receives a penalty {@code pi[i]} and the length of
+ * edge {@code (i,j)} is replaced by
+ * {@code dist(i,j)+pi[i]+pi[j]}, the length of every tour grows by exactly
+ * {@code 2*sum(pi)}, so the length of the minimum 1-tree minus
+ * {@code 2*sum(pi)} still is a lower bound. The method
+ * {@link #ascend(DistanceComputer, int)} maximizes this bound by
+ * subgradient optimization: the penalty of each node is increased if its
+ * degree in the 1-tree is larger than two and decreased if it is one, with
+ * the step size schedule of&nbsp;[<a href="#cite_H1998AEIOTLKTSH"
+ * style="font-weight:bold">3</a>]. The branch-and-bound algorithm
+ * {@link org.logisticPlanning.tsp.solving.algorithms.exact.branchAndBoundHeldCarp.BAB_HK}
+ * bounds its search nodes with the same relaxation, but it keeps its own
+ * implementation, since its 1-trees must respect the edges included and
+ * excluded by each search node, which this class does not support.
+ * </p>
+ * <p>
+ * The &alpha;-value of an edge {@code (i,j)} is the increase of the length
+ * of the minimum 1-tree if it is forced to contain {@code (i,j)}. Edges of
+ * the 1-tree have {@code alpha=0}. Edges with small &alpha;-values are
+ * much more likely to belong to an optimal tour than short edges, so
+ * &alpha;-nearest candidates (see
+ * {@link #alphaCandidates(DistanceComputer, int, int[])}) allow a local
+ * search to use much fewer candidates per node for the same tour quality
+ * than the nearest neighbors. For a given node {@code i}, the &alpha;-values
+ * of all edges {@code (i,j)} are computed in {@code O(n)} steps by
+ * computing the longest edge on the tree path from {@code i} to each node
+ * {@code j} in topological order&nbsp;[<a href="#cite_H1998AEIOTLKTSH"
+ * style="font-weight:bold">3</a>], so all &alpha;-values can be computed
+ * in {@code O(n^2)} time while only {@code O(n)} memory is needed.
+ * </p>
+ * <p>
+ * All costs are computed as {@code long} values with the distances
+ * multiplied by {@link #PRECISION}, so that the penalties can be finer
+ * than one distance unit. Minimum 1-trees on the complete graph are
+ * computed with Prim's algorithm in {@code O(n^2)}. Since the ascent may
+ * need hundreds of iterations, all iterations but the first and the last
+ * one work on the sparse graph formed by the {@link #ASCENT_CANDIDATES}
+ * &alpha;-nearest neighbors of each node, as suggested in&nbsp;[<a
+ * href="#cite_H1998AEIOTLKTSH" style="font-weight:bold">3</a>]. The final
+ * 1-tree is always computed on the complete graph, so the
+ * {@link #getLowerBound() lower bound} is valid.
+ * </p>
+ * <p>
+ * Distances are obtained from the distance computer passed in, so if it
+ * is an
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction
+ * objective function}, all of them are counted as DEs. The distances of
+ * the sparse graph are cached, so the iterations on it do not cause any
+ * DE. Instances of this class are not thread-safe.
+ * </p>
+ * <h2>References</h2>
+ * <ol>
+ * <li><div><span id="cite_HK1970TTSPAMST" />Michael Held and&nbsp;<a
+ * href="https://en.wikipedia.org/wiki/Richard_M._Karp">Richard Manning
+ * Karp</a>: <span style="font-weight:bold">&ldquo;The Traveling Salesman
+ * Problem and Minimum Spanning Trees,&rdquo;</span> in <span
+ * style="font-style:italic;font-family:cursive;">Operations Research
+ * (Oper. Res.)</span> 18(6):1138&ndash;1162, November&ndash;December 1970;
+ * published by Linthicum, ML, USA: Institute for Operations Research and
+ * the Management Sciences (INFORMS) and&nbsp;Cambridge, MA, USA: HighWire
+ * Press (Stanford University). LCCN:&nbsp;<a
+ * href="http://lccn.loc.gov/66099702">66099702</a>; doi:&nbsp;<a
+ * href="http://dx.doi.org/10.1287/opre.18.6.1138"
+ * >10.1287/opre.18.6.1138</a>; JSTOR stable:&nbsp;<a
+ * href="http://www.jstor.org/stable/169411">169411</a>; OCLC:&nbsp;<a
+ * href="https://www.worldcat.org/oclc/2394608">2394608</a>; ISSN:&nbsp;<a
+ * href="https://www.worldcat.org/issn/0030364X">0030-364X</a> and&nbsp;<a
+ * href="https://www.worldcat.org/issn/15265463">1526-5463</a>;
+ * CODEN:&nbsp;<a href=
+ * "http://www-library.desy.de/cgi-bin/spiface/find/coden/www?code=OPREAI"
+ * >OPREAI</a>. <div>link: [<a
+ * href="http://or.journal.informs.org/content/18/6/1138.full.pdf"
+ * >1</a>]</div></div></li>
+ * <li><div><span id="cite_HK1971TTSPAMSTPII" />Michael Held and&nbsp;<a
+ * href="https://en.wikipedia.org/wiki/Richard_M._Karp">Richard Manning
+ * Karp</a>: <span style="font-weight:bold">&ldquo;The Traveling-Salesman
+ * Problem and Minimum Spanning Trees: Part II,&rdquo;</span> in <span
+ * style="font-style:italic;font-family:cursive;">Mathematical
+ * Programming</span> 1(1):6&ndash;25, December&nbsp;1, 1971; published by
+ * Berlin/Heidelberg: Springer-Verlag. LCCN:&nbsp;<a
+ * href="http://lccn.loc.gov/74618643">74618643</a>; doi:&nbsp;<a
+ * href="http://dx.doi.org/10.1007/BF01584070">10.1007/BF01584070</a>;
+ * OCLC:&nbsp;<a href="https://www.worldcat.org/oclc/1585989">1585989</a>;
+ * ISSN:&nbsp;<a
+ * href="https://www.worldcat.org/issn/00255610">0025-5610</a> and&nbsp;<a
+ * href="https://www.worldcat.org/issn/14364646">1436-4646</a></div></li>
+ * <li><div><span id="cite_H1998AEIOTLKTSH" /><a
+ * href="http://www.akira.ruc.dk/~keld/">Keld Helsgaun</a>: <span
+ * style="font-weight:bold">&ldquo;An Effective Implementation of the
+ * Lin-Kernighan Traveling Salesman Heuristic,&rdquo;</span> <span
+ * style="font-style:italic;font-family:cursive;">Technical Report</span>
+ * Number&nbsp;81, 1998; published by Roskilde, Denmark: Roskilde
+ * University, Department of Computer Science. Google Book ID:&nbsp;<a
+ * href="http://books.google.com/books?id=YxSiHAAACAAJ">YxSiHAAACAAJ</a>.
+ * <div>link: [<a
+ * href="www.akira.ruc.dk/~keld/research/LKH/LKH-2.0/DOC/LKH_REPORT.pdf"
+ * >1</a>]; CiteSeer<sup>x</sup><sub
+ * style="font-style:italic">&#946;</sub>:&nbsp;<a
+ * href="http://citeseerx.ist.psu.edu/viewdoc/summary?doi=10.1.1.25.4908"
+ * >10.1.1.25.4908</a></div></div></li>
+ * </ol>
+ */
+public final class OneTree {
+
+  /**
+   * the factor by which all distances are multiplied, so that the
+   * penalties can be finer than one distance unit: {@value}
+   */
+  public static final long PRECISION = 100l;
+
+  /**
+   * the number of &alpha;-nearest neighbors per node forming the sparse
+   * graph on which the ascent works: {@value}
+   */
+  public static final int ASCENT_CANDIDATES = 50;
+
+  /**
+   * the default maximum initial period of the ascent: {@value} . The
+   * ascent performs {@code O(period)} iterations, where the initial period
+   * is {@code max(100, n/2)}&nbsp;[<a href="#cite_H1998AEIOTLKTSH"
+   * style="font-weight:bold">3</a>], but at most this value.
+   */
+  public static final int DEFAULT_MAX_INITIAL_PERIOD = 1000;
+
+  /** the number of nodes */
+  private final int m_n;
+
+  /** the penalties of the nodes, multiplied by {@link #PRECISION} */
+  private final long[] m_pi;
+
+  /** the best penalties found during the ascent */
+  private final long[] m_bestPi;
+
+  /**
+   * the parent of each node in the minimum spanning tree over all nodes,
+   * or {@code 0} for the root
+   */
+  private final int[] m_parent;
+
+  /** the cost of the edge from each node to its parent */
+  private final long[] m_cost;
+
+  /** the nodes in the order in which they were added to the tree */
+  private final int[] m_order;
+
+  /** the degrees of the nodes in the 1-tree */
+  private final int[] m_degree;
+
+  /** the degrees of the nodes minus two in the previous iteration */
+  private final int[] m_lastV;
+
+  /**
+   * the cheapest known cost of connecting a node to the tree during
+   * Prim's algorithm, the longest edge on the tree path during the
+   * &alpha;-computation
+   */
+  private final long[] m_key;
+
+  /**
+   * the nodes not yet in the tree during Prim's algorithm, all nodes
+   * otherwise
+   */
+  private final int[] m_nodes;
+
+  /** the distances of a node to {@link #m_nodes} */
+  private final int[] m_dists;
+
+  /** the distances of a node to all nodes, indexed by node */
+  private final int[] m_row;
+
+  /** the marks used in the &alpha;-computation */
+  private final int[] m_mark;
+
+  /** the special node, a leaf of the minimum spanning tree */
+  private int m_special;
+
+  /** the neighbor of the special node in the spanning tree */
+  private int m_specialTreeNeighbor;
+
+  /** the cost of the edge to {@link #m_specialTreeNeighbor} */
+  private long m_specialTreeCost;
+
+  /** the node connected to the special node by the additional edge */
+  private int m_specialPartner;
+
+  /** the cost of the edge to {@link #m_specialPartner} */
+  private long m_specialPartnerCost;
+
+  /** has a 1-tree been computed? */
+  private boolean m_hasTree;
+
+  /** the lower bound */
+  private long m_lowerBound;
+
+  /**
+   * the neighbors of node {@code i} in the sparse graph are stored at the
+   * indices {@code m_offsets[i-1]} to {@code m_offsets[i]-1} in
+   * {@link #m_neighbors}
+   */
+  private int[] m_offsets;
+
+  /** the neighbors in the sparse graph */
+  private int[] m_neighbors;
+
+  /** the distances to the neighbors in the sparse graph */
+  private int[] m_distances;
+
+  /** the keys of the heap used by Prim's algorithm on the sparse graph */
+  private long[] m_heapKeys;
+
+  /** the nodes of the heap used by Prim's algorithm on the sparse graph */
+  private int[] m_heapNodes;
+
+  /**
+   * Create a 1-tree for a given number of nodes. All penalties are
+   * initially zero.
+   *
+   * @param n
+   *          the number of nodes, at least {@code 3}
+   */
+  public OneTree(final int n) {
+    super();
+
+    if (n < 3) {
+      throw new IllegalArgumentException(//
+          "A 1-tree needs at least three nodes, but n=" + n); //$NON-NLS-1$
+    }
+
+    this.m_n = n;
+    this.m_pi = new long[n + 1];
+    this.m_bestPi = new long[n + 1];
+    this.m_parent = new int[n + 1];
+    this.m_cost = new long[n + 1];
+    this.m_order = new int[n];
+    this.m_degree = new int[n + 1];
+    this.m_lastV = new int[n + 1];
+    this.m_key = new long[n + 1];
+    this.m_nodes = new int[n];
+    this.m_dists = new int[n];
+    this.m_row = new int[n + 1];
+    this.m_mark = new int[n + 1];
+  }
+
+  /**
+   * Get the number of nodes
+   *
+   * @return the number of nodes
+   */
+  public final int n() {
+    return this.m_n;
+  }
+
+  /**
+   * Get the penalty of a node, in distance units
+   *
+   * @param node
+   *          the node (1-based)
+   * @return the penalty of the node
+   */
+  public final double getPenalty(final int node) {
+    return (this.m_pi[node] / ((double) (OneTree.PRECISION)));
+  }
+
+  /**
+   * Get the lower bound for the length of the optimal tour obtained from
+   * the last 1-tree computed on the complete graph, or {@code 0} if no
+   * 1-tree has been computed yet
+   *
+   * @return the lower bound
+   */
+  public final long getLowerBound() {
+    return this.m_lowerBound;
+  }
+
+  /**
+   * Check whether an edge belongs to the 1-tree computed last. All edges
+   * of the 1-tree have an &alpha;-value of zero.
+   *
+   * @param a
+   *          the first node (1-based)
+   * @param b
+   *          the second node (1-based)
+   * @return {@code true} if {@code (a,b)} is an edge of the 1-tree,
+   *         {@code false} if it is not or if no 1-tree has been computed
+   *         yet
+   */
+  public final boolean isTreeEdge(final int a, final int b) {
+    if (!(this.m_hasTree)) {
+      return false;
+    }
+    return ((this.m_parent[a] == b) || (this.m_parent[b] == a)
+        || ((this.m_special == a) && (this.m_specialPartner == b)) || //
+    ((this.m_special == b) && (this.m_specialPartner == a)));
+  }
+
+  /**
+   * Perform the subgradient optimization of the node penalties with the
+   * {@link #DEFAULT_MAX_INITIAL_PERIOD default maximum initial period}.
+   *
+   * @param dist
+   *          the distance computer
+   * @return the lower bound, see {@link #getLowerBound()}
+   */
+  public final long ascend(final DistanceComputer dist) {
+    return this.ascend(dist, Math.min(OneTree.DEFAULT_MAX_INITIAL_PERIOD,
+        Math.max(100, (this.m_n >>> 1))));
+  }
+
+  /**
+   * Perform the subgradient optimization of the node penalties, starting
+   * with all penalties zero. Afterwards, the penalties are the best ones
+   * found and the 1-tree is the minimum 1-tree on the complete graph for
+   * these penalties.
+   *
+   * @param dist
+   *          the distance computer
+   * @param initialPeriod
+   *          the initial period, i.e., the number of iterations before
+   *          the step size is halved; if it is {@code 0}, the penalties
+   *          remain zero
+   * @return the lower bound, see {@link #getLowerBound()}
+   */
+  public final long ascend(final DistanceComputer dist,
+      final int initialPeriod) {
+    final int n;
+    final long[] pi, bestPi;
+    final int[] degree, lastV;
+    long w, bestW, step;
+    int period, p, node, v;
+    boolean initialPhase;
+
+    n = this.m_n;
+    pi = this.m_pi;
+    bestPi = this.m_bestPi;
+    degree = this.m_degree;
+    lastV = this.m_lastV;
+
+    Arrays.fill(pi, 0l);
+    w = this.__dense(dist);
+
+    if ((initialPeriod > 0) && (this.__norm() != 0l)) {
+      bestW = w;
+      System.arraycopy(pi, 0, bestPi, 0, pi.length);
+      this.__sparseGraph(dist);
+
+      for (node = n; node > 0; node--) {
+        lastV[node] = (degree[node] - 2);
+      }
+
+      initialPhase = true;
+      step = OneTree.PRECISION;
+      period = initialPeriod;
+
+      ascent: for (; (step > 0l) && (period > 0); period >>>= 1, step >>>= 1) {
+        for (p = 1; (step > 0l) && (p <= period); p++) {
+          // move the penalties along the subgradient
+          for (node = n; node > 0; node--) {
+            v = (degree[node] - 2);
+            if (v != 0) {
+              pi[node] += ((step * ((7 * v) + (3 * lastV[node]))) / 10l);
+            }
+            lastV[node] = v;
+          }
+
+          w = this.__sparse();
+          if (w == Long.MIN_VALUE) {
+            w = this.__dense(dist);
+          }
+
+          if (w > bestW) {
+            bestW = w;
+            System.arraycopy(pi, 0, bestPi, 0, pi.length);
+            if (initialPhase) {
+              step <<= 1l;
+            }
+            if (p == period) {
+              period = Math.min((period << 1), initialPeriod);
+            }
+          } else {
+            if (initialPhase && (p > (period >>> 1))) {
+              initialPhase = false;
+              p = 0;
+              step = ((3l * step) >>> 2l);
+            }
+          }
+
+          if (this.__norm() == 0l) {
+            break ascent; // the 1-tree is a tour
+          }
+        }
+      }
+
+      System.arraycopy(bestPi, 0, pi, 0, pi.length);
+      this.m_offsets = null;
+      this.m_neighbors = null;
+      this.m_distances = null;
+      this.m_heapKeys = null;
+      this.m_heapNodes = null;
+      this.__dense(dist);
+    }
+
+    return this.m_lowerBound;
+  }
+
+  /**
+   * Compute the {@code m} &alpha;-nearest neighbors of each node for the
+   * current penalties. Nodes with the same &alpha;-value are ordered by
+   * their distance and then by their index. If no 1-tree has been
+   * computed yet, the minimum 1-tree without penalties is computed first.
+   * This takes {@code O(n^2)} time and {@code O(n+m)} memory besides
+   * {@code data}.
+   *
+   * @param dist
+   *          the distance computer
+   * @param m
+   *          the number of candidates per node, less than {@code n}
+   * @param data
+   *          the array receiving the {@code m} candidates of node
+   *          {@code i}, sorted by node index, at the indices
+   *          {@code (i-1)*m} to {@code i*m-1}
+   */
+  public final void alphaCandidates(final DistanceComputer dist,
+      final int m, final int[] data) {
+    int start;
+
+    if (!(this.m_hasTree)) {
+      this.__dense(dist);
+    }
+    this.__alpha(dist, m, data, null);
+
+    for (start = (this.m_n * m); (start -= m) >= 0;) {
+      Arrays.sort(data, start, (start + m));
+    }
+  }
+
+  /**
+   * Compute the sum of the squared deviations of the node degrees from
+   * two, which is zero if and only if the 1-tree is a tour
+   *
+   * @return the norm of the subgradient
+   */
+  private final long __norm() {
+    final int[] degree;
+    long sum;
+    int node, v;
+
+    degree = this.m_degree;
+    sum = 0l;
+    for (node = this.m_n; node > 0; node--) {
+      v = (degree[node] - 2);
+      sum += (((long) v) * v);
+    }
+    return sum;
+  }
+
+  /**
+   * Compute the minimum 1-tree on the complete graph with Prim's algorithm
+   * in {@code O(n^2)} and update the lower bound.
+   *
+   * @param dist
+   *          the distance computer
+   * @return the cost of the 1-tree minus {@code 2*sum(pi)}
+   */
+  private final long __dense(final DistanceComputer dist) {
+    final int n;
+    final long[] pi, key, cost;
+    final int[] parent, order, nodes, dists;
+    int count, k, i, u, v, best;
+    long c, bestKey, piU, w, q;
+
+    n = this.m_n;
+    pi = this.m_pi;
+    key = this.m_key;
+    cost = this.m_cost;
+    parent = this.m_parent;
+    order = this.m_order;
+    nodes = this.m_nodes;
+    dists = this.m_dists;
+
+    count = (n - 1);
+    for (i = count; i > 0; i--) {
+      nodes[i - 1] = (i + 1);
+    }
+    Arrays.fill(key, Long.MAX_VALUE);
+
+    u = 1;
+    order[0] = u;
+    parent[u] = 0;
+    cost[u] = 0l;
+    for (k = 1; k < n; k++) {
+      dist.distances(u, nodes, count, dists);
+      piU = pi[u];
+      best = 0;
+      bestKey = Long.MAX_VALUE;
+      for (i = 0; i < count; i++) {
+        v = nodes[i];
+        c = ((OneTree.PRECISION * dists[i]) + piU + pi[v]);
+        if (c < key[v]) {
+          key[v] = c;
+          parent[v] = u;
+        }
+        if (key[v] < bestKey) {
+          bestKey = key[v];
+          best = i;
+        }
+      }
+
+      u = nodes[best];
+      nodes[best] = nodes[--count];
+      order[k] = u;
+      cost[u] = bestKey;
+    }
+
+    w = this.__close(dist);
+
+    // the length of each tour is an integer of at least w/PRECISION
+    q = (w / OneTree.PRECISION);
+    if ((w % OneTree.PRECISION) > 0l) {
+      q++;
+    }
+    this.m_lowerBound = Math.max(0l, q);
+    return w;
+  }
+
+  /**
+   * Compute the minimum 1-tree on the sparse graph with Prim's algorithm
+   * and a binary heap. The lower bound is not updated, as the minimum
+   * 1-tree on the complete graph may be shorter.
+   *
+   * @return the cost of the 1-tree minus {@code 2*sum(pi)}, or
+   *         {@link java.lang.Long#MIN_VALUE} if no 1-tree could be found on
+   *         the sparse graph
+   */
+  private final long __sparse() {
+    final int n;
+    final long[] pi, key, cost, heapKeys;
+    final int[] parent, order, offsets, neighbors, distances, mark,
+        heapNodes;
+    int k, e, end, u, v, size, j, l, node;
+    long c, piU, other;
+
+    n = this.m_n;
+    pi = this.m_pi;
+    key = this.m_key;
+    cost = this.m_cost;
+    parent = this.m_parent;
+    order = this.m_order;
+    offsets = this.m_offsets;
+    neighbors = this.m_neighbors;
+    distances = this.m_distances;
+    mark = this.m_mark;
+    heapKeys = this.m_heapKeys;
+    heapNodes = this.m_heapNodes;
+
+    // mark[v]==-1 denotes that v is in the tree
+    Arrays.fill(mark, 0);
+    Arrays.fill(key, Long.MAX_VALUE);
+
+    u = 1;
+    order[0] = u;
+    parent[u] = 0;
+    cost[u] = 0l;
+    mark[u] = (-1);
+    size = 0;
+
+    for (k = 1; k < n; k++) {
+      piU = pi[u];
+      end = offsets[u];
+      for (e = offsets[u - 1]; e < end; e++) {
+        v = neighbors[e];
+        if (mark[v] < 0) {
+          continue;
+        }
+        c = ((OneTree.PRECISION * distances[e]) + piU + pi[v]);
+        if (c >= key[v]) {
+          continue;
+        }
+        key[v] = c;
+        parent[v] = u;
+
+        // sift up the new entry
+        j = size++;
+        while (j > 0) {
+          l = ((j - 1) >>> 1);
+          other = heapKeys[l];
+          if (other <= c) {
+            break;
+          }
+          heapKeys[j] = other;
+          heapNodes[j] = heapNodes[l];
+          j = l;
+        }
+        heapKeys[j] = c;
+        heapNodes[j] = v;
+      }
+
+      // remove entries until we find one which is not outdated
+      for (;;) {
+        if (size <= 0) {
+          return Long.MIN_VALUE; // the sparse graph is not connected
+        }
+        c = heapKeys[0];
+        node = heapNodes[0];
+        other = heapKeys[--size];
+        v = heapNodes[size];
+        j = 0;
+        for (;;) {
+          l = ((j << 1) + 1);
+          if (l >= size) {
+            break;
+          }
+          if (((l + 1) < size) && (heapKeys[l + 1] < heapKeys[l])) {
+            l++;
+          }
+          if (heapKeys[l] >= other) {
+            break;
+          }
+          heapKeys[j] = heapKeys[l];
+          heapNodes[j] = heapNodes[l];
+          j = l;
+        }
+        heapKeys[j] = other;
+        heapNodes[j] = v;
+
+        if ((mark[node] >= 0) && (key[node] == c)) {
+          break;
+        }
+      }
+
+      u = node;
+      mark[u] = (-1);
+      order[k] = u;
+      cost[u] = c;
+    }
+
+    return this.__close(null);
+  }
+
+  /**
+   * Turn the minimum spanning tree over all nodes into a minimum 1-tree:
+   * The special node is the leaf whose cheapest edge not in the tree is
+   * the most expensive one. This edge is added to the tree.
+   *
+   * @param dist
+   *          the distance computer for the complete graph, or {@code null}
+   *          to use the sparse graph
+   * @return the cost of the 1-tree minus {@code 2*sum(pi)}, or
+   *         {@link java.lang.Long#MIN_VALUE} if no leaf has an edge not in
+   *         the sparse graph
+   */
+  private final long __close(final DistanceComputer dist) {
+    final int n, last;
+    final long[] pi, cost;
+    final int[] parent, order, degree, nodes, dists;
+    long w, c, best, leafBest, piV;
+    int k, v, tree, partner, leafPartner, i, e, end, u, special, specialTree;
+
+    n = this.m_n;
+    pi = this.m_pi;
+    cost = this.m_cost;
+    parent = this.m_parent;
+    order = this.m_order;
+    degree = this.m_degree;
+
+    Arrays.fill(degree, 0);
+    w = 0l;
+    for (k = 1; k < n; k++) {
+      v = order[k];
+      degree[v]++;
+      degree[parent[v]]++;
+      w += cost[v];
+    }
+
+    if (dist != null) {
+      nodes = this.m_nodes;
+      dists = this.m_dists;
+      for (i = n; i > 0; i--) {
+        nodes[i - 1] = i;
+      }
+    } else {
+      nodes = null;
+      dists = null;
+    }
+    last = (n - 1);
+
+    best = Long.MIN_VALUE;
+    special = specialTree = partner = (-1);
+    for (v = n; v > 0; v--) {
+      if (degree[v] != 1) {
+        continue;
+      }
+      // the only tree neighbor of the root is the node added after it
+      tree = parent[v];
+      if (tree == 0) {
+        tree = order[1];
+      }
+
+      piV = pi[v];
+      leafBest = Long.MAX_VALUE;
+      leafPartner = (-1);
+      if (dist != null) {
+        // move v to the end of the node list to exclude it
+        nodes[v - 1] = nodes[last];
+        nodes[last] = v;
+        dist.distances(v, nodes, last, dists);
+        for (i = last; (--i) >= 0;) {
+          u = nodes[i];
+          if (u != tree) {
+            c = ((OneTree.PRECISION * dists[i]) + piV + pi[u]);
+            if ((c < leafBest) || ((c == leafBest) && (u < leafPartner))) {
+              leafBest = c;
+              leafPartner = u;
+            }
+          }
+        }
+        nodes[last] = nodes[v - 1];
+        nodes[v - 1] = v;
+      } else {
+        end = this.m_offsets[v];
+        for (e = this.m_offsets[v - 1]; e < end; e++) {
+          u = this.m_neighbors[e];
+          if (u != tree) {
+            c = ((OneTree.PRECISION * this.m_distances[e]) + piV + pi[u]);
+            if ((c < leafBest) || ((c == leafBest) && (u < leafPartner))) {
+              leafBest = c;
+              leafPartner = u;
+            }
+          }
+        }
+      }
+
+      if ((leafPartner > 0) && (leafBest > best)) {
+        best = leafBest;
+        special = v;
+        specialTree = tree;
+        partner = leafPartner;
+      }
+    }
+
+    if (special < 0) {
+      return Long.MIN_VALUE;
+    }
+
+    degree[special]++;
+    degree[partner]++;
+    w += best;
+    this.m_special = special;
+    this.m_specialTreeNeighbor = specialTree;
+    this.m_specialTreeCost = ((parent[special] != 0) ? cost[special]
+        : cost[specialTree]);
+    this.m_specialPartner = partner;
+    this.m_specialPartnerCost = best;
+    this.m_hasTree = true;
+
+    for (v = n; v > 0; v--) {
+      w -= (pi[v] << 1l);
+    }
+    return w;
+  }
+
+  /**
+   * Compute the {@code m} &alpha;-nearest neighbors of each node. For node
+   * {@code i}, the longest edge on the tree path from {@code i} to each
+   * other node {@code j} is computed in topological order: it is known for
+   * all nodes on the path from {@code i} to the root, and for any other
+   * node, it is either the longest edge on the path to its parent or the
+   * edge to its parent.
+   *
+   * @param dist
+   *          the distance computer
+   * @param m
+   *          the number of candidates per node
+   * @param data
+   *          the array receiving the {@code m} candidates of node
+   *          {@code i}, ordered by &alpha;-value, at the indices
+   *          {@code (i-1)*m} to {@code i*m-1}
+   * @param distances
+   *          the array receiving the distances to the candidates, or
+   *          {@code null}
+   */
+  private final void __alpha(final DistanceComputer dist, final int m,
+      final int[] data, final int[] distances) {
+    final int n, last, special;
+    final long[] pi, beta, cost, bestAlpha, bestCost;
+    final int[] parent, order, nodes, dists, row, mark, bestNode;
+    final long specialMax;
+    int i, j, k, u, d, count, pos, start;
+    long piI, c, alpha;
+
+    n = this.m_n;
+    pi = this.m_pi;
+    beta = this.m_key;
+    cost = this.m_cost;
+    parent = this.m_parent;
+    order = this.m_order;
+    nodes = this.m_nodes;
+    dists = this.m_dists;
+    row = this.m_row;
+    mark = this.m_mark;
+    special = this.m_special;
+    specialMax = Math.max(this.m_specialTreeCost, this.m_specialPartnerCost);
+    bestAlpha = new long[m];
+    bestCost = new long[m];
+    bestNode = new int[m];
+
+    last = (n - 1);
+    for (i = n; i > 0; i--) {
+      nodes[i - 1] = i;
+    }
+    Arrays.fill(mark, 0);
+
+    for (i = 1; i <= n; i++) {
+      // get the distances from i to all other nodes
+      nodes[i - 1] = nodes[last];
+      nodes[last] = i;
+      dist.distances(i, nodes, last, dists);
+      for (j = last; (--j) >= 0;) {
+        row[nodes[j]] = dists[j];
+      }
+      nodes[last] = nodes[i - 1];
+      nodes[i - 1] = i;
+
+      piI = pi[i];
+      count = 0;
+
+      if (i != special) {
+        // compute the longest edges on the path from i to the root of the
+        // tree without the special node
+        beta[i] = Long.MIN_VALUE;
+        mark[i] = i;
+        for (u = i; ((d = parent[u]) > 0) && (d != special); u = d) {
+          beta[d] = Math.max(beta[u], cost[u]);
+          mark[d] = i;
+        }
+      }
+
+      for (k = 0; k < n; k++) {
+        j = order[k];
+        if ((j == i) || (j == special)) {
+          continue;
+        }
+
+        c = ((OneTree.PRECISION * row[j]) + piI + pi[j]);
+        if (i == special) {
+          alpha = (((j == this.m_specialTreeNeighbor) || (j == this.m_specialPartner)) ? 0l
+              : (c - specialMax));
+        } else {
+          if (mark[j] != i) {
+            beta[j] = Math.max(beta[parent[j]], cost[j]);
+          }
+          alpha = (c - beta[j]);
+        }
+
+        count = OneTree.__insert(bestAlpha, bestCost, bestNode, count, m,
+            alpha, c, j);
+      }
+
+      if (i != special) {
+        c = ((OneTree.PRECISION * row[special]) + piI + pi[special]);
+        alpha = (((i == this.m_specialTreeNeighbor) || (i == this.m_specialPartner)) ? 0l
+            : (c - specialMax));
+        count = OneTree.__insert(bestAlpha, bestCost, bestNode, count, m,
+            alpha, c, special);
+      }
+
+      start = ((i - 1) * m);
+      for (pos = 0; pos < m; pos++) {
+        data[start + pos] = bestNode[pos];
+        if (distances != null) {
+          distances[start + pos] = row[bestNode[pos]];
+        }
+      }
+    }
+  }
+
+  /**
+   * Insert a node into the list of the best candidates, ordered by
+   * &alpha;-value, cost, and node index, if it belongs to the {@code m}
+   * best ones.
+   *
+   * @param bestAlpha
+   *          the &alpha;-values of the best candidates
+   * @param bestCost
+   *          the costs of the best candidates
+   * @param bestNode
+   *          the best candidates
+   * @param count
+   *          the number of candidates in the list
+   * @param m
+   *          the maximum number of candidates
+   * @param alpha
+   *          the &alpha;-value of the new node
+   * @param cost
+   *          the cost of the edge to the new node
+   * @param node
+   *          the new node
+   * @return the new number of candidates in the list
+   */
+  private static final int __insert(final long[] bestAlpha,
+      final long[] bestCost, final int[] bestNode, final int count,
+      final int m, final long alpha, final long cost, final int node) {
+    int pos, newCount;
+
+    if (count >= m) {
+      pos = (m - 1);
+      if ((alpha > bestAlpha[pos])
+          || ((alpha == bestAlpha[pos]) && ((cost > bestCost[pos]) || //
+          ((cost == bestCost[pos]) && (node > bestNode[pos]))))) {
+        return count;
+      }
+      newCount = count;
+    } else {
+      pos = count;
+      newCount = (count + 1);
+    }
+
+    for (; pos > 0; pos--) {
+      if ((alpha > bestAlpha[pos - 1])
+          || ((alpha == bestAlpha[pos - 1]) && ((cost > bestCost[pos - 1]) || //
+          ((cost == bestCost[pos - 1]) && (node > bestNode[pos - 1]))))) {
+        break;
+      }
+      bestAlpha[pos] = bestAlpha[pos - 1];
+      bestCost[pos] = bestCost[pos - 1];
+      bestNode[pos] = bestNode[pos - 1];
+    }
+    bestAlpha[pos] = alpha;
+    bestCost[pos] = cost;
+    bestNode[pos] = node;
+    return newCount;
+  }
+
+  /**
+   * Build the sparse graph of the {@link #ASCENT_CANDIDATES}
+   * &alpha;-nearest neighbors of each node. Each edge is stored at both of
+   * its nodes.
+   *
+   * @param dist
+   *          the distance computer
+   */
+  private final void __sparseGraph(final DistanceComputer dist) {
+    final int n, k;
+    final int[] candidates, candidateDists, offsets, fill;
+    final long[] edges;
+    int[] neighbors, distances;
+    int i, j, idx, a, b, start, end, count;
+    long edge, prev;
+
+    n = this.m_n;
+    k = Math.min(OneTree.ASCENT_CANDIDATES, (n - 1));
+    candidates = new int[n * k];
+    candidateDists = new int[n * k];
+    this.__alpha(dist, k, candidates, candidateDists);
+
+    offsets = new int[n + 1];
+    for (i = n; i > 0; i--) {
+      offsets[i] += k;
+    }
+    for (idx = candidates.length; (--idx) >= 0;) {
+      offsets[candidates[idx]]++;
+    }
+    for (i = 0; i < n; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+
+    // store each edge as neighbor in the upper and distance in the lower
+    // 32 bits, so that duplicates can be removed by sorting
+    edges = new long[offsets[n]];
+    fill = Arrays.copyOf(offsets, n);
+    idx = 0;
+    for (i = 1; i <= n; i++) {
+      a = i - 1;
+      for (j = k; j > 0; j--, idx++) {
+        b = candidates[idx];
+        edges[fill[a]++] = ((((long) b) << 32l) | candidateDists[idx]);
+        edges[fill[b - 1]++] = ((((long) i) << 32l) | candidateDists[idx]);
+      }
+    }
+
+    count = 0;
+    start = 0;
+    for (i = 0; i < n; i++) {
+      end = offsets[i + 1];
+      Arrays.sort(edges, start, end);
+      prev = (-1l);
+      for (idx = start; idx < end; idx++) {
+        edge = edges[idx];
+        if (edge != prev) {
+          edges[count++] = edge;
+          prev = edge;
+        }
+      }
+      start = end;
+      offsets[i + 1] = count;
+    }
+
+    neighbors = new int[count];
+    distances = new int[count];
+    for (idx = count; (--idx) >= 0;) {
+      edge = edges[idx];
+      neighbors[idx] = ((int) (edge >>> 32l));
+      distances[idx] = ((int) edge);
+    }
+
+    this.m_heapKeys = new long[count];
+    this.m_heapNodes = new int[count];
+    this.m_offsets = offsets;
+    this.m_neighbors = neighbors;
+    this.m_distances = distances;
+  }
+}
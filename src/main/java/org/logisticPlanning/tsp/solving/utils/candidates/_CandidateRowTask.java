@@ -0,0 +1,239 @@
+package org.logisticPlanning.tsp.solving.utils.candidates;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it, use it by
+ * yourself, or otherwise meddle with it.
+ * </p>
+ * <p>
+ * A fork-join task computing the candidate lists of a block of nodes of a
+ * {@link _CandidateSubSet candidate set} in parallel, for instances which
+ * do not provide a
+ * {@link org.logisticPlanning.tsp.benchmarking.dist.SpatialIndex spatial
+ * index}. For each node, the distances to all other nodes are loaded and
+ * packed into {@code long} keys holding the distance in the upper and the
+ * node in the lower 32 bits. The {@code m} smallest keys, i.e., the
+ * {@code m} nearest nodes with ties broken by the node index, are then
+ * found by a quickselect in {@code O(n)} steps instead of sorting all
+ * {@code n-1} candidates. A block of nodes is split in half until it
+ * contains at most {@link #THRESHOLD} distances. Since distance computers
+ * are immutable and different nodes occupy disjoint parts of the
+ * candidate array, the blocks can be processed independently.
+ * </p>
+ */
+final class _CandidateRowTask extends RecursiveAction {
+  /** the serial version uid */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * the maximum number of distances processed sequentially by one task:
+   * {@value}
+   */
+  static final long THRESHOLD = (1l << 16l);
+
+  /** the pool used to compute candidate sets */
+  private static ForkJoinPool s_pool;
+
+  /** the source distance computer */
+  private final DistanceComputer m_src;
+
+  /** the candidate array */
+  private final int[] m_data;
+
+  /** the number of candidates per node */
+  private final int m_m;
+
+  /** the first node (inclusive) */
+  private final int m_from;
+
+  /** the last node (exclusive) */
+  private final int m_to;
+
+  /**
+   * create the task
+   *
+   * @param src
+   *          the source distance computer
+   * @param data
+   *          the candidate array
+   * @param m
+   *          the number of candidates per node
+   * @param from
+   *          the first node (inclusive)
+   * @param to
+   *          the last node (exclusive)
+   */
+  private _CandidateRowTask(final DistanceComputer src, final int[] data,
+      final int m, final int from, final int to) {
+    super();
+    this.m_src = src;
+    this.m_data = data;
+    this.m_m = m;
+    this.m_from = from;
+    this.m_to = to;
+  }
+
+  /**
+   * get the shared fork-join pool
+   *
+   * @return the pool
+   */
+  private static synchronized final ForkJoinPool __pool() {
+    if (_CandidateRowTask.s_pool == null) {
+      _CandidateRowTask.s_pool = new ForkJoinPool();
+    }
+    return _CandidateRowTask.s_pool;
+  }
+
+  /**
+   * Compute the candidate lists of all nodes. The distances are obtained
+   * from {@code src} directly and thus not counted as DEs.
+   *
+   * @param src
+   *          the source distance computer
+   * @param data
+   *          the candidate array receiving the {@code m} nearest
+   *          neighbors of node {@code i}, sorted by node index, at the
+   *          indices {@code (i-1)*m} to {@code i*m-1}
+   * @param m
+   *          the number of candidates per node, must be less than
+   *          {@code n-1}
+   */
+  static final void process(final DistanceComputer src, final int[] data,
+      final int m) {
+    final _CandidateRowTask task;
+    final int n;
+
+    n = src.n();
+    task = new _CandidateRowTask(src, data, m, 1, (n + 1));
+    if ((((long) n) * (n - 1)) <= _CandidateRowTask.THRESHOLD) {
+      task.compute();
+    } else {
+      _CandidateRowTask.__pool().invoke(task);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected final void compute() {
+    final _CandidateRowTask a, b;
+    final int mid;
+
+    if (((this.m_to - this.m_from) > 1)
+        && ((((long) (this.m_to - this.m_from)) * (this.m_src.n() - 1)) > _CandidateRowTask.THRESHOLD)) {
+      mid = ((this.m_from + this.m_to) >>> 1);
+      a = new _CandidateRowTask(this.m_src, this.m_data, this.m_m,
+          this.m_from, mid);
+      b = new _CandidateRowTask(this.m_src, this.m_data, this.m_m, mid,
+          this.m_to);
+      RecursiveAction.invokeAll(a, b);
+      return;
+    }
+
+    _CandidateRowTask.__rows(this.m_src, this.m_data, this.m_m,
+        this.m_from, this.m_to);
+  }
+
+  /**
+   * Compute the candidate lists of a block of nodes.
+   *
+   * @param src
+   *          the source distance computer
+   * @param data
+   *          the candidate array
+   * @param m
+   *          the number of candidates per node
+   * @param from
+   *          the first node (inclusive)
+   * @param to
+   *          the last node (exclusive)
+   */
+  private static final void __rows(final DistanceComputer src,
+      final int[] data, final int m, final int from, final int to) {
+    final int n, len;
+    final int[] nodes, dists;
+    final long[] keys;
+    int node, other, i, start;
+
+    n = src.n();
+    len = (n - 1);
+    nodes = new int[len];
+    dists = new int[len];
+    keys = new long[len];
+
+    for (node = from; node < to; node++) {
+      i = 0;
+      for (other = 1; other <= n; other++) {
+        if (other != node) {
+          nodes[i++] = other;
+        }
+      }
+      src.distances(node, nodes, len, dists);
+      for (i = len; (--i) >= 0;) {
+        keys[i] = ((((long) (dists[i])) << 32l) | nodes[i]);
+      }
+
+      _CandidateRowTask.__select(keys, len, (m - 1));
+
+      start = ((node - 1) * m);
+      for (i = m; (--i) >= 0;) {
+        data[start + i] = ((int) (keys[i]));
+      }
+      Arrays.sort(data, start, (start + m));
+    }
+  }
+
+  /**
+   * Rearrange the first {@code len} elements of {@code keys} such that
+   * the element at index {@code k} is the one that would be there if the
+   * array was sorted and no element before it is larger and none after it
+   * is smaller.
+   *
+   * @param keys
+   *          the keys
+   * @param len
+   *          the number of keys
+   * @param k
+   *          the index to select
+   */
+  private static final void __select(final long[] keys, final int len,
+      final int k) {
+    int lo, hi, i, j;
+    long pivot, t;
+
+    lo = 0;
+    hi = (len - 1);
+    while (lo < hi) {
+      pivot = keys[(lo + hi) >>> 1];
+      i = lo;
+      j = hi;
+      do {
+        while (keys[i] < pivot) {
+          i++;
+        }
+        while (pivot < keys[j]) {
+          j--;
+        }
+        if (i <= j) {
+          t = keys[i];
+          keys[i] = keys[j];
+          keys[j] = t;
+          i++;
+          j--;
+        }
+      } while (i <= j);
+      if (j < k) {
+        lo = i;
+      }
+      if (k < i) {
+        hi = j;
+      }
+    }
+  }
+}
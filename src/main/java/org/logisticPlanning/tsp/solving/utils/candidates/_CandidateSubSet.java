@@ -22,6 +22,16 @@ import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
  * (inclusive) to {@code i*m} (exclusive), i.e., in {@code O(log m)} steps.
  * </p>
  * <p>
+ * Which nodes become candidates is decided by an
+ * {@link ECandidateSetStrategy}. If the instance has coordinates, the
+ * candidates are obtained from its
+ * {@link org.logisticPlanning.tsp.benchmarking.dist.SpatialIndex spatial
+ * index}. Otherwise, the distances of each node to all other nodes are
+ * computed and the {@code m} nearest ones are selected by a
+ * {@link _CandidateRowTask parallel quickselect}. In both cases, nodes
+ * with the same distance are ordered by their index.
+ * </p>
+ * <p>
  * I am not sure if this representation is the most efficient one, maybe I
  * can improve on it later. However, it is relatively straightforward and
  * requires little memory.
@@ -39,12 +49,10 @@ final class _CandidateSubSet extends CandidateSet {
 
   /** {@inheritDoc} */
   @Override
-  final void init(final ObjectiveFunction f, final int n, final int m) {
-    final int matrixSize, listLen;
+  final void init(final ObjectiveFunction f, final int n, final int m,
+      final ECandidateSetStrategy strategy) {
+    final int matrixSize;
     int[] data;
-    final _Candidate[] list;
-    _Candidate c;
-    int sourceNode, destNode, listIndex, i;
 
     this.m_m = m;
     matrixSize = (n * m);
@@ -55,36 +63,7 @@ final class _CandidateSubSet extends CandidateSet {
       this.m_candidates = data = new int[matrixSize];
     }
 
-    // allocate the temporary list
-    listLen = (n - 1);
-    list = new _Candidate[listLen];
-    for (i = listLen; (--i) >= 0;) {
-      list[i] = new _Candidate();
-    }
-
-    // fill the candidate list: structure candidate-distance
-    // candidate-distance
-    i = 0;
-    for (sourceNode = 1; sourceNode <= n; sourceNode++) {
-
-      // load the distances from node sourceNode
-      listIndex = listLen;
-      for (destNode = n; destNode > 0; destNode--) {
-        if (destNode != sourceNode) {
-          c = list[--listIndex];
-          c.m_node = destNode;
-          c.m_dist = f.distance(sourceNode, destNode);
-        }
-      }
-
-      // choose the m nearest nodes
-      Arrays.sort(list);
-      destNode = i;
-      for (listIndex = m; (--listIndex) >= 0;) {
-        data[i++] = list[listIndex].m_node;
-      }
-      Arrays.sort(data, destNode, i);
-    }
+    this.m_lowerBound = strategy.fill(f, n, m, data);
   }
 
   /** {@inheritDoc} */
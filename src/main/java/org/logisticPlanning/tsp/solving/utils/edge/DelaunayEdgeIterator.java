@@ -0,0 +1,99 @@
+package org.logisticPlanning.tsp.solving.utils.edge;
+
+import java.util.NoSuchElementException;
+
+import org.logisticPlanning.tsp.benchmarking.dist.DelaunayGraph;
+import org.logisticPlanning.utils.collections.basic.BasicIterator;
+
+/**
+ * An iterator over the edges of a
+ * {@link org.logisticPlanning.tsp.benchmarking.dist.DelaunayGraph
+ * Delaunay graph}. Each undirected edge is returned exactly once as a new
+ * {@link Edge} instance whose {@link Edge#a first node} is smaller than
+ * its {@link Edge#b second node}. The edges are returned ordered by their
+ * first and then by their second node. Tour construction heuristics can
+ * use this iterator to consider only the {@code O(n)} edges of the graph
+ * instead of all {@code n(n-1)/2} edges of the complete graph.
+ */
+public class DelaunayEdgeIterator extends BasicIterator<Edge> {
+
+  /** The serial version uid */
+  private static final long serialVersionUID = 1L;
+
+  /** the graph */
+  private final DelaunayGraph m_graph;
+
+  /** the current node */
+  private int m_node;
+
+  /** the index of the next neighbor of the current node */
+  private int m_index;
+
+  /**
+   * Create the iterator
+   *
+   * @param graph
+   *          the graph to iterate over
+   */
+  public DelaunayEdgeIterator(final DelaunayGraph graph) {
+    super();
+    this.m_graph = graph;
+    this.m_node = 1;
+    this.m_index = 0;
+  }
+
+  /**
+   * Move to the next edge whose first node is smaller than its second
+   * one.
+   *
+   * @return {@code true} if such an edge exists, {@code false} otherwise
+   */
+  private final boolean __advance() {
+    final DelaunayGraph graph;
+    final int n;
+    int node, index, degree;
+
+    graph = this.m_graph;
+    n = graph.n();
+    node = this.m_node;
+    index = this.m_index;
+
+    while (node <= n) {
+      degree = graph.degree(node);
+      for (; index < degree; index++) {
+        if (graph.neighbor(node, index) > node) {
+          this.m_node = node;
+          this.m_index = index;
+          return true;
+        }
+      }
+      node++;
+      index = 0;
+    }
+
+    this.m_node = node;
+    this.m_index = 0;
+    return false;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final boolean hasNext() {
+    return this.__advance();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final Edge next() {
+    final Edge e;
+
+    if (!(this.__advance())) {
+      throw new NoSuchElementException();
+    }
+
+    e = new Edge(this.m_node,
+        this.m_graph.neighbor(this.m_node, this.m_index));
+    this.m_index++;
+    return e;
+  }
+}
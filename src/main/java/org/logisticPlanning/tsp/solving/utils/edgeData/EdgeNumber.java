@@ -513,6 +513,55 @@ public abstract class EdgeNumber extends EdgeData {
         : new _AsymmetricEdgeLong(n));
   }
 
+  /**
+   * Estimate the number of bytes occupied by the backing store of an
+   * {@link EdgeNumber} instance that
+   * {@link #allocate(int, boolean, long, long, boolean, EdgeNumber)
+   * allocate} would create for the given parameters.
+   *
+   * @param n
+   *          the number of nodes
+   * @param symmetric
+   *          is the instance symmetric?
+   * @param minValue
+   *          the minimum value to be stored, specified as 64 bit signed
+   *          integer (long)
+   * @param maxValue
+   *          the maximum value to be stored, specified as 64 bit signed
+   *          integer (long)
+   * @param requiresFloats
+   *          do we need to support floating point numbers?
+   * @return the estimated number of bytes
+   */
+  public static final long estimateMemory(final int n,
+      final boolean symmetric, final long minValue, final long maxValue,
+      final boolean requiresFloats) {
+    final long count;
+
+    count = (symmetric ? ((((long) n) * (n - 1)) >>> 1)
+        : (((long) n) * (n - 1)));
+
+    if (requiresFloats) {
+      return (count << 2l);
+    }
+    if ((minValue >= 0) && (maxValue <= 1)) {
+      return ((n < EdgeBit.LONG_THRESHOLD) ? count : ((count + 7l) >>> 3l));
+    }
+    if ((minValue >= (java.lang.Byte.MIN_VALUE))
+        && (maxValue <= (java.lang.Byte.MAX_VALUE))) {
+      return count;
+    }
+    if ((minValue >= (java.lang.Short.MIN_VALUE))
+        && (maxValue <= (java.lang.Short.MAX_VALUE))) {
+      return (count << 1l);
+    }
+    if ((minValue >= (java.lang.Integer.MIN_VALUE))
+        && (maxValue <= (java.lang.Integer.MAX_VALUE))) {
+      return (count << 2l);
+    }
+    return (count << 3l);
+  }
+
   /**
    * Allocate an {@link EdgeNumber} instance with all data elements set to
    * 0. Try to re-use an existing instance {@code old}, if possible. Use
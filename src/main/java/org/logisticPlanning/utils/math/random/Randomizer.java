@@ -1,5 +1,8 @@
 package org.logisticPlanning.utils.math.random;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Random;
 
 /**
@@ -135,6 +138,37 @@ public final class Randomizer extends Random {
     this.m_haveNextNextGaussian = false;
   }
 
+  /**
+   * Write the complete internal state of this random number generator, so
+   * that it can later be restored via {@link #loadState(DataInput)} and
+   * will then continue to produce exactly the same sequence of numbers.
+   *
+   * @param out
+   *          the output to write to
+   * @throws IOException
+   *           if the output fails
+   */
+  public final void saveState(final DataOutput out) throws IOException {
+    out.writeLong(this.m_seed);
+    out.writeDouble(this.m_nextNextGaussian);
+    out.writeBoolean(this.m_haveNextNextGaussian);
+  }
+
+  /**
+   * Restore the internal state of this random number generator which has
+   * been written by {@link #saveState(DataOutput)}.
+   *
+   * @param in
+   *          the input to read from
+   * @throws IOException
+   *           if the input fails
+   */
+  public final void loadState(final DataInput in) throws IOException {
+    this.m_seed = (in.readLong() & Randomizer.MASK);
+    this.m_nextNextGaussian = in.readDouble();
+    this.m_haveNextNextGaussian = in.readBoolean();
+  }
+
   /** {@inheritDoc} */
   @Override
   protected final int next(final int bits) {
@@ -0,0 +1,157 @@
+package snippets;
+
+import java.io.File;
+
+import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.objective.Benchmark;
+import org.logisticPlanning.tsp.benchmarking.objective.LogPoint;
+import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
+import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveWorker;
+import org.logisticPlanning.utils.NamedObject;
+import org.logisticPlanning.utils.math.random.Randomizer;
+
+import test.junit.TempDir;
+
+/**
+ * A small benchmark measuring how the throughput of a concurrent run
+ * scales with the number of threads: each thread performs random 2-opt
+ * moves on its own tour via its own
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveWorker
+ * worker} and registers one FE per move. The FEs per second are printed
+ * for 1, 2, 4, ... threads. Arguments: the instance name (default
+ * {@code rat783}), the runtime per thread count in milliseconds (default
+ * {@code 3000}), and the maximum number of threads (default: the number
+ * of processors).
+ */
+public class ConcurrentObjectiveScaling implements Runnable {
+
+  /** the worker */
+  private final ObjectiveWorker m_worker;
+
+  /**
+   * create
+   *
+   * @param worker
+   *          the worker
+   */
+  private ConcurrentObjectiveScaling(final ObjectiveWorker worker) {
+    super();
+    this.m_worker = worker;
+  }
+
+  /** perform random 2-opt moves until the run ends */
+  @Override
+  public final void run() {
+    final ObjectiveWorker w;
+    final Randomizer r;
+    final int n;
+    final int[] tour;
+    int i, j, a, b, c, d, t;
+    long f, delta;
+
+    w = this.m_worker;
+    r = w.getRandom();
+    n = w.n();
+    tour = new int[n];
+    for (i = n; i > 0; i--) {
+      tour[i - 1] = i;
+    }
+    for (i = n; i > 1; i--) {
+      j = r.nextInt(i);
+      t = tour[i - 1];
+      tour[i - 1] = tour[j];
+      tour[j] = t;
+    }
+    f = w.evaluate(tour);
+
+    while (!(w.shouldTerminate())) {
+      i = (1 + r.nextInt(n - 2));
+      j = (i + 1 + r.nextInt(n - i - 1));
+      a = tour[i - 1];
+      b = tour[i];
+      c = tour[j];
+      d = tour[(j + 1) % n];
+      delta = ((((long) (w.distance(a, c))) + w.distance(b, d)) - //
+          (((long) (w.distance(a, b))) + w.distance(c, d)));
+      if (delta < 0l) {
+        for (; i < j; i++, j--) {
+          t = tour[i];
+          tour[i] = tour[j];
+          tour[j] = t;
+        }
+        f += delta;
+        w.registerFE(tour, f);
+      } else {
+        w.registerFE(null, (f + delta));
+      }
+    }
+    w.flush();
+  }
+
+  /**
+   * The main method
+   *
+   * @param args
+   *          the command line arguments
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  public static final void main(final String[] args) throws Throwable {
+    final Instance inst;
+    final long time;
+    final int maxThreads;
+    final NamedObject algo;
+    Benchmark bm;
+    ObjectiveFunction f;
+    Thread[] threads;
+    LogPoint lp;
+    double base, speed;
+    int k, i;
+
+    inst = Instance.forName((args.length > 0) ? args[0] : "rat783"); //$NON-NLS-1$
+    time = ((args.length > 1) ? Long.parseLong(args[1]) : 3000l);
+    maxThreads = ((args.length > 2) ? Integer.parseInt(args[2]) : Runtime
+        .getRuntime().availableProcessors());
+    algo = new NamedObject("concurrentRandom2Opt"); //$NON-NLS-1$
+
+    base = 0d;
+    try (final TempDir tempDir = new TempDir()) {
+      for (k = 1; k <= maxThreads; k <<= 1) {
+        bm = new Benchmark(new File(tempDir.getDir(), String.valueOf(k)),
+            inst);
+        bm.setMaxFEs(Long.MAX_VALUE);
+        bm.setMaxDEs(Long.MAX_VALUE);
+        bm.setMaxRuntime(time);
+        f = bm.createObjective();
+
+        f.beginRun(algo);
+        try {
+          threads = new Thread[k];
+          for (i = 0; i < k; i++) {
+            threads[i] = new Thread(new ConcurrentObjectiveScaling(
+                f.createWorker()));
+          }
+          for (final Thread thread : threads) {
+            thread.start();
+          }
+          for (final Thread thread : threads) {
+            thread.join();
+          }
+          lp = f.getCurrentLogPoint();
+          speed = ((1000d * lp.getConsumedFEs()) / //
+          Math.max(1l, lp.getConsumedRuntime()));
+          if (k <= 1) {
+            base = speed;
+          }
+          System.out.println(k + " threads: " + //$NON-NLS-1$
+              lp.getConsumedFEs() + " FEs, " + //$NON-NLS-1$
+              lp.getConsumedDEs() + " DEs, best " + //$NON-NLS-1$
+              lp.getBestF() + ", " + ((long) speed) + //$NON-NLS-1$
+              " FEs/s, speedup " + (speed / base)); //$NON-NLS-1$
+        } finally {
+          f.endRun();
+        }
+      }
+    }
+  }
+}
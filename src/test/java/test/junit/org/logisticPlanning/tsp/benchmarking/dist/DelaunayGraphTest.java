@@ -0,0 +1,737 @@
+package test.junit.org.logisticPlanning.tsp.benchmarking.dist;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.logisticPlanning.tsp.benchmarking.dist.DelaunayGraph;
+import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
+import org.logisticPlanning.tsp.benchmarking.dist.SpatialIndex;
+import org.logisticPlanning.utils.math.random.Randomizer;
+
+import test.junit.TestBase;
+
+/**
+ * Test that the
+ * {@link org.logisticPlanning.tsp.benchmarking.dist.DelaunayGraph Delaunay
+ * graph} is a Delaunay triangulation: Its edges do not cross, the
+ * circumcircle of each of its triangles contains no node, and it covers
+ * the convex hull of the nodes with triangles. The test uses exact
+ * arithmetic and also covers degenerate inputs, i.e., lattices, collinear
+ * and co-circular nodes, and nodes at the same location.
+ */
+public class DelaunayGraphTest extends TestBase {
+
+  /** the distance types which have a Delaunay graph */
+  private static final String[] TYPES = { "EUC_2D", //$NON-NLS-1$
+      "CEIL_2D", //$NON-NLS-1$
+      "ATT" }; //$NON-NLS-1$
+
+  /** the randomizer */
+  private final Randomizer m_r;
+
+  /** create */
+  public DelaunayGraphTest() {
+    super();
+    this.m_r = new Randomizer();
+  }
+
+  /**
+   * Shuffle the nodes and put some additional nodes at the location of
+   * randomly chosen ones
+   *
+   * @param coords
+   *          the coordinates, two per node
+   * @param duplicates
+   *          the number of nodes to add at existing locations
+   * @return the new coordinates
+   */
+  private final double[] __shuffle(final double[] coords,
+      final int duplicates) {
+    final double[] res;
+    final int n;
+    int i, j;
+    double t;
+
+    n = ((coords.length >>> 1) + duplicates);
+    res = Arrays.copyOf(coords, (n << 1));
+    for (i = (coords.length >>> 1); i < n; i++) {
+      j = this.m_r.nextInt(i);
+      res[i << 1] = res[j << 1];
+      res[(i << 1) + 1] = res[(j << 1) + 1];
+    }
+    for (i = n; i > 1; i--) {
+      j = this.m_r.nextInt(i);
+      t = res[(i - 1) << 1];
+      res[(i - 1) << 1] = res[j << 1];
+      res[j << 1] = t;
+      t = res[((i - 1) << 1) + 1];
+      res[((i - 1) << 1) + 1] = res[(j << 1) + 1];
+      res[(j << 1) + 1] = t;
+    }
+    return res;
+  }
+
+  /**
+   * Get the Delaunay graph of some nodes
+   *
+   * @param coords
+   *          the coordinates, two per node
+   * @param intCoords
+   *          are the coordinates integers?
+   * @return the graph
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final DelaunayGraph __graph(final double[] coords,
+      final boolean intCoords) throws IOException {
+    final SpatialIndex index;
+    final DelaunayGraph graph;
+
+    index = SpatialIndexTest._load(DelaunayGraphTest.TYPES[0], 2, coords,
+        intCoords).getSpatialIndex();
+    Assert.assertNotNull(index);
+    graph = index.getDelaunayGraph();
+    Assert.assertNotNull(graph);
+    Assert.assertSame(graph, index.getDelaunayGraph());
+    return graph;
+  }
+
+  /**
+   * Compute the orientation of three nodes exactly
+   *
+   * @param x
+   *          the first coordinates
+   * @param y
+   *          the second coordinates
+   * @param a
+   *          the first node (0-based)
+   * @param b
+   *          the second node (0-based)
+   * @param c
+   *          the third node (0-based)
+   * @return {@code 1} if the nodes are in counter-clockwise order,
+   *         {@code -1} if they are in clockwise order, and {@code 0} if
+   *         they are collinear
+   */
+  private static final int __orient(final BigDecimal[] x,
+      final BigDecimal[] y, final int a, final int b, final int c) {
+    return x[b].subtract(x[a]).multiply(y[c].subtract(y[a]))
+        .subtract(y[b].subtract(y[a]).multiply(x[c].subtract(x[a])))
+        .signum();
+  }
+
+  /**
+   * Check exactly whether a node is strictly inside the circumcircle of
+   * three nodes in counter-clockwise order
+   *
+   * @param x
+   *          the first coordinates
+   * @param y
+   *          the second coordinates
+   * @param a
+   *          the first node (0-based)
+   * @param b
+   *          the second node (0-based)
+   * @param c
+   *          the third node (0-based)
+   * @param d
+   *          the node to check (0-based)
+   * @return {@code true} if {@code d} is strictly inside the circle
+   */
+  private static final boolean __inCircle(final BigDecimal[] x,
+      final BigDecimal[] y, final int a, final int b, final int c,
+      final int d) {
+    final BigDecimal adx, ady, bdx, bdy, cdx, cdy;
+
+    adx = x[a].subtract(x[d]);
+    ady = y[a].subtract(y[d]);
+    bdx = x[b].subtract(x[d]);
+    bdy = y[b].subtract(y[d]);
+    cdx = x[c].subtract(x[d]);
+    cdy = y[c].subtract(y[d]);
+
+    return (adx.multiply(adx).add(ady.multiply(ady))
+        .multiply(bdx.multiply(cdy).subtract(cdx.multiply(bdy)))
+        .add(bdx.multiply(bdx).add(bdy.multiply(bdy))
+            .multiply(cdx.multiply(ady).subtract(adx.multiply(cdy))))
+        .add(cdx.multiply(cdx).add(cdy.multiply(cdy))
+            .multiply(adx.multiply(bdy).subtract(bdx.multiply(ady))))
+        .signum() > 0);
+  }
+
+  /**
+   * Check that the Delaunay graph of the given nodes is a Delaunay
+   * triangulation of the distinct locations in which each other node is
+   * connected only to the first node at its location
+   *
+   * @param coords
+   *          the coordinates, two per node
+   * @param intCoords
+   *          are the coordinates integers?
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final void __assertDelaunay(final double[] coords,
+      final boolean intCoords) throws IOException {
+    final DelaunayGraph graph;
+    final int n;
+    final int[] rep, unique, neighbors;
+    final BigDecimal[] x, y;
+    final HashMap<Long, int[]> faces;
+    final HashMap<String, Integer> first;
+    int i, j, k, a, b, c, d, u, edges, triangles, o, p, q, r;
+    boolean inside;
+    int[] count, list;
+    String key;
+
+    graph = DelaunayGraphTest.__graph(coords, intCoords);
+    n = (coords.length >>> 1);
+    Assert.assertEquals(n, graph.n());
+
+    // the first node at each location represents it
+    rep = new int[n];
+    unique = new int[n];
+    first = new HashMap<>();
+    u = 0;
+    for (i = 0; i < n; i++) {
+      key = (coords[i << 1] + "/" + coords[(i << 1) + 1]); //$NON-NLS-1$
+      if (first.containsKey(key)) {
+        rep[i] = first.get(key).intValue();
+      } else {
+        first.put(key, Integer.valueOf(i));
+        rep[i] = i;
+        unique[u++] = i;
+      }
+    }
+
+    x = new BigDecimal[n];
+    y = new BigDecimal[n];
+    for (i = n; (--i) >= 0;) {
+      x[i] = new BigDecimal(coords[i << 1]);
+      y[i] = new BigDecimal(coords[(i << 1) + 1]);
+    }
+
+    // the neighbor lists are sorted and symmetric, and duplicate nodes
+    // are only linked to their representative
+    neighbors = new int[n];
+    edges = 0;
+    for (i = 1; i <= n; i++) {
+      k = graph.neighbors(i, neighbors);
+      Assert.assertEquals(graph.degree(i), k);
+      edges += k;
+      for (j = 0; j < k; j++) {
+        Assert.assertEquals(neighbors[j], graph.neighbor(i, j));
+        Assert.assertTrue((j <= 0) || (neighbors[j - 1] < neighbors[j]));
+        Assert.assertTrue(neighbors[j] != i);
+        Assert.assertTrue(graph.isEdge(neighbors[j], i));
+        if (rep[i - 1] != (i - 1)) {
+          Assert.assertEquals((rep[i - 1] + 1), neighbors[j]);
+        } else {
+          Assert.assertTrue((rep[neighbors[j] - 1] == (neighbors[j] - 1))
+              || (rep[neighbors[j] - 1] == (i - 1)));
+        }
+      }
+      if (rep[i - 1] != (i - 1)) {
+        Assert.assertEquals(1, k);
+      }
+    }
+    Assert.assertEquals((edges >>> 1), graph.edgeCount());
+    DelaunayGraphTest.__assertConnected(graph);
+
+    // the edges between the locations neither pass through a node nor
+    // cross each other
+    list = new int[graph.edgeCount() << 1];
+    edges = 0;
+    for (i = 0; i < u; i++) {
+      a = unique[i];
+      for (j = graph.degree(a + 1); (--j) >= 0;) {
+        b = (graph.neighbor((a + 1), j) - 1);
+        if ((b <= a) || (rep[b] != b)) {
+          continue;
+        }
+        list[edges << 1] = a;
+        list[(edges << 1) + 1] = b;
+        edges++;
+        for (k = 0; k < u; k++) {
+          c = unique[k];
+          if ((c != a) && (c != b)
+              && DelaunayGraphTest.__inBox(coords, a, b, c)) {
+            Assert.assertTrue(DelaunayGraphTest.__orient(x, y, a, b, c) != 0);
+          }
+        }
+      }
+    }
+    for (i = 0; i < edges; i++) {
+      a = list[i << 1];
+      b = list[(i << 1) + 1];
+      for (j = (i + 1); j < edges; j++) {
+        c = list[j << 1];
+        d = list[(j << 1) + 1];
+        if ((c == a) || (c == b) || (d == a) || (d == b)
+            || (!(DelaunayGraphTest.__boxesOverlap(coords, a, b, c, d)))) {
+          continue;
+        }
+        Assert.assertFalse(((DelaunayGraphTest.__orient(x, y, a, b, c) * //
+            DelaunayGraphTest.__orient(x, y, a, b, d)) < 0)
+            && ((DelaunayGraphTest.__orient(x, y, c, d, a) * //
+            DelaunayGraphTest.__orient(x, y, c, d, b)) < 0));
+      }
+    }
+
+    // find the triangles, i.e., the cycles of length three which contain
+    // no other location, and check their circumcircles
+    faces = new HashMap<>();
+    triangles = 0;
+    for (i = 0; i < u; i++) {
+      a = unique[i];
+      for (j = graph.degree(a + 1); (--j) >= 0;) {
+        b = (graph.neighbor((a + 1), j) - 1);
+        if ((b <= a) || (rep[b] != b)) {
+          continue;
+        }
+        for (k = graph.degree(a + 1); (--k) >= 0;) {
+          c = (graph.neighbor((a + 1), k) - 1);
+          if ((c <= b) || (rep[c] != c)
+              || (!(graph.isEdge((b + 1), (c + 1))))) {
+            continue;
+          }
+          o = DelaunayGraphTest.__orient(x, y, a, b, c);
+          Assert.assertTrue(o != 0);
+
+          inside = false;
+          for (q = 0; q < u; q++) {
+            d = unique[q];
+            if ((d == a) || (d == b) || (d == c)) {
+              continue;
+            }
+            p = DelaunayGraphTest.__orient(x, y, a, b, d);
+            r = DelaunayGraphTest.__orient(x, y, b, c, d);
+            if (((p * o) >= 0) && ((r * o) >= 0)
+                && ((DelaunayGraphTest.__orient(x, y, c, a, d) * o) >= 0)) {
+              inside = true;
+              break;
+            }
+          }
+          if (inside) {
+            continue;
+          }
+
+          triangles++;
+          for (q = 0; q < u; q++) {
+            d = unique[q];
+            if ((d == a) || (d == b) || (d == c)) {
+              continue;
+            }
+            Assert.assertFalse((o > 0) ? //
+            DelaunayGraphTest.__inCircle(x, y, a, b, c, d)
+                : DelaunayGraphTest.__inCircle(x, y, a, c, b, d));
+          }
+          DelaunayGraphTest.__face(faces, n, a, b);
+          DelaunayGraphTest.__face(faces, n, a, c);
+          DelaunayGraphTest.__face(faces, n, b, c);
+        }
+      }
+    }
+
+    // each edge borders two triangles, except for the edges on the
+    // convex hull, and all triangles together cover the hull
+    for (i = 0; i < u; i++) {
+      a = unique[i];
+      for (j = graph.degree(a + 1); (--j) >= 0;) {
+        b = (graph.neighbor((a + 1), j) - 1);
+        if ((b <= a) || (rep[b] != b)) {
+          continue;
+        }
+        count = faces.get(Long.valueOf((((long) a) * n) + b));
+        if ((count != null) && (count[0] >= 2)) {
+          Assert.assertEquals(2, count[0]);
+          continue;
+        }
+        if (count == null) {
+          Assert.assertEquals(0, triangles);
+        }
+        p = 0;
+        for (q = 0; q < u; q++) {
+          o = DelaunayGraphTest.__orient(x, y, a, b, unique[q]);
+          if (o != 0) {
+            Assert.assertTrue((p == 0) || (p == o));
+            p = o;
+          }
+        }
+      }
+    }
+    Assert.assertEquals((u - 1), (edges - triangles));
+  }
+
+  /**
+   * Is node {@code c} within the bounding box of the nodes {@code a} and
+   * {@code b}?
+   *
+   * @param coords
+   *          the coordinates
+   * @param a
+   *          the first node (0-based)
+   * @param b
+   *          the second node (0-based)
+   * @param c
+   *          the node to check (0-based)
+   * @return {@code true} if {@code c} is within the box
+   */
+  private static final boolean __inBox(final double[] coords, final int a,
+      final int b, final int c) {
+    int i;
+
+    for (i = 0; i < 2; i++) {
+      if (coords[(c << 1) + i] < Math.min(coords[(a << 1) + i],
+          coords[(b << 1) + i])) {
+        return false;
+      }
+      if (coords[(c << 1) + i] > Math.max(coords[(a << 1) + i],
+          coords[(b << 1) + i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Do the bounding boxes of the segments {@code a-b} and {@code c-d}
+   * overlap?
+   *
+   * @param coords
+   *          the coordinates
+   * @param a
+   *          the first node of the first segment (0-based)
+   * @param b
+   *          the second node of the first segment (0-based)
+   * @param c
+   *          the first node of the second segment (0-based)
+   * @param d
+   *          the second node of the second segment (0-based)
+   * @return {@code true} if the boxes overlap
+   */
+  private static final boolean __boxesOverlap(final double[] coords,
+      final int a, final int b, final int c, final int d) {
+    int i;
+
+    for (i = 0; i < 2; i++) {
+      if (Math.max(coords[(a << 1) + i], coords[(b << 1) + i]) < Math.min(
+          coords[(c << 1) + i], coords[(d << 1) + i])) {
+        return false;
+      }
+      if (Math.max(coords[(c << 1) + i], coords[(d << 1) + i]) < Math.min(
+          coords[(a << 1) + i], coords[(b << 1) + i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Count a triangle adjacent to an edge
+   *
+   * @param faces
+   *          the number of triangles adjacent to each edge
+   * @param n
+   *          the number of nodes
+   * @param a
+   *          the smaller node of the edge (0-based)
+   * @param b
+   *          the larger node of the edge (0-based)
+   */
+  private static final void __face(final HashMap<Long, int[]> faces,
+      final int n, final int a, final int b) {
+    final Long key;
+    int[] count;
+
+    key = Long.valueOf((((long) a) * n) + b);
+    count = faces.get(key);
+    if (count == null) {
+      faces.put(key, count = new int[1]);
+    }
+    count[0]++;
+  }
+
+  /**
+   * Check that all nodes of a graph are connected
+   *
+   * @param graph
+   *          the graph
+   */
+  private static final void __assertConnected(final DelaunayGraph graph) {
+    final int n;
+    final int[] stack;
+    final boolean[] seen;
+    int size, node, next, reached, i;
+
+    n = graph.n();
+    stack = new int[n];
+    seen = new boolean[n + 1];
+    stack[0] = 1;
+    seen[1] = true;
+    size = reached = 1;
+    while (size > 0) {
+      node = stack[--size];
+      for (i = graph.degree(node); (--i) >= 0;) {
+        next = graph.neighbor(node, i);
+        if (!(seen[next])) {
+          seen[next] = true;
+          stack[size++] = next;
+          reached++;
+        }
+      }
+    }
+    Assert.assertEquals(n, reached);
+  }
+
+  /**
+   * Compute the weight of a minimum spanning tree over all edges with
+   * Prim's algorithm
+   *
+   * @param dist
+   *          the distance computer
+   * @return the weight of the tree
+   */
+  private static final long __denseTree(final DistanceComputer dist) {
+    final int n;
+    final int[] key;
+    final boolean[] inTree;
+    long weight;
+    int i, j, best, node;
+
+    n = dist.n();
+    key = new int[n + 1];
+    inTree = new boolean[n + 1];
+    Arrays.fill(key, Integer.MAX_VALUE);
+    weight = 0l;
+    node = n;
+    inTree[n] = true;
+    for (i = 1; i < n; i++) {
+      best = (-1);
+      for (j = 1; j <= n; j++) {
+        if (!(inTree[j])) {
+          key[j] = Math.min(key[j], dist.distance(node, j));
+          if ((best < 0) || (key[j] < key[best])) {
+            best = j;
+          }
+        }
+      }
+      inTree[best] = true;
+      weight += key[best];
+      node = best;
+    }
+    return weight;
+  }
+
+  /**
+   * Compute the weight of a minimum spanning tree over the edges of the
+   * Delaunay graph with Kruskal's algorithm
+   *
+   * @param dist
+   *          the distance computer
+   * @param graph
+   *          the graph
+   * @return the weight of the tree
+   */
+  private static final long __delaunayTree(final DistanceComputer dist,
+      final DelaunayGraph graph) {
+    final int n;
+    final long[] edges;
+    final int[] parent;
+    int i, j, a, b, count, added;
+    long weight;
+
+    n = graph.n();
+    edges = new long[graph.edgeCount()];
+    count = 0;
+    for (a = 1; a <= n; a++) {
+      for (j = graph.degree(a); (--j) >= 0;) {
+        b = graph.neighbor(a, j);
+        if (b > a) {
+          edges[count++] = ((((long) (dist.distance(a, b))) << 42l)
+              | (((long) a) << 21l) | b);
+        }
+      }
+    }
+    Arrays.sort(edges);
+
+    parent = new int[n + 1];
+    for (i = n; i >= 0; i--) {
+      parent[i] = i;
+    }
+    weight = 0l;
+    added = 0;
+    for (final long e : edges) {
+      a = DelaunayGraphTest.__find(parent, (int) ((e >>> 21l) & 0x1fffffl));
+      b = DelaunayGraphTest.__find(parent, (int) (e & 0x1fffffl));
+      if (a != b) {
+        parent[a] = b;
+        weight += (e >>> 42l);
+        added++;
+      }
+    }
+    Assert.assertEquals((n - 1), added);
+    return weight;
+  }
+
+  /**
+   * Find the root of a node in a union-find forest
+   *
+   * @param parent
+   *          the parents
+   * @param node
+   *          the node
+   * @return the root
+   */
+  private static final int __find(final int[] parent, final int node) {
+    int root, next, cur;
+
+    root = node;
+    while (parent[root] != root) {
+      root = parent[root];
+    }
+    cur = node;
+    while (cur != root) {
+      next = parent[cur];
+      parent[cur] = root;
+      cur = next;
+    }
+    return root;
+  }
+
+  /**
+   * Check that the Delaunay graph is a Delaunay triangulation and that
+   * it contains a minimum spanning tree for each distance type which has
+   * a Delaunay graph
+   *
+   * @param coords
+   *          the coordinates, two per node
+   * @param intCoords
+   *          are the coordinates integers?
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final void __test(final double[] coords,
+      final boolean intCoords) throws IOException {
+    DistanceComputer dist;
+    DelaunayGraph graph;
+
+    DelaunayGraphTest.__assertDelaunay(coords, intCoords);
+    for (final String type : DelaunayGraphTest.TYPES) {
+      dist = SpatialIndexTest._load(type, 2, coords, intCoords);
+      graph = dist.getSpatialIndex().getDelaunayGraph();
+      Assert.assertNotNull(graph);
+      Assert.assertEquals(DelaunayGraphTest.__denseTree(dist),
+          DelaunayGraphTest.__delaunayTree(dist, graph));
+    }
+  }
+
+  /**
+   * Test random floating point coordinates
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public void testRandom() throws IOException {
+    final double[] coords;
+    int i;
+
+    coords = new double[600];
+    for (i = coords.length; (--i) >= 0;) {
+      coords[i] = (this.m_r.nextDouble() * 1000d);
+    }
+    DelaunayGraphTest.__test(this.__shuffle(coords, 30), false);
+  }
+
+  /**
+   * Test random integer coordinates on a coarse grid, where many nodes
+   * are collinear or co-circular or share their location
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public void testCoarseGrid() throws IOException {
+    final double[] coords;
+    int i;
+
+    coords = new double[600];
+    for (i = coords.length; (--i) >= 0;) {
+      coords[i] = this.m_r.nextInt(21);
+    }
+    DelaunayGraphTest.__test(this.__shuffle(coords, 0), true);
+  }
+
+  /**
+   * Test a square lattice, where each square has four co-circular corners
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public void testLattice() throws IOException {
+    final double[] coords;
+    int i, j, k;
+
+    coords = new double[2 * 15 * 15];
+    k = 0;
+    for (i = 0; i < 15; i++) {
+      for (j = 0; j < 15; j++) {
+        coords[k++] = (i * 7);
+        coords[k++] = (j * 7);
+      }
+    }
+    DelaunayGraphTest.__test(this.__shuffle(coords, 20), true);
+  }
+
+  /**
+   * Test nodes which are all on a line: the graph must be a path
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public void testCollinear() throws IOException {
+    final double[] coords;
+    int i;
+
+    coords = new double[2 * 60];
+    for (i = 0; i < 60; i++) {
+      coords[i << 1] = (3 * i);
+      coords[(i << 1) + 1] = ((2 * i) + 1);
+    }
+    DelaunayGraphTest.__test(this.__shuffle(coords, 10), true);
+  }
+
+  /**
+   * Test the integer points on a circle of radius 25 and its center
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public void testCocircular() throws IOException {
+    final double[] coords;
+    int i, j, k;
+
+    coords = new double[2 * 21];
+    k = 0;
+    for (i = (-25); i <= 25; i++) {
+      for (j = (-25); j <= 25; j++) {
+        if (((i * i) + (j * j)) == 625) {
+          coords[k++] = i;
+          coords[k++] = j;
+        }
+      }
+    }
+    Assert.assertEquals((coords.length - 2), k);
+    DelaunayGraphTest.__test(this.__shuffle(Arrays.copyOf(coords, k), 3),
+        true);
+    DelaunayGraphTest.__test(this.__shuffle(coords, 3), true);
+  }
+}
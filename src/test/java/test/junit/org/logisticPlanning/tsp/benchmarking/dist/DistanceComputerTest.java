@@ -4,6 +4,7 @@ import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
+import org.logisticPlanning.tsp.benchmarking.dist.RowCachedDistanceComputer;
 import org.logisticPlanning.tsp.solving.operators.permutation.creation.PermutationCreateCanonical;
 import org.logisticPlanning.utils.math.random.Randomizer;
 
@@ -89,6 +90,9 @@ public class DistanceComputerTest extends TestBase {
    */
   public static final String DISAGREE_EVAL = "Matrix-based and raw distance computer disagree about evaluation result."; //$NON-NLS-1$
 
+  /** the batch distance computation disagrees with the single distances */
+  public static final String WRONG_BATCH_DISTANCE = "Batch distance computation disagrees with single distance computation."; //$NON-NLS-1$
+
   /** the internally used randomizer */
   protected final Randomizer m_r;
 
@@ -297,6 +301,111 @@ public class DistanceComputerTest extends TestBase {
     }
   }
 
+  /**
+   * Check whether the batch distance methods
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer#distances(int, int[], int, int[])}
+   * and
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer#edgeDistances(int[], int, int[])}
+   * agree with
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer#distance(int, int)}
+   * .
+   */
+  @Test(timeout = 3600000)
+  public final void testDistanceComputerBatch() {
+    final int[] tour, edges, dest;
+    final int n;
+    int i, k, z, count;
+
+    n = this.getDistanceComputerMat().n();
+    tour = PermutationCreateCanonical.canonical(n);
+    edges = new int[n << 1];
+    dest = new int[n];
+
+    for (final DistanceComputer d : new DistanceComputer[] {
+        this.getDistanceComputerMat(), this.getDistanceComputerNoMat() }) {
+
+      for (z = Math.max(16, Math.min(//
+          DistanceComputerTest.getRequiredTests(n), ((1 << 24) / n))); (--z) >= 0;) {
+        synchronized (this.m_r) {
+          this.m_r.shuffle(tour, 0, tour.length);
+          i = (1 + this.m_r.nextInt(n));
+          count = this.m_r.nextInt(n + 1);
+        }
+
+        d.distances(i, tour, count, dest);
+        for (k = count; (--k) >= 0;) {
+          Assert.assertEquals(DistanceComputerTest.WRONG_BATCH_DISTANCE,
+              d.distance(i, tour[k]), dest[k]);
+        }
+
+        for (k = n; (--k) >= 0;) {
+          edges[k << 1] = tour[k];
+          edges[(k << 1) + 1] = tour[(k + 1) % n];
+        }
+        d.edgeDistances(edges, n, dest);
+        for (k = n; (--k) >= 0;) {
+          Assert.assertEquals(DistanceComputerTest.WRONG_BATCH_DISTANCE,
+              d.distance(tour[k], tour[(k + 1) % n]), dest[k]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Check whether a
+   * {@link org.logisticPlanning.tsp.benchmarking.dist.RowCachedDistanceComputer
+   * row cache} around the distance computer without matrix returns the
+   * same distances as the computer itself. The cache is made so small that
+   * rows are evicted, and both single and row-based queries are used.
+   */
+  @Test(timeout = 3600000)
+  public final void testRowCache() {
+    final DistanceComputer d;
+    final RowCachedDistanceComputer c;
+    final int[] tour, dest;
+    final int n;
+    int i, j, k, z, count;
+
+    d = this.getDistanceComputerNoMat();
+    n = d.n();
+    if (!(RowCachedDistanceComputer.wrap(d, Long.MAX_VALUE)//
+    instanceof RowCachedDistanceComputer)) {
+      return; // distance matrices are not cached
+    }
+    c = ((RowCachedDistanceComputer) (RowCachedDistanceComputer.wrap(d,
+        (((long) n) << 3l))));
+    Assert.assertEquals(2, c.getCapacity());
+
+    tour = PermutationCreateCanonical.canonical(n);
+    dest = new int[n];
+
+    for (z = Math.max(16, Math.min(//
+        DistanceComputerTest.getRequiredTests(n), ((1 << 24) / n))); (--z) >= 0;) {
+      synchronized (this.m_r) {
+        this.m_r.shuffle(tour, 0, tour.length);
+        i = (1 + this.m_r.nextInt(Math.min(n, 8)));
+        j = (1 + this.m_r.nextInt(n));
+        count = this.m_r.nextInt(n + 1);
+      }
+
+      Assert.assertEquals(DistanceComputerTest.RAW_WRONG_POINT_DISTANCE,
+          d.distance(i, j), c.distance(i, j));
+      Assert.assertEquals(DistanceComputerTest.RAW_WRONG_POINT_DISTANCE,
+          d.distance(j, i), c.distance(j, i));
+
+      c.distances(i, tour, count, dest);
+      for (k = count; (--k) >= 0;) {
+        Assert.assertEquals(DistanceComputerTest.WRONG_BATCH_DISTANCE,
+            d.distance(i, tour[k]), dest[k]);
+      }
+    }
+
+    Assert.assertTrue(c.getHits() > 0l);
+    Assert.assertTrue(c.getMisses() > 0l);
+    Assert.assertTrue(c.getEvictions() > 0l);
+    Assert.assertTrue((c.getHitRate() > 0d) && (c.getHitRate() < 1d));
+  }
+
   /**
    * get the number of required random tests
    *
@@ -0,0 +1,485 @@
+package test.junit.org.logisticPlanning.tsp.benchmarking.dist;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
+import org.logisticPlanning.tsp.benchmarking.dist.SpatialIndex;
+import org.logisticPlanning.tsp.benchmarking.dist.SpatialNodeSet;
+import org.logisticPlanning.utils.math.random.Randomizer;
+
+import test.junit.TestBase;
+
+/**
+ * Test that the queries of the
+ * {@link org.logisticPlanning.tsp.benchmarking.dist.SpatialIndex spatial
+ * index} and of the
+ * {@link org.logisticPlanning.tsp.benchmarking.dist.SpatialNodeSet spatial
+ * node set} return exactly the nodes that a full scan over all nodes
+ * finds, in the same order, for every distance type which can be indexed
+ * and for integer as well as floating point coordinates.
+ */
+public class SpatialIndexTest extends TestBase {
+
+  /** the two-dimensional distance types which can be indexed */
+  private static final String[] TYPES_2D = { "EUC_2D", //$NON-NLS-1$
+      "CEIL_2D", //$NON-NLS-1$
+      "ATT", //$NON-NLS-1$
+      "MAN_2D", //$NON-NLS-1$
+      "MAX_2D" }; //$NON-NLS-1$
+
+  /** the three-dimensional distance types which can be indexed */
+  private static final String[] TYPES_3D = { "EUC_3D", //$NON-NLS-1$
+      "MAN_3D", //$NON-NLS-1$
+      "MAX_3D" }; //$NON-NLS-1$
+
+  /**
+   * the largest coordinate spread for which integer Euclidean coordinates
+   * are indexed in two dimensions
+   */
+  private static final int MAX_SPREAD_2D = 32767;
+
+  /**
+   * the largest coordinate spread for which integer Euclidean coordinates
+   * are indexed in three dimensions
+   */
+  private static final int MAX_SPREAD_3D = 26754;
+
+  /** the number of nodes */
+  private static final int N = 150;
+
+  /** the numbers of neighbors to query */
+  private static final int[] K = { 1, 2, 7, (SpatialIndexTest.N - 1),
+      (SpatialIndexTest.N + 5) };
+
+  /** the randomizer */
+  private final Randomizer m_r;
+
+  /** create */
+  public SpatialIndexTest() {
+    super();
+    this.m_r = new Randomizer();
+  }
+
+  /**
+   * Load a distance computer for the given coordinates from a TSPLIB
+   * coordinate list, without transforming it into a matrix
+   *
+   * @param type
+   *          the edge weight type
+   * @param dim
+   *          the number of dimensions
+   * @param coords
+   *          the coordinates, {@code dim} values per node
+   * @param intHint
+   *          should the coordinates be stored as integers?
+   * @return the distance computer
+   * @throws IOException
+   *           if i/o fails
+   */
+  static final DistanceComputer _load(final String type,
+      final int dim, final double[] coords, final boolean intHint)
+      throws IOException {
+    final StringBuilder sb;
+    final int n;
+    int i, j;
+
+    n = (coords.length / dim);
+    sb = new StringBuilder();
+    sb.append("TYPE: TSP\nDIMENSION: "); //$NON-NLS-1$
+    sb.append(n);
+    sb.append("\nEDGE_WEIGHT_TYPE: "); //$NON-NLS-1$
+    sb.append(type);
+    sb.append("\nNODE_COORD_SECTION\n"); //$NON-NLS-1$
+    for (i = 0; i < n; i++) {
+      sb.append(i + 1);
+      for (j = 0; j < dim; j++) {
+        sb.append(' ');
+        if (intHint) {
+          sb.append((int) (coords[(i * dim) + j]));
+        } else {
+          sb.append(coords[(i * dim) + j]);
+        }
+      }
+      sb.append('\n');
+    }
+    sb.append("EOF\n"); //$NON-NLS-1$
+
+    return DistanceComputer.read(new StringReader(sb.toString()), 0,
+        intHint, true);
+  }
+
+  /**
+   * Create random coordinates: The coordinates are drawn from a coarse
+   * grid, so that many distances are equal, and some nodes are put at the
+   * same location as an earlier node.
+   *
+   * @param dim
+   *          the number of dimensions
+   * @param spread
+   *          the range of the coordinates
+   * @param intCoords
+   *          should the coordinates be integers?
+   * @return the coordinates
+   */
+  private final double[] __coords(final int dim, final int spread,
+      final boolean intCoords) {
+    final double[] coords;
+    int i, j, src;
+
+    coords = new double[SpatialIndexTest.N * dim];
+    for (i = 0; i < SpatialIndexTest.N; i++) {
+      if ((i > 0) && (this.m_r.nextInt(10) <= 0)) {
+        src = this.m_r.nextInt(i);
+        System.arraycopy(coords, (src * dim), coords, (i * dim), dim);
+        continue;
+      }
+      for (j = 0; j < dim; j++) {
+        if (intCoords) {
+          coords[(i * dim) + j] = this.m_r.nextInt(spread + 1);
+        } else {
+          coords[(i * dim) + j] = (this.m_r.nextInt((spread * 10) + 1) / 10d);
+        }
+      }
+    }
+
+    // make sure that the full range is used
+    for (j = 0; j < dim; j++) {
+      coords[j] = 0d;
+      coords[dim + j] = spread;
+    }
+    return coords;
+  }
+
+  /**
+   * Is a node in the given quadrant around another node?
+   *
+   * @param coords
+   *          the coordinates
+   * @param dim
+   *          the number of dimensions
+   * @param node
+   *          the node
+   * @param other
+   *          the other node
+   * @param quadrant
+   *          the quadrant, or {@code -1} for all nodes
+   * @return {@code true} if {@code other} is in the quadrant
+   */
+  private static final boolean __inQuadrant(final double[] coords,
+      final int dim, final int node, final int other, final int quadrant) {
+    final double dx, dy;
+
+    dx = (coords[(other - 1) * dim] - coords[(node - 1) * dim]);
+    dy = (coords[((other - 1) * dim) + 1] - coords[((node - 1) * dim) + 1]);
+    switch (quadrant) {
+      case 0: {
+        return ((dx > 0d) && (dy >= 0d));
+      }
+      case 1: {
+        return ((dx <= 0d) && (dy > 0d));
+      }
+      case 2: {
+        return ((dx < 0d) && (dy <= 0d));
+      }
+      case 3: {
+        return ((dx >= 0d) && (dy < 0d));
+      }
+      default: {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Find the nodes nearest to {@code node} by a full scan
+   *
+   * @param dist
+   *          the distance computer
+   * @param coords
+   *          the coordinates
+   * @param dim
+   *          the number of dimensions
+   * @param node
+   *          the node
+   * @param quadrant
+   *          the quadrant, or {@code -1} for all nodes
+   * @param set
+   *          the node set whose nodes are considered, or {@code null} for
+   *          all nodes
+   * @return the nodes sorted by distance and index, each as the distance
+   *         in the upper and the node in the lower 32 bits
+   */
+  private static final long[] __scan(final DistanceComputer dist,
+      final double[] coords, final int dim, final int node,
+      final int quadrant, final SpatialNodeSet set) {
+    final long[] all;
+    final int n;
+    int i, count;
+
+    n = dist.n();
+    all = new long[n];
+    count = 0;
+    for (i = 1; i <= n; i++) {
+      if ((i != node) && ((set == null) || set.contains(i))
+          && SpatialIndexTest.__inQuadrant(coords, dim, node, i, quadrant)) {
+        all[count++] = ((((long) (dist.distance(node, i))) << 32l) | i);
+      }
+    }
+    Arrays.sort(all, 0, count);
+    return Arrays.copyOf(all, count);
+  }
+
+  /**
+   * Check that the result of a nearest-neighbor query equals the first
+   * {@code k} nodes of a full scan
+   *
+   * @param expected
+   *          the result of the full scan
+   * @param k
+   *          the number of nodes queried
+   * @param count
+   *          the number of nodes returned
+   * @param nodes
+   *          the nodes returned
+   * @param dists
+   *          the distances returned
+   */
+  private static final void __assertNearest(final long[] expected,
+      final int k, final int count, final int[] nodes, final int[] dists) {
+    int i;
+
+    Assert.assertEquals(Math.min(k, expected.length), count);
+    for (i = count; (--i) >= 0;) {
+      Assert.assertEquals(((int) (expected[i])), nodes[i]);
+      Assert.assertEquals(((int) (expected[i] >>> 32l)), dists[i]);
+    }
+  }
+
+  /**
+   * Compare all queries of the spatial index of a distance computer
+   * against full scans
+   *
+   * @param dist
+   *          the distance computer
+   * @param coords
+   *          the coordinates
+   * @param dim
+   *          the number of dimensions
+   */
+  private final void __assertQueries(final DistanceComputer dist,
+      final double[] coords, final int dim) {
+    final SpatialIndex index;
+    final SpatialNodeSet set;
+    final int n;
+    final int[] nodes, dists, found;
+    long[] expected;
+    int node, k, q, count, radius, i;
+
+    index = dist.getSpatialIndex();
+    Assert.assertNotNull(index);
+    n = dist.n();
+    Assert.assertEquals(n, index.n());
+    Assert.assertEquals(dim, index.dimensions());
+    nodes = new int[n + 10];
+    dists = new int[n + 10];
+    found = new int[n];
+
+    for (node = 1; node <= n; node++) {
+      expected = SpatialIndexTest.__scan(dist, coords, dim, node, (-1),
+          null);
+
+      for (final int kk : SpatialIndexTest.K) {
+        SpatialIndexTest.__assertNearest(expected, kk,
+            index.nearest(dist, node, kk, nodes, dists), nodes, dists);
+      }
+
+      // the radius of the k-th nearest node includes all nodes tied
+      // with it
+      for (k = 0; k < expected.length; k += 13) {
+        radius = ((int) (expected[k] >>> 32l));
+        i = k;
+        while ((i < expected.length)
+            && (((int) (expected[i] >>> 32l)) <= radius)) {
+          i++;
+        }
+        count = index.withinRadius(dist, node, radius, found);
+        Assert.assertEquals(i, count);
+        Arrays.sort(found, 0, count);
+        for (i = count; (--i) >= 0;) {
+          Assert.assertTrue(Arrays.binarySearch(found, 0, count,
+              ((int) (expected[i]))) >= 0);
+        }
+      }
+      Assert.assertEquals(0, index.withinRadius(dist, node, (-1), found));
+
+      for (q = 0; q < 4; q++) {
+        expected = SpatialIndexTest.__scan(dist, coords, dim, node, q,
+            null);
+        for (final int kk : SpatialIndexTest.K) {
+          SpatialIndexTest.__assertNearest(expected, kk, index
+              .nearestInQuadrant(dist, node, q, kk, nodes, dists), nodes,
+              dists);
+        }
+      }
+    }
+
+    // delete the nodes in random order, as a nearest-neighbor heuristic
+    // would, and check the nearest nodes not yet deleted
+    set = new SpatialNodeSet(index);
+    Assert.assertEquals(n, set.size());
+    node = (1 + this.m_r.nextInt(n));
+    while (set.size() > 0) {
+      Assert.assertTrue(set.delete(node));
+      Assert.assertFalse(set.delete(node));
+      Assert.assertFalse(set.contains(node));
+      expected = SpatialIndexTest.__scan(dist, coords, dim, node, (-1),
+          set);
+      SpatialIndexTest.__assertNearest(expected, 3,
+          set.nearest(dist, node, 3, nodes, dists), nodes, dists);
+      k = set.nearest(dist, node);
+      if (expected.length <= 0) {
+        Assert.assertEquals((-1), k);
+        break;
+      }
+      Assert.assertEquals(((int) (expected[0])), k);
+      // jump to a random node now and then instead of the nearest one
+      if (this.m_r.nextInt(5) <= 0) {
+        do {
+          k = (1 + this.m_r.nextInt(n));
+        } while (!(set.contains(k)));
+      }
+      node = k;
+    }
+    Assert.assertEquals(0, set.size());
+
+    set.reset();
+    Assert.assertEquals(n, set.size());
+    for (node = 1; node <= n; node++) {
+      Assert.assertTrue(set.contains(node));
+    }
+  }
+
+  /**
+   * Test the queries of one distance type
+   *
+   * @param type
+   *          the edge weight type
+   * @param dim
+   *          the number of dimensions
+   * @param intCoords
+   *          should the coordinates be integers?
+   * @throws IOException
+   *           if i/o fails
+   */
+  private final void __test(final String type, final int dim,
+      final boolean intCoords) throws IOException {
+    double[] coords;
+
+    // many ties and duplicate locations
+    coords = this.__coords(dim, 30, intCoords);
+    this.__assertQueries(
+        SpatialIndexTest._load(type, dim, coords, intCoords), coords, dim);
+
+    // the largest spread which is indexed for integer coordinates
+    coords = this.__coords(dim, ((dim > 2) ? SpatialIndexTest.MAX_SPREAD_3D
+        : SpatialIndexTest.MAX_SPREAD_2D), intCoords);
+    this.__assertQueries(
+        SpatialIndexTest._load(type, dim, coords, intCoords), coords, dim);
+  }
+
+  /**
+   * Test the index for all two-dimensional distance types with integer
+   * coordinates
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public void testInt2D() throws IOException {
+    for (final String type : SpatialIndexTest.TYPES_2D) {
+      this.__test(type, 2, true);
+    }
+  }
+
+  /**
+   * Test the index for all two-dimensional distance types with floating
+   * point coordinates
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public void testDouble2D() throws IOException {
+    for (final String type : SpatialIndexTest.TYPES_2D) {
+      this.__test(type, 2, false);
+    }
+  }
+
+  /**
+   * Test the index for all three-dimensional distance types with integer
+   * coordinates
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public void testInt3D() throws IOException {
+    for (final String type : SpatialIndexTest.TYPES_3D) {
+      this.__test(type, 3, true);
+    }
+  }
+
+  /**
+   * Test the index for all three-dimensional distance types with floating
+   * point coordinates
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public void testDouble3D() throws IOException {
+    for (final String type : SpatialIndexTest.TYPES_3D) {
+      this.__test(type, 3, false);
+    }
+  }
+
+  /**
+   * Test that no index is built for integer coordinates whose squared
+   * Euclidean distances may overflow, while Manhattan and maximum
+   * distances as well as floating point coordinates are always indexed
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public void testIntOverflowCutoff() throws IOException {
+    double[] coords;
+    int dim, spread;
+
+    for (dim = 2; dim <= 3; dim++) {
+      spread = ((dim > 2) ? SpatialIndexTest.MAX_SPREAD_3D
+          : SpatialIndexTest.MAX_SPREAD_2D);
+      for (final String type : ((dim > 2) ? SpatialIndexTest.TYPES_3D
+          : SpatialIndexTest.TYPES_2D)) {
+        coords = this.__coords(dim, spread, true);
+        Assert.assertNotNull(SpatialIndexTest._load(type, dim, coords,
+            true).getSpatialIndex());
+
+        coords = this.__coords(dim, (spread + 1), true);
+        if (type.startsWith("MAN") || type.startsWith("MAX")) { //$NON-NLS-1$//$NON-NLS-2$
+          Assert.assertNotNull(SpatialIndexTest._load(type, dim, coords,
+              true).getSpatialIndex());
+        } else {
+          Assert.assertNull(SpatialIndexTest._load(type, dim, coords,
+              true).getSpatialIndex());
+        }
+        Assert.assertNotNull(SpatialIndexTest._load(type, dim, coords,
+            false).getSpatialIndex());
+      }
+    }
+  }
+}
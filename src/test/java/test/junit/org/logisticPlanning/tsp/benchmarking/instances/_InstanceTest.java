@@ -1,14 +1,18 @@
 package test.junit.org.logisticPlanning.tsp.benchmarking.instances;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
 
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
 import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.instances.InstanceCache;
 import org.logisticPlanning.tsp.solving.operators.permutation.creation.PermutationCreateCanonical;
 import org.logisticPlanning.tsp.solving.operators.permutation.update.PermutationUpdateOperator;
 import org.logisticPlanning.tsp.solving.operators.permutation.update.PermutationUpdateOperators;
@@ -34,6 +38,21 @@ public class _InstanceTest extends DistanceComputerTest {
   /** the instance has a wrong canonical tour length */
   public static final String WRONG_CANONICAL_TOUR_LENGTH = "Length of canonical tour shorter than optimum."; //$NON-NLS-1$
 
+  /** the memory-mapped distance matrix computes wrong point distance */
+  public static final String MAPPED_WRONG_POINT_DISTANCE = "Memory-mapped distance matrix has wrong point-distance."; //$NON-NLS-1$
+
+  /**
+   * the distance computer loaded from a binary instance computes wrong
+   * point distance
+   */
+  public static final String BINARY_WRONG_POINT_DISTANCE = "Distance computer loaded from binary instance has wrong point-distance."; //$NON-NLS-1$
+
+  /**
+   * the largest instance for which we test memory-mapped matrices, binary
+   * instances, and the instance cache
+   */
+  private static final int MAX_CACHE_TEST_DIM = 4096;
+
   /** the internal instance */
   final Instance m_i;
 
@@ -265,6 +284,294 @@ public class _InstanceTest extends DistanceComputerTest {
   private static final PermutationUpdateOperator[] OPERATORS = //
   PermutationUpdateOperators.OPERATORS_AND_COMPLEMENT;
 
+  /**
+   * Test whether a distance matrix mapped to a file returns the same
+   * distances as the original distance computer, both when the file is
+   * created and when an existing file is mapped again, and whether a
+   * matrix file reused when loading the instance still provides the
+   * spatial index of the coordinates.
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public final void testMappedMatrix() throws Throwable {
+    final DistanceComputer d1, d2, d3, d4;
+    final File f;
+    final int n;
+    int i, j;
+
+    n = this.m_i.n();
+    if ((!(this.m_i.symmetric())) || (n > _InstanceTest.MAX_CACHE_TEST_DIM)) {
+      return;
+    }
+
+    d1 = this.getDistanceComputerNoMat();
+    f = File.createTempFile(this.m_i.name(),
+        DistanceComputer.MATRIX_FILE_SUFFIX);
+    try {
+      Assert.assertTrue(f.delete());
+      d2 = DistanceComputer.mapToFile(d1, f);
+      Assert.assertTrue(f.isFile());
+      d3 = DistanceComputer.mapToFile(d1, f);
+      try (InputStream is = Instance.class.getResourceAsStream(//
+          this.m_i.name() + ".tsp")) { //$NON-NLS-1$
+        d4 = DistanceComputer.read(is, Long.MAX_VALUE, this.m_i.intHint(),
+            true, f);
+      }
+      Assert.assertEquals(DistanceComputerTest.MATRIX_WRONG_DIMENSION, n,
+          d2.n());
+      Assert.assertEquals(DistanceComputerTest.MATRIX_WRONG_DIMENSION, n,
+          d3.n());
+      Assert.assertEquals(DistanceComputerTest.MATRIX_WRONG_DIMENSION, n,
+          d4.n());
+      if (d1.getSpatialIndex() != null) {
+        // the coordinates are attached to the reused matrix file
+        Assert.assertSame(d2.getClass(), d4.getClass());
+        Assert.assertNotNull(d4.getSpatialIndex());
+      }
+
+      for (i = n; i > 0; i--) {
+        for (j = n; j > 0; j--) {
+          Assert.assertEquals(_InstanceTest.MAPPED_WRONG_POINT_DISTANCE,
+              d1.distance(i, j), d2.distance(i, j));
+          Assert.assertEquals(_InstanceTest.MAPPED_WRONG_POINT_DISTANCE,
+              d1.distance(i, j), d3.distance(i, j));
+          Assert.assertEquals(_InstanceTest.MAPPED_WRONG_POINT_DISTANCE,
+              d1.distance(i, j), d4.distance(i, j));
+        }
+      }
+    } finally {
+      f.delete();
+    }
+  }
+
+  /**
+   * Test whether loading an instance writes its binary representation to
+   * the cache directory and whether the distance computers loaded from
+   * text and from the binary file agree.
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public final void testBinaryInstance() throws Throwable {
+    final DistanceComputer d1, d2, d3;
+    final File dir, f;
+    final int n;
+    int i, j;
+
+    n = this.m_i.n();
+    if (n > _InstanceTest.MAX_CACHE_TEST_DIM) {
+      return;
+    }
+
+    d1 = this.getDistanceComputerNoMat();
+    dir = File.createTempFile(this.m_i.name(), "cache"); //$NON-NLS-1$
+    Assert.assertTrue(dir.delete());
+    f = new File(dir, this.m_i.name() + DistanceComputer.BINARY_FILE_SUFFIX);
+    try {
+      d2 = this.m_i.load(0l, dir);
+      Assert.assertTrue(f.isFile());
+      d3 = this.m_i.load(0l, dir);
+      Assert.assertNotNull(DistanceComputer.readBinary(f));
+      Assert.assertEquals(DistanceComputerTest.RAW_WRONG_DIMENSION, n,
+          d2.n());
+      Assert.assertEquals(DistanceComputerTest.RAW_WRONG_DIMENSION, n,
+          d3.n());
+      Assert.assertSame(d1.getClass(), d3.getClass());
+
+      for (i = n; i > 0; i--) {
+        for (j = n; j > 0; j--) {
+          Assert.assertEquals(_InstanceTest.BINARY_WRONG_POINT_DISTANCE,
+              d1.distance(i, j), d2.distance(i, j));
+          Assert.assertEquals(_InstanceTest.BINARY_WRONG_POINT_DISTANCE,
+              d1.distance(i, j), d3.distance(i, j));
+        }
+      }
+    } finally {
+      f.delete();
+      dir.delete();
+    }
+  }
+
+  /**
+   * Test whether the instance cache shares distance computers of the same
+   * instance and type and whether its statistics are correct.
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public final void testInstanceCache() throws Throwable {
+    final InstanceCache cache;
+    final DistanceComputer d1, d2, d3, d4;
+
+    if (this.m_i.n() > _InstanceTest.MAX_CACHE_TEST_DIM) {
+      return;
+    }
+
+    cache = new InstanceCache(Long.MAX_VALUE);
+    d1 = cache.acquire(this.m_i, 0l, null);
+    d2 = cache.acquire(this.m_i, 0l, null);
+    Assert.assertSame(d1, d2);
+    Assert.assertEquals(1l, cache.getMisses());
+    Assert.assertEquals(1l, cache.getHits());
+    Assert.assertEquals(DistanceComputer.heapBytes(d1), cache.getBytes());
+
+    d3 = cache.acquire(this.m_i, Long.MAX_VALUE, null);
+    Assert.assertEquals(2l, cache.getMisses());
+    Assert.assertEquals(this.m_i.n(), d3.n());
+
+    cache.release(d1);
+    cache.release(d2);
+    cache.release(d3);
+    Assert.assertEquals(0l, cache.getEvictions());
+
+    cache.clear();
+    Assert.assertEquals(2l, cache.getEvictions());
+    Assert.assertEquals(0l, cache.getBytes());
+
+    d4 = cache.acquire(this.m_i, 0l, null);
+    Assert.assertEquals(3l, cache.getMisses());
+    cache.release(d4);
+  }
+
+  /**
+   * Check whether the instance uses geographical coordinates
+   *
+   * @return {@code true} if the instance uses geographical coordinates,
+   *         {@code false} otherwise
+   * @throws Throwable
+   *           if reading the instance fails
+   */
+  private final boolean __isGeo() throws Throwable {
+    String s;
+    int i;
+
+    if (!(this.m_i.symmetric())) {
+      return false;
+    }
+
+    try (InputStream is = Instance.class.getResourceAsStream(//
+        this.m_i.name() + ".tsp")) { //$NON-NLS-1$
+      try (InputStreamReader isr = new InputStreamReader(is)) {
+        try (BufferedReader br = new BufferedReader(isr)) {
+          while ((s = br.readLine()) != null) {
+            s = s.trim();
+            if (s.startsWith("NODE_COORD_SECTION")) { //$NON-NLS-1$
+              return false;
+            }
+            if (s.startsWith("EDGE_WEIGHT_TYPE")) { //$NON-NLS-1$
+              i = s.indexOf(':');
+              return ((i > 0) && "GEO".equals(s.substring(i + 1).trim())); //$NON-NLS-1$
+            }
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Create the reference distance computer for an instance with
+   * geographical coordinates: an instance of the original class
+   * {@code _2DGeoDistanceDouble}, which computes each distance with the
+   * TSPLIB formula, loaded with the coordinates parsed from the instance
+   * file. The class is internal to the distance package, so it is
+   * instantiated via reflection.
+   *
+   * @return the reference distance computer
+   * @throws Throwable
+   *           if creating or loading the reference fails
+   */
+  private final DistanceComputer __geoReference() throws Throwable {
+    final Constructor<?> create;
+    final DistanceComputer ref;
+    Class<?> clazz;
+    Method load;
+
+    clazz = Class.forName(DistanceComputer.class.getPackage().getName()
+        + "._2DGeoDistanceDouble"); //$NON-NLS-1$
+    create = clazz.getDeclaredConstructor(int.class);
+    create.setAccessible(true);
+    ref = ((DistanceComputer) (create.newInstance(Integer
+        .valueOf(this.m_i.n()))));
+
+    load = null;
+    for (; (load == null) && (clazz != null); clazz = clazz.getSuperclass()) {
+      try {
+        load = clazz.getDeclaredMethod("load", BufferedReader.class); //$NON-NLS-1$
+      } catch (final NoSuchMethodException nsme) {
+        load = null;
+      }
+    }
+    Assert.assertNotNull(load);
+    load.setAccessible(true);
+
+    try (InputStream is = Instance.class.getResourceAsStream(//
+        this.m_i.name() + ".tsp")) { //$NON-NLS-1$
+      try (InputStreamReader isr = new InputStreamReader(is)) {
+        try (BufferedReader br = new BufferedReader(isr)) {
+          load.invoke(ref, br);
+        }
+      }
+    }
+    return ref;
+  }
+
+  /**
+   * Test whether the distance computers of instances with geographical
+   * coordinates, which pre-compute the trigonometric functions, return
+   * exactly the same distances as the original formula.
+   *
+   * @throws Throwable
+   *           if loading fails
+   */
+  @Test(timeout = 3600000)
+  public final void testGeoDistances() throws Throwable {
+    final DistanceComputer d1, d2, ref;
+    final int n;
+    final int[] nodes, row, adj;
+    int i, j;
+
+    if (!(this.__isGeo())) {
+      return;
+    }
+
+    n = this.m_i.n();
+    d1 = this.getDistanceComputerNoMat();
+    d2 = this.getDistanceComputerMat();
+
+    ref = this.__geoReference();
+    Assert.assertEquals(n, ref.n());
+    Assert.assertNotSame(ref.getClass(), d1.getClass());
+
+    nodes = new int[n];
+    for (i = n; i > 0; i--) {
+      nodes[i - 1] = i;
+    }
+    row = new int[n];
+
+    for (i = n; i > 0; i--) {
+      d1.distances(i, nodes, n, row);
+      for (j = n; j > 0; j--) {
+        Assert.assertEquals(DistanceComputerTest.RAW_WRONG_POINT_DISTANCE,
+            ref.distance(i, j), d1.distance(i, j));
+        Assert.assertEquals(
+            DistanceComputerTest.MATRIX_WRONG_POINT_DISTANCE,
+            ref.distance(i, j), d2.distance(i, j));
+        Assert.assertEquals(DistanceComputerTest.WRONG_BATCH_DISTANCE,
+            ref.distance(i, j), row[j - 1]);
+      }
+    }
+
+    adj = new int[n];
+    RepresentationUtils.pathToAdjacencyList(nodes, adj);
+    Assert.assertEquals(ref.evaluate(nodes), d1.evaluate(nodes));
+    Assert.assertEquals(ref.evaluateAdj(adj), d1.evaluateAdj(adj));
+  }
+
   /**
    * Try to randomly construct quite a few tours and to find whether one of
    * them is shorter than the globally optimal tour. If so, then there must
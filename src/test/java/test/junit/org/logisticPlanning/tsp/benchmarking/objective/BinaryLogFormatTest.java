@@ -0,0 +1,262 @@
+package test.junit.org.logisticPlanning.tsp.benchmarking.objective;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.objective.Benchmark;
+import org.logisticPlanning.tsp.benchmarking.objective.BinaryLogFormat;
+import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
+import org.logisticPlanning.tsp.benchmarking.objective._ConvertLogs;
+import org.logisticPlanning.tsp.evaluation.data.ExperimentSet;
+import org.logisticPlanning.tsp.evaluation.data.Run;
+import org.logisticPlanning.tsp.evaluation.data.RunSet;
+import org.logisticPlanning.tsp.evaluation.data.sources.FileDataSource;
+import org.logisticPlanning.utils.config.Configuration;
+
+import test.junit.TempDir;
+import test.junit.TestBase;
+
+/**
+ * Test that the
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.BinaryLogFormat
+ * binary log format} stores the same data as the text format.
+ */
+public class BinaryLogFormatTest extends TestBase {
+
+  /** the number of runs to perform */
+  private static final int RUNS = 3;
+
+  /** create */
+  public BinaryLogFormatTest() {
+    super();
+  }
+
+  /**
+   * Perform some runs whose logs are written into the given directory
+   *
+   * @param dir
+   *          the directory
+   * @param binary
+   *          should the logs be binary?
+   */
+  private static final void __run(final File dir, final boolean binary) {
+    final Configuration config;
+    final Benchmark bm;
+    ObjectiveFunction f;
+    int i;
+
+    config = new Configuration();
+    config.putString(Benchmark.PARAM_DEST_DIR, dir.getAbsolutePath());
+    config.putString(Benchmark.PARAM_BINARY_LOG, String.valueOf(binary));
+    config.putString(Benchmark.PARAM_MAX_FES, "1000"); //$NON-NLS-1$
+
+    bm = new Benchmark(Instance.BURMA14);
+    bm.configure(config);
+    try {
+      for (i = BinaryLogFormatTest.RUNS; (--i) >= 0;) {
+        f = bm.createObjective();
+        f.beginRun(new LogRecoveryTest._RandomSampling());
+        try {
+          new LogRecoveryTest._RandomSampling().solve(f);
+        } finally {
+          f.endRun();
+        }
+      }
+    } finally {
+      bm.dispose();
+    }
+  }
+
+  /**
+   * Get the log files written by {@link #__run(File, boolean)}
+   *
+   * @param dir
+   *          the directory
+   * @return the log files
+   */
+  private static final File[] __files(final File dir) {
+    final File[] files;
+
+    files = new File(new File(dir, Benchmark.SYMMETRIC),
+        Instance.BURMA14.name()).listFiles();
+    Assert.assertNotNull(files);
+    Assert.assertEquals(BinaryLogFormatTest.RUNS, files.length);
+    return files;
+  }
+
+  /**
+   * Copy the log files of one directory into another one
+   *
+   * @param src
+   *          the source directory
+   * @param dest
+   *          the destination directory
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final void __copy(final File src, final File dest)
+      throws IOException {
+    final File target;
+
+    target = new File(new File(dest, Benchmark.SYMMETRIC),
+        Instance.BURMA14.name());
+    Assert.assertTrue(target.mkdirs());
+    for (final File f : BinaryLogFormatTest.__files(src)) {
+      Files.copy(f.toPath(), new File(target, f.getName()).toPath());
+    }
+  }
+
+  /**
+   * Convert all log files in a directory
+   *
+   * @param dir
+   *          the directory
+   * @param binary
+   *          {@code true} to convert text to binary files, {@code false}
+   *          for the other direction
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  private static final void __convert(final File dir, final boolean binary)
+      throws Throwable {
+    _ConvertLogs.main(new String[] { dir.getAbsolutePath(),
+        (binary ? "binary" : "text") }); //$NON-NLS-1$//$NON-NLS-2$
+    for (final File f : BinaryLogFormatTest.__files(dir)) {
+      Assert.assertEquals(Boolean.valueOf(binary),
+          Boolean.valueOf(BinaryLogFormat.isBinary(f)));
+    }
+  }
+
+  /**
+   * Load the runs stored in a directory via a {@link FileDataSource}
+   *
+   * @param dir
+   *          the directory
+   * @return the runs
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final RunSet __load(final File dir) throws IOException {
+    final Configuration config;
+    final FileDataSource source;
+    final ExperimentSet set;
+    final RunSet runs;
+
+    config = new Configuration();
+    config.putString(FileDataSource.PARAM_SOURCE, dir.getAbsolutePath());
+    source = new FileDataSource();
+    source.configure(config);
+    set = source.loadData();
+
+    Assert.assertNotNull(set);
+    Assert.assertEquals(1, set.size());
+    Assert.assertEquals(1, set.get(0).size());
+    runs = set.get(0).get(0);
+    Assert.assertEquals(BinaryLogFormatTest.RUNS, runs.size());
+    return runs;
+  }
+
+  /**
+   * Check that the runs stored in two directories have the same names and
+   * data points
+   *
+   * @param a
+   *          the first directory
+   * @param b
+   *          the second directory
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final void __assertSameRuns(final File a, final File b)
+      throws IOException {
+    final RunSet x, y;
+    Run u, v;
+    int i, j;
+
+    x = BinaryLogFormatTest.__load(a);
+    y = BinaryLogFormatTest.__load(b);
+    for (i = x.size(); (--i) >= 0;) {
+      u = x.get(i);
+      v = y.get(i);
+      Assert.assertEquals(u.name(), v.name());
+      Assert.assertEquals(u.size(), v.size());
+      for (j = u.size(); (--j) >= 0;) {
+        Assert.assertEquals(u.get(j), v.get(j));
+        Assert.assertEquals(u.get(j).getConsumedCPUTime(), v.get(j)
+            .getConsumedCPUTime());
+        Assert.assertEquals(u.get(j).getConsumedNormalizedRuntime(), v
+            .get(j).getConsumedNormalizedRuntime(), 0d);
+        Assert.assertEquals(u.get(j).getRelBestF(), v.get(j)
+            .getRelBestF(), 0d);
+      }
+    }
+  }
+
+  /**
+   * Test that runs written in the text format and converted to the binary
+   * format yield the same data points when loaded
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testTextAndBinaryDataPoints() throws Throwable {
+    try (TempDir text = new TempDir(); TempDir binary = new TempDir()) {
+      BinaryLogFormatTest.__run(text.getDir(), false);
+      BinaryLogFormatTest.__copy(text.getDir(), binary.getDir());
+      BinaryLogFormatTest.__convert(binary.getDir(), true);
+      BinaryLogFormatTest.__assertSameRuns(text.getDir(), binary.getDir());
+    }
+  }
+
+  /**
+   * Test that runs written in the binary format and converted to the text
+   * format yield the same data points when loaded
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testBinaryAndTextDataPoints() throws Throwable {
+    try (TempDir binary = new TempDir(); TempDir text = new TempDir()) {
+      BinaryLogFormatTest.__run(binary.getDir(), true);
+      BinaryLogFormatTest.__copy(binary.getDir(), text.getDir());
+      BinaryLogFormatTest.__convert(text.getDir(), false);
+      BinaryLogFormatTest.__assertSameRuns(binary.getDir(), text.getDir());
+    }
+  }
+
+  /**
+   * Test that converting text log files to the binary format and back
+   * restores them byte by byte
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testTextBinaryTextRoundTrip() throws Throwable {
+    final File[] original;
+    File converted;
+    int i;
+
+    try (TempDir text = new TempDir(); TempDir copy = new TempDir()) {
+      BinaryLogFormatTest.__run(text.getDir(), false);
+      BinaryLogFormatTest.__copy(text.getDir(), copy.getDir());
+      BinaryLogFormatTest.__convert(copy.getDir(), true);
+      BinaryLogFormatTest.__convert(copy.getDir(), false);
+
+      original = BinaryLogFormatTest.__files(text.getDir());
+      for (i = original.length; (--i) >= 0;) {
+        converted = new File(new File(new File(copy.getDir(),
+            Benchmark.SYMMETRIC), Instance.BURMA14.name()),
+            original[i].getName());
+        Assert.assertArrayEquals(Files.readAllBytes(original[i].toPath()),
+            Files.readAllBytes(converted.toPath()));
+      }
+    }
+  }
+}
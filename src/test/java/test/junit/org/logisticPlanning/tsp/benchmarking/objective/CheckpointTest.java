@@ -0,0 +1,366 @@
+package test.junit.org.logisticPlanning.tsp.benchmarking.objective;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.objective.Benchmark;
+import org.logisticPlanning.tsp.benchmarking.objective.BinaryLogFormat;
+import org.logisticPlanning.tsp.benchmarking.objective.DataPoint;
+import org.logisticPlanning.tsp.benchmarking.objective.LogPoint;
+import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
+import org.logisticPlanning.tsp.solving.operators.permutation.creation.PermutationCreateUniform;
+import org.logisticPlanning.utils.config.Configuration;
+
+import test.junit.TempDir;
+import test.junit.TestBase;
+
+/**
+ * Test that a run which has stored its state in a checkpoint can be
+ * resumed by a fresh objective function after its process has died.
+ */
+public class CheckpointTest extends TestBase {
+
+  /** the number of runs per benchmark */
+  private static final int RUNS = 2;
+
+  /** the number of FEs performed before the checkpoint */
+  private static final int BEFORE = 300;
+
+  /** the number of FEs performed after resuming the run */
+  private static final int AFTER = 200;
+
+  /** the time to wait before the checkpoint is made */
+  private static final long WAIT = 50l;
+
+  /** the state of the algorithm */
+  private static final int STATE = 0x1234567;
+
+  /** the algorithm */
+  private static final LogRecoveryTest._RandomSampling ALGORITHM = //
+  new LogRecoveryTest._RandomSampling();
+
+  /** create */
+  public CheckpointTest() {
+    super();
+  }
+
+  /**
+   * Create a benchmark which makes checkpoints and writes its logs into
+   * the given directory
+   *
+   * @param dir
+   *          the directory
+   * @return the benchmark
+   */
+  private static final Benchmark __benchmark(final File dir) {
+    final Configuration config;
+    final Benchmark bm;
+
+    config = new Configuration();
+    config.putString(Benchmark.PARAM_DEST_DIR, dir.getAbsolutePath());
+    config.putString(Benchmark.PARAM_BINARY_LOG, "true"); //$NON-NLS-1$
+    config.putString(Benchmark.PARAM_CHECKPOINT_INTERVAL, "1"); //$NON-NLS-1$
+    config.putString(Benchmark.PARAM_MAX_FES, "100000"); //$NON-NLS-1$
+    config.putString(Benchmark.PARAM_MAX_RUNS,
+        String.valueOf(CheckpointTest.RUNS));
+
+    bm = new Benchmark(Instance.BURMA14);
+    bm.configure(config);
+    return bm;
+  }
+
+  /**
+   * Get the directory of the log files of a benchmark
+   *
+   * @param dir
+   *          the result directory
+   * @return the directory of the log files
+   */
+  private static final File __logDir(final File dir) {
+    return new File(new File(dir, Benchmark.SYMMETRIC),
+        Instance.BURMA14.name());
+  }
+
+  /**
+   * Evaluate some random tours
+   *
+   * @param f
+   *          the objective function
+   * @param count
+   *          the number of tours to evaluate
+   */
+  private static final void __evaluate(final ObjectiveFunction f,
+      final int count) {
+    int i;
+
+    for (i = count; (--i) >= 0;) {
+      f.evaluate(PermutationCreateUniform.create(f.n(), f.getRandom()));
+    }
+  }
+
+  /**
+   * Perform a run, make a checkpoint, and copy the log and checkpoint file
+   * of the ongoing run into another directory, as if the process
+   * performing the run had died right after the checkpoint. The run is
+   * then completed normally.
+   *
+   * @param src
+   *          the directory to perform the run in
+   * @param dest
+   *          the directory to copy the interrupted run to
+   * @param best
+   *          receives the best tour at the time of the checkpoint
+   * @return the consumed FEs and DEs, lower bounds for the consumed
+   *         runtime and CPU time, and the best objective value at the time
+   *         of the checkpoint, followed by the first random number drawn
+   *         after it
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  private static final long[] __interrupt(final File src, final File dest,
+      final int[] best) throws Throwable {
+    final Benchmark bm;
+    final ObjectiveFunction f;
+    final ObjectOutputStream out;
+    final LogPoint p;
+    final long[] state;
+    final File target;
+    final File[] files;
+    long runtime, cpuTime;
+
+    bm = CheckpointTest.__benchmark(src);
+    try {
+      f = bm.createObjective();
+      f.beginRun(CheckpointTest.ALGORITHM);
+      try {
+        CheckpointTest.__evaluate(f, CheckpointTest.BEFORE);
+        Thread.sleep(CheckpointTest.WAIT);
+        while (!(f.shouldCheckpoint())) {
+          Thread.sleep(1l);
+        }
+        // the times are measured before the checkpoint stores them
+        p = f.getCurrentLogPoint();
+        runtime = p.getConsumedRuntime();
+        cpuTime = p.getConsumedCPUTime();
+        out = f.beginCheckpoint(CheckpointTest.ALGORITHM);
+        out.writeInt(CheckpointTest.STATE);
+        f.endCheckpoint();
+
+        f.getCopyOfBest(best);
+        state = new long[] { p.getConsumedFEs(), p.getConsumedDEs(),
+            runtime, cpuTime, p.getBestF(), f.getRandom().nextLong() };
+
+        target = CheckpointTest.__logDir(dest);
+        Assert.assertTrue(target.mkdirs());
+        files = CheckpointTest.__logDir(src).listFiles();
+        Assert.assertNotNull(files);
+        Assert.assertEquals(2, files.length);
+        for (final File file : files) {
+          Files.copy(file.toPath(), new File(target, file.getName())
+              .toPath());
+        }
+
+        CheckpointTest.__evaluate(f, CheckpointTest.AFTER);
+      } finally {
+        f.endRun();
+      }
+    } finally {
+      bm.dispose();
+    }
+    return state;
+  }
+
+  /**
+   * Test that a run is resumed from its checkpoint in a fresh objective
+   * function with the same FE, DE, and time offsets and the same best
+   * tour
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testResume() throws Throwable {
+    final Benchmark bm;
+    final ObjectiveFunction f;
+    final ObjectInputStream in;
+    final int[] best, restored;
+    final long[] state;
+    final ArrayList<DataPoint> points;
+    final File[] files;
+    LogPoint p;
+
+    try (TempDir src = new TempDir(); TempDir dest = new TempDir()) {
+      best = new int[Instance.BURMA14.n()];
+      state = CheckpointTest.__interrupt(src.getDir(), dest.getDir(), best);
+      Assert.assertEquals(CheckpointTest.BEFORE, state[0]);
+      Assert.assertTrue(state[2] >= CheckpointTest.WAIT);
+
+      bm = CheckpointTest.__benchmark(dest.getDir());
+      try {
+        // the orphaned checkpoint counts as remaining run
+        Assert.assertEquals(CheckpointTest.RUNS, bm.remainingRunCount());
+
+        f = bm.createObjective();
+        f.beginRun(CheckpointTest.ALGORITHM);
+        try {
+          in = f.resumeCheckpoint(CheckpointTest.ALGORITHM);
+          Assert.assertNotNull(in);
+          Assert.assertEquals(CheckpointTest.STATE, in.readInt());
+
+          p = f.getCurrentLogPoint();
+          Assert.assertEquals(state[0], p.getConsumedFEs());
+          Assert.assertEquals(state[1], p.getConsumedDEs());
+          // the time consumed before the interruption is carried over
+          Assert.assertTrue(p.getConsumedRuntime() >= state[2]);
+          Assert.assertTrue(p.getConsumedCPUTime() >= state[3]);
+          Assert.assertEquals(state[4], p.getBestF());
+          Assert.assertEquals(state[5], f.getRandom().nextLong());
+
+          restored = new int[best.length];
+          f.getCopyOfBest(restored);
+          Assert.assertArrayEquals(best, restored);
+
+          CheckpointTest.__evaluate(f, CheckpointTest.AFTER);
+          p = f.getCurrentLogPoint();
+          Assert.assertEquals((state[0] + CheckpointTest.AFTER),
+              p.getConsumedFEs());
+          Assert.assertEquals(
+              (state[1] + (CheckpointTest.AFTER * best.length)),
+              p.getConsumedDEs());
+          Assert.assertTrue(p.getBestF() <= state[4]);
+        } finally {
+          f.endRun();
+        }
+        Assert.assertEquals((CheckpointTest.RUNS - 1),
+            bm.remainingRunCount());
+      } finally {
+        bm.dispose();
+      }
+
+      // the checkpoint has been deleted and the log continues the run
+      files = CheckpointTest.__logDir(dest.getDir()).listFiles();
+      Assert.assertNotNull(files);
+      Assert.assertEquals(1, files.length);
+      points = CheckpointTest.__load(files[0]);
+      Assert.assertFalse(points.isEmpty());
+      p = points.get(points.size() - 1);
+      Assert.assertEquals((state[0] + CheckpointTest.AFTER),
+          p.getConsumedFEs());
+      Assert.assertTrue(p.getConsumedRuntime() >= state[2]);
+      Assert.assertTrue(p.getConsumedCPUTime() >= state[3]);
+      for (final DataPoint q : points) {
+        if (q.getConsumedFEs() <= state[0]) {
+          Assert.assertTrue(q.getConsumedRuntime() <= state[2]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Test that a checkpoint whose checksum does not fit to its data, e.g.,
+   * because the process died while writing it, is discarded and the run
+   * is performed from scratch
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testTornCheckpoint() throws Throwable {
+    final Benchmark bm;
+    final ObjectiveFunction f;
+    final File[] files;
+    File checkpoint;
+    LogPoint p;
+    long fes;
+
+    try (TempDir src = new TempDir(); TempDir dest = new TempDir()) {
+      CheckpointTest.__interrupt(src.getDir(), dest.getDir(),
+          new int[Instance.BURMA14.n()]);
+
+      checkpoint = null;
+      for (final File file : CheckpointTest.__logDir(dest.getDir())
+          .listFiles()) {
+        if (!(file.getName().endsWith(BinaryLogFormat.SUFFIX))) {
+          checkpoint = file;
+        }
+      }
+      Assert.assertNotNull(checkpoint);
+      CheckpointTest.__flip(checkpoint, (checkpoint.length() >>> 1));
+
+      bm = CheckpointTest.__benchmark(dest.getDir());
+      try {
+        f = bm.createObjective();
+        f.beginRun(CheckpointTest.ALGORITHM);
+        try {
+          Assert.assertNull(f.resumeCheckpoint(CheckpointTest.ALGORITHM));
+          p = f.getCurrentLogPoint();
+          Assert.assertEquals(0l, p.getConsumedFEs());
+          Assert.assertEquals(0l, p.getConsumedDEs());
+
+          CheckpointTest.__evaluate(f, CheckpointTest.AFTER);
+        } finally {
+          f.endRun();
+        }
+      } finally {
+        bm.dispose();
+      }
+
+      files = CheckpointTest.__logDir(dest.getDir()).listFiles();
+      Assert.assertNotNull(files);
+      Assert.assertEquals(1, files.length);
+      fes = 0l;
+      for (final DataPoint q : CheckpointTest.__load(files[0])) {
+        fes = q.getConsumedFEs();
+      }
+      Assert.assertEquals(CheckpointTest.AFTER, fes);
+    }
+  }
+
+  /**
+   * Load the log points of a binary log file
+   *
+   * @param file
+   *          the file
+   * @return the log points
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final ArrayList<DataPoint> __load(final File file)
+      throws IOException {
+    final ArrayList<DataPoint> points;
+
+    points = new ArrayList<>();
+    BinaryLogFormat.loadPoints(file, points);
+    return points;
+  }
+
+  /**
+   * Flip the bits of one byte of a file
+   *
+   * @param file
+   *          the file
+   * @param pos
+   *          the position of the byte
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final void __flip(final File file, final long pos)
+      throws IOException {
+    final int b;
+
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+      raf.seek(pos);
+      b = raf.read();
+      raf.seek(pos);
+      raf.write(b ^ 0xff);
+    }
+  }
+}
@@ -0,0 +1,501 @@
+package test.junit.org.logisticPlanning.tsp.benchmarking.objective;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.objective.Benchmark;
+import org.logisticPlanning.tsp.benchmarking.objective.BinaryLogFormat;
+import org.logisticPlanning.tsp.benchmarking.objective.DataPoint;
+import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
+import org.logisticPlanning.tsp.evaluation.data.ExperimentSet;
+import org.logisticPlanning.tsp.evaluation.data.sources.FileDataSource;
+import org.logisticPlanning.tsp.solving.TSPAlgorithm;
+import org.logisticPlanning.tsp.solving.operators.permutation.creation.PermutationCreateUniform;
+import org.logisticPlanning.utils.config.Configuration;
+import org.logisticPlanning.utils.math.random.Randomizer;
+
+import test.junit.TempDir;
+import test.junit.TestBase;
+
+/**
+ * Test that the log files of runs which have been interrupted while their
+ * logs were streamed are completed and marked as interrupted or deleted
+ * when the benchmark is restarted, and that the
+ * {@link org.logisticPlanning.tsp.evaluation.data.sources.FileDataSource
+ * evaluator} can skip the completed logs.
+ */
+public class LogRecoveryTest extends TestBase {
+
+  /** the number of runs to perform */
+  private static final int RUNS = 4;
+
+  /** create */
+  public LogRecoveryTest() {
+    super();
+  }
+
+  /**
+   * Create a benchmark which streams its logs into the given directory
+   *
+   * @param dir
+   *          the directory
+   * @param binary
+   *          should the logs be binary?
+   * @param discard
+   *          should the logs of interrupted runs be deleted?
+   * @return the benchmark
+   */
+  private static final Benchmark __benchmark(final File dir,
+      final boolean binary, final boolean discard) {
+    final Configuration config;
+    final Benchmark bm;
+
+    config = new Configuration();
+    config.putString(Benchmark.PARAM_DEST_DIR, dir.getAbsolutePath());
+    config.putString(Benchmark.PARAM_STREAM_LOG, "true"); //$NON-NLS-1$
+    config.putString(Benchmark.PARAM_BINARY_LOG, String.valueOf(binary));
+    config.putString(Benchmark.PARAM_DISCARD_INTERRUPTED,
+        String.valueOf(discard));
+    config.putString(Benchmark.PARAM_MAX_FES, "100"); //$NON-NLS-1$
+    config.putString(Benchmark.PARAM_MAX_RUNS,
+        String.valueOf(LogRecoveryTest.RUNS));
+
+    bm = new Benchmark(Instance.BURMA14);
+    bm.configure(config);
+    return bm;
+  }
+
+  /**
+   * Perform a single run
+   *
+   * @param dir
+   *          the directory
+   * @param binary
+   *          should the log be binary?
+   * @return the log files in the directory of the instance
+   */
+  private static final File[] __perform(final File dir,
+      final boolean binary) {
+    final Benchmark bm;
+    final ObjectiveFunction f;
+    final File[] files;
+
+    bm = LogRecoveryTest.__benchmark(dir, binary, false);
+    try {
+      f = bm.createObjective();
+      f.beginRun(new _RandomSampling());
+      try {
+        new _RandomSampling().solve(f);
+      } finally {
+        f.endRun();
+      }
+    } finally {
+      bm.dispose();
+    }
+
+    files = new File(new File(dir, Benchmark.SYMMETRIC),
+        Instance.BURMA14.name()).listFiles();
+    Assert.assertNotNull(files);
+    return files;
+  }
+
+  /**
+   * Perform a single run and return its log file
+   *
+   * @param dir
+   *          the directory
+   * @param binary
+   *          should the log be binary?
+   * @return the log file
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final File __run(final File dir, final boolean binary)
+      throws IOException {
+    final File[] files;
+
+    files = LogRecoveryTest.__perform(dir, binary);
+    Assert.assertEquals(1, files.length);
+    Assert.assertFalse(FileDataSource.isInterrupted(files[0]));
+    return files[0];
+  }
+
+  /**
+   * Replace a log file with a prefix of its original contents, as if the
+   * process writing it had crashed, and restart the benchmark
+   *
+   * @param dir
+   *          the directory
+   * @param binary
+   *          are the logs binary?
+   * @param file
+   *          the log file
+   * @param data
+   *          the original contents of the log file
+   * @param length
+   *          the length of the prefix to keep
+   * @param discard
+   *          should the log of the interrupted run be deleted?
+   * @return the number of runs remaining after the restart
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final int __crash(final File dir, final boolean binary,
+      final File file, final byte[] data, final int length,
+      final boolean discard) throws IOException {
+    final Benchmark bm;
+
+    try (FileOutputStream fos = new FileOutputStream(file)) {
+      fos.write(data, 0, length);
+    }
+
+    bm = LogRecoveryTest.__benchmark(dir, binary, discard);
+    try {
+      return bm.remainingRunCount();
+    } finally {
+      bm.dispose();
+    }
+  }
+
+  /**
+   * Get the log point lines of a text log file
+   *
+   * @param data
+   *          the contents of the log file
+   * @return the log point lines
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final ArrayList<String> __points(final byte[] data)
+      throws IOException {
+    final ArrayList<String> list;
+
+    list = new ArrayList<>();
+    for (final String line : new String(data, "UTF-8").split("\\r?\\n")) { //$NON-NLS-1$//$NON-NLS-2$
+      if ((line.length() > 0) && Character.isDigit(line.charAt(0))) {
+        list.add(line);
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Check whether a completed log file ends with the end of a section
+   *
+   * @param data
+   *          the contents of the log file
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final void __assertClosed(final byte[] data)
+      throws IOException {
+    Assert.assertTrue(new String(data, "UTF-8").trim().endsWith(//$NON-NLS-1$
+        ObjectiveFunction.SECTION_END));
+  }
+
+  /**
+   * Get the index of the first byte of the text sections of a binary log
+   * file
+   *
+   * @param file
+   *          the binary log file
+   * @return the index of the first byte after the log data
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final int __textStart(final File file) throws IOException {
+    int remaining;
+
+    remaining = 0;
+    try (InputStream in = BinaryLogFormat.openText(file)) {
+      while (in.read() >= 0) {
+        remaining++;
+      }
+    }
+    return ((int) (file.length() - remaining));
+  }
+
+  /**
+   * Test that a text log whose last log point line has been cut off is
+   * completed with the log point before it
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testTruncatedTextLine() throws Throwable {
+    final File file;
+    final byte[] data, recovered;
+    final ArrayList<String> before, after;
+    final String last, end;
+    final int cut;
+    int i;
+
+    try (TempDir dir = new TempDir()) {
+      file = LogRecoveryTest.__run(dir.getDir(), false);
+      data = Files.readAllBytes(file.toPath());
+      before = LogRecoveryTest.__points(data);
+      Assert.assertTrue(before.size() > 1);
+
+      last = before.get(before.size() - 1);
+      cut = (new String(data, "UTF-8").lastIndexOf(last) + 3); //$NON-NLS-1$
+      Assert.assertEquals((LogRecoveryTest.RUNS - 1),
+          LogRecoveryTest.__crash(dir.getDir(), false, file, data, cut,
+              false));
+
+      Assert.assertTrue(file.exists());
+      recovered = Files.readAllBytes(file.toPath());
+      LogRecoveryTest.__assertClosed(recovered);
+      Assert.assertTrue(FileDataSource.isInterrupted(file));
+      after = LogRecoveryTest.__points(recovered);
+      Assert.assertEquals((before.size() - 1), after.size());
+      for (i = (after.size() - 1); (--i) >= 0;) {
+        Assert.assertEquals(before.get(i), after.get(i));
+      }
+
+      end = after.get(after.size() - 1);
+      Assert.assertTrue(end.startsWith(before.get(after.size() - 1)));
+      Assert.assertEquals(ObjectiveFunction.TYPE_FLAG_END_CHAR,
+          end.charAt(end.length() - 1));
+    }
+  }
+
+  /**
+   * Test that a binary log whose last log point has been cut off in the
+   * middle of a varint is completed with the log point before it
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testTruncatedBinaryVarint() throws Throwable {
+    final File file;
+    final byte[] data;
+    final ArrayList<DataPoint> before;
+    ArrayList<DataPoint> after;
+    DataPoint a, b;
+    int end, cut, i;
+
+    try (TempDir dir = new TempDir()) {
+      file = LogRecoveryTest.__run(dir.getDir(), true);
+      data = Files.readAllBytes(file.toPath());
+      before = new ArrayList<>();
+      BinaryLogFormat.loadPoints(file, before);
+      Assert.assertTrue(before.size() > 1);
+      end = (LogRecoveryTest.__textStart(file) - 1);
+
+      // each log point consists of a type byte and five varints, so
+      // cutting off up to five bytes always hits the last log point
+      for (cut = (end - 5); cut < end; cut++) {
+        Assert.assertEquals((LogRecoveryTest.RUNS - 1),
+            LogRecoveryTest.__crash(dir.getDir(), true, file, data, cut,
+                false));
+
+        Assert.assertTrue(file.exists());
+        LogRecoveryTest.__assertClosed(Files.readAllBytes(file.toPath()));
+        Assert.assertTrue(FileDataSource.isInterrupted(file));
+        after = new ArrayList<>();
+        BinaryLogFormat.loadPoints(file, after);
+        Assert.assertEquals((before.size() - 1), after.size());
+        for (i = (after.size() - 1); (--i) >= 0;) {
+          Assert.assertEquals(before.get(i), after.get(i));
+        }
+
+        a = before.get(after.size() - 1);
+        b = after.get(after.size() - 1);
+        Assert.assertEquals(a.getConsumedFEs(), b.getConsumedFEs());
+        Assert.assertEquals(a.getConsumedDEs(), b.getConsumedDEs());
+        Assert.assertEquals(a.getConsumedRuntime(), b.getConsumedRuntime());
+        Assert.assertEquals(a.getBestF(), b.getBestF());
+        Assert.assertEquals(a.logReasonFE(), b.logReasonFE());
+        Assert.assertTrue(b.logReasonEnd());
+      }
+    }
+  }
+
+  /**
+   * Test that text and binary logs which do not contain a single complete
+   * log point are deleted
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testNoCompletePoint() throws Throwable {
+    final File text, binary;
+    final String first;
+    byte[] data;
+    int cut;
+
+    try (TempDir dir = new TempDir()) {
+      text = LogRecoveryTest.__run(dir.getDir(), false);
+      data = Files.readAllBytes(text.toPath());
+      first = LogRecoveryTest.__points(data).get(0);
+      cut = (new String(data, "UTF-8").indexOf(first) + 3); //$NON-NLS-1$
+      Assert.assertEquals(LogRecoveryTest.RUNS,
+          LogRecoveryTest.__crash(dir.getDir(), false, text, data, cut,
+              false));
+      Assert.assertFalse(text.exists());
+    }
+
+    try (TempDir dir = new TempDir()) {
+      binary = LogRecoveryTest.__run(dir.getDir(), true);
+      data = Files.readAllBytes(binary.toPath());
+      cut = 16;
+      Assert.assertEquals(LogRecoveryTest.RUNS,
+          LogRecoveryTest.__crash(dir.getDir(), true, binary, data, cut,
+              false));
+      Assert.assertFalse(binary.exists());
+    }
+  }
+
+  /**
+   * Perform a run, cut off its last log point, and restart the benchmark
+   *
+   * @param dir
+   *          the directory
+   * @param binary
+   *          should the log be binary?
+   * @param discard
+   *          should the log of the interrupted run be deleted?
+   * @return the log file of the interrupted run
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final File __interrupt(final File dir,
+      final boolean binary, final boolean discard) throws IOException {
+    final File file;
+    final byte[] data;
+    final ArrayList<String> points;
+    final int cut;
+
+    file = LogRecoveryTest.__run(dir, binary);
+    data = Files.readAllBytes(file.toPath());
+    if (binary) {
+      cut = (LogRecoveryTest.__textStart(file) - 2);
+    } else {
+      points = LogRecoveryTest.__points(data);
+      cut = (new String(data, "UTF-8").lastIndexOf(//$NON-NLS-1$
+          points.get(points.size() - 1)) + 3);
+    }
+    Assert.assertEquals((discard ? LogRecoveryTest.RUNS
+        : (LogRecoveryTest.RUNS - 1)), LogRecoveryTest.__crash(dir, binary,
+        file, data, cut, discard));
+    return file;
+  }
+
+  /**
+   * Count the runs which a
+   * {@link org.logisticPlanning.tsp.evaluation.data.sources.FileDataSource}
+   * loads from a directory
+   *
+   * @param dir
+   *          the directory
+   * @param skip
+   *          should the logs of interrupted runs be skipped?
+   * @return the number of runs
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final int __load(final File dir, final boolean skip)
+      throws IOException {
+    final Configuration config;
+    final FileDataSource source;
+    final ExperimentSet set;
+
+    config = new Configuration();
+    config.putString(FileDataSource.PARAM_SOURCE, dir.getAbsolutePath());
+    config.putString(FileDataSource.PARAM_SKIP_INTERRUPTED,
+        String.valueOf(skip));
+    source = new FileDataSource();
+    source.configure(config);
+    set = source.loadData();
+
+    Assert.assertNotNull(set);
+    Assert.assertEquals(1, set.size());
+    Assert.assertEquals(1, set.get(0).size());
+    return set.get(0).get(0).size();
+  }
+
+  /**
+   * Test that the text and binary logs of interrupted runs are deleted
+   * instead of completed if
+   * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#PARAM_DISCARD_INTERRUPTED}
+   * is set, so that the runs are performed again
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testDiscardInterrupted() throws Throwable {
+    for (final boolean binary : new boolean[] { false, true }) {
+      try (TempDir dir = new TempDir()) {
+        Assert.assertFalse(LogRecoveryTest.__interrupt(dir.getDir(),
+            binary, true).exists());
+      }
+    }
+  }
+
+  /**
+   * Test that the
+   * {@link org.logisticPlanning.tsp.evaluation.data.sources.FileDataSource}
+   * skips the completed text and binary logs of interrupted runs by
+   * default and loads them if asked to
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testSkipInterrupted() throws Throwable {
+    File[] files;
+    int interrupted;
+
+    for (final boolean binary : new boolean[] { false, true }) {
+      try (TempDir dir = new TempDir()) {
+        Assert.assertTrue(LogRecoveryTest.__interrupt(dir.getDir(), binary,
+            false).exists());
+        files = LogRecoveryTest.__perform(dir.getDir(), binary);
+        Assert.assertEquals(2, files.length);
+        interrupted = 0;
+        for (final File f : files) {
+          if (FileDataSource.isInterrupted(f)) {
+            interrupted++;
+          }
+        }
+        Assert.assertEquals(1, interrupted);
+
+        Assert.assertEquals(1, LogRecoveryTest.__load(dir.getDir(), true));
+        Assert.assertEquals(2, LogRecoveryTest.__load(dir.getDir(), false));
+      }
+    }
+  }
+
+  /** An algorithm which samples random tours until it is terminated. */
+  public static final class _RandomSampling extends TSPAlgorithm {
+    /** the serial version uid */
+    private static final long serialVersionUID = 1L;
+
+    /** create */
+    public _RandomSampling() {
+      super("Random Sampling"); //$NON-NLS-1$
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void solve(final ObjectiveFunction f) {
+      final Randomizer r;
+
+      r = new Randomizer();
+      while (!(f.shouldTerminate())) {
+        f.evaluate(PermutationCreateUniform.create(f.n(), r));
+      }
+    }
+  }
+}
@@ -0,0 +1,283 @@
+package test.junit.org.logisticPlanning.tsp.benchmarking.objective;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.objective.Benchmark;
+import org.logisticPlanning.tsp.benchmarking.objective.BinaryLogFormat;
+import org.logisticPlanning.tsp.benchmarking.objective.DataPoint;
+import org.logisticPlanning.tsp.benchmarking.objective.LogPoint;
+import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
+import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveWorker;
+import org.logisticPlanning.tsp.solving.operators.permutation.creation.PermutationCreateUniform;
+import org.logisticPlanning.utils.config.Configuration;
+import org.logisticPlanning.utils.math.random.Randomizer;
+
+import test.junit.TempDir;
+import test.junit.TestBase;
+
+/**
+ * Test that several threads can share one run through
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.ObjectiveWorker
+ * objective workers} without losing FEs or DEs and without taking a log
+ * point more than once.
+ */
+public class ObjectiveWorkerTest extends TestBase {
+
+  /** the number of worker threads */
+  private static final int THREADS = 8;
+
+  /** the number of tours evaluated by each thread */
+  private static final int FES = 20000;
+
+  /** the number of single distance evaluations of each thread */
+  private static final int DES = 4321;
+
+  /** the maximum FEs */
+  private static final long MAX_FES = 1000000000l;
+
+  /** the maximum DEs */
+  private static final long MAX_DES = 1000000000000l;
+
+  /** create */
+  public ObjectiveWorkerTest() {
+    super();
+  }
+
+  /**
+   * Check that the FE or DE log points of a run are each taken exactly
+   * once: Between two consecutive log points caused by the FEs (or DEs),
+   * at least one threshold must have been passed, and no threshold below
+   * the final count must have been missed.
+   *
+   * @param points
+   *          the log points of the run
+   * @param thresholds
+   *          the thresholds, from the largest to the smallest
+   * @param total
+   *          the final FE or DE count
+   * @param fes
+   *          {@code true} to check the FE log points, {@code false} for
+   *          the DE log points
+   */
+  private static final void __assertExactlyOnce(
+      final ArrayList<DataPoint> points, final long[] thresholds,
+      final long total, final boolean fes) {
+    long last, value, reached;
+    int i;
+
+    last = 0l;
+    for (final DataPoint p : points) {
+      if (!(fes ? p.logReasonFE() : p.logReasonDE())) {
+        continue;
+      }
+      value = (fes ? p.getConsumedFEs() : p.getConsumedDEs());
+      for (i = thresholds.length; (--i) >= 0;) {
+        if (thresholds[i] > last) {
+          break;
+        }
+      }
+      Assert.assertTrue(i >= 0);
+      Assert.assertTrue(thresholds[i] <= value);
+      last = value;
+    }
+
+    reached = 0l;
+    for (final long t : thresholds) {
+      if (t <= total) {
+        reached = t;
+        break;
+      }
+    }
+    Assert.assertTrue(last >= reached);
+  }
+
+  /**
+   * Test that {@value #THREADS} threads evaluating tours and distances
+   * through their own workers are counted exactly and that each log point
+   * is taken exactly once
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testConcurrentCounting() throws Throwable {
+    final Configuration config;
+    final Benchmark bm;
+    final ObjectiveFunction f;
+    final Thread[] threads;
+    final long[] best;
+    final AtomicReference<Throwable> error;
+    final File[] files;
+    final ArrayList<DataPoint> points;
+    final int n;
+    final long fes, des;
+    LogPoint p;
+    DataPoint q, prev;
+    long min;
+    int i;
+
+    n = Instance.BURMA14.n();
+    fes = (((long) (ObjectiveWorkerTest.THREADS)) * ObjectiveWorkerTest.FES);
+    des = (((long) (ObjectiveWorkerTest.THREADS)) * //
+    ((ObjectiveWorkerTest.FES * ((long) n)) + ObjectiveWorkerTest.DES));
+
+    try (TempDir dir = new TempDir()) {
+      config = new Configuration();
+      config.putString(Benchmark.PARAM_DEST_DIR, dir.getDir()
+          .getAbsolutePath());
+      config.putString(Benchmark.PARAM_BINARY_LOG, "true"); //$NON-NLS-1$
+      config.putString(Benchmark.PARAM_MAX_FES,
+          String.valueOf(ObjectiveWorkerTest.MAX_FES));
+      config.putString(Benchmark.PARAM_MAX_DES,
+          String.valueOf(ObjectiveWorkerTest.MAX_DES));
+      bm = new Benchmark(Instance.BURMA14);
+      bm.configure(config);
+
+      try {
+        f = bm.createObjective();
+        f.beginRun(new LogRecoveryTest._RandomSampling());
+        try {
+          error = new AtomicReference<>();
+          best = new long[ObjectiveWorkerTest.THREADS];
+          threads = new Thread[ObjectiveWorkerTest.THREADS];
+          for (i = threads.length; (--i) >= 0;) {
+            threads[i] = new _Worker(f.createWorker(), best, i, error);
+          }
+          for (final Thread t : threads) {
+            t.start();
+          }
+          for (final Thread t : threads) {
+            t.join();
+          }
+          if (error.get() != null) {
+            throw error.get();
+          }
+
+          min = Long.MAX_VALUE;
+          for (final long b : best) {
+            min = Math.min(min, b);
+          }
+
+          p = f.getCurrentLogPoint();
+          Assert.assertEquals(fes, p.getConsumedFEs());
+          Assert.assertEquals(des, p.getConsumedDEs());
+          Assert.assertEquals(min, p.getBestF());
+          Assert.assertEquals(min, f.getLastImprovementLogPoint()
+              .getBestF());
+        } finally {
+          f.endRun();
+        }
+      } finally {
+        bm.dispose();
+      }
+
+      files = new File(new File(dir.getDir(), Benchmark.SYMMETRIC),
+          Instance.BURMA14.name()).listFiles();
+      Assert.assertNotNull(files);
+      Assert.assertEquals(1, files.length);
+      points = new ArrayList<>();
+      BinaryLogFormat.loadPoints(files[0], points);
+
+      // the log points are strictly ordered and the last one holds the
+      // final counters
+      prev = null;
+      for (i = 0; i < points.size(); i++) {
+        q = points.get(i);
+        if (prev != null) {
+          Assert.assertTrue(q.getConsumedFEs() >= prev.getConsumedFEs());
+          Assert.assertTrue(q.getConsumedDEs() >= prev.getConsumedDEs());
+          Assert.assertTrue(q.getBestF() <= prev.getBestF());
+          Assert.assertTrue((q.getConsumedFEs() > prev.getConsumedFEs())
+              || (q.getConsumedDEs() > prev.getConsumedDEs()));
+        }
+        prev = q;
+      }
+      Assert.assertNotNull(prev);
+      Assert.assertEquals(fes, prev.getConsumedFEs());
+      Assert.assertEquals(des, prev.getConsumedDEs());
+      Assert.assertTrue(prev.logReasonEnd());
+
+      ObjectiveWorkerTest.__assertExactlyOnce(points,
+          Benchmark.getLogFEsAndDEs(n, ObjectiveWorkerTest.MAX_DES,
+              ObjectiveWorkerTest.MAX_FES), fes, true);
+      ObjectiveWorkerTest.__assertExactlyOnce(points,
+          Benchmark.getLogFEsAndDEs(n, ObjectiveWorkerTest.MAX_DES,
+              ObjectiveWorkerTest.MAX_FES), des, false);
+    }
+  }
+
+  /** a thread evaluating random tours through its worker */
+  private static final class _Worker extends Thread {
+
+    /** the worker */
+    private final ObjectiveWorker m_worker;
+
+    /** the best tour lengths found by the threads */
+    private final long[] m_best;
+
+    /** the index of this thread */
+    private final int m_index;
+
+    /** the first error encountered by a thread */
+    private final AtomicReference<Throwable> m_error;
+
+    /**
+     * create
+     *
+     * @param worker
+     *          the worker
+     * @param best
+     *          the best tour lengths found by the threads
+     * @param index
+     *          the index of this thread
+     * @param error
+     *          the first error encountered by a thread
+     */
+    _Worker(final ObjectiveWorker worker, final long[] best,
+        final int index, final AtomicReference<Throwable> error) {
+      super();
+      this.m_worker = worker;
+      this.m_best = best;
+      this.m_index = index;
+      this.m_error = error;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void run() {
+      final ObjectiveWorker w;
+      final Randomizer r;
+      final int n;
+      long min;
+      int i;
+
+      w = this.m_worker;
+      r = w.getRandom();
+      n = w.n();
+      min = Long.MAX_VALUE;
+      try {
+        // interleave the single distance evaluations with the tours, so
+        // that the pending DEs are added both in batches and with FEs
+        for (i = 0; i < ObjectiveWorkerTest.FES; i++) {
+          min = Math.min(min, w.evaluate(PermutationCreateUniform.create(n,
+              r)));
+          if (i < ObjectiveWorkerTest.DES) {
+            w.distance((1 + r.nextInt(n)), (1 + r.nextInt(n)));
+          }
+        }
+        for (; i < ObjectiveWorkerTest.DES; i++) {
+          w.distance((1 + r.nextInt(n)), (1 + r.nextInt(n)));
+        }
+        w.flush();
+      } catch (final Throwable t) {
+        this.m_error.compareAndSet(null, t);
+      }
+      this.m_best[this.m_index] = min;
+    }
+  }
+}
@@ -0,0 +1,367 @@
+package test.junit.org.logisticPlanning.tsp.benchmarking.objective;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.objective.Benchmark;
+import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
+import org.logisticPlanning.tsp.solving.TSPAlgorithm;
+import org.logisticPlanning.tsp.solving.operators.permutation.creation.PermutationCreateCanonical;
+import org.logisticPlanning.utils.config.Configuration;
+
+import test.junit.TempDir;
+import test.junit.TestBase;
+
+/**
+ * Test that the deadlines of runs with a time limit are handled correctly
+ * if many short runs are performed in parallel: Each run must be
+ * terminated when its time limit is reached, but never before, and the
+ * deadline of a run which has ended must never terminate a later run. A
+ * run which exceeds its time limit must be counted as late termination.
+ */
+public class TerminationTest extends TestBase {
+
+  /** the number of runs per thread */
+  private static final int RUNS = 100;
+
+  /** the time limit in milliseconds, two ticks of the termination thread */
+  private static final long SHORT = 8l;
+
+  /** the time in milliseconds by which a late run exceeds its limit */
+  private static final long LATE = 50l;
+
+  /** create */
+  public TerminationTest() {
+    super();
+  }
+
+  /**
+   * Get the value of a key from a log file
+   *
+   * @param file
+   *          the log file
+   * @param key
+   *          the key
+   * @return the value
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final long __value(final File file, final String key)
+      throws IOException {
+    final String prefix;
+
+    prefix = (key + ':');
+    for (final String line : Files.readAllLines(file.toPath(),
+        Charset.forName("UTF-8"))) { //$NON-NLS-1$
+      if (line.startsWith(prefix)) {
+        return Long.parseLong(line.substring(prefix.length()).trim());
+      }
+    }
+    Assert.fail(key);
+    return (-1l);
+  }
+
+  /**
+   * Create a benchmark with the given time limit
+   *
+   * @param dir
+   *          the directory
+   * @param maxTime
+   *          the time limit
+   * @return the benchmark
+   */
+  private static final Benchmark __benchmark(final File dir,
+      final long maxTime) {
+    final Configuration config;
+    final Benchmark bm;
+
+    config = new Configuration();
+    config.putString(Benchmark.PARAM_DEST_DIR, dir.getAbsolutePath());
+    config.putString(Benchmark.PARAM_MAX_TIME, String.valueOf(maxTime));
+    config.putString(Benchmark.PARAM_MAX_FES,
+        String.valueOf(Long.MAX_VALUE));
+    config.putString(Benchmark.PARAM_MAX_DES,
+        String.valueOf(Long.MAX_VALUE));
+    config.putString(Benchmark.PARAM_MAX_RUNS, "100000"); //$NON-NLS-1$
+
+    bm = new Benchmark(Instance.BURMA14);
+    bm.configure(config);
+    return bm;
+  }
+
+  /**
+   * Run the given job in several threads in parallel
+   *
+   * @param job
+   *          the job
+   * @throws Throwable
+   *           the first error encountered by a thread
+   */
+  private static final void __parallel(final _Job job) throws Throwable {
+    final Thread[] threads;
+    final AtomicReference<Throwable> error;
+    int i;
+
+    error = new AtomicReference<>();
+    threads = new Thread[Math.max(4, //
+        (Runtime.getRuntime().availableProcessors() << 1))];
+    for (i = threads.length; (--i) >= 0;) {
+      threads[i] = new Thread() {
+        @Override
+        public final void run() {
+          try {
+            job._run();
+          } catch (final Throwable t) {
+            error.compareAndSet(null, t);
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (final Thread t : threads) {
+      t.join();
+    }
+    if (error.get() != null) {
+      throw error.get();
+    }
+  }
+
+  /**
+   * Test that many short runs performed in parallel are each terminated
+   * when their time limit is reached, not earlier, e.g., by the deadline
+   * of the previous run of the same objective function
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testManyShortRuns() throws Throwable {
+    final Benchmark bm;
+
+    try (final TempDir dir = new TempDir()) {
+      bm = TerminationTest.__benchmark(dir.getDir(), TerminationTest.SHORT);
+      try {
+        TerminationTest.__parallel(new _Job() {
+          @Override
+          public final void _run() {
+            final ObjectiveFunction f;
+            final int[] tour;
+            long start;
+            int i;
+
+            f = bm.createObjective();
+            tour = PermutationCreateCanonical.canonical(f.n());
+            for (i = TerminationTest.RUNS; (--i) >= 0;) {
+              start = System.currentTimeMillis();
+              f.beginRun(new _CanonicalTour());
+              try {
+                while (!(f.shouldTerminate())) {
+                  f.evaluate(tour);
+                }
+                Assert.assertTrue((System.currentTimeMillis() - start) >= //
+                TerminationTest.SHORT);
+              } finally {
+                f.endRun();
+              }
+            }
+          }
+        });
+      } finally {
+        bm.dispose();
+      }
+    }
+  }
+
+  /**
+   * Test that runs which end right while their deadline fires do not
+   * terminate the next run of the same objective function: Each run
+   * ignores the termination criterion and ends at about the moment its
+   * time limit is reached. A deadline which fires too late, i.e., after
+   * the run has ended, would terminate the next run before its time limit
+   * is reached.
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testEndWhileDeadlineFires() throws Throwable {
+    final Benchmark bm;
+
+    try (final TempDir dir = new TempDir()) {
+      bm = TerminationTest.__benchmark(dir.getDir(), TerminationTest.SHORT);
+      try {
+        TerminationTest.__parallel(new _Job() {
+          @Override
+          public final void _run() {
+            final ObjectiveFunction f;
+            final int[] tour;
+            long start, end, now;
+            boolean terminated;
+            int i;
+
+            f = bm.createObjective();
+            tour = PermutationCreateCanonical.canonical(f.n());
+            for (i = TerminationTest.RUNS; (--i) >= 0;) {
+              start = System.currentTimeMillis();
+              f.beginRun(new _CanonicalTour());
+              try {
+                // end the run at its deadline, give or take a millisecond
+                end = (start + TerminationTest.SHORT + (i % 3)) - 1l;
+                do {
+                  f.evaluate(tour);
+                  terminated = f.shouldTerminate();
+                  now = System.currentTimeMillis();
+                  if (terminated) {
+                    Assert.assertTrue((now - start) >= TerminationTest.SHORT);
+                  }
+                } while (now < end);
+              } finally {
+                f.endRun();
+              }
+            }
+          }
+        });
+      } finally {
+        bm.dispose();
+      }
+    }
+  }
+
+  /**
+   * Perform a run which ignores the termination criterion until it has
+   * exceeded its time limit by {@link #LATE} milliseconds
+   *
+   * @param bm
+   *          the benchmark
+   * @param dir
+   *          the directory of the log files
+   * @return the log file of the run
+   */
+  private static final File __late(final Benchmark bm, final File dir) {
+    final ObjectiveFunction f;
+    final int[] tour;
+    final long start;
+    File[] files;
+
+    files = dir.listFiles();
+    f = bm.createObjective();
+    tour = PermutationCreateCanonical.canonical(f.n());
+    f.beginRun(new _CanonicalTour());
+    start = System.nanoTime();
+    try {
+      do {
+        f.evaluate(tour);
+      } while ((System.nanoTime() - start) < //
+      ((TerminationTest.SHORT + TerminationTest.LATE) * 1000000l));
+      Assert.assertTrue(f.shouldTerminate());
+    } finally {
+      f.endRun();
+    }
+
+    for (final File file : dir.listFiles()) {
+      if ((files == null) || (!(Arrays.asList(files).contains(file)))) {
+        return file;
+      }
+    }
+    Assert.fail();
+    return null;
+  }
+
+  /**
+   * Test that runs which ignore the termination criterion and exceed their
+   * time limit are counted as late terminations and that their delay is
+   * written to their log files
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testLateTermination() throws Throwable {
+    final Benchmark bm;
+    final File logs, a, b;
+    final long delayA, delayB;
+
+    try (final TempDir dir = new TempDir()) {
+      bm = TerminationTest.__benchmark(dir.getDir(), TerminationTest.SHORT);
+      logs = new File(new File(dir.getDir(), Benchmark.SYMMETRIC),
+          Instance.BURMA14.name());
+      try {
+        a = TerminationTest.__late(bm, logs);
+        b = TerminationTest.__late(bm, logs);
+      } finally {
+        bm.dispose();
+      }
+
+      delayA = TerminationTest.__value(a,
+          ObjectiveFunction.TERMINATION_DELAY);
+      delayB = TerminationTest.__value(b,
+          ObjectiveFunction.TERMINATION_DELAY);
+      Assert.assertTrue(delayA >= TerminationTest.LATE);
+      Assert.assertTrue(delayB >= TerminationTest.LATE);
+
+      // the counters cover all runs in this JVM so far
+      Assert.assertTrue(TerminationTest.__value(a,
+          ObjectiveFunction.LATE_TERMINATIONS) >= 1l);
+      Assert.assertEquals((TerminationTest.__value(a,
+          ObjectiveFunction.LATE_TERMINATIONS) + 1l), TerminationTest
+          .__value(b, ObjectiveFunction.LATE_TERMINATIONS));
+      Assert.assertTrue(TerminationTest.__value(a,
+          ObjectiveFunction.TOTAL_TERMINATION_DELAY) >= delayA);
+      Assert.assertEquals((TerminationTest.__value(a,
+          ObjectiveFunction.TOTAL_TERMINATION_DELAY) + delayB),
+          TerminationTest.__value(b,
+              ObjectiveFunction.TOTAL_TERMINATION_DELAY));
+      Assert.assertTrue(TerminationTest.__value(a,
+          ObjectiveFunction.MAX_TERMINATION_DELAY) >= delayA);
+      Assert.assertTrue(TerminationTest.__value(b,
+          ObjectiveFunction.MAX_TERMINATION_DELAY) >= Math.max(delayA,
+          delayB));
+    }
+  }
+
+  /** An algorithm which evaluates the canonical tour until terminated. */
+  public static final class _CanonicalTour extends TSPAlgorithm {
+    /** the serial version uid */
+    private static final long serialVersionUID = 1L;
+
+    /** create */
+    public _CanonicalTour() {
+      super("Canonical Tour"); //$NON-NLS-1$
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void solve(final ObjectiveFunction f) {
+      final int[] tour;
+
+      tour = PermutationCreateCanonical.canonical(f.n());
+      while (!(f.shouldTerminate())) {
+        f.evaluate(tour);
+      }
+    }
+  }
+
+  /** a job to be run in several threads */
+  private static abstract class _Job {
+
+    /** create */
+    _Job() {
+      super();
+    }
+
+    /**
+     * run the job
+     *
+     * @throws Throwable
+     *           if something goes wrong
+     */
+    abstract void _run() throws Throwable;
+  }
+}
@@ -0,0 +1,267 @@
+package test.junit.org.logisticPlanning.tsp.solving;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.objective.Benchmark;
+import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
+import org.logisticPlanning.tsp.evaluation.data.sources.FileDataSource;
+import org.logisticPlanning.tsp.solving.TSPAlgorithm;
+import org.logisticPlanning.tsp.solving.TSPAlgorithmRunner;
+import org.logisticPlanning.tsp.solving.operators.permutation.creation.PermutationCreateUniform;
+import org.logisticPlanning.utils.collections.lists.ArrayListView;
+import org.logisticPlanning.utils.config.Configuration;
+import org.logisticPlanning.utils.math.random.Randomizer;
+
+import test.junit.TempDir;
+import test.junit.TestBase;
+
+/**
+ * Test that several processes sharing one result directory under
+ * {@link org.logisticPlanning.tsp.benchmarking.objective.Benchmark#PARAM_LEASE_TIMEOUT
+ * leases} perform each run exactly once, even if one of them is killed
+ * in the middle of its runs. The processes are separate JVMs running the
+ * {@link #main(String[]) main method} of this class.
+ */
+public class TSPAlgorithmRunnerLeaseTest extends TestBase {
+
+  /** the number of worker threads per process */
+  private static final int THREADS = 2;
+
+  /** the number of runs per instance */
+  private static final int RUNS = 4;
+
+  /** the lease timeout in milliseconds */
+  private static final long LEASE_TIMEOUT = 2000l;
+
+  /** the time in milliseconds a run of a surviving process takes */
+  private static final long SHORT = 50l;
+
+  /** the time in milliseconds a run of the killed process would take */
+  private static final long FOREVER = 3600000l;
+
+  /** the instances */
+  private static final Instance[] INSTANCES = { Instance.BURMA14,
+      Instance.ULYSSES16, Instance.GR17 };
+
+  /** the time in milliseconds each run of this process takes */
+  static final AtomicLong SLEEP = new AtomicLong();
+
+  /** create */
+  public TSPAlgorithmRunnerLeaseTest() {
+    super();
+  }
+
+  /**
+   * Perform the runs in a result directory as one of the processes of
+   * the test
+   *
+   * @param args
+   *          the result directory and the time in milliseconds each run
+   *          takes
+   */
+  public static final void main(final String[] args) {
+    final Configuration config;
+    final TSPAlgorithmRunner runner;
+
+    TSPAlgorithmRunnerLeaseTest.SLEEP.set(Long.parseLong(args[1]));
+
+    config = new Configuration();
+    config.putString(Benchmark.PARAM_DEST_DIR, args[0]);
+    config.putString(Benchmark.PARAM_MAX_RUNS,
+        String.valueOf(TSPAlgorithmRunnerLeaseTest.RUNS));
+    config.putString(Benchmark.PARAM_MAX_FES, "1000"); //$NON-NLS-1$
+    config.putString(Benchmark.PARAM_LIMIT_BYTES, "0"); //$NON-NLS-1$
+    config.putString(Benchmark.PARAM_STREAM_LOG, "true"); //$NON-NLS-1$
+    config.putString(Benchmark.PARAM_LEASE_TIMEOUT,
+        String.valueOf(TSPAlgorithmRunnerLeaseTest.LEASE_TIMEOUT));
+    config.putString(TSPAlgorithmRunner.PARAM_MAX_THREADS,
+        String.valueOf(TSPAlgorithmRunnerLeaseTest.THREADS));
+
+    runner = new TSPAlgorithmRunner(
+        ArrayListView.makeArrayListView(TSPAlgorithmRunnerLeaseTest.INSTANCES),
+        new _Sleeper(), null);
+    runner.configure(config);
+    runner.benchmark();
+  }
+
+  /**
+   * Start a process running the {@link #main(String[]) main method}
+   *
+   * @param dir
+   *          the result directory
+   * @param sleep
+   *          the time in milliseconds each run takes
+   * @param out
+   *          the file to receive the output of the process
+   * @return the process
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  private static final Process __start(final File dir, final long sleep,
+      final File out) throws Throwable {
+    final ProcessBuilder pb;
+
+    pb = new ProcessBuilder(new File(new File(
+        System.getProperty("java.home"), "bin"), "java").getAbsolutePath(), //$NON-NLS-1$//$NON-NLS-2$//$NON-NLS-3$
+        "-cp", System.getProperty("java.class.path"), //$NON-NLS-1$//$NON-NLS-2$
+        TSPAlgorithmRunnerLeaseTest.class.getName(),
+        dir.getAbsolutePath(), String.valueOf(sleep));
+    pb.redirectErrorStream(true);
+    pb.redirectOutput(out);
+    return pb.start();
+  }
+
+  /**
+   * Get the files in the result directories of all instances
+   *
+   * @param dir
+   *          the result directory
+   * @return the files
+   */
+  private static final ArrayList<File> __files(final File dir) {
+    final ArrayList<File> list;
+    File[] fs;
+
+    list = new ArrayList<>();
+    for (final Instance inst : TSPAlgorithmRunnerLeaseTest.INSTANCES) {
+      fs = new File(new File(dir, Benchmark.SYMMETRIC), inst.name())
+          .listFiles();
+      if (fs != null) {
+        for (final File f : fs) {
+          list.add(f);
+        }
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Start three processes on the same result directory and kill the
+   * first one while it holds the leases on two runs which it will never
+   * finish. The other two processes must reclaim these runs once their
+   * leases have expired, delete their incomplete logs, and perform them
+   * again, so that every instance ends up with exactly one complete log
+   * for each run index and without any lease files.
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testKilledProcess() throws Throwable {
+    final boolean[] found;
+    final Process victim, first, second;
+    File[] fs;
+    String infix, name, text;
+    int i, leases;
+
+    found = new boolean[TSPAlgorithmRunnerLeaseTest.RUNS];
+    try (TempDir dir = new TempDir(); TempDir out = new TempDir()) {
+      victim = TSPAlgorithmRunnerLeaseTest.__start(dir.getDir(),
+          TSPAlgorithmRunnerLeaseTest.FOREVER, new File(out.getDir(),
+              "victim.txt")); //$NON-NLS-1$
+      try {
+        // wait until the victim holds a lease with each of its threads
+        do {
+          Thread.sleep(10l);
+          leases = 0;
+          for (final File f : TSPAlgorithmRunnerLeaseTest.__files(dir
+              .getDir())) {
+            if (f.getName().endsWith(".lease")) { //$NON-NLS-1$
+              leases++;
+            }
+          }
+        } while (leases < TSPAlgorithmRunnerLeaseTest.THREADS);
+
+        first = TSPAlgorithmRunnerLeaseTest.__start(dir.getDir(),
+            TSPAlgorithmRunnerLeaseTest.SHORT, new File(out.getDir(),
+                "first.txt")); //$NON-NLS-1$
+        second = TSPAlgorithmRunnerLeaseTest.__start(dir.getDir(),
+            TSPAlgorithmRunnerLeaseTest.SHORT, new File(out.getDir(),
+                "second.txt")); //$NON-NLS-1$
+
+        // let the other processes work next to the victim for a while
+        Thread.sleep(TSPAlgorithmRunnerLeaseTest.LEASE_TIMEOUT >>> 2l);
+      } finally {
+        victim.destroy();
+      }
+      victim.waitFor();
+
+      Assert.assertEquals(0, first.waitFor());
+      Assert.assertEquals(0, second.waitFor());
+
+      for (final Instance inst : TSPAlgorithmRunnerLeaseTest.INSTANCES) {
+        fs = new File(new File(dir.getDir(), Benchmark.SYMMETRIC),
+            inst.name()).listFiles();
+        Assert.assertNotNull(fs);
+        Assert.assertEquals(TSPAlgorithmRunnerLeaseTest.RUNS, fs.length);
+
+        // the file names are made of the algorithm name, the instance
+        // name and the run index
+        infix = ('_' + inst.name() + '_');
+        for (i = found.length; (--i) >= 0;) {
+          found[i] = false;
+        }
+        for (final File f : fs) {
+          name = f.getName();
+          // no lease or reclaimed lease files are left behind
+          Assert.assertTrue(name, name.contains(infix));
+          Assert.assertTrue(name, name.endsWith(".txt")); //$NON-NLS-1$
+          i = Integer.parseInt(name.substring(
+              (name.lastIndexOf(infix) + infix.length()),
+              (name.length() - 4)));
+          Assert.assertTrue(name,
+              ((i >= 1) && (i <= TSPAlgorithmRunnerLeaseTest.RUNS)));
+          Assert.assertFalse(name, found[i - 1]);
+          found[i - 1] = true;
+
+          // the log of the killed run must not have been completed
+          text = new String(Files.readAllBytes(f.toPath()),
+              StandardCharsets.UTF_8);
+          Assert.assertTrue(name,
+              text.contains(ObjectiveFunction.SYSTEM_DATA_SECTION));
+          Assert.assertFalse(name, FileDataSource.isInterrupted(f));
+        }
+      }
+    }
+  }
+
+  /**
+   * An algorithm which samples random tours until its budget is exhausted
+   * and then sleeps for the
+   * {@link TSPAlgorithmRunnerLeaseTest#SLEEP time} given to the process.
+   */
+  public static final class _Sleeper extends TSPAlgorithm {
+    /** the serial version uid */
+    private static final long serialVersionUID = 1L;
+
+    /** create */
+    public _Sleeper() {
+      super("Sleeper"); //$NON-NLS-1$
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void solve(final ObjectiveFunction f) {
+      final Randomizer r;
+
+      // the improvements create log points which are streamed to the log
+      // file
+      r = new Randomizer();
+      while (!(f.shouldTerminate())) {
+        f.evaluate(PermutationCreateUniform.create(f.n(), r));
+      }
+      try {
+        Thread.sleep(TSPAlgorithmRunnerLeaseTest.SLEEP.get());
+      } catch (final InterruptedException ie) {
+        // ignore
+      }
+    }
+  }
+}
@@ -0,0 +1,212 @@
+package test.junit.org.logisticPlanning.tsp.solving;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.objective.Benchmark;
+import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
+import org.logisticPlanning.tsp.solving.TSPAlgorithm;
+import org.logisticPlanning.tsp.solving.TSPAlgorithmRunner;
+import org.logisticPlanning.tsp.solving.operators.permutation.creation.PermutationCreateCanonical;
+import org.logisticPlanning.utils.collections.lists.ArrayListView;
+import org.logisticPlanning.utils.config.Configuration;
+
+import test.junit.TempDir;
+import test.junit.TestBase;
+
+/**
+ * Test that the
+ * {@link org.logisticPlanning.tsp.solving.TSPAlgorithmRunner} does not
+ * execute more runs in parallel than its
+ * {@link org.logisticPlanning.tsp.solving.TSPAlgorithmRunner#PARAM_MEMORY_BUDGET
+ * memory budget} permits.
+ */
+public class TSPAlgorithmRunnerMemoryTest extends TestBase {
+
+  /** the number of worker threads */
+  private static final int THREADS = 4;
+
+  /** the number of runs per instance */
+  private static final int RUNS = 3;
+
+  /** the memory budget */
+  private static final long BUDGET = (1024l * 1024l);
+
+  /** the instances */
+  private static final Instance[] INSTANCES = { Instance.BURMA14,
+      Instance.ULYSSES16, Instance.GR17 };
+
+  /** the number of runs currently executed */
+  static final AtomicInteger RUNNING = new AtomicInteger();
+
+  /** the largest number of runs executed at the same time */
+  static final AtomicInteger MAX_RUNNING = new AtomicInteger();
+
+  /** the number of completed runs */
+  static final AtomicInteger COMPLETED = new AtomicInteger();
+
+  /** create */
+  public TSPAlgorithmRunnerMemoryTest() {
+    super();
+  }
+
+  /**
+   * Test that runs whose memory estimates exceed half of the budget are
+   * executed one after the other, although several worker threads are
+   * available, and that all of them are eventually performed.
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testAdmission() throws Throwable {
+    final Configuration config;
+    final TSPAlgorithmRunner runner;
+    final Logger log;
+    final _Statistics stats;
+    final String deferrals;
+    File[] fs;
+
+    log = Logger.getAnonymousLogger();
+    log.setUseParentHandlers(false);
+    log.setLevel(Level.INFO);
+    stats = new _Statistics();
+    log.addHandler(stats);
+
+    try (TempDir dir = new TempDir()) {
+      config = new Configuration();
+      config.putString(Benchmark.PARAM_DEST_DIR, dir.getDir()
+          .getAbsolutePath());
+      config.putString(Benchmark.PARAM_MAX_RUNS,
+          String.valueOf(TSPAlgorithmRunnerMemoryTest.RUNS));
+      config.putString(Benchmark.PARAM_MAX_FES, "1"); //$NON-NLS-1$
+      config.putString(Benchmark.PARAM_LIMIT_BYTES, "0"); //$NON-NLS-1$
+      config.putString(TSPAlgorithmRunner.PARAM_MAX_THREADS,
+          String.valueOf(TSPAlgorithmRunnerMemoryTest.THREADS));
+      config.putString(TSPAlgorithmRunner.PARAM_MEMORY_BUDGET,
+          String.valueOf(TSPAlgorithmRunnerMemoryTest.BUDGET));
+      config.putMap(Collections.singletonMap(
+          TSPAlgorithmRunner.PARAM_RUNNER_LOGGER, log));
+
+      runner = new TSPAlgorithmRunner(
+          ArrayListView.makeArrayListView(TSPAlgorithmRunnerMemoryTest.INSTANCES),
+          new _Hungry(), null);
+      runner.configure(config);
+
+      TSPAlgorithmRunnerMemoryTest.RUNNING.set(0);
+      TSPAlgorithmRunnerMemoryTest.MAX_RUNNING.set(0);
+      TSPAlgorithmRunnerMemoryTest.COMPLETED.set(0);
+      runner.benchmark();
+
+      Assert.assertEquals(0, TSPAlgorithmRunnerMemoryTest.RUNNING.get());
+      Assert.assertEquals(1, TSPAlgorithmRunnerMemoryTest.MAX_RUNNING.get());
+      Assert.assertEquals((TSPAlgorithmRunnerMemoryTest.INSTANCES.length //
+          * TSPAlgorithmRunnerMemoryTest.RUNS),
+          TSPAlgorithmRunnerMemoryTest.COMPLETED.get());
+
+      for (final Instance inst : TSPAlgorithmRunnerMemoryTest.INSTANCES) {
+        fs = new File(new File(dir.getDir(), Benchmark.SYMMETRIC),
+            inst.name()).listFiles();
+        Assert.assertNotNull(fs);
+        Assert.assertEquals(TSPAlgorithmRunnerMemoryTest.RUNS, fs.length);
+      }
+    } finally {
+      log.removeHandler(stats);
+    }
+
+    // the schedule statistics end with the number of deferrals
+    Assert.assertNotNull(stats.m_statistics);
+    deferrals = stats.m_statistics.substring(stats.m_statistics
+        .lastIndexOf(' ') + 1);
+    Assert.assertTrue(stats.m_statistics,
+        (Integer.parseInt(deferrals) > 0));
+  }
+
+  /**
+   * An algorithm which claims to need more than half of the memory
+   * budget, records how many runs are executed at the same time, and
+   * evaluates a single tour.
+   */
+  public static final class _Hungry extends TSPAlgorithm {
+    /** the serial version uid */
+    private static final long serialVersionUID = 1L;
+
+    /** create */
+    public _Hungry() {
+      super("Hungry"); //$NON-NLS-1$
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final long estimateMemory(final int n) {
+      return ((TSPAlgorithmRunnerMemoryTest.BUDGET * 2l) / 3l);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void solve(final ObjectiveFunction f) {
+      int running, max;
+
+      running = TSPAlgorithmRunnerMemoryTest.RUNNING.incrementAndGet();
+      do {
+        max = TSPAlgorithmRunnerMemoryTest.MAX_RUNNING.get();
+      } while ((running > max)
+          && (!(TSPAlgorithmRunnerMemoryTest.MAX_RUNNING.compareAndSet(
+              max, running))));
+
+      try {
+        // give the other workers the chance to try to start their runs
+        Thread.sleep(50l);
+      } catch (final InterruptedException ie) {
+        // ignore
+      }
+      f.evaluate(PermutationCreateCanonical.canonical(f.n()));
+
+      TSPAlgorithmRunnerMemoryTest.RUNNING.decrementAndGet();
+      TSPAlgorithmRunnerMemoryTest.COMPLETED.incrementAndGet();
+    }
+  }
+
+  /** A log handler which keeps the statistics of the schedule. */
+  private static final class _Statistics extends Handler {
+
+    /** the statistics of the schedule */
+    volatile String m_statistics;
+
+    /** create */
+    _Statistics() {
+      super();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void publish(final LogRecord record) {
+      final String msg;
+
+      msg = record.getMessage();
+      if ((msg != null) && msg.startsWith("Schedule ")) { //$NON-NLS-1$
+        this.m_statistics = msg;
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void flush() {
+      // nothing
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void close() {
+      // nothing
+    }
+  }
+}
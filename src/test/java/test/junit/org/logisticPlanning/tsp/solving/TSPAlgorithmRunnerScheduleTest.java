@@ -0,0 +1,161 @@
+package test.junit.org.logisticPlanning.tsp.solving;
+
+import java.util.ArrayList;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.objective.Benchmark;
+import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
+import org.logisticPlanning.tsp.solving.TSPAlgorithm;
+import org.logisticPlanning.tsp.solving.TSPAlgorithmRunner;
+import org.logisticPlanning.tsp.solving.operators.permutation.creation.PermutationCreateCanonical;
+import org.logisticPlanning.utils.collections.lists.ArrayListView;
+import org.logisticPlanning.utils.config.Configuration;
+
+import test.junit.TempDir;
+import test.junit.TestBase;
+
+/**
+ * Test the order in which the
+ * {@link org.logisticPlanning.tsp.solving.TSPAlgorithmRunner} performs
+ * the runs.
+ */
+public class TSPAlgorithmRunnerScheduleTest extends TestBase {
+
+  /** the number of runs per instance */
+  private static final int RUNS = 2;
+
+  /** the dimensions of the instances, in the order the runs were started */
+  static final ArrayList<Integer> STARTED = new ArrayList<>();
+
+  /** create */
+  public TSPAlgorithmRunnerScheduleTest() {
+    super();
+  }
+
+  /**
+   * Perform the runs on the given instances with one thread and return the
+   * dimensions of the instances in the order the runs were started
+   *
+   * @param instances
+   *          the instances
+   * @param schedule
+   *          the schedule
+   * @return the dimensions of the instances in the order of their runs
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  private static final int[] __run(final Instance[] instances,
+      final String schedule) throws Throwable {
+    final Configuration config;
+    final TSPAlgorithmRunner runner;
+    final int[] order;
+    int i;
+
+    try (TempDir dir = new TempDir()) {
+      config = new Configuration();
+      config.putString(Benchmark.PARAM_DEST_DIR, dir.getDir()
+          .getAbsolutePath());
+      config.putString(Benchmark.PARAM_MAX_RUNS,
+          String.valueOf(TSPAlgorithmRunnerScheduleTest.RUNS));
+      config.putString(Benchmark.PARAM_MAX_FES, "1"); //$NON-NLS-1$
+      config.putString(Benchmark.PARAM_LIMIT_BYTES, "0"); //$NON-NLS-1$
+      config.putString(TSPAlgorithmRunner.PARAM_MAX_THREADS, "1"); //$NON-NLS-1$
+      config.putString(TSPAlgorithmRunner.PARAM_SCHEDULE, schedule);
+
+      runner = new TSPAlgorithmRunner(
+          ArrayListView.makeArrayListView(instances), new _Recorder(),
+          null);
+      runner.configure(config);
+
+      TSPAlgorithmRunnerScheduleTest.STARTED.clear();
+      runner.benchmark();
+      order = new int[TSPAlgorithmRunnerScheduleTest.STARTED.size()];
+      for (i = order.length; (--i) >= 0;) {
+        order[i] = TSPAlgorithmRunnerScheduleTest.STARTED.get(i).intValue();
+      }
+    }
+
+    return order;
+  }
+
+  /**
+   * Test that the longest-predicted-runtime-first schedule starts with
+   * the largest instances if no runtimes have been observed yet, i.e., on
+   * a fresh result directory. The instances are chosen so that the square
+   * of their dimensions exceeds the default runtime limit in milliseconds.
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testLPTWithoutHistory() throws Throwable {
+    final Instance[] instances;
+    final int[] order;
+    int i, j;
+
+    instances = new Instance[] { Instance.BURMA14, Instance.PR2392,
+        Instance.FNL4461, Instance.RL5915 };
+    order = TSPAlgorithmRunnerScheduleTest.__run(instances,
+        TSPAlgorithmRunner.SCHEDULE_LPT);
+
+    Assert.assertEquals(
+        (instances.length * TSPAlgorithmRunnerScheduleTest.RUNS),
+        order.length);
+    j = 0;
+    for (i = instances.length; (--i) >= 0;) {
+      Assert.assertEquals(instances[i].n(), order[j++]);
+      Assert.assertEquals(instances[i].n(), order[j++]);
+    }
+  }
+
+  /**
+   * Test that the default schedule performs the runs in the order of the
+   * instances.
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testInstanceOrder() throws Throwable {
+    final Instance[] instances;
+    final int[] order;
+    int i, j;
+
+    instances = new Instance[] { Instance.RL5915, Instance.BURMA14,
+        Instance.FNL4461 };
+    order = TSPAlgorithmRunnerScheduleTest.__run(instances,
+        TSPAlgorithmRunner.SCHEDULE_INSTANCE_ORDER);
+
+    Assert.assertEquals(
+        (instances.length * TSPAlgorithmRunnerScheduleTest.RUNS),
+        order.length);
+    j = 0;
+    for (i = 0; i < instances.length; i++) {
+      Assert.assertEquals(instances[i].n(), order[j++]);
+      Assert.assertEquals(instances[i].n(), order[j++]);
+    }
+  }
+
+  /**
+   * An algorithm which records the dimension of the instances it is
+   * applied to and evaluates a single tour.
+   */
+  public static final class _Recorder extends TSPAlgorithm {
+    /** the serial version uid */
+    private static final long serialVersionUID = 1L;
+
+    /** create */
+    public _Recorder() {
+      super("Recorder"); //$NON-NLS-1$
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void solve(final ObjectiveFunction f) {
+      TSPAlgorithmRunnerScheduleTest.STARTED.add(Integer.valueOf(f.n()));
+      f.evaluate(PermutationCreateCanonical.canonical(f.n()));
+    }
+  }
+}
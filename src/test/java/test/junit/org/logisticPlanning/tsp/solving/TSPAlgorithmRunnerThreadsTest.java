@@ -0,0 +1,195 @@
+package test.junit.org.logisticPlanning.tsp.solving;
+
+import java.io.File;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.objective.Benchmark;
+import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
+import org.logisticPlanning.tsp.solving.TSPAlgorithm;
+import org.logisticPlanning.tsp.solving.TSPAlgorithmRunner;
+import org.logisticPlanning.tsp.solving.operators.permutation.creation.PermutationCreateCanonical;
+import org.logisticPlanning.utils.collections.lists.ArrayListView;
+import org.logisticPlanning.utils.config.Configuration;
+
+import test.junit.TempDir;
+import test.junit.TestBase;
+
+/**
+ * Test that the
+ * {@link org.logisticPlanning.tsp.solving.TSPAlgorithmRunner} performs
+ * each run exactly once if many worker threads take their jobs from the
+ * queue at the same time.
+ */
+public class TSPAlgorithmRunnerThreadsTest extends TestBase {
+
+  /** the number of worker threads */
+  private static final int THREADS = 8;
+
+  /** the number of runs per instance in the first benchmark */
+  private static final int RUNS = 5;
+
+  /** the number of runs per instance in the second benchmark */
+  private static final int MORE_RUNS = 12;
+
+  /** the instances */
+  private static final Instance[] INSTANCES = { Instance.BURMA14,
+      Instance.ULYSSES16, Instance.GR17, Instance.GR21,
+      Instance.ULYSSES22, Instance.GR24 };
+
+  /** create */
+  public TSPAlgorithmRunnerThreadsTest() {
+    super();
+  }
+
+  /**
+   * Perform the runs on all instances with many threads
+   *
+   * @param dir
+   *          the result directory
+   * @param runs
+   *          the number of runs per instance
+   */
+  private static final void __run(final File dir, final int runs) {
+    final Configuration config;
+    final TSPAlgorithmRunner runner;
+
+    config = new Configuration();
+    config.putString(Benchmark.PARAM_DEST_DIR, dir.getAbsolutePath());
+    config.putString(Benchmark.PARAM_MAX_RUNS, String.valueOf(runs));
+    config.putString(Benchmark.PARAM_MAX_FES, "1"); //$NON-NLS-1$
+    config.putString(Benchmark.PARAM_LIMIT_BYTES, "0"); //$NON-NLS-1$
+    config.putString(TSPAlgorithmRunner.PARAM_MAX_THREADS,
+        String.valueOf(TSPAlgorithmRunnerThreadsTest.THREADS));
+
+    runner = new TSPAlgorithmRunner(
+        ArrayListView.makeArrayListView(TSPAlgorithmRunnerThreadsTest.INSTANCES),
+        new _CanonicalTour(), null);
+    runner.configure(config);
+    runner.benchmark();
+  }
+
+  /**
+   * Check that the result directory of each instance contains exactly
+   * one log file for each of the run indices {@code 1..runs} and nothing
+   * else
+   *
+   * @param dir
+   *          the result directory
+   * @param runs
+   *          the number of runs per instance
+   */
+  private static final void __check(final File dir, final int runs) {
+    final boolean[] found;
+    File[] fs;
+    String infix, name;
+    int i;
+
+    found = new boolean[runs];
+    for (final Instance inst : TSPAlgorithmRunnerThreadsTest.INSTANCES) {
+      fs = new File(new File(dir, Benchmark.SYMMETRIC), inst.name())
+          .listFiles();
+      Assert.assertNotNull(fs);
+      Assert.assertEquals(runs, fs.length);
+
+      // the file names are made of the algorithm name, the instance name
+      // and the run index
+      infix = ('_' + inst.name() + '_');
+      for (i = runs; (--i) >= 0;) {
+        found[i] = false;
+      }
+      for (final File f : fs) {
+        name = f.getName();
+        Assert.assertTrue(name, name.contains(infix));
+        Assert.assertTrue(name, name.endsWith(".txt")); //$NON-NLS-1$
+        i = Integer.parseInt(name.substring(
+            (name.lastIndexOf(infix) + infix.length()),
+            (name.length() - 4)));
+        Assert.assertTrue(name, ((i >= 1) && (i <= runs)));
+        Assert.assertFalse(name, found[i - 1]);
+        found[i - 1] = true;
+        Assert.assertTrue(name, (f.length() > 0l));
+      }
+    }
+  }
+
+  /**
+   * Test that many threads perform exactly the required runs on a fresh
+   * result directory.
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testFreshDirectory() throws Throwable {
+    try (TempDir dir = new TempDir()) {
+      TSPAlgorithmRunnerThreadsTest.__run(dir.getDir(),
+          TSPAlgorithmRunnerThreadsTest.RUNS);
+      TSPAlgorithmRunnerThreadsTest.__check(dir.getDir(),
+          TSPAlgorithmRunnerThreadsTest.RUNS);
+    }
+  }
+
+  /**
+   * Test that many threads continuing the benchmark in a result directory
+   * which already contains runs only perform the missing runs and fill
+   * the gaps without duplicating run indices.
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testPopulatedDirectory() throws Throwable {
+    File[] fs;
+    int deleted;
+
+    try (TempDir dir = new TempDir()) {
+      TSPAlgorithmRunnerThreadsTest.__run(dir.getDir(),
+          TSPAlgorithmRunnerThreadsTest.RUNS);
+      // remove one run in the middle of each directory, which then needs
+      // to be performed again
+      for (final Instance inst : TSPAlgorithmRunnerThreadsTest.INSTANCES) {
+        fs = new File(new File(dir.getDir(), Benchmark.SYMMETRIC),
+            inst.name()).listFiles();
+        Assert.assertNotNull(fs);
+        deleted = 0;
+        for (final File f : fs) {
+          if (f.getName().endsWith("_2.txt")) { //$NON-NLS-1$
+            Assert.assertTrue(f.delete());
+            deleted++;
+          }
+        }
+        Assert.assertEquals(1, deleted);
+      }
+
+      TSPAlgorithmRunnerThreadsTest.__run(dir.getDir(),
+          TSPAlgorithmRunnerThreadsTest.MORE_RUNS);
+      TSPAlgorithmRunnerThreadsTest.__check(dir.getDir(),
+          TSPAlgorithmRunnerThreadsTest.MORE_RUNS);
+
+      // nothing left to do
+      TSPAlgorithmRunnerThreadsTest.__run(dir.getDir(),
+          TSPAlgorithmRunnerThreadsTest.MORE_RUNS);
+      TSPAlgorithmRunnerThreadsTest.__check(dir.getDir(),
+          TSPAlgorithmRunnerThreadsTest.MORE_RUNS);
+    }
+  }
+
+  /** An algorithm which evaluates a single tour. */
+  public static final class _CanonicalTour extends TSPAlgorithm {
+    /** the serial version uid */
+    private static final long serialVersionUID = 1L;
+
+    /** create */
+    public _CanonicalTour() {
+      super("Canonical Tour"); //$NON-NLS-1$
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public final void solve(final ObjectiveFunction f) {
+      f.evaluate(PermutationCreateCanonical.canonical(f.n()));
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package test.junit.org.logisticPlanning.tsp.solving.algorithms.heuristics.mst;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
+import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.objective.Benchmark;
+import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
+import org.logisticPlanning.tsp.solving.Individual;
+import org.logisticPlanning.tsp.solving.algorithms.heuristics.mst.MSTHeuristic;
+import org.logisticPlanning.utils.config.Configuration;
+
+import test.junit.TempDir;
+import test.junit.TestBase;
+
+/**
+ * Test that the
+ * {@link org.logisticPlanning.tsp.solving.algorithms.heuristics.mst.MSTHeuristic
+ * MST heuristic} builds the same minimum spanning tree on the Delaunay
+ * graph as on the complete graph. The tree itself is not visible from
+ * outside, but if the choice of Prim's algorithm is unique in each step,
+ * both variants must add the same nodes with the same parents in the same
+ * order, and thus construct the same tour.
+ */
+public class MSTHeuristicDelaunayTest extends TestBase {
+
+  /** create */
+  public MSTHeuristicDelaunayTest() {
+    super();
+  }
+
+  /**
+   * Check that Prim's algorithm starting at node {@code n} has a unique
+   * choice in each step: the node nearest to the tree and the tree node
+   * nearest to it are both unique.
+   *
+   * @param dist
+   *          the distance computer
+   */
+  private static final void __assertUniquePrim(final DistanceComputer dist) {
+    final int n;
+    final int[] key, ties;
+    final boolean[] inTree;
+    int i, j, d, best, node, count;
+
+    n = dist.n();
+    key = new int[n + 1];
+    ties = new int[n + 1];
+    inTree = new boolean[n + 1];
+    Arrays.fill(key, Integer.MAX_VALUE);
+    node = n;
+    inTree[n] = true;
+    for (i = 1; i < n; i++) {
+      best = (-1);
+      count = 0;
+      for (j = 1; j <= n; j++) {
+        if (inTree[j]) {
+          continue;
+        }
+        d = dist.distance(node, j);
+        if (d < key[j]) {
+          key[j] = d;
+          ties[j] = 1;
+        } else {
+          if (d == key[j]) {
+            ties[j]++;
+          }
+        }
+        if ((best < 0) || (key[j] < key[best])) {
+          best = j;
+          count = 1;
+        } else {
+          if (key[j] == key[best]) {
+            count++;
+          }
+        }
+      }
+      Assert.assertEquals(1, count);
+      Assert.assertEquals(1, ties[best]);
+      inTree[best] = true;
+      node = best;
+    }
+  }
+
+  /**
+   * Construct a tour with the MST heuristic
+   *
+   * @param dir
+   *          the directory for the log files
+   * @param inst
+   *          the instance
+   * @param delaunay
+   *          should the tree be built on the Delaunay graph?
+   * @param des
+   *          receives the number of distance evaluations
+   * @return the tour
+   */
+  private static final Individual<int[]> __solve(final File dir,
+      final Instance inst, final boolean delaunay, final long[] des) {
+    final Configuration config;
+    final Benchmark bm;
+    final MSTHeuristic algo;
+    final ObjectiveFunction f;
+    final Individual<int[]> dest;
+
+    config = new Configuration();
+    config.putString(Benchmark.PARAM_DEST_DIR, dir.getAbsolutePath());
+    config.putString(MSTHeuristic.PARAM_USE_DELAUNAY,
+        String.valueOf(delaunay));
+    algo = new MSTHeuristic();
+    algo.configure(config);
+    dest = new Individual<>();
+
+    bm = new Benchmark(inst);
+    bm.configure(config);
+    try {
+      f = bm.createObjective();
+      f.beginRun(algo);
+      try {
+        algo.solve(f, dest);
+        des[0] = f.getCurrentLogPoint().getConsumedDEs();
+      } finally {
+        f.endRun();
+      }
+    } finally {
+      bm.dispose();
+    }
+    return dest;
+  }
+
+  /**
+   * Test that the heuristic constructs the same tour on the Delaunay graph
+   * as on the complete graph with much fewer distance evaluations
+   *
+   * @param inst
+   *          the instance
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  private static final void __test(final Instance inst) throws Throwable {
+    final Individual<int[]> dense, delaunay;
+    final long[] denseDEs, delaunayDEs;
+
+    MSTHeuristicDelaunayTest.__assertUniquePrim(inst.load(0));
+    denseDEs = new long[1];
+    delaunayDEs = new long[1];
+    try (TempDir a = new TempDir(); TempDir b = new TempDir()) {
+      dense = MSTHeuristicDelaunayTest.__solve(a.getDir(), inst, false,
+          denseDEs);
+      delaunay = MSTHeuristicDelaunayTest.__solve(b.getDir(), inst, true,
+          delaunayDEs);
+    }
+
+    Assert.assertArrayEquals(dense.solution, delaunay.solution);
+    Assert.assertEquals(dense.tourLength, delaunay.tourLength);
+    // the tree has really been built on the Delaunay graph
+    Assert.assertTrue(delaunayDEs[0] < denseDEs[0]);
+  }
+
+  /**
+   * Test the heuristic on
+   * {@link org.logisticPlanning.tsp.benchmarking.instances.Instance#BERLIN52}
+   * , an instance with Euclidean distances
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testBERLIN52() throws Throwable {
+    MSTHeuristicDelaunayTest.__test(Instance.BERLIN52);
+  }
+
+  /**
+   * Test the heuristic on
+   * {@link org.logisticPlanning.tsp.benchmarking.instances.Instance#DSJ1000}
+   * , an instance with ceiled Euclidean distances
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testDSJ1000() throws Throwable {
+    MSTHeuristicDelaunayTest.__test(Instance.DSJ1000);
+  }
+}
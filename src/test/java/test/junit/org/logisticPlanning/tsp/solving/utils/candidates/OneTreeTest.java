@@ -0,0 +1,182 @@
+package test.junit.org.logisticPlanning.tsp.solving.utils.candidates;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.logisticPlanning.tsp.benchmarking.dist.DistanceComputer;
+import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.benchmarking.objective.Benchmark;
+import org.logisticPlanning.tsp.benchmarking.objective.ObjectiveFunction;
+import org.logisticPlanning.tsp.solving.utils.candidates.CandidateSet;
+import org.logisticPlanning.tsp.solving.utils.candidates.ECandidateSetStrategy;
+import org.logisticPlanning.tsp.solving.utils.candidates.OneTree;
+import org.logisticPlanning.utils.config.Configuration;
+
+import test.junit.TempDir;
+import test.junit.TestBase;
+import test.junit.org.logisticPlanning.tsp.benchmarking.objective.LogRecoveryTest;
+
+/**
+ * Test the
+ * {@link org.logisticPlanning.tsp.solving.utils.candidates.OneTree 1-tree}
+ * : its lower bound must never exceed the length of the optimal tour and
+ * the &alpha;-nearest candidates of each node must contain its edges in
+ * the 1-tree, whose &alpha;-values are zero.
+ */
+public class OneTreeTest extends TestBase {
+
+  /**
+   * the instances to test, with geographical, pseudo-Euclidean,
+   * Euclidean, and explicitly given distances
+   */
+  private static final Instance[] INSTANCES = { Instance.BURMA14,
+      Instance.ULYSSES22, Instance.BAYG29, Instance.ATT48,
+      Instance.BERLIN52, Instance.ST70, Instance.EIL76, Instance.KROA100,
+      Instance.CH150 };
+
+  /** the number of candidates per node */
+  private static final int M = 8;
+
+  /** create */
+  public OneTreeTest() {
+    super();
+  }
+
+  /**
+   * Check that the candidates of each node contain all of its neighbors in
+   * the 1-tree
+   *
+   * @param tree
+   *          the tree
+   * @param dist
+   *          the distance computer
+   */
+  private static final void __assertTreeInCandidates(final OneTree tree,
+      final DistanceComputer dist) {
+    final int n;
+    final int[] data;
+    int i, j, edges;
+
+    n = tree.n();
+    data = new int[n * OneTreeTest.M];
+    tree.alphaCandidates(dist, OneTreeTest.M, data);
+
+    edges = 0;
+    for (i = 1; i <= n; i++) {
+      for (j = 1; j <= n; j++) {
+        if ((i == j) || (!(tree.isTreeEdge(i, j)))) {
+          continue;
+        }
+        Assert.assertTrue(tree.isTreeEdge(j, i));
+        Assert.assertTrue(Arrays.binarySearch(data, ((i - 1) * OneTreeTest.M),
+            (i * OneTreeTest.M), j) >= 0);
+        if (j > i) {
+          edges++;
+        }
+      }
+    }
+    // a 1-tree has exactly n edges
+    Assert.assertEquals(n, edges);
+  }
+
+  /**
+   * Test that the lower bound of the 1-tree without and with optimized
+   * penalties does not exceed the optimum, and that the ascent brings it
+   * close to the optimum
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testLowerBound() throws Throwable {
+    DistanceComputer dist;
+    OneTree tree;
+    long plain, bound, opt;
+
+    for (final Instance inst : OneTreeTest.INSTANCES) {
+      dist = inst.load(0);
+      opt = inst.optimum();
+      tree = new OneTree(inst.n());
+      Assert.assertEquals(0l, tree.getLowerBound());
+
+      plain = tree.ascend(dist, 0);
+      Assert.assertEquals(plain, tree.getLowerBound());
+      Assert.assertTrue(plain > 0l);
+      Assert.assertTrue(plain <= opt);
+
+      bound = tree.ascend(dist);
+      Assert.assertEquals(bound, tree.getLowerBound());
+      Assert.assertTrue(bound <= opt);
+      Assert.assertTrue(bound >= ((opt * 95l) / 100l));
+    }
+  }
+
+  /**
+   * Test that the &alpha;-nearest candidates contain all edges of the
+   * 1-tree, both for the 1-tree without penalties and after the ascent
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testAlphaCandidatesContainTree() throws Throwable {
+    DistanceComputer dist;
+    OneTree tree;
+
+    for (final Instance inst : OneTreeTest.INSTANCES) {
+      dist = inst.load(0);
+
+      tree = new OneTree(inst.n());
+      Assert.assertFalse(tree.isTreeEdge(1, 2));
+      OneTreeTest.__assertTreeInCandidates(tree, dist);
+
+      tree.ascend(dist);
+      OneTreeTest.__assertTreeInCandidates(tree, dist);
+    }
+  }
+
+  /**
+   * Test that the
+   * {@link org.logisticPlanning.tsp.solving.utils.candidates.ECandidateSetStrategy#ALPHA_NEARNESS
+   * &alpha;-nearness strategy} reports the lower bound of the 1-tree
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testCandidateSetLowerBound() throws Throwable {
+    final Configuration config;
+    final Benchmark bm;
+    final ObjectiveFunction f;
+    final OneTree tree;
+    final CandidateSet set;
+
+    try (TempDir dir = new TempDir()) {
+      config = new Configuration();
+      config.putString(Benchmark.PARAM_DEST_DIR, dir.getDir()
+          .getAbsolutePath());
+      bm = new Benchmark(Instance.BERLIN52);
+      bm.configure(config);
+      try {
+        f = bm.createObjective();
+        f.beginRun(new LogRecoveryTest._RandomSampling());
+        try {
+          set = CandidateSet.allocate(f, OneTreeTest.M,
+              ECandidateSetStrategy.ALPHA_NEARNESS, null);
+          tree = new OneTree(f.n());
+          Assert.assertEquals(tree.ascend(f), set.getLowerBound());
+          Assert.assertTrue(set.getLowerBound() <= Instance.BERLIN52
+              .optimum());
+          Assert.assertEquals(0l, CandidateSet.allocate(f, OneTreeTest.M,
+              ECandidateSetStrategy.NEAREST_NEIGHBORS, set)
+              .getLowerBound());
+        } finally {
+          f.endRun();
+        }
+      } finally {
+        bm.dispose();
+      }
+    }
+  }
+}
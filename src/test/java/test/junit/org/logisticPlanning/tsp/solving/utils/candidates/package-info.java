@@ -0,0 +1,6 @@
+/**
+ * Tests for the candidate sets from package
+ * {@link org.logisticPlanning.tsp.solving.utils.candidates}.
+ */
+package test.junit.org.logisticPlanning.tsp.solving.utils.candidates;
+
@@ -0,0 +1,89 @@
+package test.junit.org.logisticPlanning.tsp.solving.utils.edge;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.logisticPlanning.tsp.benchmarking.dist.DelaunayGraph;
+import org.logisticPlanning.tsp.benchmarking.dist.SpatialIndex;
+import org.logisticPlanning.tsp.benchmarking.instances.Instance;
+import org.logisticPlanning.tsp.solving.utils.edge.DelaunayEdgeIterator;
+import org.logisticPlanning.tsp.solving.utils.edge.Edge;
+
+import test.junit.TestBase;
+
+/**
+ * Test that the
+ * {@link org.logisticPlanning.tsp.solving.utils.edge.DelaunayEdgeIterator
+ * Delaunay edge iterator} returns each edge of a Delaunay graph exactly
+ * once, in the documented order.
+ */
+public class DelaunayEdgeIteratorTest extends TestBase {
+
+  /** create */
+  public DelaunayEdgeIteratorTest() {
+    super();
+  }
+
+  /**
+   * Test the iterator over the Delaunay graph of an instance
+   *
+   * @param inst
+   *          the instance
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  private static final void __test(final Instance inst) throws Throwable {
+    final SpatialIndex index;
+    final DelaunayGraph graph;
+    final DelaunayEdgeIterator it;
+    Edge e, last;
+    int count;
+
+    index = inst.load(0).getSpatialIndex();
+    Assert.assertNotNull(index);
+    graph = index.getDelaunayGraph();
+    Assert.assertNotNull(graph);
+
+    it = new DelaunayEdgeIterator(graph);
+    last = null;
+    count = 0;
+    while (it.hasNext()) {
+      Assert.assertTrue(it.hasNext());
+      e = it.next();
+      Assert.assertTrue(e.a < e.b);
+      Assert.assertTrue(graph.isEdge(e.a, e.b));
+      // strictly ordered, so no edge is returned twice
+      if (last != null) {
+        Assert.assertTrue((last.a < e.a)
+            || ((last.a == e.a) && (last.b < e.b)));
+      }
+      last = e;
+      count++;
+    }
+    Assert.assertEquals(graph.edgeCount(), count);
+    Assert.assertFalse(it.hasNext());
+
+    try {
+      it.next();
+      Assert.fail();
+    } catch (final NoSuchElementException expected) {
+      // the iterator is exhausted
+    }
+  }
+
+  /**
+   * Test the iterator on instances with Euclidean, pseudo-Euclidean, and
+   * ceiled Euclidean distances
+   *
+   * @throws Throwable
+   *           if something goes wrong
+   */
+  @Test(timeout = 3600000)
+  public void testIterator() throws Throwable {
+    DelaunayEdgeIteratorTest.__test(Instance.BERLIN52);
+    DelaunayEdgeIteratorTest.__test(Instance.ATT48);
+    DelaunayEdgeIteratorTest.__test(Instance.A280);
+    DelaunayEdgeIteratorTest.__test(Instance.DSJ1000);
+  }
+}
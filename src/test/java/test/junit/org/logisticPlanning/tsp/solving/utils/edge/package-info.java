@@ -0,0 +1,6 @@
+/**
+ * Tests for the edge representations from package
+ * {@link org.logisticPlanning.tsp.solving.utils.edge}.
+ */
+package test.junit.org.logisticPlanning.tsp.solving.utils.edge;
+